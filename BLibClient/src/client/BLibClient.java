@@ -2,26 +2,27 @@ package client;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import entities.ActivityLog;
-import entities.Book;
-import entities.BookLoanDetailsDTO;
-import entities.HistoryForSubscriber;
 import entities.Message;
-import entities.Notification;
+import entities.ResultChunk;
 import entities.SubscriberDTO;
 import enums.Commands;
 import javafx.application.Platform;
+import javafx.scene.control.Alert;
 import librarian.LibrarianScreenController;
-import library.BookSearchController;
-import library.MemberBookSearchController;
-import logIn.MainMenuController;
-import member.MemberMenuController;
-import member.NotificationMemberController;
-import member.BookSearchMemberController;
-import member.MemberActivityLogsController;
-import member.MemberCardController;
-import member.ViewBorrowedBooksController;
 import ocsf.client.AbstractClient;
 
 /**
@@ -36,68 +37,99 @@ public class BLibClient extends AbstractClient {
 	 */
 	ClientController clientUI;
 
-	/** Static controllers used for routing server responses to appropriate UI components */
-
-	/** 
-	 * Controller for managing and displaying borrowed books view.
-	 * Handles functionality related to viewing and managing borrowed book records.
-	 */
-	static public ViewBorrowedBooksController ViewBorrowedBooksController;
-
 	/**
-	 * Controller for the main menu interface.
-	 * Manages navigation and core functionality of the main application menu.
+	 * Controller of the librarian screen, which receives the chunks of the
+	 * streamed member list and activity log export. Replies to all other
+	 * requests complete the futures of {@link LibraryApi}.
 	 */
-	static public MainMenuController mainMenuController;
+	static public LibrarianScreenController librarianScreenController;
 
-	/**
-	 * Controller for member card operations.
-	 * Handles functionality related to member card management and display.
-	 */
-	static public MemberCardController MemberCardController;
+	/** Time {@link #quit()} waits for the queued messages to be written, in milliseconds */
+	private static final long FLUSH_TIMEOUT_MILLIS = 2000;
 
-	/**
-	 * Controller for book search functionality.
-	 * Manages general book search operations and results display.
-	 */
-	static public BookSearchController bookSearchController;
+	/** Queued after the last message, to stop the writer thread */
+	private static final Object END_OF_OUTBOX = new Object();
 
-	/**
-	 * Controller for librarian interface operations.
-	 * Manages functionality specific to librarian users including book management
-	 * and member administration.
-	 */
-	static public LibrarianScreenController librarianScreenController;
+	/** Messages waiting to be written to the server, in the order they were sent */
+	private final BlockingQueue<Object> outbox = new LinkedBlockingQueue<>();
 
-	/**
-	 * Controller for member menu interface.
-	 * Manages navigation and functionality specific to member users.
-	 */
-	static public MemberMenuController memberMenuController;
+	/** Writes the queued messages, so a slow connection never blocks the JavaFX thread */
+	private final Thread writer = new Thread(this::writeMessages, "BLibClient-writer");
+
+	/** Source of the request IDs, which the server copies into its replies */
+	private final AtomicLong nextRequestId = new AtomicLong();
+
+	/** Requests sent with {@link #request} that were not answered yet, by request ID */
+	private final Map<Long, PendingRequest> pendingRequests = new ConcurrentHashMap<>();
 
 	/**
-	 * Controller for member-specific book search operations.
-	 * Handles book search functionality with member-specific features.
+	 * Commands that only read and get one reply, so they are sent again when the
+	 * connection was lost before the reply came
 	 */
-	public static MemberBookSearchController MemberbookSearchController;
+	private static final Set<Commands> REPLAYABLE_COMMANDS = EnumSet.of(Commands.GetAllMembers,
+			Commands.GetBookById, Commands.GetAllBooks, Commands.GetBookByName, Commands.GetBookByTheme,
+			Commands.GetBookByDescription, Commands.GetBookByAuthor, Commands.GetChartData, Commands.GetNotifications,
+			Commands.GetActivityLogs, Commands.GetFilteredActivityLogs, Commands.GetBorrowHistory,
+			Commands.GetBookNameById, Commands.GetLoanDurationChart, Commands.GetLateReturnChart,
+			Commands.GetMemberStatus, Commands.getSimpleBookById, Commands.GetActivityLogsByMember,
+			Commands.GetActivityLogsByDateRange, Commands.GetActivityLogsPage, Commands.GetAllMembersPage,
+			Commands.GetAllBooksPage, Commands.GetReportSeries, Commands.GetPopularBooks, Commands.GetDistinctMembers,
+			Commands.GetRelatedBooks, Commands.GetBookCover, Commands.GetCatalogChanges, Commands.SearchBooks);
+
+	/** Commands the server does not answer */
+	private static final Set<Commands> NO_REPLY_COMMANDS = EnumSet.of(Commands.ConnectClient, Commands.Logout,
+			Commands.ClientDisconnect);
+
+	/** First wait before reconnecting, in milliseconds; doubled after each failed attempt */
+	private static final long RECONNECT_INITIAL_DELAY_MILLIS = 1000;
+
+	/** Longest wait between two reconnect attempts, in milliseconds */
+	private static final long RECONNECT_MAX_DELAY_MILLIS = 30_000;
+
+	/** Time after which reconnecting is given up, in milliseconds */
+	private static final long RECONNECT_GIVE_UP_MILLIS = 10 * 60_000;
+
+	/** Time the server has to answer {@link Commands#ResumeSession}, in seconds */
+	private static final long RESUME_TIMEOUT_SECONDS = 10;
 
 	/**
-	 * Controller for member book search interface.
-	 * Manages the book search view and operations for member users.
+	 * Messages not sent with {@link #request} that were written and wait for
+	 * their reply, by request ID
 	 */
-	public static BookSearchMemberController bookSearchMemberController;
+	private final Map<Long, Message> awaitingReply = new ConcurrentHashMap<>();
+
+	/** Token of the login session, sent after reconnecting to stay logged in */
+	private volatile String sessionToken;
+
+	/** Whether the connection is being re-established; the writer waits meanwhile */
+	private boolean reconnecting;
 
 	/**
-	 * Controller for member notifications.
-	 * Handles display and management of notifications for member users.
+	 * Number of the current connection, counted from 1 and increased by each
+	 * reconnect. Read and changed with the lock on this client held, which the
+	 * writer also holds while it writes, so a message is never written to a new
+	 * connection before the session is resumed on it.
 	 */
-	public static NotificationMemberController notificationMemberController;
+	private long connectionNumber = 1;
+
+	/** Whether {@link #quit()} was called, so a closed connection is not re-established */
+	private volatile boolean quitting;
 
 	/**
-	 * Controller for member activity logs.
-	 * Manages the tracking and display of member activities and history.
+	 * A request waiting for its reply, kept with its message so it can be sent
+	 * again after reconnecting.
 	 */
-	public static MemberActivityLogsController memberActivityLogsController;
+	private static class PendingRequest {
+		private final Message message;
+		private final CompletableFuture<Object> reply;
+		/** The connection the message was last written to, 0 while it waits in the outbox */
+		private volatile long writtenOn;
+
+		private PendingRequest(Message message, CompletableFuture<Object> reply) {
+			this.message = message;
+			this.reply = reply;
+		}
+	}
 
 	/**
 	 * Constructs an instance of the BLibClient.
@@ -112,11 +144,16 @@ public class BLibClient extends AbstractClient {
 		this.clientUI = clientUI;
 		System.out.println("Connecting to server...");
 		openConnection();
+		writer.setDaemon(true);
+		writer.start();
 	}
 
 	/**
-	 * Handles the message from the server and routes it to the appropriate
-	 * controller.
+	 * Handles the message from the server. A reply to a request of
+	 * {@link LibraryApi} completes the future of that request. The messages
+	 * the server sends on its own, and the chunks of the streamed member list
+	 * and activity log export, which do not fit a future completed once, are
+	 * handled here.
 	 *
 	 * @param message The message received from the server.
 	 */
@@ -131,325 +168,404 @@ public class BLibClient extends AbstractClient {
 		Message m = (Message) message;
 		Commands command = m.getCmd();
 
-		switch (command) {
-		case CheckUsername:
-			// Pass to MainMenuController
-			Platform.runLater(() -> {
-				if (mainMenuController != null) {
-					mainMenuController.openMenu(m);
-				} else {
-					System.err.println("MemberController is not set.");
-				}
-			});
-			break;
-
-		case GetBookByName:
-			Platform.runLater(() -> {
-				ArrayList<BookLoanDetailsDTO> books = (ArrayList<BookLoanDetailsDTO>) m.getObj();
-				if (bookSearchController != null) {
-					bookSearchController.handleServerResponse(books);
-				} else if (bookSearchMemberController != null) {
-					bookSearchMemberController.handleServerResponse(books);
-				} else {
-					System.err.println("Neither BookSearchController nor BookSearchMemberController is set.");
-				}
-			});
-			break;
-
-		case GetBookByTheme:
-			Platform.runLater(() -> {
-				ArrayList<BookLoanDetailsDTO> books = (ArrayList<BookLoanDetailsDTO>) m.getObj();
-				if (bookSearchController != null) {
-					bookSearchController.handleServerResponse(books);
-				} else if (bookSearchMemberController != null) {
-					bookSearchMemberController.handleServerResponse(books);
-				} else {
-					System.err.println("Neither BookSearchController nor BookSearchMemberController is set.");
-				}
-			});
-			break;
+		if (m.getRequestId() != 0) {
+			// A reply to a request sent with request(); dropped if it was cancelled
+			PendingRequest pending = pendingRequests.remove(m.getRequestId());
+			if (pending != null) {
+				pending.reply.complete(m.getObj());
+				return;
+			}
+			// Otherwise a stream chunk, handled below
+			awaitingReply.remove(m.getRequestId());
+		}
 
-		case GetBookByDescription:
-			Platform.runLater(() -> {
-				ArrayList<BookLoanDetailsDTO> books = (ArrayList<BookLoanDetailsDTO>) m.getObj();
-				if (bookSearchController != null) {
-					bookSearchController.handleServerResponse(books);
-				} else if (bookSearchMemberController != null) {
-					bookSearchMemberController.handleServerResponse(books);
-				} else {
-					System.err.println("Neither BookSearchController nor BookSearchMemberController is set.");
-				}
-			});
-			break;
+		switch (command) {
 		case ClientDisconnect:
 			System.out.println((String) m.getObj());
 			break;
-		case ReturnBook:
-			Platform.runLater(() -> {
-				if (librarianScreenController != null) {
-					librarianScreenController.handleReturnBookResponse(m);
-				}
-			});
-			break; ///////////////// @@@@@@@@@@@@@@@@@@@///////////////
-		case BorrowBook:
-			Platform.runLater(() -> {
-				if (librarianScreenController != null) {
-					librarianScreenController.handleBorrowBookResponse(m);
-				} else {
-					System.err.println("LibrarianScreenController is not set");
-				}
-			});
+		case SessionToken:
+			sessionToken = (String) m.getObj();
 			break;
-
-		case CreateMember:
-			Platform.runLater(() -> {
-				if (librarianScreenController != null) {
-					librarianScreenController.handleCreateMemberResponse(m);
-				} else {
-					System.err.println("LibrarianScreenController is not set");
-				}
-			});
+		case StreamActivityLogs:
+			// Written to the export file here, off the JavaFX thread
+			if (librarianScreenController == null) {
+				System.err.println("LibrarianScreenController is not set");
+			} else if (m.getObj() instanceof ResultChunk<?>) {
+				librarianScreenController.handleActivityLogsChunk((ResultChunk<ActivityLog>) m.getObj());
+			} else {
+				librarianScreenController.handleActivityLogsStreamError(String.valueOf(m.getObj()));
+			}
 			break;
-
-		case GetBorrowHistory:
-			System.out.println("returned to client side cykaa");
-			Platform.runLater(() -> {
-				System.out.println("got instance xyn");
-				if (BLibClient.ViewBorrowedBooksController != null) {
-					if (m.getObj() instanceof ArrayList<?>) {
-						System.out.println("controller is not null");
-						ArrayList<HistoryForSubscriber> history = (ArrayList<HistoryForSubscriber>) m.getObj();
-						System.out.println("Client received " + history.size() + " loans");
-						BLibClient.ViewBorrowedBooksController.setBorrowHistoryList(history);
-					} else {
-						System.err.println("Received invalid data type");
+		case StreamAllMembers:
+			// Filtered here, off the JavaFX thread, which only adds the matches
+			if (librarianScreenController == null) {
+				System.err.println("LibrarianScreenController is not set");
+			} else if (m.getObj() instanceof ResultChunk<?>) {
+				librarianScreenController.handleMembersChunk((ResultChunk<SubscriberDTO>) m.getObj());
+			} else {
+				Platform.runLater(() -> {
+					if (librarianScreenController != null) {
+						librarianScreenController.handleMembersStreamError(String.valueOf(m.getObj()));
 					}
-				} else {
-					System.err.println("ViewBorrowedBooksController is not initialized.");
-				}
-			});
+				});
+			}
 			break;
+		// Add more cases for different commands as needed
 
-		case UpdateMember:
-			Platform.runLater(() -> {
-				if (m.getObj() instanceof String) {
-					String result = (String) m.getObj();
-					System.out.println("UpdateMember Response: " + result);
-
-					if (MemberCardController != null) {
-						MemberCardController.handleUpdateResponse(m);
-					} else {
-						System.err.println("MemberCardController is not set.");
-					}
-				} else {
-					System.err.println("Unexpected response type for UpdateMember.");
-				}
-			});
+		default:
+			System.err.println("Unhandled command: " + command);
 			break;
+		}
+	}
 
-		// In BLibClient.java handleMessageFromServer method
-		case GetActivityLogs:
-			System.out.println("Client received GetActivityLogs response");
-			Platform.runLater(() -> {
-				if (librarianScreenController != null) {
-					if (m.getObj() instanceof ArrayList<?>) {
-						ArrayList<ActivityLog> logs = (ArrayList<ActivityLog>) m.getObj();
-						System.out.println("Client received " + logs.size() + " logs");
-						librarianScreenController.handleActivityLogsResponse(logs);
-					} else {
-						System.err.println("Received invalid data type for activity logs");
-					}
-				} else {
-					System.err.println("LibrarianScreenController is not set");
-				}
-			});
-			break;
+	/**
+	 * Sends a message to the server. The message is queued and written by the
+	 * writer thread, so this returns at once; messages are written in the order
+	 * they are sent. A message the server answers gets a request ID, so its reply
+	 * can be told apart from other messages with the same command.
+	 *
+	 * @param message The message to send (Object format).
+	 */
+	public void sendMessageToServer(Object message) {
+		if (message instanceof Message) {
+			Message request = (Message) message;
+			if (request.getRequestId() == 0 && !NO_REPLY_COMMANDS.contains(request.getCmd())) {
+				request.setRequestId(nextRequestId.incrementAndGet());
+			}
+		}
+		outbox.add(message);
+	}
 
-		case GetFilteredActivityLogs:
-			System.out.println("Client received GetFilteredActivityLogs response");
-			Platform.runLater(() -> {
-				if (librarianScreenController != null) {
-					ArrayList<ActivityLog> logs = (ArrayList<ActivityLog>) m.getObj();
-					librarianScreenController.handleActivityLogsResponse(logs);
-				} else {
-					System.err.println("LibrarianScreenController is not set");
-				}
-			});
-			break;
-		case GetAllMembers:
-			Platform.runLater(() -> {
-				if (librarianScreenController != null) {
-					ArrayList<SubscriberDTO> members = (ArrayList<SubscriberDTO>) m.getObj();
-					librarianScreenController.handleMemberDataResponse(members);
-				} else {
-					System.err.println("LibrarianScreenController is not set");
-				}
-			});
-			break;
-		case ExtendBookLoan:
-			Platform.runLater(() -> {
-				if (!(m.getObj() instanceof String)) {
-					System.err.println("Unexpected response type for ExtendBookLoan");
+	/**
+	 * Logs the user out: the session is ended on the server and is not resumed
+	 * after a reconnect.
+	 *
+	 * @param userId ID of the user logging out.
+	 */
+	public void logout(int userId) {
+		sessionToken = null;
+		sendMessageToServer(new Message(userId, Commands.Logout));
+	}
+
+	/**
+	 * Writes the queued messages to the server until {@link #END_OF_OUTBOX}.
+	 * While the connection is re-established the messages wait in the queue. A
+	 * message that cannot be written starts a reconnect; requests are then sent
+	 * again with the other requests waiting for a reply, other messages are
+	 * reported to the user.
+	 */
+	private void writeMessages() {
+		try {
+			while (true) {
+				Object message = outbox.take();
+				if (message == END_OF_OUTBOX) {
 					return;
 				}
+				writeWhenConnected(message);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
 
-				String result = (String) m.getObj();
-				System.out.println("Loan Extension Response: " + result);
-
-				// If librarian
-				if (librarianScreenController != null) {
-					librarianScreenController.handleExtensionResponse(new Message(result, Commands.ExtendBookLoan));
-				}
-				// If subscriber (member)
-				else if (ViewBorrowedBooksController != null) {
-					ViewBorrowedBooksController.handleExtensionResponse(new Message(result, Commands.ExtendBookLoan));
-				}
-				// No controller found
-				else {
-					System.err.println("No controller available to handle loan extension response.");
-				}
-			});
-			break;
-		case GetAllBooks:
-			Platform.runLater(() -> {
-				ArrayList<BookLoanDetailsDTO> books = (ArrayList<BookLoanDetailsDTO>) m.getObj();
-				if (bookSearchController != null) {
-					bookSearchController.handleServerResponse(books);
-				} else if (bookSearchMemberController != null) {
-					bookSearchMemberController.handleServerResponse(books);
-				} else {
-					System.err.println("Neither BookSearchController nor BookSearchMemberController is set.");
-				}
-			});
-			break;
-		case GetBookByAuthor:
-			Platform.runLater(() -> {
-				if (bookSearchController != null) {
-					bookSearchController.handleServerResponse((ArrayList<BookLoanDetailsDTO>) m.getObj());
+	/**
+	 * Writes one message once the connection is up. Waiting for the connection,
+	 * marking the message as written and writing it hold the same lock as
+	 * {@link #startReconnect()} and the switch to a new connection, so the
+	 * message goes to the connection it was marked with, and a reconnect
+	 * replays exactly the messages written before it.
+	 */
+	private synchronized void writeWhenConnected(Object message) throws InterruptedException {
+		while (reconnecting) {
+			wait();
+		}
+		// Marked before writing, since the reply may come before the write returns
+		boolean awaiting = isAwaitingReply(message);
+		if (awaiting) {
+			awaitingReply.put(((Message) message).getRequestId(), (Message) message);
+		} else if (message instanceof Message) {
+			PendingRequest pending = pendingRequests.get(((Message) message).getRequestId());
+			if (pending != null) {
+				pending.writtenOn = connectionNumber;
+			}
+		}
+		try {
+			sendToServer(message);
+		} catch (IOException e) {
+			System.err.println("Could not send message to server: " + e.getMessage());
+			// A request stays pending and is sent again after reconnecting
+			if (awaiting) {
+				Message unsent = (Message) message;
+				if (!REPLAYABLE_COMMANDS.contains(unsent.getCmd())
+						&& awaitingReply.remove(unsent.getRequestId(), unsent)) {
+					reportUnsent(List.of(unsent.getCmd()));
 				}
-			});
-			break;
+			}
+			startReconnect();
+		}
+	}
 
-		case GetLoanDurationChart:
-			System.out.println("Client received GetLoanDurationChart response");
-			Platform.runLater(() -> {
-				if (librarianScreenController != null) {
-					ArrayList<Number> chartData = (ArrayList<Number>) m.getObj();
-					librarianScreenController.handleLoanDurationChartResponse(chartData);
-				}
-			});
-			break;
+	/**
+	 * Whether a message waits for a reply that goes to the controllers, as
+	 * opposed to a message without a reply or a request sent with
+	 * {@link #request}, which is kept with its future instead.
+	 */
+	private boolean isAwaitingReply(Object message) {
+		if (!(message instanceof Message)) {
+			return false;
+		}
+		long requestId = ((Message) message).getRequestId();
+		return requestId != 0 && !pendingRequests.containsKey(requestId);
+	}
 
-		case GetLateReturnChart:
-			System.out.println("Client received GetLateReturnChart response");
-			Platform.runLater(() -> {
-				if (librarianScreenController != null) {
-					ArrayList<Number> chartData = (ArrayList<Number>) m.getObj();
-					librarianScreenController.handleLateReturnChartResponse(chartData);
-				}
-			});
-			break;
+	/**
+	 * Starts re-establishing the connection in the background, unless it is
+	 * already being re-established or the client quits.
+	 */
+	private synchronized void startReconnect() {
+		if (reconnecting || quitting) {
+			return;
+		}
+		reconnecting = true;
+		Thread reconnector = new Thread(this::reconnect, "BLibClient-reconnect");
+		reconnector.setDaemon(true);
+		reconnector.start();
+	}
 
-		case GetMemberStatus:
-			System.out.println("Client received GetMemberStatus response");
-			Platform.runLater(() -> {
-				if (librarianScreenController != null) {
-					if (m.getObj() instanceof Map) {
-						@SuppressWarnings("unchecked")
-						Map<String, ArrayList<Number>> statusData = (Map<String, ArrayList<Number>>) m.getObj();
-						librarianScreenController.handleMemberStatusResponse(statusData);
-					} else {
-						System.err.println("Invalid data type received for member status");
-					}
-				} else {
-					System.err.println("LibrarianScreenController is not set");
-				}
-			});
-			break;
-		case getSimpleBookById:
-			Platform.runLater(() -> {
-				if (librarianScreenController != null) {
-					Book book = (Book) m.getObj();
-					librarianScreenController.handleBookResponse(book);
-				} else {
-					System.err.println("LibrarianScreenController is not set");
+	/**
+	 * Re-establishes the connection, waiting longer after each failed attempt.
+	 * Once connected, the login session is resumed and the requests that were
+	 * waiting for a reply are sent again if they only read; the user is told
+	 * about the others, since they may or may not have been carried out.
+	 */
+	private void reconnect() {
+		try {
+			closeConnection();
+		} catch (IOException e) {
+			// Already broken
+		}
+		long giveUpAt = System.currentTimeMillis() + RECONNECT_GIVE_UP_MILLIS;
+		long delay = RECONNECT_INITIAL_DELAY_MILLIS;
+		try {
+			while (isConnected()) {
+				// The reader thread is still ending
+				Thread.sleep(50);
+			}
+			while (true) {
+				Thread.sleep(delay);
+				if (quitting) {
+					return;
 				}
-			});
-		case OrderBook:
-			Platform.runLater(() -> {
-				if (bookSearchMemberController != null) {
-					String result = (String) m.getObj();
-					bookSearchMemberController.handleOrderBookResponse(result);
-				} else {
-					System.err.println("bookSearchMemberController is not set.");
+				try {
+					System.out.println("Reconnecting to server...");
+					openConnection();
+					synchronized (this) {
+						connectionNumber++;
+					}
+					sendToServer(new Message(null, Commands.ConnectClient));
+					resumeSession();
+					replayRequests();
+					System.out.println("Reconnected to server");
+					break;
+				} catch (IOException e) {
+					System.err.println("Reconnect failed: " + e.getMessage());
+					try {
+						closeConnection();
+					} catch (IOException ex) {
+						// Already broken
+					}
+					if (System.currentTimeMillis() >= giveUpAt) {
+						giveUp();
+						return;
+					}
+					delay = Math.min(delay * 2, RECONNECT_MAX_DELAY_MILLIS);
 				}
-			});
-			break;
-
-		case GetNotifications:
-			if (notificationMemberController != null) {
-				ArrayList<Notification> notifications = (ArrayList<Notification>) m.getObj();
-				notificationMemberController.handleNotificationsResponse(notifications);
-			} else {
-				System.err.println("NotificationMemberController is not set.");
 			}
-			break;
-		case DeleteNotifications:
-			boolean deleteSuccess = (boolean) m.getObj();
-			if (notificationMemberController != null) {
-				notificationMemberController.handleDeleteNotificationsResponse(deleteSuccess);
-			}
-			break;
-		case GetActivityLogsByMember:
-			if (memberActivityLogsController != null) {
-				ArrayList<ActivityLog> logs = (ArrayList<ActivityLog>) m.getObj();
-				System.out.println("DEBUG: Client received " + logs.size() + " activity logs.");
-				memberActivityLogsController.handleActivityLogsResponse(logs);
-			} else {
-				System.err.println("MemberActivityLogsController is not set.");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		} finally {
+			synchronized (this) {
+				reconnecting = false;
+				notifyAll();
 			}
-			break;
+		}
+	}
 
-		// Add more cases for different commands as needed
+	/**
+	 * Resumes the login session on the new connection. If the server no longer
+	 * knows the session, the user is asked to log in again.
+	 */
+	private void resumeSession() throws IOException, InterruptedException {
+		String token = sessionToken;
+		if (token == null) {
+			return;
+		}
+		long requestId = nextRequestId.incrementAndGet();
+		CompletableFuture<Object> reply = new CompletableFuture<>();
+		Message message = new Message(token, Commands.ResumeSession);
+		message.setRequestId(requestId);
+		pendingRequests.put(requestId, new PendingRequest(message, reply));
+		sendToServer(message);
+		Object user;
+		try {
+			user = reply.get(RESUME_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		} catch (ExecutionException | TimeoutException e) {
+			throw new IOException("Session not resumed", e);
+		} finally {
+			pendingRequests.remove(requestId);
+		}
+		if (user instanceof String) {
+			System.err.println("Session not resumed: " + user);
+			sessionToken = null;
+			showWarning("Session expired", "The connection to the server was lost and your session has expired. "
+					+ "Please log out and log in again.");
+		}
+	}
 
-		default:
-			System.err.println("Unhandled command: " + command);
-			break;
+	/**
+	 * Sends again the requests that were written to an earlier connection and
+	 * were waiting for a reply when it was lost, if they only read. The other
+	 * written requests fail, and the user is told about the messages that were
+	 * not answered. Requests still in the outbox were never written; the writer
+	 * sends them once the new connection is up.
+	 */
+	private void replayRequests() throws IOException {
+		long connection;
+		synchronized (this) {
+			connection = connectionNumber;
+		}
+		for (Map.Entry<Long, PendingRequest> entry : pendingRequests.entrySet()) {
+			PendingRequest pending = entry.getValue();
+			if (pending.reply.isDone()) {
+				// Cancelled, so its reply is no longer wanted
+				pendingRequests.remove(entry.getKey(), pending);
+			} else if (pending.writtenOn == 0 || pending.writtenOn == connection) {
+				// Still in the outbox, or already sent again on this connection
+			} else if (REPLAYABLE_COMMANDS.contains(pending.message.getCmd())) {
+				pending.writtenOn = connection;
+				sendToServer(pending.message);
+			} else if (pendingRequests.remove(entry.getKey(), pending)) {
+				pending.reply.completeExceptionally(
+						new IOException("Connection to the server lost before " + pending.message.getCmd() + " was answered"));
+			}
+		}
+
+		List<Commands> unanswered = new ArrayList<>();
+		for (Message message : awaitingReply.values()) {
+			if (REPLAYABLE_COMMANDS.contains(message.getCmd())) {
+				sendToServer(message);
+			} else if (awaitingReply.remove(message.getRequestId(), message)) {
+				unanswered.add(message.getCmd());
+			}
+		}
+		if (!unanswered.isEmpty()) {
+			reportUnsent(unanswered);
 		}
 	}
 
+	private void giveUp() {
+		System.err.println("Could not reconnect to server");
+		failPendingRequests(new IOException("Could not reconnect to the server"));
+		awaitingReply.clear();
+		showWarning("Connection lost",
+				"The connection to the server could not be re-established. Please restart the client.");
+	}
+
+	/**
+	 * Tells the user about actions that were sent but not answered before the
+	 * connection was lost, since it is not known whether they were carried out.
+	 */
+	private void reportUnsent(List<Commands> commands) {
+		String actions = commands.stream().map(Commands::name).collect(Collectors.joining(", "));
+		showWarning("Connection lost", "The connection to the server was lost while these actions were sent: "
+				+ actions + ". Please check whether they were completed before repeating them.");
+	}
+
+	private static void showWarning(String title, String text) {
+		Platform.runLater(() -> {
+			Alert alert = new Alert(Alert.AlertType.WARNING);
+			alert.setTitle(title);
+			alert.setHeaderText(null);
+			alert.setContentText(text);
+			alert.show();
+		});
+	}
+
 	/**
-	 * Sends a message to the server.
+	 * Sends a request to the server and returns a future for its reply. The
+	 * request carries a new request ID, which the server copies into its reply,
+	 * so the reply completes this future instead of going to a controller. Only
+	 * for commands that the server answers with one message.
 	 *
-	 * @param message The message to send (Object format).
+	 * @param cmd     The command of the request.
+	 * @param payload The object sent with the command.
+	 * @return A future completed with the object of the reply, or exceptionally
+	 *         if the request cannot be sent or the connection is lost.
 	 */
-	public void sendMessageToServer(Object message) {
-		try {
-			sendToServer(message);
-		} catch (IOException e) {
-			System.err.println("Could not send message to server: " + e.getMessage());
+	public CompletableFuture<Object> request(Commands cmd, Object payload) {
+		long requestId = nextRequestId.incrementAndGet();
+		// Kept until the reply arrives, also when the caller cancels, so a late reply is dropped
+		CompletableFuture<Object> reply = new CompletableFuture<>();
+
+		Message message = new Message(payload, cmd);
+		message.setRequestId(requestId);
+		pendingRequests.put(requestId, new PendingRequest(message, reply));
+		sendMessageToServer(message);
+		return reply;
+	}
+
+	/**
+	 * Fails the requests that are still waiting for a reply when the connection
+	 * is closed, unless it is closed to be re-established.
+	 */
+	@Override
+	protected void connectionClosed() {
+		synchronized (this) {
+			if (reconnecting) {
+				return;
+			}
 		}
+		failPendingRequests(new IOException("Connection to the server closed"));
 	}
+
 	/**
-	* Sets the static MemberCardController instance for the application.
-	* This method updates the controller reference used for member card operations.
-	*
-	* @param controller The new MemberCardController instance to be used.
-	*                  If null, member card operations will not be available.
-	* @see MemberCardController
-	*/
-	public static void setMemberCardController(MemberCardController controller) {
-		MemberCardController = controller;
+	 * Re-establishes the connection when it is lost; the requests waiting for a
+	 * reply wait for the new connection.
+	 *
+	 * @param exception The exception that ended the connection.
+	 */
+	@Override
+	protected void connectionException(Exception exception) {
+		System.err.println("Connection to server lost: " + exception.getMessage());
+		startReconnect();
+	}
+
+	private void failPendingRequests(Throwable cause) {
+		for (Long requestId : pendingRequests.keySet()) {
+			PendingRequest pending = pendingRequests.remove(requestId);
+			if (pending != null) {
+				pending.reply.completeExceptionally(cause);
+			}
+		}
 	}
 
 	/**
 	* Closes the client connection and terminates the program.
+	* Waits briefly for the queued messages to be written first.
 	* Attempts to gracefully close the database connection before shutdown.
 	* If connection closure fails, logs the error but continues with program termination.
 	*
 	* @see #closeConnection()
 	*/
 	public void quit() {
+		quitting = true;
+		outbox.add(END_OF_OUTBOX);
+		try {
+			writer.join(FLUSH_TIMEOUT_MILLIS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
 		try {
 			closeConnection();
 		} catch (IOException e) {
@@ -468,4 +584,17 @@ public class BLibClient extends AbstractClient {
 	public static void setLibrarianScreenController(LibrarianScreenController controller) {
 		librarianScreenController = controller;
 	}
+
+	/**
+	* Stops routing server messages to a controller whose screen was dropped,
+	* such as at logout, so a later user's replies do not reach it.
+	*
+	* @param controller The controller of the dropped screen.
+	* @see SceneManager#clear()
+	*/
+	public static void forgetController(Object controller) {
+		if (librarianScreenController == controller) {
+			librarianScreenController = null;
+		}
+	}
 }
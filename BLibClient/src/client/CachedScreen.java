@@ -0,0 +1,25 @@
+package client;
+
+/**
+ * A screen controller whose screen is kept by the {@link SceneManager} and
+ * shown again instead of being loaded again. Screens that load their own data
+ * implement it to load the data each time they are shown, rather than when
+ * they are initialized, since a screen may be loaded long before it is first
+ * shown; screens that load their data when their member is set get it anew
+ * with each visit anyway.
+ */
+public interface CachedScreen {
+
+	/**
+	 * Loads the data shown on the screen, each time the screen is shown,
+	 * including the first time. Called on the JavaFX application thread.
+	 */
+	void refresh();
+
+	/**
+	 * Releases what the screen holds, when it is no longer kept, such as at
+	 * logout.
+	 */
+	default void close() {
+	}
+}
@@ -0,0 +1,325 @@
+package client;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import entities.BookLoanDetailsDTO;
+import javafx.application.Platform;
+
+/**
+ * Searches the client's copy of the catalog as the user types, without asking
+ * the server. A search finds the books whose searched field contains the typed
+ * text, ignoring case and accents, so it finds the same books as
+ * {@link LibraryApi#search(String, String)} asks the server for.
+ *
+ * <p>
+ * Building the index and searching run as tasks of the screen's
+ * {@link TaskExecutor.TaskGroup}, so they share the client's bounded pool, are
+ * counted in its metrics and are cancelled by {@link #shutdown()}. A search
+ * waits until no key was typed for {@link #DEBOUNCE_MILLIS}; one scheduler
+ * thread shared by all searches only hands it to the group then. A new search
+ * or catalog cancels the one still running, and only the result of the last
+ * search is passed on, on the JavaFX application thread, as one list.
+ * </p>
+ */
+public class CatalogSearch {
+	/** Time without typing before a search runs, in milliseconds */
+	private static final long DEBOUNCE_MILLIS = 150;
+
+	/** Combining marks left by splitting accented letters */
+	private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+
+	/** The fields that can be searched, named as in the search type boxes */
+	public static final String TITLE = "Title";
+	public static final String AUTHOR = "Author";
+	public static final String THEME = "Theme";
+	public static final String DESCRIPTION = "Description";
+
+	/** Waits out the typing of every search screen; the searches run on the task pool */
+	private static final ScheduledExecutorService DEBOUNCE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "CatalogSearch-debounce");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final TaskExecutor.TaskGroup tasks = TaskExecutor.getInstance().newGroup("CatalogSearch");
+	private final Consumer<List<BookLoanDetailsDTO>> resultConsumer;
+
+	/** The current index; only replaced, so searches can read it without locking */
+	private volatile Index index;
+	/** Number of the last search, so older results are dropped */
+	private volatile long lastSearch;
+	private ScheduledFuture<?> pendingSearch;
+	private Future<?> runningSearch;
+	private Future<?> indexing;
+	/** Number of the last catalog set, so an older index never replaces a newer one */
+	private long lastCatalog;
+	private boolean closed;
+
+	/**
+	 * Constructs a search over the catalog.
+	 *
+	 * @param resultConsumer Receives the rows found by each search, on the JavaFX
+	 *                       application thread
+	 */
+	public CatalogSearch(Consumer<List<BookLoanDetailsDTO>> resultConsumer) {
+		this.resultConsumer = resultConsumer;
+	}
+
+	/**
+	 * Indexes a new copy of the catalog in the background.
+	 *
+	 * @param books The catalog rows, ordered by book ID
+	 */
+	public synchronized void setCatalog(List<BookLoanDetailsDTO> books) {
+		if (closed) {
+			return;
+		}
+		if (indexing != null) {
+			indexing.cancel(true);
+		}
+		List<BookLoanDetailsDTO> rows = new ArrayList<>(books);
+		long catalogNumber = ++lastCatalog;
+		try {
+			indexing = tasks.submit(() -> {
+				Index built = new Index(rows);
+				synchronized (this) {
+					if (catalogNumber == lastCatalog && !closed) {
+						index = built;
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// The pool is busy; the previous index stays, or the server is searched
+			indexing = null;
+		}
+	}
+
+	/**
+	 * Checks whether a catalog was indexed, so searches can run locally.
+	 *
+	 * @return true if the catalog is indexed
+	 */
+	public boolean isReady() {
+		return index != null;
+	}
+
+	/**
+	 * Searches the catalog once no key was typed for a short time. An empty
+	 * text finds the whole catalog.
+	 *
+	 * @param field The field to search, {@link #TITLE}, {@link #AUTHOR},
+	 *              {@link #THEME} or {@link #DESCRIPTION}
+	 * @param text  The typed text
+	 */
+	public synchronized void search(String field, String text) {
+		long searchNumber = ++lastSearch;
+		if (pendingSearch != null) {
+			pendingSearch.cancel(false);
+		}
+		if (runningSearch != null) {
+			runningSearch.cancel(true);
+			runningSearch = null;
+		}
+		if (closed) {
+			return;
+		}
+		pendingSearch = DEBOUNCE.schedule(() -> startSearch(searchNumber, field, text), DEBOUNCE_MILLIS,
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Hands a search whose typing ended to the task group, unless a newer one
+	 * was typed meanwhile.
+	 */
+	private synchronized void startSearch(long searchNumber, String field, String text) {
+		if (closed || searchNumber != lastSearch) {
+			return;
+		}
+		try {
+			runningSearch = tasks.submit(() -> {
+				Index current = index;
+				if (current == null || searchNumber != lastSearch) {
+					return;
+				}
+				List<BookLoanDetailsDTO> found = current.search(field, text);
+				if (Thread.currentThread().isInterrupted()) {
+					return; // Cancelled by a newer search or the screen closing
+				}
+				Platform.runLater(() -> {
+					if (searchNumber == lastSearch) {
+						resultConsumer.accept(found);
+					}
+				});
+			});
+		} catch (RejectedExecutionException e) {
+			// The pool is busy; the next key typed searches again
+			runningSearch = null;
+		}
+	}
+
+	/**
+	 * Cancels the indexing and the searches still waiting or running, for when
+	 * the screen is closed. The catalog cannot be searched afterwards.
+	 */
+	public synchronized void shutdown() {
+		closed = true;
+		lastSearch++;
+		if (pendingSearch != null) {
+			pendingSearch.cancel(false);
+		}
+		tasks.cancelAll();
+	}
+
+	/**
+	 * One copy of the catalog, prepared for searching. Books are numbered in
+	 * catalog order, and the searched fields of every book are kept folded the
+	 * way the database compares text. The title, author and subject fields also
+	 * have a trigram index: for every three consecutive characters, the numbers
+	 * of the books whose field contains them. A search for a text of three or
+	 * more characters only checks the books that contain all of its trigrams,
+	 * so typing on a large catalog does not scan every book. Shorter texts, and
+	 * the descriptions, are checked book by book.
+	 */
+	private static class Index {
+		private final List<List<BookLoanDetailsDTO>> rowsByBook = new ArrayList<>();
+		private final Map<String, String[]> foldedByField = new HashMap<>();
+		private final Map<String, Map<Long, Postings>> trigramsByField = new HashMap<>();
+
+		private Index(List<BookLoanDetailsDTO> rows) {
+			int lastBookId = Integer.MIN_VALUE;
+			for (BookLoanDetailsDTO row : rows) {
+				if (row.getBookId() != lastBookId) {
+					lastBookId = row.getBookId();
+					rowsByBook.add(new ArrayList<>());
+				}
+				rowsByBook.get(rowsByBook.size() - 1).add(row);
+			}
+			indexField(TITLE, BookLoanDetailsDTO::getTitle, true);
+			indexField(AUTHOR, BookLoanDetailsDTO::getAuthor, true);
+			indexField(THEME, BookLoanDetailsDTO::getSubject, true);
+			indexField(DESCRIPTION, BookLoanDetailsDTO::getDescription, false);
+		}
+
+		private void indexField(String field, Function<BookLoanDetailsDTO, String> value, boolean trigrams) {
+			String[] folded = new String[rowsByBook.size()];
+			Map<Long, Postings> postings = trigrams ? new HashMap<>() : null;
+			for (int book = 0; book < rowsByBook.size(); book++) {
+				folded[book] = fold(value.apply(rowsByBook.get(book).get(0)));
+				if (postings != null && folded[book] != null) {
+					for (int i = 0; i + 3 <= folded[book].length(); i++) {
+						postings.computeIfAbsent(trigram(folded[book], i), key -> new Postings()).add(book);
+					}
+				}
+			}
+			foldedByField.put(field, folded);
+			if (postings != null) {
+				trigramsByField.put(field, postings);
+			}
+		}
+
+		private List<BookLoanDetailsDTO> search(String field, String text) {
+			List<BookLoanDetailsDTO> rows = new ArrayList<>();
+			String[] folded = foldedByField.get(field);
+			if (folded == null) {
+				return rows;
+			}
+			String needle = fold(text.trim());
+			if (needle.isEmpty()) {
+				for (List<BookLoanDetailsDTO> bookRows : rowsByBook) {
+					rows.addAll(bookRows);
+				}
+				return rows;
+			}
+			Map<Long, Postings> postings = trigramsByField.get(field);
+			if (postings == null || needle.length() < 3) {
+				for (int book = 0; book < rowsByBook.size() && !Thread.currentThread().isInterrupted(); book++) {
+					if (folded[book] != null && folded[book].contains(needle)) {
+						rows.addAll(rowsByBook.get(book));
+					}
+				}
+				return rows;
+			}
+			// The books containing every trigram of the text are candidates, then checked
+			List<Postings> lists = new ArrayList<>();
+			for (int i = 0; i + 3 <= needle.length(); i++) {
+				Postings list = postings.get(trigram(needle, i));
+				if (list == null) {
+					return rows;
+				}
+				lists.add(list);
+			}
+			lists.sort((a, b) -> Integer.compare(a.size, b.size));
+			Postings shortest = lists.get(0);
+			for (int i = 0; i < shortest.size && !Thread.currentThread().isInterrupted(); i++) {
+				int book = shortest.books[i];
+				if (containsAll(lists, book) && folded[book].contains(needle)) {
+					rows.addAll(rowsByBook.get(book));
+				}
+			}
+			return rows;
+		}
+
+		private static boolean containsAll(List<Postings> lists, int book) {
+			for (int i = 1; i < lists.size(); i++) {
+				Postings list = lists.get(i);
+				if (Arrays.binarySearch(list.books, 0, list.size, book) < 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Packs three characters of a text into one key.
+		 */
+		private static long trigram(String text, int start) {
+			return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+		}
+
+		/**
+		 * Folds a text for comparing it as the database does: case and accents
+		 * are ignored.
+		 */
+		private static String fold(String text) {
+			if (text == null) {
+				return null;
+			}
+			return ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+					.toLowerCase(Locale.ROOT);
+		}
+	}
+
+	/**
+	 * The numbers of the books whose field contains one trigram, in ascending
+	 * order.
+	 */
+	private static class Postings {
+		private int[] books = new int[4];
+		private int size;
+
+		private void add(int book) {
+			if (size > 0 && books[size - 1] == book) {
+				return; // The trigram occurs more than once in the field
+			}
+			if (size == books.length) {
+				books = Arrays.copyOf(books, size * 2);
+			}
+			books[size++] = book;
+		}
+	}
+}
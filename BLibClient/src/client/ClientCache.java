@@ -0,0 +1,381 @@
+package client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import entities.BookCover;
+import entities.BookLoanDetailsDTO;
+import entities.CatalogChanges;
+import entities.CatalogSnapshot;
+
+/**
+ * Keeps book covers and a copy of the book catalog on the local disk, so a
+ * client start or a book lookup only downloads what changed on the server.
+ * Covers are saved under the hash of their content, with an index of the cover
+ * hash of every book and size; the server answers "not modified" for a hash
+ * the client already has. The covers are bounded by their total size and the
+ * least recently used ones are removed first. The catalog is saved with its
+ * catalog epoch and version, and the server sends only the books changed
+ * since then, or the whole catalog if the epoch is not the database's.
+ *
+ * <p>
+ * The files are read and written on the client's task threads, never on the
+ * JavaFX application thread, so the methods that need a file answer with a
+ * future. The cache is best effort: a file that cannot be read or written, or
+ * a read or write the task threads are too busy for, is treated as not cached.
+ * </p>
+ */
+public class ClientCache {
+	/** Total size of the saved covers, in bytes */
+	private static final long MAX_COVER_BYTES = 64L * 1024 * 1024;
+
+	private static final Path CACHE_DIR = Paths.get(System.getProperty("user.home"), ".blib", "cache");
+	private static final String COVERS_DIR = "covers";
+	private static final String COVER_INDEX_FILE = "covers.properties";
+	private static final String CATALOG_FILE = "catalog.ser";
+
+	private static ClientCache instance;
+
+	/** Reads and writes the cache files */
+	private final TaskExecutor.TaskGroup disk = TaskExecutor.getInstance().newGroup("ClientCache");
+
+	/** Guards the cover files and index, so only the task threads wait for it */
+	private final Object coverLock = new Object();
+
+	/** Guards the catalog file, so saves of the catalog do not overlap */
+	private final Object catalogFileLock = new Object();
+
+	private final Path coversDir = CACHE_DIR.resolve(COVERS_DIR);
+	private final Path coverIndexFile = CACHE_DIR.resolve(COVER_INDEX_FILE);
+	private final Path catalogFile = CACHE_DIR.resolve(CATALOG_FILE);
+
+	/** Cover hash by book ID and size */
+	private final Properties coverIndex = new Properties();
+	private long coverBytes;
+
+	private CatalogSnapshot catalog;
+
+	/** Completes when the cover index and the saved catalog are loaded */
+	private final CompletableFuture<Void> loaded;
+
+	/**
+	 * Private constructor to enforce singleton pattern. Starts loading the
+	 * cover index and the saved catalog in the background.
+	 */
+	private ClientCache() {
+		loaded = onDisk(() -> {
+			load();
+			return null;
+		}, null);
+	}
+
+	private void load() {
+		synchronized (coverLock) {
+			loadCoverIndex();
+		}
+		CatalogSnapshot saved = loadCatalog();
+		synchronized (this) {
+			catalog = saved;
+		}
+	}
+
+	private void loadCoverIndex() {
+		try {
+			Files.createDirectories(coversDir);
+			try (InputStream in = Files.newInputStream(coverIndexFile)) {
+				coverIndex.load(in);
+			} catch (NoSuchFileException e) {
+				// Nothing cached yet
+			}
+			try (Stream<Path> covers = Files.list(coversDir)) {
+				for (Path cover : covers.collect(Collectors.toList())) {
+					coverBytes += Files.size(cover);
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("Error opening client cache: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Gets the singleton instance of ClientCache. Creates the instance if it
+	 * doesn't exist.
+	 *
+	 * @return The singleton instance of ClientCache
+	 */
+	public static synchronized ClientCache getInstance() {
+		if (instance == null) {
+			instance = new ClientCache();
+		}
+		return instance;
+	}
+
+	/**
+	 * Gets the books of the saved catalog, once it is loaded.
+	 *
+	 * @return The books with their loans, or null if no catalog is saved
+	 */
+	public CompletableFuture<ArrayList<BookLoanDetailsDTO>> getSavedCatalog() {
+		return loaded.thenApply(v -> getCatalogBooks());
+	}
+
+	/**
+	 * Brings the saved catalog up to date: asks the server for the changes
+	 * since its version, applies them and saves the result in the background.
+	 *
+	 * @return The books of the current catalog, ordered by book ID, or null if
+	 *         the saved catalog was already current
+	 */
+	public CompletableFuture<ArrayList<BookLoanDetailsDTO>> syncCatalog() {
+		return loaded.thenCompose(v -> {
+			synchronized (this) {
+				return catalog != null ? LibraryApi.getCatalogChanges(catalog.getEpoch(), catalog.getVersion())
+						: LibraryApi.getCatalogChanges(null, 0);
+			}
+		}).thenApply(changes -> changes.isEmpty() ? null : updateCatalog(changes));
+	}
+
+	private synchronized ArrayList<BookLoanDetailsDTO> getCatalogBooks() {
+		return catalog != null ? catalog.getBooks() : null;
+	}
+
+	/**
+	 * Applies catalog changes received from the server to the saved catalog:
+	 * the rows of changed and deleted books are removed, and the new rows of
+	 * the changed books are added.
+	 *
+	 * @param changes The changes since the version of the saved catalog
+	 * @return The books of the current catalog, ordered by book ID
+	 */
+	private synchronized ArrayList<BookLoanDetailsDTO> updateCatalog(CatalogChanges changes) {
+		if (changes.isFullCatalog() || catalog == null) {
+			catalog = new CatalogSnapshot(changes.getEpoch(), changes.getVersion(), changes.getChangedBooks());
+			saveCatalog();
+		} else if (!changes.isEmpty()) {
+			Set<Integer> replaced = new HashSet<>(changes.getDeletedBookIds());
+			for (BookLoanDetailsDTO row : changes.getChangedBooks()) {
+				replaced.add(row.getBookId());
+			}
+			ArrayList<BookLoanDetailsDTO> books = new ArrayList<>(catalog.getBooks().size());
+			for (BookLoanDetailsDTO row : catalog.getBooks()) {
+				if (!replaced.contains(row.getBookId())) {
+					books.add(row);
+				}
+			}
+			books.addAll(changes.getChangedBooks());
+			books.sort(Comparator.comparingInt(BookLoanDetailsDTO::getBookId)); // stable, keeps the loan order
+			catalog = new CatalogSnapshot(changes.getEpoch(), changes.getVersion(), books);
+			saveCatalog();
+		}
+		return getCatalogBooks();
+	}
+
+	/**
+	 * Saves the catalog in the background. The catalog is taken when the save
+	 * runs, so the last save writes the newest catalog.
+	 */
+	private void saveCatalog() {
+		onDisk(() -> {
+			synchronized (catalogFileLock) {
+				CatalogSnapshot snapshot;
+				synchronized (this) {
+					snapshot = catalog;
+				}
+				writeCatalog(snapshot);
+			}
+			return null;
+		}, null);
+	}
+
+	private void writeCatalog(CatalogSnapshot snapshot) {
+		Path temp = catalogFile.resolveSibling(CATALOG_FILE + ".tmp");
+		try {
+			try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				out.writeObject(snapshot);
+			}
+			Files.move(temp, catalogFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			System.err.println("Error saving catalog: " + e.getMessage());
+		}
+	}
+
+	private CatalogSnapshot loadCatalog() {
+		try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(catalogFile)))) {
+			return (CatalogSnapshot) in.readObject();
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			System.err.println("Ignoring saved catalog: " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Gets a saved cover.
+	 *
+	 * @param bookId ID of the book
+	 * @param size   {@link BookCover#FULL_SIZE} or a thumbnail size
+	 * @return The cover, or null if it is not saved
+	 */
+	public CompletableFuture<BookCover> getCover(int bookId, int size) {
+		return loaded.thenCompose(v -> onDisk(() -> {
+			synchronized (coverLock) {
+				return readCover(bookId, size);
+			}
+		}, null));
+	}
+
+	private BookCover readCover(int bookId, int size) {
+		String hash = coverIndex.getProperty(coverKey(bookId, size));
+		if (hash == null) {
+			return null;
+		}
+		Path coverFile = coversDir.resolve(hash);
+		try {
+			byte[] imageData = Files.readAllBytes(coverFile);
+			Files.setLastModifiedTime(coverFile, FileTime.fromMillis(System.currentTimeMillis()));
+			return new BookCover(bookId, size, hash, imageData, false);
+		} catch (IOException e) {
+			// Evicted or unreadable, so it is downloaded again
+			removeCover(bookId, size);
+			return null;
+		}
+	}
+
+	/**
+	 * Keeps a cover received from the server, saving it in the background. A
+	 * cover marked as not modified is already saved; a book without a cover is
+	 * removed from the index.
+	 *
+	 * @param cover The cover received from the server
+	 */
+	public void updateCover(BookCover cover) {
+		if (cover.isNotModified()) {
+			return;
+		}
+		loaded.thenRun(() -> onDisk(() -> {
+			synchronized (coverLock) {
+				writeCover(cover);
+			}
+			return null;
+		}, null));
+	}
+
+	private void writeCover(BookCover cover) {
+		if (cover.getHash() == null) {
+			removeCover(cover.getBookId(), cover.getSize());
+			return;
+		}
+
+		Path coverFile = coversDir.resolve(cover.getHash());
+		try {
+			if (!Files.exists(coverFile)) {
+				Path temp = Files.createTempFile(coversDir, "cover", ".tmp");
+				try {
+					Files.write(temp, cover.getImageData());
+					Files.move(temp, coverFile, StandardCopyOption.ATOMIC_MOVE);
+				} finally {
+					Files.deleteIfExists(temp);
+				}
+				coverBytes += cover.getImageData().length;
+			}
+			coverIndex.setProperty(coverKey(cover.getBookId(), cover.getSize()), cover.getHash());
+			evictCovers();
+			saveCoverIndex();
+		} catch (IOException e) {
+			System.err.println("Error saving cover: " + e.getMessage());
+		}
+	}
+
+	private void removeCover(int bookId, int size) {
+		if (coverIndex.remove(coverKey(bookId, size)) != null) {
+			saveCoverIndex();
+		}
+	}
+
+	/**
+	 * Removes the least recently used covers until the covers fit their size,
+	 * together with their index entries.
+	 */
+	private void evictCovers() throws IOException {
+		if (coverBytes <= MAX_COVER_BYTES) {
+			return;
+		}
+		List<Path> covers;
+		try (Stream<Path> files = Files.list(coversDir)) {
+			covers = files.sorted(Comparator.comparing(ClientCache::lastModified)).collect(Collectors.toList());
+		}
+		for (Path cover : covers) {
+			if (coverBytes <= MAX_COVER_BYTES) {
+				break;
+			}
+			coverBytes -= Files.size(cover);
+			Files.delete(cover);
+			String hash = cover.getFileName().toString();
+			coverIndex.values().removeIf(hash::equals);
+		}
+	}
+
+	private void saveCoverIndex() {
+		Path temp = coverIndexFile.resolveSibling(COVER_INDEX_FILE + ".tmp");
+		try {
+			try (OutputStream out = Files.newOutputStream(temp)) {
+				coverIndex.store(out, "Cover hash by book ID and size");
+			}
+			Files.move(temp, coverIndexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			System.err.println("Error saving cover index: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Runs file work on the task threads.
+	 *
+	 * @param <T>      The type of the result
+	 * @param work     The file work
+	 * @param whenBusy The result if the task threads are too busy to take the work
+	 * @return The result of the work
+	 */
+	private <T> CompletableFuture<T> onDisk(Supplier<T> work, T whenBusy) {
+		try {
+			return disk.supply(work);
+		} catch (RejectedExecutionException e) {
+			System.err.println("Client cache skipped a file operation: " + e.getMessage());
+			return CompletableFuture.completedFuture(whenBusy);
+		}
+	}
+
+	private static String coverKey(int bookId, int size) {
+		return bookId + "_" + size;
+	}
+
+	private static FileTime lastModified(Path file) {
+		try {
+			return Files.getLastModifiedTime(file);
+		} catch (IOException e) {
+			return FileTime.fromMillis(0);
+		}
+	}
+}
@@ -41,7 +41,9 @@ public class ClientController {
 		try {
 			client = new BLibClient(host, port, this);
 			Message msg = new Message(null, Commands.ConnectClient);
-			client.sendToServer(msg);
+			client.sendMessageToServer(msg);
+			// Brings the saved catalog up to date while the user logs in
+			ClientCache.getInstance().syncCatalog();
 		} catch (IOException exception) {
 			throw new ConnectException("Unable to connect to the IP address");
 			// System.exit(1);
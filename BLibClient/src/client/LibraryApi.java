@@ -0,0 +1,464 @@
+package client;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import entities.ActivityLog;
+import entities.Book;
+import entities.BookCover;
+import entities.BookLoanDetailsDTO;
+import entities.CatalogChanges;
+import entities.HistoryForSubscriber;
+import entities.Notification;
+import entities.Page;
+import entities.PageRequest;
+import entities.PopularBook;
+import entities.PopularBooksRequest;
+import entities.RelatedBook;
+import entities.ReportSeries;
+import entities.ReportSeriesRequest;
+import entities.SubscriberDTO;
+import entities.User;
+import enums.Commands;
+
+/**
+ * Typed requests to the server that answer with a future instead of a call
+ * into a screen controller. Each request carries its own request ID and the
+ * server's reply completes the future of that request only, so a screen can
+ * have several requests outstanding, combine them, and cancel the ones that
+ * are no longer needed; a reply never reaches a different screen.
+ *
+ * <p>
+ * The futures complete on the thread that reads from the server. Code that
+ * updates the UI continues with {@code thenAcceptAsync(..., Platform::runLater)}.
+ * A request the server answers with an error message completes exceptionally
+ * with a {@link RequestFailedException}. Cancelling a future drops the reply
+ * when it arrives.
+ * </p>
+ */
+public final class LibraryApi {
+
+	/**
+	 * Thrown when the server answers a request with an error instead of the
+	 * expected reply.
+	 */
+	public static class RequestFailedException extends RuntimeException {
+		/** Serial version UID for serialization */
+		private static final long serialVersionUID = 1L;
+
+		/** The server's error message */
+		private final String reply;
+
+		private RequestFailedException(Commands command, Object reply) {
+			super(command + " failed: " + reply);
+			this.reply = String.valueOf(reply);
+		}
+
+		/**
+		 * Gets the error message the server answered with.
+		 *
+		 * @return The server's message
+		 */
+		public String getReply() {
+			return reply;
+		}
+	}
+
+	private LibraryApi() {
+	}
+
+	/**
+	 * Searches the books by title.
+	 *
+	 * @param title The text to search for
+	 * @return The rows of the books found, with their loans
+	 */
+	public static CompletableFuture<ArrayList<BookLoanDetailsDTO>> searchByTitle(String title) {
+		return request(Commands.GetBookByName, title, ArrayList.class, LibraryApi::rows);
+	}
+
+	/**
+	 * Searches the books by author.
+	 *
+	 * @param author The text to search for
+	 * @return The rows of the books found, with their loans
+	 */
+	public static CompletableFuture<ArrayList<BookLoanDetailsDTO>> searchByAuthor(String author) {
+		return request(Commands.GetBookByAuthor, author, ArrayList.class, LibraryApi::rows);
+	}
+
+	/**
+	 * Searches the books by subject.
+	 *
+	 * @param theme The text to search for
+	 * @return The rows of the books found, with their loans
+	 */
+	public static CompletableFuture<ArrayList<BookLoanDetailsDTO>> searchByTheme(String theme) {
+		return request(Commands.GetBookByTheme, theme, ArrayList.class, LibraryApi::rows);
+	}
+
+	/**
+	 * Searches the books by description.
+	 *
+	 * @param description The text to search for
+	 * @return The rows of the books found, with their loans
+	 */
+	public static CompletableFuture<ArrayList<BookLoanDetailsDTO>> searchByDescription(String description) {
+		return request(Commands.GetBookByDescription, description, ArrayList.class, LibraryApi::rows);
+	}
+
+	/**
+	 * Searches the books whose field, one of those offered in the search type
+	 * boxes, contains a text. It finds the same books as {@link CatalogSearch}.
+	 *
+	 * @param field {@link CatalogSearch#TITLE}, {@link CatalogSearch#AUTHOR},
+	 *              {@link CatalogSearch#THEME} or {@link CatalogSearch#DESCRIPTION}
+	 * @param text  The text to search for
+	 * @return The rows of the books found, with their loans
+	 */
+	public static CompletableFuture<ArrayList<BookLoanDetailsDTO>> search(String field, String text) {
+		return request(Commands.SearchBooks, new String[] { field, text }, ArrayList.class, LibraryApi::rows);
+	}
+
+	/**
+	 * Gets the changes to the catalog since a catalog version.
+	 *
+	 * @param epoch        The catalog epoch of the client's catalog, or null
+	 * @param sinceVersion The version of the client's catalog, or 0 for the whole catalog
+	 * @return The changes leading to the current catalog version
+	 */
+	public static CompletableFuture<CatalogChanges> getCatalogChanges(String epoch, long sinceVersion) {
+		return request(Commands.GetCatalogChanges, new Object[] { epoch, sinceVersion }, CatalogChanges.class,
+				Function.identity());
+	}
+
+	/**
+	 * Gets the cover of a book.
+	 *
+	 * @param bookId    ID of the book
+	 * @param knownHash Hash of the cover the client already holds, or null
+	 * @param size      {@link BookCover#FULL_SIZE} or a thumbnail size
+	 * @return The cover, without image data if it is not modified or the book has none
+	 */
+	public static CompletableFuture<BookCover> getBookCover(int bookId, String knownHash, int size) {
+		return request(Commands.GetBookCover, new Object[] { bookId, knownHash, size }, BookCover.class,
+				Function.identity());
+	}
+
+	/**
+	 * Gets the books most often borrowed together with a book.
+	 *
+	 * @param bookId ID of the book
+	 * @return The related books, most often borrowed together first
+	 */
+	@SuppressWarnings("unchecked")
+	public static CompletableFuture<ArrayList<RelatedBook>> getRelatedBooks(int bookId) {
+		return request(Commands.GetRelatedBooks, bookId, Object[].class,
+				(Object[] related) -> (ArrayList<RelatedBook>) related[1]);
+	}
+
+	/**
+	 * Gets the details of a book.
+	 *
+	 * @param bookId ID of the book
+	 * @return The book, or null if there is no book with this ID
+	 */
+	public static CompletableFuture<Book> getBook(int bookId) {
+		return request(Commands.getSimpleBookById, bookId, Book.class, Function.identity());
+	}
+
+	/**
+	 * Logs a user in.
+	 *
+	 * @param user The user ID and password
+	 * @return The {@link User} of a librarian or the {@link SubscriberDTO} of a
+	 *         member, or the server's message why the login failed
+	 */
+	public static CompletableFuture<Object> logIn(User user) {
+		return request(Commands.CheckUsername, user, Object.class, Function.identity());
+	}
+
+	/**
+	 * Creates a member account.
+	 *
+	 * @param member The new member
+	 * @return true once the member was created; fails with the server's message
+	 *         if it was not
+	 */
+	public static CompletableFuture<Boolean> createMember(User member) {
+		return request(Commands.CreateMember, member, Boolean.class, Function.identity());
+	}
+
+	/**
+	 * Updates the details of a member.
+	 *
+	 * @param member The member with the new details
+	 * @return "Success", or the server's message why the update failed
+	 */
+	public static CompletableFuture<String> updateMember(SubscriberDTO member) {
+		return request(Commands.UpdateMember, member, String.class, Function.identity());
+	}
+
+	/**
+	 * Returns a book, or reports it lost.
+	 *
+	 * @param bookId      ID of the book, as typed
+	 * @param memberId    ID of the member, as typed
+	 * @param librarianId ID of the librarian
+	 * @param lost        Whether the book is lost
+	 * @return The server's message, starting with "Successfully" if the book was returned
+	 */
+	public static CompletableFuture<String> returnBook(String bookId, String memberId, int librarianId, boolean lost) {
+		return request(Commands.ReturnBook, new Object[] { bookId, memberId, librarianId, lost }, String.class,
+				Function.identity());
+	}
+
+	/**
+	 * Lends a book to a member.
+	 *
+	 * @param bookId      ID of the book, as typed
+	 * @param bookName    Title of the book
+	 * @param memberId    ID of the member, as typed
+	 * @param librarianId ID of the librarian
+	 * @return The server's message, starting with "Successfully" if the book was lent
+	 */
+	public static CompletableFuture<String> borrowBook(String bookId, String bookName, String memberId,
+			int librarianId) {
+		return request(Commands.BorrowBook, new Object[] { bookId, bookName, memberId, librarianId }, String.class,
+				Function.identity());
+	}
+
+	/**
+	 * Extends the loan of a book.
+	 *
+	 * @param memberId    ID of the member
+	 * @param bookId      ID of the book
+	 * @param librarianId ID of the librarian, or 0 if the member asks
+	 * @return The server's message, starting with "Successfully" if the loan was extended
+	 */
+	public static CompletableFuture<String> extendLoan(int memberId, int bookId, int librarianId) {
+		return request(Commands.ExtendBookLoan, new Object[] { memberId, bookId, librarianId }, String.class,
+				Function.identity());
+	}
+
+	/**
+	 * Reserves a book for a member.
+	 *
+	 * @param memberId ID of the member
+	 * @param bookId   ID of the book
+	 * @return The server's answer, such as "success" or "alreadyreserved"
+	 */
+	public static CompletableFuture<String> orderBook(int memberId, int bookId) {
+		return request(Commands.OrderBook, new Object[] { memberId, bookId }, String.class, Function.identity());
+	}
+
+	/**
+	 * Gets the loans of a member.
+	 *
+	 * @param member The member
+	 * @return The member's loans, or null if they could not be read
+	 */
+	public static CompletableFuture<ArrayList<HistoryForSubscriber>> getBorrowHistory(SubscriberDTO member) {
+		return request(Commands.GetBorrowHistory, member, ArrayList.class, LibraryApi::rows);
+	}
+
+	/**
+	 * Gets the notifications of a member.
+	 *
+	 * @param memberId ID of the member
+	 * @return The member's notifications
+	 */
+	public static CompletableFuture<ArrayList<Notification>> getNotifications(int memberId) {
+		return request(Commands.GetNotifications, memberId, ArrayList.class, LibraryApi::rows);
+	}
+
+	/**
+	 * Deletes notifications.
+	 *
+	 * @param notificationIds IDs of the notifications
+	 * @return Whether they were deleted
+	 */
+	public static CompletableFuture<Boolean> deleteNotifications(ArrayList<Integer> notificationIds) {
+		return request(Commands.DeleteNotifications, notificationIds, Boolean.class, Function.identity());
+	}
+
+	/**
+	 * Gets the activity logs of a member.
+	 *
+	 * @param memberId ID of the member
+	 * @return The member's activity logs
+	 */
+	public static CompletableFuture<ArrayList<ActivityLog>> getActivityLogsByMember(int memberId) {
+		return request(Commands.GetActivityLogsByMember, memberId, ArrayList.class, LibraryApi::rows);
+	}
+
+	/**
+	 * Gets the activity logs of one librarian or member.
+	 *
+	 * @param user The user ID and whether it is a librarian or a member
+	 * @return The user's activity logs
+	 */
+	public static CompletableFuture<ArrayList<ActivityLog>> getFilteredActivityLogs(User user) {
+		return request(Commands.GetFilteredActivityLogs, user, ArrayList.class, LibraryApi::rows);
+	}
+
+	/**
+	 * Gets the activity logs between two dates, archived logs included.
+	 *
+	 * @param from The first day
+	 * @param to   The last day
+	 * @return The activity logs of these days
+	 */
+	public static CompletableFuture<ArrayList<ActivityLog>> getActivityLogsInRange(LocalDate from, LocalDate to) {
+		return request(Commands.GetActivityLogsByDateRange, new LocalDate[] { from, to }, ArrayList.class,
+				LibraryApi::rows);
+	}
+
+	/**
+	 * Gets a page of the recent activity logs.
+	 *
+	 * @param pageRequest The page to get
+	 * @return The page
+	 */
+	public static CompletableFuture<Page<ActivityLog>> getActivityLogsPage(PageRequest pageRequest) {
+		return request(Commands.GetActivityLogsPage, pageRequest, Page.class, LibraryApi::page);
+	}
+
+	/**
+	 * Gets a page of the members.
+	 *
+	 * @param pageRequest The page to get
+	 * @return The page
+	 */
+	public static CompletableFuture<Page<SubscriberDTO>> getMembersPage(PageRequest pageRequest) {
+		return request(Commands.GetAllMembersPage, pageRequest, Page.class, LibraryApi::page);
+	}
+
+	/**
+	 * Gets a page of the books, with their loans.
+	 *
+	 * @param pageRequest The page to get
+	 * @return The page
+	 */
+	public static CompletableFuture<Page<BookLoanDetailsDTO>> getBooksPage(PageRequest pageRequest) {
+		return request(Commands.GetAllBooksPage, pageRequest, Page.class, LibraryApi::page);
+	}
+
+	/**
+	 * Gets the loan durations of a recent period, for the loan duration chart.
+	 *
+	 * @param days Length of the period in days
+	 * @return The chart values
+	 */
+	public static CompletableFuture<ArrayList<Number>> getLoanDurationChart(int days) {
+		return request(Commands.GetLoanDurationChart, days, ArrayList.class, LibraryApi::rows);
+	}
+
+	/**
+	 * Gets the on-time and late returns of a recent period, for the return
+	 * status chart.
+	 *
+	 * @param days Length of the period in days
+	 * @return The chart values
+	 */
+	public static CompletableFuture<ArrayList<Number>> getLateReturnChart(int days) {
+		return request(Commands.GetLateReturnChart, days, ArrayList.class, LibraryApi::rows);
+	}
+
+	/**
+	 * Gets the member status counts of a recent period.
+	 *
+	 * @param days Length of the period in days
+	 * @return The active and frozen counts by period
+	 */
+	@SuppressWarnings("unchecked")
+	public static CompletableFuture<Map<String, ArrayList<Number>>> getMemberStatus(int days) {
+		return request(Commands.GetMemberStatus, days, Map.class,
+				(Map<?, ?> statusData) -> (Map<String, ArrayList<Number>>) statusData);
+	}
+
+	/**
+	 * Gets the values of a report metric over a date range.
+	 *
+	 * @param seriesRequest The metric, the dates and the number of points
+	 * @return The values over time
+	 */
+	public static CompletableFuture<ReportSeries> getReportSeries(ReportSeriesRequest seriesRequest) {
+		return request(Commands.GetReportSeries, seriesRequest, ReportSeries.class, Function.identity());
+	}
+
+	/**
+	 * Gets the most borrowed or most reserved books of a recent window.
+	 *
+	 * @param popularRequest The activity, the window and the number of books
+	 * @return The books, most popular first
+	 */
+	public static CompletableFuture<ArrayList<PopularBook>> getPopularBooks(PopularBooksRequest popularRequest) {
+		return request(Commands.GetPopularBooks, popularRequest, ArrayList.class, LibraryApi::rows);
+	}
+
+	/**
+	 * Gets the estimated numbers of distinct active members of a recent window.
+	 *
+	 * @param days Length of the window in days
+	 * @return The counts by label
+	 */
+	@SuppressWarnings("unchecked")
+	public static CompletableFuture<Map<String, Long>> getDistinctMembers(int days) {
+		return request(Commands.GetDistinctMembers, days, Object[].class,
+				(Object[] distinctMembers) -> (Map<String, Long>) distinctMembers[1]);
+	}
+
+	/**
+	 * Gets the message to show for a failed request: the server's message if it
+	 * answered with one, otherwise the cause of the failure.
+	 *
+	 * @param error The error a future completed with
+	 * @return The message
+	 */
+	public static String errorMessage(Throwable error) {
+		Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+		return cause instanceof RequestFailedException ? ((RequestFailedException) cause).getReply()
+				: cause.getMessage();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> ArrayList<T> rows(Object rows) {
+		return (ArrayList<T>) rows;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> Page<T> page(Object page) {
+		return (Page<T>) page;
+	}
+
+	/**
+	 * Sends a request and converts its reply. A reply of another type is the
+	 * server's error message; a null reply is passed on as null.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <R, T> CompletableFuture<T> request(Commands command, Object payload, Class<?> replyType,
+			Function<R, T> convert) {
+		CompletableFuture<Object> reply = ClientController.client.request(command, payload);
+		CompletableFuture<T> result = reply.thenApply(obj -> {
+			if (obj == null) {
+				return null;
+			}
+			if (!replyType.isInstance(obj)) {
+				throw new RequestFailedException(command, obj);
+			}
+			return convert.apply((R) obj);
+		});
+		// Cancelling the result also forgets the request, so its reply is dropped
+		result.whenComplete((value, error) -> {
+			if (result.isCancelled()) {
+				reply.cancel(false);
+			}
+		});
+		return result;
+	}
+}
@@ -0,0 +1,213 @@
+package client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import entities.Page;
+import entities.PageRequest;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+
+/**
+ * Loads the rows of a {@link TableView} page by page as the user scrolls. The
+ * first page is requested by {@link #reload()}, and the next page is requested
+ * when the vertical scroll bar gets close to the bottom. While the loaded rows
+ * do not fill the table, so there is no scroll bar, pages are requested until
+ * they do or the last page arrived. Each request carries a keyset cursor built
+ * from the last loaded row, and is made through a {@link LibraryApi} future, so
+ * its page comes back to this loader only.
+ *
+ * <p>
+ * All methods must be called on the JavaFX application thread.
+ * </p>
+ *
+ * @param <T> The type of the table rows
+ */
+public class PagedTableLoader<T> {
+	/** Fraction of the scroll range after which the next page is requested */
+	private static final double LOAD_THRESHOLD = 0.9;
+
+	private final TableView<T> table;
+	private final Function<PageRequest, CompletableFuture<Page<T>>> fetchPage;
+	private final int pageSize;
+	private final Function<T, PageRequest> nextPageRequest;
+	private final ObservableList<T> rows = FXCollections.observableArrayList();
+
+	private boolean active;
+	private boolean hasMore;
+	/** The page request waiting for the server, or null */
+	private CompletableFuture<Page<T>> loading;
+	private Consumer<Page<T>> onPage = page -> {
+	};
+	private Consumer<Throwable> onError = error -> System.err.println("Loading a page failed: " + error.getMessage());
+
+	/**
+	 * Constructs a loader for the given table.
+	 *
+	 * @param table           The table to fill
+	 * @param fetchPage       Requests a page from the server, such as
+	 *                        {@link LibraryApi#getBooksPage(PageRequest)}
+	 * @param pageSize        Number of rows per page
+	 * @param nextPageRequest Builds the request for the page after the given row
+	 */
+	public PagedTableLoader(TableView<T> table, Function<PageRequest, CompletableFuture<Page<T>>> fetchPage,
+			int pageSize, Function<T, PageRequest> nextPageRequest) {
+		this.table = table;
+		this.fetchPage = fetchPage;
+		this.pageSize = pageSize;
+		this.nextPageRequest = nextPageRequest;
+
+		if (table.getSkin() != null) {
+			attachScrollListener();
+		}
+		table.skinProperty().addListener((obs, oldSkin, newSkin) -> {
+			if (newSkin != null) {
+				attachScrollListener();
+				fillTable();
+			}
+		});
+		// A taller table may have room for more rows
+		table.heightProperty().addListener((obs, oldHeight, newHeight) -> fillTable());
+	}
+
+	/**
+	 * Gets the rows loaded so far.
+	 *
+	 * @return The loaded rows
+	 */
+	public ObservableList<T> getRows() {
+		return rows;
+	}
+
+	/**
+	 * Sets what else to do with each page added to the table.
+	 *
+	 * @param onPage Called with each page, after its rows were added
+	 */
+	public void setOnPage(Consumer<Page<T>> onPage) {
+		this.onPage = onPage;
+	}
+
+	/**
+	 * Sets how a failed page request is reported. Scrolling retries it.
+	 *
+	 * @param onError Called with the cause of the failure
+	 */
+	public void setOnError(Consumer<Throwable> onError) {
+		this.onError = onError;
+	}
+
+	/**
+	 * Shows the loaded rows in the table and requests the first page again.
+	 */
+	public void reload() {
+		active = true;
+		hasMore = false;
+		table.setItems(rows);
+		request(new PageRequest(pageSize));
+	}
+
+	/**
+	 * Stops loading pages, for when the table shows other rows such as search
+	 * or filter results. A page still on its way is cancelled.
+	 */
+	public void stop() {
+		active = false;
+		cancelLoading();
+	}
+
+	private void cancelLoading() {
+		if (loading != null) {
+			CompletableFuture<Page<T>> request = loading;
+			loading = null;
+			request.cancel(false);
+		}
+	}
+
+	/**
+	 * Adds a page received from the server to the table.
+	 *
+	 * @param page The page of rows
+	 */
+	private void handlePage(Page<T> page) {
+		if (page.isFirstPage()) {
+			rows.setAll(page.getItems());
+		} else {
+			rows.addAll(page.getItems());
+		}
+		hasMore = page.hasMore();
+		onPage.accept(page);
+		fillTable();
+	}
+
+	/**
+	 * Requests the next page, unless a request is already running or all rows
+	 * are loaded.
+	 */
+	public void loadMore() {
+		if (!active || loading != null || !hasMore || rows.isEmpty()) {
+			return;
+		}
+		request(nextPageRequest.apply(rows.get(rows.size() - 1)));
+	}
+
+	/**
+	 * Requests a page, replacing a request still waiting for the server.
+	 */
+	private void request(PageRequest pageRequest) {
+		cancelLoading();
+		CompletableFuture<Page<T>> request = fetchPage.apply(pageRequest);
+		loading = request;
+		request.whenCompleteAsync((page, error) -> {
+			if (request != loading) {
+				return; // Cancelled or replaced by a newer request
+			}
+			loading = null;
+			if (error != null) {
+				onError.accept(error);
+			} else {
+				handlePage(page);
+			}
+		}, Platform::runLater);
+	}
+
+	/**
+	 * Requests the next page if the loaded rows do not fill the table yet, so
+	 * there is no scroll bar to scroll to the bottom.
+	 */
+	private void fillTable() {
+		if (table.getSkin() == null) {
+			return; // Filled when the table is shown
+		}
+		table.layout();
+		ScrollBar bar = verticalScrollBar();
+		if (bar == null || !bar.isVisible()) {
+			loadMore();
+		}
+	}
+
+	private ScrollBar verticalScrollBar() {
+		for (Node node : table.lookupAll(".scroll-bar")) {
+			if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+				return (ScrollBar) node;
+			}
+		}
+		return null;
+	}
+
+	private void attachScrollListener() {
+		ScrollBar bar = verticalScrollBar();
+		if (bar != null) {
+			bar.valueProperty().addListener((obs, oldValue, newValue) -> {
+				if (newValue.doubleValue() >= bar.getMax() * LOAD_THRESHOLD) {
+					loadMore();
+				}
+			});
+		}
+	}
+}
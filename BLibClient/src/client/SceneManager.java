@@ -0,0 +1,166 @@
+package client;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+/**
+ * Keeps the loaded screens of the client, so switching to a screen shown
+ * before does not parse its FXML and initialize a new controller again; only
+ * its data is loaded again. The screens a member goes to from the member menu
+ * are loaded right after login, one at a time between the events of the menu,
+ * so even the first visit does not wait for them.
+ *
+ * <p>
+ * Screens are kept by the path of their FXML file until {@link #clear()} is
+ * called at logout. All methods are called on the JavaFX application thread,
+ * where the screens are also loaded, since controllers touch their nodes and
+ * the client when they are initialized.
+ * </p>
+ */
+public class SceneManager {
+	/** The screens reached from the member menu, loaded after a member logs in */
+	public static final String[] MEMBER_SCREENS = { "/member/BookSearchMember.fxml",
+			"/member/NotificationsMember.fxml", "/member/MemberCard.fxml", "/member/MembersBorrowHistory.fxml",
+			"/member/MemberActivityLogs.fxml" };
+
+	private static SceneManager instance;
+
+	/** Loaded screens by FXML path, also while they wait to be preloaded */
+	private final Map<String, CompletableFuture<Screen>> screens = new HashMap<>();
+
+	/**
+	 * A loaded screen: its nodes, the scene showing them once it was shown, and
+	 * its controller.
+	 */
+	private static class Screen {
+		private final Parent root;
+		private final Object controller;
+		private Scene scene;
+
+		private Screen(Parent root, Object controller) {
+			this.root = root;
+			this.controller = controller;
+		}
+	}
+
+	/**
+	 * Private constructor to enforce singleton pattern.
+	 */
+	private SceneManager() {
+	}
+
+	/**
+	 * Gets the singleton instance of SceneManager. Creates the instance if it
+	 * doesn't exist.
+	 *
+	 * @return The singleton instance of SceneManager
+	 */
+	public static synchronized SceneManager getInstance() {
+		if (instance == null) {
+			instance = new SceneManager();
+		}
+		return instance;
+	}
+
+	/**
+	 * Loads screens that are not loaded yet, each in its own turn of the JavaFX
+	 * application thread, so the shown screen stays responsive meanwhile.
+	 *
+	 * @param fxmlPaths Paths of the FXML files of the screens
+	 */
+	public void preload(String... fxmlPaths) {
+		for (String fxmlPath : fxmlPaths) {
+			if (screens.containsKey(fxmlPath)) {
+				continue;
+			}
+			CompletableFuture<Screen> loaded = new CompletableFuture<>();
+			screens.put(fxmlPath, loaded);
+			Platform.runLater(() -> {
+				if (loaded.isDone()) {
+					return; // Shown or dropped before its turn
+				}
+				try {
+					loaded.complete(load(fxmlPath));
+				} catch (IOException e) {
+					loaded.completeExceptionally(e);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Shows a screen on a stage. A screen that was loaded before is shown as it
+	 * was left. The data of a {@link CachedScreen} is loaded each time it is
+	 * shown.
+	 *
+	 * @param <T>      The type of the screen's controller
+	 * @param stage    The stage to show the screen on
+	 * @param fxmlPath Path of the FXML file of the screen
+	 * @param title    Title of the stage
+	 * @return The controller of the screen
+	 * @throws IOException If the FXML file cannot be loaded
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T show(Stage stage, String fxmlPath, String title) throws IOException {
+		CompletableFuture<Screen> loaded = screens.get(fxmlPath);
+		Screen screen = null;
+		if (loaded != null && loaded.isDone() && !loaded.isCompletedExceptionally()) {
+			screen = loaded.join();
+		}
+		if (screen == null) {
+			// Not preloaded yet, or its preload failed and is tried again so the error reaches the caller
+			screen = load(fxmlPath);
+			if (loaded == null || !loaded.complete(screen)) {
+				screens.put(fxmlPath, CompletableFuture.completedFuture(screen));
+			}
+		}
+		if (screen.scene == null) {
+			screen.scene = new Scene(screen.root);
+		}
+		if (screen.controller instanceof CachedScreen) {
+			((CachedScreen) screen.controller).refresh();
+		}
+
+		stage.setTitle(title);
+		stage.setScene(screen.scene);
+		stage.show();
+		return (T) screen.controller;
+	}
+
+	/**
+	 * Drops the kept screens, such as at logout, so the next user gets new
+	 * ones. Screens still waiting to be preloaded are not loaded, and the
+	 * client stops passing server messages to the dropped controllers.
+	 */
+	public void clear() {
+		for (CompletableFuture<Screen> loaded : screens.values()) {
+			if (!loaded.isDone()) {
+				loaded.cancel(false);
+				continue;
+			}
+			if (loaded.isCompletedExceptionally()) {
+				continue;
+			}
+			Screen screen = loaded.join();
+			if (screen.controller instanceof CachedScreen) {
+				((CachedScreen) screen.controller).close();
+			}
+			BLibClient.forgetController(screen.controller);
+		}
+		screens.clear();
+	}
+
+	private static Screen load(String fxmlPath) throws IOException {
+		FXMLLoader loader = new FXMLLoader(SceneManager.class.getResource(fxmlPath));
+		Parent root = loader.load();
+		return new Screen(root, loader.getController());
+	}
+}
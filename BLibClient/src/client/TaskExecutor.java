@@ -0,0 +1,240 @@
+package client;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs the background work of the client screens on a small shared pool of
+ * named threads, instead of a new thread for every task. The pool has a fixed
+ * number of threads and a bounded queue, so fast clicking cannot start more
+ * work than the desk PC can do: a task that does not fit is rejected.
+ *
+ * <p>
+ * Screens submit their tasks through a {@link TaskGroup}, which cancels the
+ * tasks still queued or running when the screen is closed. The executor
+ * counts the tasks it ran, for {@link #getMetrics()}.
+ * </p>
+ */
+public class TaskExecutor {
+	/** Threads running tasks; at most four, so the screens stay responsive */
+	private static final int POOL_SIZE = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	/** Tasks waiting for a thread before new ones are rejected */
+	private static final int QUEUE_CAPACITY = 64;
+
+	/** Time an idle thread is kept, in seconds */
+	private static final long KEEP_ALIVE_SECONDS = 60;
+
+	private static TaskExecutor instance;
+
+	private final AtomicInteger threadNumber = new AtomicInteger();
+	private final ThreadPoolExecutor pool;
+
+	// Task metrics
+	private final AtomicLong submitted = new AtomicLong();
+	private final AtomicLong completed = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong cancelled = new AtomicLong();
+	private final AtomicLong rejected = new AtomicLong();
+	private final AtomicLong runNanos = new AtomicLong();
+
+	/**
+	 * Private constructor to enforce singleton pattern.
+	 */
+	private TaskExecutor() {
+		pool = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+					Thread thread = new Thread(runnable, "BLibClient-task-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		pool.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Gets the singleton instance of TaskExecutor. Creates the instance if it
+	 * doesn't exist.
+	 *
+	 * @return The singleton instance of TaskExecutor
+	 */
+	public static synchronized TaskExecutor getInstance() {
+		if (instance == null) {
+			instance = new TaskExecutor();
+		}
+		return instance;
+	}
+
+	/**
+	 * Creates a group for the tasks of one screen.
+	 *
+	 * @param name Name of the group, used in error messages
+	 * @return The new task group
+	 */
+	public TaskGroup newGroup(String name) {
+		return new TaskGroup(name);
+	}
+
+	/**
+	 * Describes the tasks run so far and the current load of the pool.
+	 *
+	 * @return The task counts, the average run time and the threads and queue in use
+	 */
+	public String getMetrics() {
+		long ran = completed.get() + failed.get();
+		return String.format(
+				"submitted=%d, completed=%d, failed=%d, cancelled=%d, rejected=%d, avgRunMs=%.1f, active=%d/%d, queued=%d",
+				submitted.get(), completed.get(), failed.get(), cancelled.get(), rejected.get(),
+				ran == 0 ? 0.0 : runNanos.get() / 1e6 / ran, pool.getActiveCount(), POOL_SIZE, pool.getQueue().size());
+	}
+
+	/**
+	 * The tasks of one screen. Tasks submitted through the group run on the
+	 * shared pool and can all be cancelled together when the screen closes.
+	 */
+	public class TaskGroup {
+		private final String name;
+
+		/** The tasks of the group that are queued or running */
+		private final Set<GroupTask> tasks = ConcurrentHashMap.newKeySet();
+
+		private TaskGroup(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Runs a task in the background. A task that is itself a {@link Future},
+		 * such as a JavaFX {@code Task}, is also cancelled when the group is
+		 * cancelled, and counted as failed when it ends with an exception.
+		 *
+		 * @param task The task to run
+		 * @return A future to cancel the task or wait for it
+		 * @throws RejectedExecutionException If too many tasks are waiting
+		 */
+		public Future<?> submit(Runnable task) {
+			GroupTask groupTask = new GroupTask(task);
+			tasks.add(groupTask);
+			submitted.incrementAndGet();
+			try {
+				pool.execute(groupTask);
+			} catch (RejectedExecutionException e) {
+				tasks.remove(groupTask);
+				rejected.incrementAndGet();
+				throw e;
+			}
+			return groupTask;
+		}
+
+		/**
+		 * Computes a value in the background. The returned future is cancelled
+		 * with the task, also if the task was still queued and never ran.
+		 *
+		 * @param <T>      The type of the value
+		 * @param supplier Computes the value
+		 * @return A future completed with the value, or exceptionally if the
+		 *         supplier fails or the task is cancelled
+		 * @throws RejectedExecutionException If too many tasks are waiting
+		 */
+		public <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+			SupplyTask<T> task = new SupplyTask<>(supplier);
+			submit(task);
+			return task;
+		}
+
+		/**
+		 * Cancels the tasks of the group that are queued or running. Running
+		 * tasks are interrupted.
+		 */
+		public void cancelAll() {
+			for (GroupTask task : tasks) {
+				task.cancel(true);
+			}
+		}
+
+		/**
+		 * A task of the group. Leaves the group when it is done and counts how it
+		 * ended.
+		 */
+		private class GroupTask extends FutureTask<Void> {
+			private final Runnable task;
+
+			private GroupTask(Runnable task) {
+				super(task, null);
+				this.task = task;
+			}
+
+			@Override
+			public void run() {
+				long start = System.nanoTime();
+				try {
+					super.run();
+				} finally {
+					runNanos.addAndGet(System.nanoTime() - start);
+				}
+			}
+
+			@Override
+			public boolean cancel(boolean mayInterruptIfRunning) {
+				if (task instanceof Future) {
+					((Future<?>) task).cancel(mayInterruptIfRunning);
+				}
+				return super.cancel(mayInterruptIfRunning);
+			}
+
+			@Override
+			protected void done() {
+				tasks.remove(this);
+				try {
+					get();
+					if (task instanceof Future && ((Future<?>) task).isDone()) {
+						// A JavaFX Task or a supplied value catches its own failure
+						((Future<?>) task).get();
+					}
+					completed.incrementAndGet();
+				} catch (CancellationException e) {
+					cancelled.incrementAndGet();
+				} catch (ExecutionException e) {
+					failed.incrementAndGet();
+					System.err.println("Background task of " + name + " failed: " + e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+	/**
+	 * A value computed by {@link TaskGroup#supply}. As a {@link Future} it is
+	 * cancelled together with its group task.
+	 */
+	private static class SupplyTask<T> extends CompletableFuture<T> implements Runnable {
+		private final Supplier<T> supplier;
+
+		private SupplyTask(Supplier<T> supplier) {
+			this.supplier = supplier;
+		}
+
+		@Override
+		public void run() {
+			if (isDone()) {
+				return;
+			}
+			try {
+				complete(supplier.get());
+			} catch (Throwable e) {
+				completeExceptionally(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package entities;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * Represents the client's copy of the whole book catalog at one catalog
+ * version, as shown in the book search tables. It is kept up to date with the
+ * {@link CatalogChanges} sent by the server. Implements Serializable for
+ * saving it on the client.
+ */
+public class CatalogSnapshot implements Serializable {
+	/** Serial version UID for serialization */
+	private static final long serialVersionUID = 1L;
+
+	/** Catalog epoch of the version */
+	private String epoch;
+
+	/** Catalog version the books were read at */
+	private long version;
+
+	/** The books with their loans, ordered by book ID */
+	private ArrayList<BookLoanDetailsDTO> books;
+
+	/**
+	 * Constructs a catalog snapshot.
+	 *
+	 * @param epoch   Catalog epoch of the version
+	 * @param version Catalog version the books were read at
+	 * @param books   The books with their loans, ordered by book ID
+	 */
+	public CatalogSnapshot(String epoch, long version, ArrayList<BookLoanDetailsDTO> books) {
+		this.epoch = epoch;
+		this.version = version;
+		this.books = books;
+	}
+
+	/**
+	 * Gets the catalog epoch of the version.
+	 *
+	 * @return The catalog epoch, or null for a catalog saved before epochs
+	 */
+	public String getEpoch() {
+		return epoch;
+	}
+
+	/**
+	 * Gets the catalog version.
+	 *
+	 * @return The version the books were read at
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Gets the books of the catalog.
+	 *
+	 * @return The books with their loans, ordered by book ID
+	 */
+	public ArrayList<BookLoanDetailsDTO> getBooks() {
+		return books;
+	}
+}
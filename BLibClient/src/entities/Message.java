@@ -24,6 +24,12 @@ public class Message implements Serializable {
 	 */
 	private Commands cmd;
 
+	/**
+	 * Identifies a request and its reply, so the client can match a reply to the
+	 * request it answers. Zero for messages that are not part of a request.
+	 */
+	private long requestId;
+
 	/**
 	 * Constructs a new Message object with the specified object and command.
 	 * 
@@ -70,4 +76,22 @@ public class Message implements Serializable {
 	public void setCmd(Commands cmd) {
 		this.cmd = cmd;
 	}
+
+	/**
+	 * Returns the ID of the request this message is or answers.
+	 * 
+	 * @return The request ID, or zero if the message is not part of a request.
+	 */
+	public long getRequestId() {
+		return requestId;
+	}
+
+	/**
+	 * Sets the ID of the request this message is or answers.
+	 * 
+	 * @param requestId The request ID.
+	 */
+	public void setRequestId(long requestId) {
+		this.requestId = requestId;
+	}
 }
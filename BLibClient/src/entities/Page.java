@@ -0,0 +1,64 @@
+package entities;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * Represents one page of rows returned for a {@link PageRequest}.
+ * Implements Serializable for network transmission.
+ *
+ * @param <T> The type of the rows
+ */
+public class Page<T> implements Serializable {
+	/** Serial version UID for serialization */
+	private static final long serialVersionUID = 1L;
+
+	/** Rows of this page */
+	private ArrayList<T> items;
+
+	/** Whether this is the first page, so the client replaces its rows */
+	private boolean firstPage;
+
+	/** Whether more rows follow this page */
+	private boolean hasMore;
+
+	/**
+	 * Constructs a new page.
+	 *
+	 * @param items     Rows of this page
+	 * @param firstPage Whether this is the first page
+	 * @param hasMore   Whether more rows follow this page
+	 */
+	public Page(ArrayList<T> items, boolean firstPage, boolean hasMore) {
+		this.items = items;
+		this.firstPage = firstPage;
+		this.hasMore = hasMore;
+	}
+
+	/**
+	 * Gets the rows of this page.
+	 *
+	 * @return The rows
+	 */
+	public ArrayList<T> getItems() {
+		return items;
+	}
+
+	/**
+	 * Checks whether this is the first page.
+	 *
+	 * @return true if the client should replace its rows
+	 */
+	public boolean isFirstPage() {
+		return firstPage;
+	}
+
+	/**
+	 * Checks whether more rows follow this page.
+	 *
+	 * @return true if another page can be requested
+	 */
+	public boolean hasMore() {
+		return hasMore;
+	}
+}
@@ -0,0 +1,62 @@
+package entities;
+
+import java.io.Serializable;
+
+/**
+ * Represents a book in a popularity ranking, with the number of times it was
+ * borrowed or reserved in the ranked window. Implements Serializable for
+ * network transmission.
+ */
+public class PopularBook implements Serializable {
+	/** Serial version UID for serialization */
+	private static final long serialVersionUID = 1L;
+
+	/** ID of the book */
+	private int bookId;
+
+	/** Title of the book */
+	private String title;
+
+	/** Estimated number of borrows or reservations */
+	private long count;
+
+	/**
+	 * Constructs a ranked book.
+	 *
+	 * @param bookId ID of the book
+	 * @param title  Title of the book
+	 * @param count  Estimated number of borrows or reservations
+	 */
+	public PopularBook(int bookId, String title, long count) {
+		this.bookId = bookId;
+		this.title = title;
+		this.count = count;
+	}
+
+	/**
+	 * Gets the book ID.
+	 *
+	 * @return The ID of the book
+	 */
+	public int getBookId() {
+		return bookId;
+	}
+
+	/**
+	 * Gets the book title.
+	 *
+	 * @return The title of the book
+	 */
+	public String getTitle() {
+		return title;
+	}
+
+	/**
+	 * Gets the estimated number of borrows or reservations.
+	 *
+	 * @return The count
+	 */
+	public long getCount() {
+		return count;
+	}
+}
@@ -0,0 +1,81 @@
+package entities;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+import enums.ReportMetric;
+
+/**
+ * Represents the values of a report metric over a date range. Each point
+ * covers a bucket of the same number of days, starting at its bucket date.
+ * Implements Serializable for network transmission.
+ */
+public class ReportSeries implements Serializable {
+	/** Serial version UID for serialization */
+	private static final long serialVersionUID = 1L;
+
+	/** The charted metric */
+	private ReportMetric metric;
+
+	/** Number of days covered by each point */
+	private int bucketDays;
+
+	/** First day of each bucket */
+	private ArrayList<LocalDate> bucketStarts;
+
+	/** Value of each bucket, null where there is no data */
+	private ArrayList<Number> values;
+
+	/**
+	 * Constructs a series.
+	 *
+	 * @param metric       The charted metric
+	 * @param bucketDays   Number of days covered by each point
+	 * @param bucketStarts First day of each bucket
+	 * @param values       Value of each bucket, null where there is no data
+	 */
+	public ReportSeries(ReportMetric metric, int bucketDays, ArrayList<LocalDate> bucketStarts,
+			ArrayList<Number> values) {
+		this.metric = metric;
+		this.bucketDays = bucketDays;
+		this.bucketStarts = bucketStarts;
+		this.values = values;
+	}
+
+	/**
+	 * Gets the charted metric.
+	 *
+	 * @return The metric
+	 */
+	public ReportMetric getMetric() {
+		return metric;
+	}
+
+	/**
+	 * Gets the number of days covered by each point.
+	 *
+	 * @return The bucket size in days
+	 */
+	public int getBucketDays() {
+		return bucketDays;
+	}
+
+	/**
+	 * Gets the first day of each bucket.
+	 *
+	 * @return The bucket start dates
+	 */
+	public ArrayList<LocalDate> getBucketStarts() {
+		return bucketStarts;
+	}
+
+	/**
+	 * Gets the value of each bucket.
+	 *
+	 * @return The values, null where there is no data
+	 */
+	public ArrayList<Number> getValues() {
+		return values;
+	}
+}
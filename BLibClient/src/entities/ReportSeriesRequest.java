@@ -0,0 +1,84 @@
+package entities;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import enums.ReportMetric;
+
+/**
+ * Represents a request for the values of a report metric over a date range.
+ * The server groups the days into buckets so that no more than the requested
+ * number of points is returned, whatever the length of the range.
+ * Implements Serializable for network transmission.
+ */
+public class ReportSeriesRequest implements Serializable {
+	/** Serial version UID for serialization */
+	private static final long serialVersionUID = 1L;
+
+	/** Largest number of points the server will return */
+	public static final int MAX_POINTS = 500;
+
+	/** The metric to chart */
+	private ReportMetric metric;
+
+	/** First day of the range */
+	private LocalDate from;
+
+	/** Last day of the range */
+	private LocalDate to;
+
+	/** Number of points the chart can show */
+	private int maxPoints;
+
+	/**
+	 * Constructs a series request.
+	 *
+	 * @param metric    The metric to chart
+	 * @param from      First day of the range
+	 * @param to        Last day of the range
+	 * @param maxPoints Number of points the chart can show
+	 */
+	public ReportSeriesRequest(ReportMetric metric, LocalDate from, LocalDate to, int maxPoints) {
+		this.metric = metric;
+		this.from = from;
+		this.to = to;
+		this.maxPoints = maxPoints;
+	}
+
+	/**
+	 * Gets the metric to chart.
+	 *
+	 * @return The metric
+	 */
+	public ReportMetric getMetric() {
+		return metric;
+	}
+
+	/**
+	 * Gets the first day of the range.
+	 *
+	 * @return The start date
+	 */
+	public LocalDate getFrom() {
+		return from;
+	}
+
+	/**
+	 * Gets the last day of the range.
+	 *
+	 * @return The end date
+	 */
+	public LocalDate getTo() {
+		return to;
+	}
+
+	/**
+	 * Gets the number of points the chart can show, limited to between 1 and
+	 * {@link #MAX_POINTS}.
+	 *
+	 * @return The maximum number of points
+	 */
+	public int getMaxPoints() {
+		return Math.max(1, Math.min(maxPoints, MAX_POINTS));
+	}
+}
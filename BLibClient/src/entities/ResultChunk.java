@@ -0,0 +1,66 @@
+package entities;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * Represents one chunk of a result that the server streams to the client in
+ * several messages instead of a single large list. The chunks of a result are
+ * sent in order and the last one is marked as the end of the result.
+ * Implements Serializable for network transmission.
+ *
+ * @param <T> The type of the rows
+ */
+public class ResultChunk<T> implements Serializable {
+	/** Serial version UID for serialization */
+	private static final long serialVersionUID = 1L;
+
+	/** Rows of this chunk */
+	private ArrayList<T> rows;
+
+	/** Position of this chunk in the result, starting at 0 */
+	private int sequence;
+
+	/** Whether this chunk ends the result */
+	private boolean last;
+
+	/**
+	 * Constructs a new chunk.
+	 *
+	 * @param rows     Rows of this chunk
+	 * @param sequence Position of this chunk in the result
+	 * @param last     Whether this chunk ends the result
+	 */
+	public ResultChunk(ArrayList<T> rows, int sequence, boolean last) {
+		this.rows = rows;
+		this.sequence = sequence;
+		this.last = last;
+	}
+
+	/**
+	 * Gets the rows of this chunk.
+	 *
+	 * @return The rows, empty for an end marker
+	 */
+	public ArrayList<T> getRows() {
+		return rows;
+	}
+
+	/**
+	 * Gets the position of this chunk in the result.
+	 *
+	 * @return The sequence number, starting at 0
+	 */
+	public int getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * Checks whether this chunk ends the result.
+	 *
+	 * @return true if no more chunks follow
+	 */
+	public boolean isLast() {
+		return last;
+	}
+}
@@ -15,6 +15,7 @@ import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.application.Platform;
 import javafx.concurrent.Task;
@@ -23,7 +24,7 @@ import java.time.format.DateTimeFormatter;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -33,11 +34,20 @@ import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 import client.BLibClient;
+import client.ClientCache;
+import client.SceneManager;
 import client.ClientController;
+import client.TaskExecutor;
+import client.LibraryApi;
+import client.PagedTableLoader;
 import entities.*;
 import enums.*;
 import logIn.MainMenuController;
@@ -63,8 +73,8 @@ public class LibrarianScreenController {
 	private static final String REQUIRED_PASSWORD = "Password field is required";
 	private static final String REQUIRED_ADDRESS = "Address field is required";
 
-	// thread management
-	private final List<Thread> activeThreads = new ArrayList<>();
+	// background tasks, cancelled when the screen closes
+	private final TaskExecutor.TaskGroup tasks = TaskExecutor.getInstance().newGroup("LibrarianScreen");
 
 	// FXML Injected components for Sign New Member tab
 	@FXML
@@ -174,6 +184,10 @@ public class LibrarianScreenController {
 	private TextField notificationFilterField;
 	@FXML
 	private Button filterNotificationsBtn;
+	@FXML
+	private DatePicker logsFromDatePicker;
+	@FXML
+	private DatePicker logsToDatePicker;
 
 	// FXML components for Reports
 	@FXML
@@ -190,10 +204,16 @@ public class LibrarianScreenController {
 	@FXML
 	private Button lateReturnGraphBtn;
 	@FXML
+	private Button lateReturnTrendBtn;
+	@FXML
+	private Button popularBooksBtn;
+	@FXML
 	private ToggleGroup daysToggleGroup;
 	@FXML
 	private Button generateMemberStatusBtn;
 	@FXML
+	private Button activeMembersBtn;
+	@FXML
 	private ToggleGroup statusPeriodGroup;
 	@FXML
 	private RadioButton sevenDaysRadio;
@@ -209,6 +229,38 @@ public class LibrarianScreenController {
 	private User loggedLibrarian;
 	private ObservableList<User> allMembers;
 	private ObservableList<ActivityLog> allActivityLogs;
+	private PagedTableLoader<ActivityLog> activityLogLoader;
+	private PagedTableLoader<SubscriberDTO> memberLoader;
+
+	/** ID of the book whose cover is displayed, -1 if none */
+	private int coverBookId = -1;
+	/** Book lookup and cover request waiting for the server, cancelled when a newer one replaces them */
+	private CompletableFuture<Book> pendingBookLookup;
+	private CompletableFuture<BookCover> pendingCover;
+	private CompletableFuture<ArrayList<ActivityLog>> pendingActivityLogs;
+	/** The report shown in the borrow time chart, replaced when another one is generated */
+	private CompletableFuture<?> pendingChart;
+
+	/** Number of rows loaded per page in the activity log and member tables */
+	private static final int PAGE_SIZE = 50;
+
+	/** Number of days shown by the late return trend */
+	private static final int TREND_DAYS = 365;
+
+	/** Number of bars the late return trend is drawn with */
+	private static final int TREND_POINTS = 52;
+
+	/** Number of books shown in the most borrowed chart */
+	private static final int POPULAR_BOOKS_SHOWN = 10;
+
+	// Member filter results, filled as the member stream arrives
+	private ObservableList<SubscriberDTO> filteredMembers;
+	private volatile String memberFilter;
+	private int pendingMemberStreams;
+
+	// Activity log export in progress, written from the client reader thread
+	private BufferedWriter activityLogExport;
+	private File activityLogExportFile;
 
 	/**
 	 * Initializes the librarian screen by setting up controllers, tables, and
@@ -238,16 +290,19 @@ public class LibrarianScreenController {
 		addressColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getAddress()));
 		statusColumn
 				.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getStatus().toString()));
+
+		memberLoader = new PagedTableLoader<>(memberCardsTable, LibraryApi::getMembersPage, PAGE_SIZE,
+				last -> new PageRequest(last.getUserId(), PAGE_SIZE));
 	}
 
 	/**
-	 * Loads all members from the server.
+	 * Loads the first page of members from the server. Further pages are loaded
+	 * as the user scrolls down the table.
 	 */
 
 	private void loadAllMembers() {
 		System.out.println("Loading all members...");
-		Message getMessage = new Message(null, Commands.GetAllMembers);
-		ClientController.client.sendMessageToServer(getMessage);
+		memberLoader.reload();
 	}
 
 	/**
@@ -273,7 +328,10 @@ public class LibrarianScreenController {
 		filterNotificationsBtn.setOnAction(event -> handleNotificationFilter());
 		loanDurationGraphBtn.setOnAction(event -> generateLoanDurationGraph());
 		lateReturnGraphBtn.setOnAction(event -> generateLateReturnGraph());
+		lateReturnTrendBtn.setOnAction(event -> generateLateReturnTrend());
+		popularBooksBtn.setOnAction(event -> generatePopularBooksGraph());
 		generateMemberStatusBtn.setOnAction(event -> handleGenerateMemberStatus());
+		activeMembersBtn.setOnAction(event -> handleActiveMembers());
 
 		sevenDaysRadio.setToggleGroup(statusPeriodGroup);
 		fourteenDaysRadio.setToggleGroup(statusPeriodGroup);
@@ -371,8 +429,9 @@ public class LibrarianScreenController {
 					java.time.LocalDateTime.now().toString(), addressField.getText());
 
 			System.out.println("Created new User object: " + newUser.getUserId());
-			Message createUserMsg = new Message(newUser, Commands.CreateMember);
-			ClientController.client.sendMessageToServer(createUserMsg);
+			LibraryApi.createMember(newUser).whenCompleteAsync(
+					(created, error) -> handleCreateMemberResponse(error == null ? created : LibraryApi.errorMessage(error)),
+					Platform::runLater);
 
 		} catch (Exception e) {
 			System.err.println("Error in handleCreateMember: " + e.getMessage());
@@ -391,24 +450,16 @@ public class LibrarianScreenController {
 			return; // Stop if validation fails
 		}
 
-		try {
-			System.out.println("Attempting to process book: " + returnBookIdField.getText() + " for member: "
-					+ returnMemberIdField.getText());
-
-			boolean isLost = LostRadioButtn.isSelected();
-
-			Object[] returnData = { returnBookIdField.getText().trim(), returnMemberIdField.getText().trim(),
-					loggedLibrarian.getUserId(), isLost };
+		System.out.println("Attempting to process book: " + returnBookIdField.getText() + " for member: "
+				+ returnMemberIdField.getText());
 
-			Message returnMsg = new Message(returnData, Commands.ReturnBook);
-			client.sendToServer(returnMsg);
-			System.out.println("Return/Lost book request sent to server");
+		boolean isLost = LostRadioButtn.isSelected();
 
-		} catch (IOException e) {
-			System.out.println("Error sending return request: " + e.getMessage());
-			returnErrorLabel.setText("Error sending to server: " + e.getMessage());
-			e.printStackTrace();
-		}
+		LibraryApi.returnBook(returnBookIdField.getText().trim(), returnMemberIdField.getText().trim(),
+				loggedLibrarian.getUserId(), isLost).whenCompleteAsync(
+						(result, error) -> handleReturnBookResponse(error == null ? result : LibraryApi.errorMessage(error)),
+						Platform::runLater);
+		System.out.println("Return/Lost book request queued for the server");
 	}
 
 	/**
@@ -420,15 +471,10 @@ public class LibrarianScreenController {
 			return; // Stop if validation fails
 		}
 
-		try {
-			Object[] borrowData = { borrowBookIdField.getText().trim(), borrowBookNameField.getText().trim(),
-					borrowMemberIdField.getText().trim(), loggedLibrarian.getUserId() };
-			Message borrowMsg = new Message(borrowData, Commands.BorrowBook);
-			client.sendToServer(borrowMsg);
-
-		} catch (IOException e) {
-			borrowErrorLabel.setText("Error: " + e.getMessage());
-		}
+		LibraryApi.borrowBook(borrowBookIdField.getText().trim(), borrowBookNameField.getText().trim(),
+				borrowMemberIdField.getText().trim(), loggedLibrarian.getUserId()).whenCompleteAsync(
+						(result, error) -> handleBorrowBookResponse(error == null ? result : LibraryApi.errorMessage(error)),
+						Platform::runLater);
 	}
 
 	/**
@@ -440,9 +486,9 @@ public class LibrarianScreenController {
 			int memberId = Integer.parseInt(extensionMemberIdField.getText());
 			int bookId = Integer.parseInt(extensionMemberIdField1.getText());
 
-			Object[] extensionData = { memberId, bookId, loggedLibrarian.getUserId() };
-			Message extensionMsg = new Message(extensionData, Commands.ExtendBookLoan);
-			ClientController.client.sendMessageToServer(extensionMsg);
+			LibraryApi.extendLoan(memberId, bookId, loggedLibrarian.getUserId()).whenCompleteAsync(
+					(result, error) -> handleExtensionResponse(error == null ? result : LibraryApi.errorMessage(error)),
+					Platform::runLater);
 
 		} catch (NumberFormatException e) {
 			showError("Invalid Input", "Please enter valid numeric IDs");
@@ -489,7 +535,9 @@ public class LibrarianScreenController {
 
 	/**
 	 * Filters member table by ID from text input. Shows all members if input is
-	 * empty.
+	 * empty. The filter covers all members, not only the loaded pages: the
+	 * members are streamed from the server and matches are shown as each chunk
+	 * arrives.
 	 */
 	@FXML
 	public void handleMemberFilter() {
@@ -500,13 +548,51 @@ public class LibrarianScreenController {
 			return;
 		}
 
-		ObservableList<SubscriberDTO> allMembers = memberCardsTable.getItems();
+		memberLoader.stop();
+		memberFilter = filter;
+		filteredMembers = FXCollections.observableArrayList();
+		memberCardsTable.setItems(filteredMembers);
+
+		pendingMemberStreams++;
+		ClientController.client.sendMessageToServer(new Message(null, Commands.StreamAllMembers));
+	}
 
-		ObservableList<SubscriberDTO> filteredList = allMembers.stream()
-				.filter(member -> String.valueOf(member.getUserId()).contains(filter))
-				.collect(Collectors.toCollection(FXCollections::observableArrayList));
+	/**
+	 * Handles a chunk of the member stream by adding the members that match the
+	 * current filter. Chunks of an older stream, still arriving after a newer
+	 * filter was sent, are skipped. Called off the JavaFX thread: the chunk is
+	 * filtered here and the matches are added at once on the JavaFX thread.
+	 * 
+	 * @param chunk the chunk of members.
+	 */
 
-		memberCardsTable.setItems(filteredList);
+	public void handleMembersChunk(ResultChunk<SubscriberDTO> chunk) {
+		String filter = memberFilter;
+		List<SubscriberDTO> matches = new ArrayList<>();
+		for (SubscriberDTO member : chunk.getRows()) {
+			if (String.valueOf(member.getUserId()).contains(filter)) {
+				matches.add(member);
+			}
+		}
+		Platform.runLater(() -> {
+			if (pendingMemberStreams == 1 && filter.equals(memberFilter)) {
+				filteredMembers.addAll(matches);
+			}
+			if (chunk.isLast()) {
+				pendingMemberStreams--;
+			}
+		});
+	}
+
+	/**
+	 * Handles a failed member stream.
+	 * 
+	 * @param error the error reported by the server.
+	 */
+
+	public void handleMembersStreamError(String error) {
+		pendingMemberStreams--;
+		showError("Filter Error", error);
 	}
 
 	/**
@@ -526,30 +612,194 @@ public class LibrarianScreenController {
 			User filterUser = new User(id, null, null, null, null, null,
 					librarianFilterRadio.isSelected() ? UserType.Librarian : UserType.Subscriber, null, null);
 
-			Message getMessage = new Message(filterUser, Commands.GetFilteredActivityLogs);
-			ClientController.client.sendMessageToServer(getMessage);
+			showActivityLogs(LibraryApi.getFilteredActivityLogs(filterUser));
 		} catch (NumberFormatException e) {
 			showError("Invalid Input", "Please enter a valid numeric ID");
 		}
 	}
 
+	/**
+	 * Requests the activity logs between the selected dates. Unlike the default
+	 * view, which only shows recent months, this also reaches archived logs.
+	 */
+
+	@FXML
+	private void handleActivityLogsDateRange() {
+		LocalDate from = logsFromDatePicker.getValue();
+		LocalDate to = logsToDatePicker.getValue();
+		if (from == null || to == null) {
+			showError("Invalid Input", "Please select both a start and an end date");
+			return;
+		}
+		if (from.isAfter(to)) {
+			showError("Invalid Input", "The start date must be before the end date");
+			return;
+		}
+
+		showActivityLogs(LibraryApi.getActivityLogsInRange(from, to));
+	}
+
+	/**
+	 * Shows the activity logs of a filter once they arrive, replacing a filter
+	 * that was not answered yet.
+	 * 
+	 * @param logs the requested activity logs.
+	 */
+	private void showActivityLogs(CompletableFuture<ArrayList<ActivityLog>> logs) {
+		if (pendingActivityLogs != null) {
+			pendingActivityLogs.cancel(false);
+		}
+		pendingActivityLogs = logs;
+		logs.whenComplete((received, error) -> {
+			if (logs.isCancelled()) {
+				return; // Replaced by a newer filter
+			}
+			if (error != null) {
+				System.err.println("Fetching activity logs failed: " + error.getMessage());
+				Platform.runLater(() -> showError("Activity Logs", LibraryApi.errorMessage(error)));
+			} else {
+				handleActivityLogsResponse(received);
+			}
+		});
+	}
+
+	/**
+	 * Exports all recent activity logs to a CSV file. The logs are streamed from
+	 * the server and each chunk is written to the file as it arrives, so the
+	 * export never holds the whole table in memory.
+	 */
+
+	@FXML
+	private void handleExportActivityLogs() {
+		boolean running;
+		synchronized (this) {
+			running = activityLogExport != null;
+		}
+		if (running) {
+			showError("Export", "An export is already running");
+			return;
+		}
+
+		FileChooser fileChooser = new FileChooser();
+		fileChooser.setTitle("Export Activity Logs");
+		fileChooser.setInitialFileName("activity_logs.csv");
+		fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+		File file = fileChooser.showSaveDialog(notificationsTable.getScene().getWindow());
+		if (file == null) {
+			return;
+		}
+
+		BufferedWriter writer = null;
+		try {
+			writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+			writer.write("Date,Librarian ID,Subscriber ID,Book ID,Type,Message");
+			writer.newLine();
+		} catch (IOException e) {
+			if (writer != null) {
+				try {
+					writer.close();
+				} catch (IOException closeError) {
+					System.err.println("Error closing activity log export: " + closeError.getMessage());
+				}
+			}
+			showError("Export Error", "Could not create " + file.getName() + ": " + e.getMessage());
+			return;
+		}
+
+		synchronized (this) {
+			activityLogExport = writer;
+			activityLogExportFile = file;
+		}
+		ClientController.client.sendMessageToServer(new Message(null, Commands.StreamActivityLogs));
+	}
+
+	/**
+	 * Writes a chunk of the activity log stream to the export file. Called on
+	 * the client reader thread so file writes stay off the JavaFX thread.
+	 * 
+	 * @param chunk the chunk of activity logs.
+	 */
+
+	public synchronized void handleActivityLogsChunk(ResultChunk<ActivityLog> chunk) {
+		if (activityLogExport == null) {
+			return;
+		}
+		File file = activityLogExportFile;
+		try {
+			for (ActivityLog log : chunk.getRows()) {
+				activityLogExport.write(String.join(",", csvField(String.valueOf(log.getActivityDate())),
+						String.valueOf(log.getLibrarianId()), String.valueOf(log.getSubscriberId()),
+						String.valueOf(log.getBookId()), csvField(String.valueOf(log.getActivityType())),
+						csvField(log.getMessage())));
+				activityLogExport.newLine();
+			}
+			if (chunk.isLast()) {
+				closeActivityLogExport();
+				Platform.runLater(() -> showSuccess("Activity logs exported to " + file.getName()));
+			}
+		} catch (IOException e) {
+			closeActivityLogExport();
+			Platform.runLater(() -> showError("Export Error", "Failed to write " + file.getName() + ": " + e.getMessage()));
+		}
+	}
+
+	/**
+	 * Handles a failed activity log stream by abandoning the export.
+	 * 
+	 * @param error the error reported by the server.
+	 */
+
+	public synchronized void handleActivityLogsStreamError(String error) {
+		closeActivityLogExport();
+		Platform.runLater(() -> showError("Export Error", error));
+	}
+
+	/**
+	 * Closes the export file, if one is open.
+	 */
+	private synchronized void closeActivityLogExport() {
+		if (activityLogExport != null) {
+			try {
+				activityLogExport.close();
+			} catch (IOException e) {
+				System.err.println("Error closing activity log export: " + e.getMessage());
+			}
+		}
+		activityLogExport = null;
+		activityLogExportFile = null;
+	}
+
+	/**
+	 * Quotes a value for a CSV file.
+	 * 
+	 * @param value the value to quote.
+	 * @return the quoted value.
+	 */
+	private static String csvField(String value) {
+		return value == null ? "" : "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+
 	/**
 	 * Handles the response with activity logs and updates the UI accordingly.
+	 * Called off the JavaFX thread: the rows are prepared here and only set on
+	 * the table on the JavaFX thread.
 	 * 
 	 * @param logs a list of activity logs to display.
 	 */
 
-	public void handleActivityLogsResponse(ArrayList<ActivityLog> logs) {
+	private void handleActivityLogsResponse(ArrayList<ActivityLog> logs) {
 		System.out.println("Received activity logs response. Number of logs: " + (logs != null ? logs.size() : "null"));
+		if (logs == null) {
+			System.err.println("Received null activity logs");
+			return;
+		}
 
+		ObservableList<ActivityLog> rows = FXCollections.observableArrayList(logs);
 		Platform.runLater(() -> {
-			if (logs != null) {
-				allActivityLogs.clear();
-				allActivityLogs.addAll(logs);
-				System.out.println("Activity logs added to table");
-			} else {
-				System.err.println("Received null activity logs");
-			}
+			activityLogLoader.stop();
+			allActivityLogs = rows;
+			notificationsTable.setItems(rows);
+			System.out.println("Activity logs added to table");
 		});
 	}
 
@@ -563,10 +813,11 @@ public class LibrarianScreenController {
 
 	@FXML
 	public void handleLogout(ActionEvent event) throws Exception {
-		Message logoutMsg = new Message(loggedLibrarian.getUserId(), Commands.Logout);
-		client.sendToServer(logoutMsg);
+		client.logout(loggedLibrarian.getUserId());
 
 		loggedLibrarian = null;
+		cleanup();
+		SceneManager.getInstance().clear(); // The next user gets new screens
 
 		FXMLLoader loader = new FXMLLoader(getClass().getResource("/logIn/MainMenu.fxml"));
 		Parent root = loader.load();
@@ -615,13 +866,13 @@ public class LibrarianScreenController {
 	public void handleServerResponse(Message response) {
 		switch (response.getCmd()) {
 		case CreateMember:
-			handleCreateMemberResponse(response);
+			handleCreateMemberResponse(response.getObj());
 			break;
 		case ReturnBook:
-			handleReturnBookResponse(response);
+			handleReturnBookResponse(response.getObj());
 			break;
 		case BorrowBook:
-			handleBorrowBookResponse(response);
+			handleBorrowBookResponse(response.getObj());
 			break;
 		case GetChartData:
 			updateCharts(response);
@@ -634,16 +885,16 @@ public class LibrarianScreenController {
 	/**
 	 * Handles the response for creating a new member.
 	 * 
-	 * @param response the server response for the member creation.
+	 * @param reply true if the member was created, otherwise the error message.
 	 */
 
-	public void handleCreateMemberResponse(Message response) {
-		if (response.getObj() instanceof Boolean && (Boolean) response.getObj()) {
+	private void handleCreateMemberResponse(Object reply) {
+		if (reply instanceof Boolean && (Boolean) reply) {
 			showSuccess("Member created successfully");
 			clearNewMemberFields();
-		} else if (response.getObj() instanceof String) {
+		} else if (reply instanceof String) {
 			// Show the specific error message
-			showError("Create Member Error", (String) response.getObj());
+			showError("Create Member Error", (String) reply);
 		} else {
 			showError("Create Member Error", "Failed to create member");
 		}
@@ -652,12 +903,12 @@ public class LibrarianScreenController {
 	/**
 	 * Handles the response for returning a book.
 	 * 
-	 * @param response the server response for the book return.
+	 * @param reply the server's message for the book return.
 	 */
 
-	public void handleReturnBookResponse(Message response) {
-		if (response.getObj() instanceof String) {
-			String message = (String) response.getObj();
+	private void handleReturnBookResponse(Object reply) {
+		if (reply instanceof String) {
+			String message = (String) reply;
 			if (message.startsWith("Successfully")) {
 				showSuccess(message);
 				returnBookIdField.clear();
@@ -671,12 +922,12 @@ public class LibrarianScreenController {
 	/**
 	 * Handles the response for borrowing a book.
 	 * 
-	 * @param response the server response for the book borrow.
+	 * @param reply the server's message for the book borrow.
 	 */
 
-	public void handleBorrowBookResponse(Message response) {
-		if (response.getObj() instanceof String) {
-			String message = (String) response.getObj();
+	private void handleBorrowBookResponse(Object reply) {
+		if (reply instanceof String) {
+			String message = (String) reply;
 			if (message.startsWith("Successfully")) {
 				showSuccess(message);
 				borrowBookIdField.clear();
@@ -799,20 +1050,6 @@ public class LibrarianScreenController {
 
 	}
 
-	/**
-	 * Handles the response containing member data and updates the UI.
-	 * 
-	 * @param members a list of subscriber data transfer objects to display.
-	 */
-
-	public void handleMemberDataResponse(ArrayList<SubscriberDTO> members) {
-		System.out.println("Received " + members.size() + " members");
-		Platform.runLater(() -> {
-			memberCardsTable.getItems().clear();
-			memberCardsTable.getItems().addAll(members);
-		});
-	}
-
 	/**
 	 * Validates the extension date to check if it is between 1 and 7 days from
 	 * today.
@@ -830,48 +1067,37 @@ public class LibrarianScreenController {
 	}
 
 	/**
-	 * Executes a task with UI feedback and manages the thread.
+	 * Executes a task in the background with UI feedback.
 	 * 
 	 * @param task           the task to execute.
 	 * @param successMessage the message to display on success.
 	 */
 	private void executeWithFeedback(Task<?> task, String successMessage) {
 
-		task.setOnSucceeded(e -> {
-			showSuccess(successMessage);
-			cleanupThread(Thread.currentThread());
-		});
-
-		task.setOnFailed(e -> {
-			showError("Operation Failed", "The operation could not be completed, Please try again.");
-			cleanupThread(Thread.currentThread());
-		});
+		task.setOnSucceeded(e -> showSuccess(successMessage));
 
-		Thread thread = new Thread(task);
-		activeThreads.add(thread);
-		thread.start();
-	}
+		task.setOnFailed(e -> showError("Operation Failed", "The operation could not be completed, Please try again."));
 
-	/**
-	 * Removes an active thread from the active threads list.
-	 * 
-	 * @param thread the thread to remove.
-	 */
-	private void cleanupThread(Thread thread) {
-		activeThreads.remove(thread);
+		try {
+			tasks.submit(task);
+		} catch (RejectedExecutionException e) {
+			showError("Operation Failed", "Too many operations are running, Please try again.");
+		}
 	}
 
 	/**
-	 * Cleans up resources and interrupts any active threads when the controller is
-	 * destroyed.
+	 * Cleans up resources and cancels the background tasks still running when the
+	 * controller is destroyed.
 	 */
 	public void cleanup() {
-		for (Thread thread : activeThreads) {
-			if (thread.isAlive()) {
-				thread.interrupt();
-			}
+		tasks.cancelAll();
+		if (pendingChart != null) {
+			pendingChart.cancel(false);
+		}
+		if (pendingActivityLogs != null) {
+			pendingActivityLogs.cancel(false);
 		}
-		activeThreads.clear();
+		System.out.println("Background tasks: " + TaskExecutor.getInstance().getMetrics());
 	}
 
 	/**
@@ -921,20 +1147,21 @@ public class LibrarianScreenController {
 		messageColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getMessage()));
 
 		allActivityLogs = FXCollections.observableArrayList();
-		notificationsTable.setItems(allActivityLogs);
+		activityLogLoader = new PagedTableLoader<>(notificationsTable, LibraryApi::getActivityLogsPage, PAGE_SIZE,
+				last -> new PageRequest(last.getActivityDate(), last.getActivityId(), PAGE_SIZE));
 
 		loadActivityLogs();
 	}
 
 	/**
-	 * Loads activity logs from the server and updates the UI.
+	 * Loads the first page of recent activity logs from the server. Further
+	 * pages are loaded as the user scrolls down the table.
 	 */
 
 	private void loadActivityLogs() {
 		System.out.println("Attempting to load activity logs from server");
 		try {
-			Message getMessage = new Message(null, Commands.GetActivityLogs);
-			ClientController.client.sendMessageToServer(getMessage);
+			activityLogLoader.reload();
 			System.out.println("Activity logs request sent to server");
 		} catch (Exception e) {
 			System.err.println("Error sending activity logs request: " + e.getMessage());
@@ -956,13 +1183,12 @@ public class LibrarianScreenController {
 	/**
 	 * Handles the response for the extension request.
 	 * 
-	 * @param response the message response containing the result of the extension
-	 *                 request
+	 * @param reply the server's message with the result of the extension request
 	 */
 
-	public void handleExtensionResponse(Message response) {
-		if (response.getObj() instanceof String) {
-			String result = (String) response.getObj();
+	private void handleExtensionResponse(Object reply) {
+		if (reply instanceof String) {
+			String result = (String) reply;
 			if (result.startsWith("Successfully")) {
 				showSuccess(result);
 				extensionMemberIdField.clear();
@@ -981,8 +1207,7 @@ public class LibrarianScreenController {
 	 */
 
 	private void generateLoanDurationGraph() {
-		Message graphMsg = new Message(30, Commands.GetLoanDurationChart);
-		ClientController.client.sendMessageToServer(graphMsg);
+		showChart(LibraryApi.getLoanDurationChart(30), this::handleLoanDurationChartResponse);
 	}
 
 	/**
@@ -990,8 +1215,122 @@ public class LibrarianScreenController {
 	 */
 
 	private void generateLateReturnGraph() {
-		Message graphMsg = new Message(30, Commands.GetLateReturnChart);
-		ClientController.client.sendMessageToServer(graphMsg);
+		showChart(LibraryApi.getLateReturnChart(30), this::handleLateReturnChartResponse);
+	}
+
+	/**
+	 * Requests the late returns of the past year, grouped by the server into
+	 * about one bar per week.
+	 */
+
+	private void generateLateReturnTrend() {
+		LocalDate endDate = LocalDate.now();
+		ReportSeriesRequest request = new ReportSeriesRequest(ReportMetric.LATE_RETURNS,
+				endDate.minusDays(TREND_DAYS - 1), endDate, TREND_POINTS);
+		showChart(LibraryApi.getReportSeries(request), this::handleReportSeriesResponse);
+	}
+
+	/**
+	 * Shows a report in the borrow time chart once it arrives, replacing a
+	 * report that was not answered yet.
+	 * 
+	 * @param <T>     the type of the report
+	 * @param report  the requested report
+	 * @param handler shows the report, on the JavaFX thread
+	 */
+	private <T> void showChart(CompletableFuture<T> report, Consumer<T> handler) {
+		if (pendingChart != null) {
+			pendingChart.cancel(false);
+		}
+		pendingChart = report;
+		report.whenCompleteAsync((received, error) -> {
+			if (report.isCancelled()) {
+				return; // Replaced by a newer report
+			}
+			if (error != null) {
+				handleReportError(LibraryApi.errorMessage(error));
+			} else {
+				handler.accept(received);
+			}
+		}, Platform::runLater);
+	}
+
+	/**
+	 * Handles the report series response from the server.
+	 * 
+	 * @param reportSeries the metric values over time
+	 */
+
+	private void handleReportSeriesResponse(ReportSeries reportSeries) {
+		ArrayList<LocalDate> bucketStarts = reportSeries.getBucketStarts();
+		if (bucketStarts.isEmpty()) {
+			showError("Graph Generation Error", "No data available for " + reportSeries.getMetric().getLabel());
+			return;
+		}
+
+		DateTimeFormatter labelFormat = DateTimeFormatter.ofPattern("dd/MM/yy");
+		borrowTimeChart.getData().clear();
+		XYChart.Series<String, Number> series = new XYChart.Series<>();
+		for (int i = 0; i < bucketStarts.size(); i++) {
+			Number value = reportSeries.getValues().get(i);
+			series.getData().add(new XYChart.Data<>(bucketStarts.get(i).format(labelFormat),
+					value != null ? value : 0));
+		}
+		borrowTimeChart.getData().add(series);
+
+		borrowTimeChart.setAnimated(false);
+		borrowTimeChart.setLegendVisible(false);
+		borrowTimeChart.getXAxis().setLabel(reportSeries.getBucketDays() == 1 ? "Day"
+				: "Period starting (" + reportSeries.getBucketDays() + " days each)");
+		borrowTimeChart.getYAxis().setLabel("Number of Books");
+		borrowTimeChart.setTitle(reportSeries.getMetric().getLabel() + " (" + bucketStarts.get(0).format(labelFormat)
+				+ " to " + LocalDate.now().format(labelFormat) + ")");
+	}
+
+	/**
+	 * Requests the most borrowed books of the last month.
+	 */
+
+	private void generatePopularBooksGraph() {
+		PopularBooksRequest request = new PopularBooksRequest(ActivityType.LOAN, PopularBooksRequest.MONTH,
+				POPULAR_BOOKS_SHOWN);
+		showChart(LibraryApi.getPopularBooks(request), this::handlePopularBooksResponse);
+	}
+
+	/**
+	 * Handles the popular books response from the server.
+	 * 
+	 * @param popularBooks the most borrowed books, most popular first
+	 */
+
+	private void handlePopularBooksResponse(ArrayList<PopularBook> popularBooks) {
+		if (popularBooks == null || popularBooks.isEmpty()) {
+			showError("Graph Generation Error", "No books were borrowed in the last month");
+			return;
+		}
+
+		borrowTimeChart.getData().clear();
+		XYChart.Series<String, Number> series = new XYChart.Series<>();
+		for (PopularBook book : popularBooks) {
+			series.getData().add(new XYChart.Data<>(book.getTitle(), book.getCount()));
+		}
+		borrowTimeChart.getData().add(series);
+
+		borrowTimeChart.setAnimated(false);
+		borrowTimeChart.setLegendVisible(false);
+		borrowTimeChart.getXAxis().setLabel("Book");
+		borrowTimeChart.getYAxis().setLabel("Number of Loans");
+		borrowTimeChart.setTitle("Most Borrowed Books (last " + PopularBooksRequest.MONTH + " days)");
+	}
+
+	/**
+	 * Handles a failed report series, popular books or distinct members request.
+	 * 
+	 * @param message the error message from the server
+	 */
+
+	private void handleReportError(String message) {
+		showError("Graph Generation Error", message);
 	}
 
 	/**
@@ -1000,7 +1339,7 @@ public class LibrarianScreenController {
 	 * @param chartData the list of data to be displayed on the loan duration graph
 	 */
 
-	public void handleLoanDurationChartResponse(ArrayList<Number> chartData) {
+	private void handleLoanDurationChartResponse(ArrayList<Number> chartData) {
 		LocalDate endDate = LocalDate.now();
 		LocalDate startDate = endDate.minusDays(30);
 
@@ -1019,7 +1358,7 @@ public class LibrarianScreenController {
 	 * @param chartData the list of data to be displayed on the late return graph
 	 */
 
-	public void handleLateReturnChartResponse(ArrayList<Number> chartData) {
+	private void handleLateReturnChartResponse(ArrayList<Number> chartData) {
 		LocalDate endDate = LocalDate.now();
 		LocalDate startDate = endDate.minusDays(30);
 
@@ -1189,7 +1528,23 @@ public class LibrarianScreenController {
 
 	@FXML
 	private void handleGenerateMemberStatus() {
-		// Get selected period from radio buttons
+		LibraryApi.getMemberStatus(getSelectedStatusDays()).whenCompleteAsync((statusData, error) -> {
+			if (error != null) {
+				System.err.println("Fetching member status failed: " + error.getMessage());
+				showError("Report Error", LibraryApi.errorMessage(error));
+			} else {
+				handleMemberStatusResponse(statusData);
+			}
+		}, Platform::runLater);
+	}
+
+	/**
+	 * Gets the number of days of the period selected with the radio buttons.
+	 * 
+	 * @return 7, 14, 21 or 30
+	 */
+
+	private int getSelectedStatusDays() {
 		int days = 7; // Default to 7 days
 		if (fourteenDaysRadio.isSelected()) {
 			days = 14;
@@ -1198,9 +1553,43 @@ public class LibrarianScreenController {
 		} else if (thirtyDaysRadio.isSelected()) {
 			days = 30;
 		}
+		return days;
+	}
 
-		Message statusMsg = new Message(days, Commands.GetMemberStatus);
-		ClientController.client.sendMessageToServer(statusMsg);
+	/**
+	 * Requests the number of distinct members who borrowed or reserved in the
+	 * selected period.
+	 */
+
+	private void handleActiveMembers() {
+		int windowDays = getSelectedStatusDays();
+		LibraryApi.getDistinctMembers(windowDays).whenCompleteAsync((counts, error) -> {
+			if (error != null) {
+				handleReportError(LibraryApi.errorMessage(error));
+			} else {
+				handleDistinctMembersResponse(windowDays, counts);
+			}
+		}, Platform::runLater);
+	}
+
+	/**
+	 * Shows the number of distinct active members received from the server.
+	 * 
+	 * @param windowDays the period the counts were requested for, in days
+	 * @param counts     the estimated member counts by label
+	 */
+
+	private void handleDistinctMembersResponse(int windowDays, Map<String, Long> counts) {
+		StringBuilder text = new StringBuilder("Approximate counts for the last " + windowDays + " days:\n\n");
+		for (Map.Entry<String, Long> entry : counts.entrySet()) {
+			text.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+		}
+
+		Alert alert = new Alert(Alert.AlertType.INFORMATION);
+		alert.setTitle("Active Members");
+		alert.setHeaderText(null);
+		alert.setContentText(text.toString());
+		alert.showAndWait();
 	}
 
 	/**
@@ -1319,7 +1708,7 @@ public class LibrarianScreenController {
 	 * @param statusData the map containing the status data for different periods
 	 */
 
-	public void handleMemberStatusResponse(Map<String, ArrayList<Number>> statusData) {
+	private void handleMemberStatusResponse(Map<String, ArrayList<Number>> statusData) {
 		LocalDate endDate = LocalDate.now();
 		LocalDate startDate = endDate.minusDays(getSelectedDays());
 		DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
@@ -1365,10 +1754,22 @@ public class LibrarianScreenController {
 			}
 
 			int bookId = Integer.parseInt(bookIdText);
-			Message getMessage = new Message(bookId, Commands.getSimpleBookById);
-
-			// Change this line to use ClientController.client instead
-			ClientController.client.sendMessageToServer(getMessage);
+			if (pendingBookLookup != null) {
+				pendingBookLookup.cancel(false);
+			}
+			CompletableFuture<Book> lookup = LibraryApi.getBook(bookId);
+			pendingBookLookup = lookup;
+			lookup.whenComplete((book, error) -> {
+				if (lookup.isCancelled()) {
+					return; // Another book was looked up meanwhile
+				}
+				if (error != null) {
+					Platform.runLater(() -> showError("Server Error",
+							"Could not communicate with server: " + error.getMessage()));
+				} else {
+					handleBookResponse(book);
+				}
+			});
 
 		} catch (NumberFormatException e) {
 			showError("Input Error", "Please enter a valid numeric book ID");
@@ -1383,38 +1784,78 @@ public class LibrarianScreenController {
 	 * @param book the book object containing the details to be displayed
 	 */
 
-	public void handleBookResponse(Book book) {
+	private void handleBookResponse(Book book) {
 		if (book != null) {
 			Platform.runLater(() -> {
 				System.out.println("\nClient: Received book: " + book.getTitle());
 				borrowBookNameField.setText(book.getTitle());
-
-				byte[] imageData = book.getImageData();
-				if (imageData != null) {
-					System.out.println("Client: Received image data, size: " + imageData.length + " bytes");
-					try {
-						Image bookImage = new Image(new ByteArrayInputStream(imageData));
-						System.out.println(
-								"Client: Created image, size: " + bookImage.getWidth() + "x" + bookImage.getHeight());
-						imgBook.setImage(bookImage);
-					} catch (Exception e) {
-						System.out.println("Client: Error creating image: " + e.getMessage());
-						e.printStackTrace();
-						imgBook.setImage(null);
-					}
-				} else {
-					System.out.println("Client: No image data received for book: " + book.getTitle());
-					imgBook.setImage(null);
-				}
+				requestBookCover(book.getBookId());
 			});
 		} else {
 			Platform.runLater(() -> {
 				System.out.println("Client: Received null book");
 				borrowBookNameField.clear();
+				coverBookId = -1;
 				imgBook.setImage(null);
 				showError("Book Not Found", "No book found with this ID");
 			});
 		}
 	}
 
+	/**
+	 * Requests the cover of a book, passing the hash of the saved cover so the
+	 * server only sends the image when it changed.
+	 * 
+	 * @param bookId the ID of the book whose cover is shown
+	 */
+	private void requestBookCover(int bookId) {
+		coverBookId = bookId;
+		imgBook.setImage(null);
+		if (pendingCover != null) {
+			pendingCover.cancel(false);
+		}
+		CompletableFuture<BookCover> cached = ClientCache.getInstance().getCover(bookId, BookCover.FULL_SIZE);
+		CompletableFuture<BookCover> cover = cached.thenCompose(saved -> LibraryApi.getBookCover(bookId,
+				saved != null ? saved.getHash() : null, BookCover.FULL_SIZE));
+		pendingCover = cover;
+		cached.thenAcceptAsync(saved -> {
+			if (saved != null && !cover.isCancelled()) {
+				showBookCover(saved);
+			}
+		}, Platform::runLater);
+		cover.whenCompleteAsync((received, error) -> {
+			if (error == null) {
+				handleBookCoverResponse(received);
+			} else if (!cover.isCancelled()) {
+				System.out.println("Client: Error requesting book cover: " + error.getMessage());
+			}
+		}, Platform::runLater);
+	}
+
+	/**
+	 * Handles the book cover response, keeping the cover for later lookups and
+	 * showing it if the book is still displayed.
+	 * 
+	 * @param cover the cover received from the server
+	 */
+	private void handleBookCoverResponse(BookCover cover) {
+		ClientCache.getInstance().updateCover(cover);
+		if (cover.getBookId() == coverBookId && !cover.isNotModified()) {
+			showBookCover(cover);
+		}
+	}
+
+	private void showBookCover(BookCover cover) {
+		if (cover == null || cover.getImageData() == null) {
+			imgBook.setImage(null);
+			return;
+		}
+		try {
+			imgBook.setImage(new Image(new ByteArrayInputStream(cover.getImageData())));
+		} catch (Exception e) {
+			System.out.println("Client: Error creating image: " + e.getMessage());
+			imgBook.setImage(null);
+		}
+	}
+
 }
@@ -1,35 +1,47 @@
 package library;
 
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 import logIn.MainMenuController;
 import entities.BookLoanDetailsDTO;
-import entities.Message;
-import enums.Commands;
-import client.BLibClient;
-import client.ClientController;
+import entities.Page;
+import entities.PageRequest;
+import client.CachedScreen;
+import client.ClientCache;
+import client.CatalogSearch;
+import client.LibraryApi;
+import client.PagedTableLoader;
+import client.SceneManager;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javafx.scene.Node;
-import javafx.scene.Parent;
 /**
  * The BookSearchController class handles the user interface and actions for searching books in the library.
  * It manages the interaction between the user input, the search functionality, and the display of search results.
  */
 
-public class BookSearchController {
+public class BookSearchController implements CachedScreen {
 	
     @FXML
     private TableView<BookLoanDetailsDTO> bookTable;
+
+    /** Number of books loaded per page while scrolling the table */
+    private static final int PAGE_SIZE = 50;
+    private PagedTableLoader<BookLoanDetailsDTO> bookLoader;
+    /** Searches the saved catalog as the user types */
+    private CatalogSearch catalogSearch;
+    /** Server search waiting for its reply, cancelled when a newer search replaces it */
+    private CompletableFuture<ArrayList<BookLoanDetailsDTO>> pendingSearch;
     @FXML
     private TableColumn<BookLoanDetailsDTO, String> nameColumn;
     @FXML
@@ -69,16 +81,11 @@ public class BookSearchController {
      */
 
 	public void start(Stage stage) throws IOException {
-		FXMLLoader loader = new FXMLLoader(getClass().getResource("/library/BookSearch.fxml"));
-		Parent root = loader.load();
-		Scene scene = new Scene(root);
-		stage.setScene(scene);
-		stage.setTitle("Search A Book");
-		stage.show();
+		SceneManager.getInstance().show(stage, "/library/BookSearch.fxml", "Search A Book");
 	}
 	
     /**
-     * Initializes the BookSearchController. Sets up the table columns and ComboBox, and populates the table with books.
+     * Initializes the BookSearchController. Sets up the table columns and ComboBox.
      */
 
     @FXML
@@ -91,24 +98,62 @@ public class BookSearchController {
         quantityColumn.setCellValueFactory(cellData -> new SimpleIntegerProperty(cellData.getValue().getTotalCopies()).asObject());
         locationColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getShelfLocation()));
         returnDateColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getReturnDate() != null ? cellData.getValue().getReturnDate() : ""));
-		BLibClient.bookSearchController = this;
         // Populate the ComboBox with search options
         cmbSearchType.setItems(FXCollections.observableArrayList("Title", "Author", "Theme", "Description"));
         cmbSearchType.getSelectionModel().selectFirst();
 
-        // Fetch and display all books initially
+        // Filter the saved catalog as the user types
+        catalogSearch = new CatalogSearch(this::showSearchResults);
+        searchField.textProperty().addListener((obs, oldText, newText) -> searchCatalog());
+        cmbSearchType.valueProperty().addListener((obs, oldType, newType) -> searchCatalog());
+
+        // The books are fetched by refresh() when the screen is shown
+        bookLoader = new PagedTableLoader<>(bookTable, LibraryApi::getBooksPage, PAGE_SIZE,
+                last -> new PageRequest(last.getBookId(), PAGE_SIZE));
+        bookLoader.setOnPage(this::handlePageResponse);
+        bookLoader.setOnError(error -> handlePageError());
+    }
+
+    /**
+     * Shows the catalog and brings it up to date each time the screen is shown.
+     */
+    @Override
+    public void refresh() {
         fetchAllBooks();
     }
 
+    /**
+     * Stops the catalog search when the screen is no longer kept.
+     */
+    @Override
+    public void close() {
+        catalogSearch.shutdown();
+        cancelServerSearch();
+    }
+
     /**
      * Fetches all books from the server to be displayed in the table.
      */
 
 	private void fetchAllBooks() {
 		try {
-			// Send a request to the server to fetch all books
-			Message message = new Message(null, Commands.GetAllBooks);
-			ClientController.client.sendMessageToServer(message);
+			// Show the saved catalog right away, the server sends only the books changed since
+			ClientCache cache = ClientCache.getInstance();
+			cache.getSavedCatalog().thenAcceptAsync(savedBooks -> {
+				if (savedBooks != null) {
+					handleCatalog(savedBooks);
+				}
+			}, Platform::runLater);
+			// Applied and saved off the JavaFX thread
+			cache.syncCatalog()
+					.whenCompleteAsync((books, error) -> {
+						if (error != null) {
+							System.err.println("Fetching catalog changes failed: " + error.getMessage());
+							handleCatalogError();
+						} else if (books != null) {
+							handleCatalog(books);
+						} // Otherwise the saved catalog is current
+					}, Platform::runLater);
 		} catch (Exception e) {
 			showError("Failed to fetch books. Please try again.");
 			e.printStackTrace();
@@ -132,30 +177,39 @@ public class BookSearchController {
             return;
         }
 
-        Message message;
-        switch (selectedType) {
-            case "Title":
-                message = new Message(searchText, Commands.GetBookByName);
-                break;
-            case "Author":
-                message = new Message(searchText, Commands.GetBookByAuthor);
-                break;
-            case "Theme":
-                message = new Message(searchText, Commands.GetBookByTheme);
-                break;
-            case "Description":
-                message = new Message(searchText, Commands.GetBookByDescription);
-                break;
-            default:
-                showError("Invalid search type selected.");
-                return;
+        if (catalogSearch.isReady()) {
+            // The saved catalog is searched locally, without a server request
+            searchCatalog();
+            return;
         }
 
-        // Send the message to the server
-        try {
-            ClientController.client.sendMessageToServer(message);
-        } catch (Exception e) {
-            showError("Error sending search request: " + e.getMessage());
+        // Ask the server, replacing a search that was not answered yet
+        cancelServerSearch();
+        CompletableFuture<ArrayList<BookLoanDetailsDTO>> search = LibraryApi.search(selectedType, searchText);
+        pendingSearch = search;
+        search.whenCompleteAsync((books, error) -> {
+            if (search != pendingSearch) {
+                return; // Cancelled or replaced by a newer search
+            }
+            pendingSearch = null;
+            if (error != null) {
+                System.err.println("Searching books failed: " + error.getMessage());
+                showError("Error searching books. Please try again.");
+            } else {
+                handleServerResponse(books);
+            }
+        }, Platform::runLater);
+    }
+
+    /**
+     * Cancels a server search that was not answered yet, so its result does not
+     * replace newer results.
+     */
+    private void cancelServerSearch() {
+        if (pendingSearch != null) {
+            CompletableFuture<ArrayList<BookLoanDetailsDTO>> search = pendingSearch;
+            pendingSearch = null;
+            search.cancel(false);
         }
     }
     
@@ -170,6 +224,69 @@ public class BookSearchController {
             ErrorLabel.setVisible(true);
         }
        
+        /**
+         * Clears the error shown before, once the first page of books arrived.
+         *
+         * @param page The page of books added to the table.
+         */
+        private void handlePageResponse(Page<BookLoanDetailsDTO> page) {
+            if (page.isFirstPage()) {
+                ErrorLabel.setText(""); // Clear error
+            }
+        }
+
+        /**
+         * Shows the books of the saved catalog, or the books matching the search
+         * text if one was typed, and indexes them for searching as the user types.
+         *
+         * @param books the books of the catalog with their loans
+         */
+        public void handleCatalog(ArrayList<BookLoanDetailsDTO> books) {
+            catalogSearch.setCatalog(books);
+            if (searchField.getText().isBlank()) {
+                handleServerResponse(books);
+            } else {
+                searchCatalog();
+            }
+        }
+
+        /**
+         * Searches the saved catalog for the typed text, once typing pauses.
+         */
+        private void searchCatalog() {
+            cancelServerSearch();
+            catalogSearch.search(cmbSearchType.getValue(), searchField.getText());
+        }
+
+        /**
+         * Shows the books found in the saved catalog.
+         *
+         * @param books the rows of the books found
+         */
+        private void showSearchResults(List<BookLoanDetailsDTO> books) {
+            bookLoader.stop();
+            bookTable.setItems(FXCollections.observableArrayList(books));
+            if (books.isEmpty()) {
+                showError("No books found.");
+            } else {
+                ErrorLabel.setText(""); // Clear error
+            }
+        }
+
+        /**
+         * Handles a failed catalog request by loading the books page by page instead.
+         */
+        public void handleCatalogError() {
+            bookLoader.reload();
+        }
+
+        /**
+         * Reports a failed page request; scrolling retries it.
+         */
+        private void handlePageError() {
+            showError("Failed to fetch books. Please try again.");
+        }
+
         /**
          * Handles the server response by updating the book table with the fetched book details.
          * 
@@ -181,6 +298,7 @@ public class BookSearchController {
             if (books == null || books.isEmpty()) {
                 showError("No books found.");
             } else {
+                bookLoader.stop();
                 ObservableList<BookLoanDetailsDTO> bookLoanDetailsDTO = FXCollections.observableArrayList(books);
                 bookTable.setItems(bookLoanDetailsDTO);
                 ErrorLabel.setText(""); // Clear error
@@ -213,6 +331,7 @@ public class BookSearchController {
     	@FXML
     	public void getBtnBack(ActionEvent event) throws Exception {
     		if (!backButton.isDisable()) {
+    			SceneManager.getInstance().clear(); // The guest is done, the next user gets new screens
     			((Node) event.getSource()).getScene().getWindow().hide();
     			MainMenuController newScreen = new MainMenuController();
     			newScreen.start(new Stage());
@@ -1,5 +1,6 @@
 package library;
 
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.collections.FXCollections;
@@ -14,15 +15,13 @@ import logIn.ConnectionScreenController;
 import logIn.MainMenuController;
 import member.MemberMenuController;
 import entities.BookLoanDetailsDTO;
-import entities.Message;
 import entities.SubscriberDTO;
-import enums.Commands;
-import client.BLibClient;
-import client.ClientController;
+import client.LibraryApi;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import javafx.scene.Node;
 import javafx.scene.Parent;
@@ -67,6 +66,8 @@ public class MemberBookSearchController {
 	private Label ErrorLabel;
 
 	private SubscriberDTO loggedMember;
+	/** Search waiting for the server, cancelled when a newer search replaces it */
+	private CompletableFuture<ArrayList<BookLoanDetailsDTO>> pendingSearch;
     /**
      * Sets the logged member for the current session.
      * 
@@ -109,7 +110,6 @@ public class MemberBookSearchController {
 		returnDateColumn.setCellValueFactory(cellData -> new SimpleStringProperty(
 				cellData.getValue().getReturnDate() != null ? cellData.getValue().getReturnDate().toString() : ""));
 		authorColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getAuthor()));
-		BLibClient.MemberbookSearchController = this;
 	}
     /**
      * Handles the search functionality for books based on the provided criteria (name, theme, or description).
@@ -122,20 +122,35 @@ public class MemberBookSearchController {
 		String theme = searchThemeField.getText().trim();
 		String description = searchDescriptionField.getText().trim();
 
+		CompletableFuture<ArrayList<BookLoanDetailsDTO>> search;
 		if (!name.isEmpty()) {
-			Message message = new Message(name, Commands.GetBookByName);
-			ClientController.client.sendMessageToServer(message);
+			search = LibraryApi.searchByTitle(name);
 		} else if (!theme.isEmpty()) {
-			Message searchMessage = new Message(theme, Commands.GetBookByTheme);
-			ClientController.client.sendMessageToServer(searchMessage);
+			search = LibraryApi.searchByTheme(theme);
 		} else if (!description.isEmpty()) {
-			Message searchMessage = new Message(description, Commands.GetBookByDescription);
-			ClientController.client.sendMessageToServer(searchMessage);
+			search = LibraryApi.searchByDescription(description);
 		} else {
 			ErrorLabel("Please enter a search criterion (Name, Theme, or Description).");
 			return;
 		}
 
+		// Only the last search shows its result
+		if (pendingSearch != null) {
+			pendingSearch.cancel(false);
+		}
+		pendingSearch = search;
+		search.whenCompleteAsync((books, error) -> {
+			if (search != pendingSearch) {
+				return;
+			}
+			pendingSearch = null;
+			if (error != null) {
+				System.err.println("Searching books failed: " + error.getMessage());
+				ErrorLabel("Error searching books. Please try again.");
+			} else {
+				handleServerResponse(books);
+			}
+		}, Platform::runLater);
 	}
 
 
@@ -1,12 +1,11 @@
 package logIn;
 
-import client.BLibClient;
-import client.ClientController;
+import client.LibraryApi;
+import client.SceneManager;
 import entities.User;
-import enums.Commands;
 import enums.UserType;
-import entities.Message;
 import entities.SubscriberDTO;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -39,20 +38,6 @@ public class MainMenuController {
 	private Button loginBtn;
 	@FXML
 	private Label loginMsgLabel; // New label for displaying messages
-	/**
-	 * Initializes the controller class. This method is automatically called
-	 * after the FXML file has been loaded.
-	 * 
-	 * Sets this instance as the main menu controller in BLibClient for
-	 * global access across the application.
-	 * 
-	 * 
-	 */
-	@FXML
-	public void initialize() {
-		BLibClient.mainMenuController = this;
-	}
-
 	/**
 	 * Initializes and displays the main application window.
 	 * Loads the MainMenu FXML file and sets it as the root scene for the primary stage.
@@ -84,79 +69,54 @@ public class MainMenuController {
 			int userIdInt = Integer.parseInt(userID);
 			User user = new User(userIdInt, null, null, userPass, null, null, null, null, null);
 
-			// Create and send a message to the server to check the username and password
-			Message checkCredentialsMessage = new Message(user, Commands.CheckUsername);
-			ClientController.client.sendMessageToServer(checkCredentialsMessage); // changed
+			// Ask the server to check the username and password
+			LibraryApi.logIn(user).whenCompleteAsync((response, error) -> {
+				if (error != null) {
+					System.err.println("Login request failed: " + error.getMessage());
+					loginMsg("Could not reach the server. Please try again.");
+				} else {
+					openMenu(response);
+				}
+			}, Platform::runLater);
 		} catch (NumberFormatException e) {
 			loginMsg("Invalid User ID format. Please enter a numeric value.");
 		}
 	}
 
-	 /**
-	 * Processes incoming messages for user authentication and menu navigation.
-	 * Handles the login response and directs users to their appropriate interface
-	 * based on their authentication status and user type.
+	/**
+	 * Processes the login response and directs users to their appropriate
+	 * interface based on their authentication status and user type.
 	 *
-	 * @param message A Message object containing the command and response data
-	 *               Expected to contain either a User/SubscriberDTO object for successful login
-	 *               or an error message string for failed attempts
-	 * 
-	 * @see Message
-	 * @see User
-	 * @see SubscriberDTO
-	 * @see Commands#CheckUsername
-	 * 
-	 * The method performs the following steps:
-	 * 1. Validates the incoming command matches CheckUsername
-	 * 2. Processes the response object, which can be:
-	 *    - User object for staff members
-	 *    - SubscriberDTO object for subscribers
-	 *    - String for error messages
-	 * 3. Opens the appropriate window based on user type or displays error message
+	 * @param response The server's answer: a User object for staff members, a
+	 *                 SubscriberDTO object for subscribers, or the error message
+	 *                 string of a failed attempt
 	 */
-    public void openMenu(Message message) {
-        // Debugging: Log the command
-        System.out.println("Received command: " + message.getCmd());
-
-        if (message.getCmd().equals(Commands.CheckUsername)) {
-            Object response = message.getObj();
-
-            // Debugging: Log the type of response object
-            System.out.println("Response object type: " + response.getClass().getName());
-
-            if (response instanceof User || response instanceof SubscriberDTO) {
-                loginMsg("Login successful!");
-                
-                // Debugging: Log the details of the object
-                if (response instanceof User) {
-                    User user = (User) response;
-                    System.out.println("User details: " + user.getFullName() + ", UserType: " + user.getUserType());
-                } else if (response instanceof SubscriberDTO) {
-                    SubscriberDTO subscriber = (SubscriberDTO) response;
-                    System.out.println("Subscriber details: " + subscriber.getFullName() + ", Status: " + subscriber.getStatus());
-                }
-
-                // Open user-specific window based on user type
-                Stage currentStage = (Stage) loginBtn.getScene().getWindow();
-                openUserSpecificWindow(response, currentStage);
-            } else {
-                // Debugging: Log if the response is a string
-                if (response instanceof String) {
-                    System.out.println("Error message from server: " + response);
-                } else {
-                    System.out.println("Unexpected response type: " + response.getClass().getName());
-                }
-
-                loginMsg((String) message.getObj());
-            }
-        } else {
-            // Debugging: Log invalid command handling
-            System.out.println("Invalid command received: " + message.getCmd());
-            loginMsg("Invalid username or password. Please try again.");
-        }
-    }
+	private void openMenu(Object response) {
+		// Debugging: Log the type of response object
+		System.out.println("Response object type: " + (response != null ? response.getClass().getName() : "null"));
+
+		if (response instanceof User || response instanceof SubscriberDTO) {
+			loginMsg("Login successful!");
 
+			// Debugging: Log the details of the object
+			if (response instanceof User) {
+				User user = (User) response;
+				System.out.println("User details: " + user.getFullName() + ", UserType: " + user.getUserType());
+			} else {
+				SubscriberDTO subscriber = (SubscriberDTO) response;
+				System.out.println("Subscriber details: " + subscriber.getFullName() + ", Status: " + subscriber.getStatus());
+			}
 
+			// Open user-specific window based on user type
+			Stage currentStage = (Stage) loginBtn.getScene().getWindow();
+			openUserSpecificWindow(response, currentStage);
+		} else if (response instanceof String) {
+			System.out.println("Error message from server: " + response);
+			loginMsg((String) response);
+		} else {
+			loginMsg("Invalid username or password. Please try again.");
+		}
+	}
 
 	/**
 	 * Opens a specific window based on the user type or subscriber details.
@@ -176,6 +136,8 @@ public class MainMenuController {
 				System.out.println("Login successful for Subscriber: " + subscriber.getFullName());
 				MemberMenuController memberMenuController = new MemberMenuController();
 				memberMenuController.start(new Stage(), subscriber);
+				// Load the screens reached from the member menu while the member reads it
+				SceneManager.getInstance().preload(SceneManager.MEMBER_SCREENS);
 			} else if (userObject instanceof User) {
 				// If it's a User, open the LibrarianScreenController
 				User user = (User) userObject;
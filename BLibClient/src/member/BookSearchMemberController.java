@@ -1,34 +1,53 @@
 package member;
 
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
 import javafx.stage.Stage;
+import entities.BookCover;
 import entities.BookLoanDetailsDTO;
-import entities.Message;
+import entities.Page;
+import entities.PageRequest;
+import entities.RelatedBook;
 import entities.SubscriberDTO;
-import client.BLibClient;
-import client.ClientController;
-import enums.Commands;
+import client.CachedScreen;
+import client.ClientCache;
+import client.CatalogSearch;
+import client.LibraryApi;
+import client.PagedTableLoader;
+import client.SceneManager;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javafx.scene.Node;
-import javafx.scene.Parent;
 
 /**
  * Controller class for managing the book search and order functionality
  * for library members.
  */
-public class BookSearchMemberController {
+public class BookSearchMemberController implements CachedScreen {
 
     @FXML
     private TableView<BookLoanDetailsDTO> bookTable;
+
+    /** Number of books loaded per page while scrolling the table */
+    private static final int PAGE_SIZE = 50;
+    private PagedTableLoader<BookLoanDetailsDTO> bookLoader;
+    /** Searches the saved catalog as the user types */
+    private CatalogSearch catalogSearch;
+    /** Requests still waiting for the server, cancelled when a newer one replaces them */
+    private CompletableFuture<ArrayList<BookLoanDetailsDTO>> pendingSearch;
+    private CompletableFuture<BookCover> pendingThumbnail;
+    private CompletableFuture<ArrayList<RelatedBook>> pendingRelatedBooks;
     @FXML
     private TableColumn<BookLoanDetailsDTO, Integer> idColumn;
     @FXML
@@ -54,6 +73,10 @@ public class BookSearchMemberController {
     private TextField textOrderBook;
     @FXML
     private Label ErrorLabel;
+    @FXML
+    private Label relatedBooksLabel;
+    @FXML
+    private ImageView coverThumbnail;
 
     @FXML
     private Button backButton;
@@ -81,21 +104,16 @@ public class BookSearchMemberController {
      * @throws IOException if the FXML file cannot be loaded
      */
     public void start(Stage stage, SubscriberDTO subscriber) throws IOException {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/member/BookSearchMember.fxml"));
-        Parent root = loader.load();
-        Scene scene = new Scene(root);
-        stage.setScene(scene);
-        stage.setTitle("Search and Order Books");
-        stage.show();
+        BookSearchMemberController controller = SceneManager.getInstance().show(stage,
+                "/member/BookSearchMember.fxml", "Search and Order Books");
 
         // Access the controller and set the logged member
-        BookSearchMemberController controller = loader.getController();
         controller.setLoggedMember(subscriber);
     }
 
     /**
      * Initializes the Book Search Member screen.
-     * Sets up the table columns, populates the search type ComboBox, and fetches all books.
+     * Sets up the table columns and populates the search type ComboBox.
      */
     @FXML
     public void initialize() {
@@ -109,30 +127,126 @@ public class BookSearchMemberController {
         locationColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getShelfLocation()));
         returnDateColumn.setCellValueFactory(cellData -> new SimpleStringProperty(
                 cellData.getValue().getReturnDate() != null ? cellData.getValue().getReturnDate() : ""));
-        BLibClient.bookSearchMemberController = this;
 
         // Populate the ComboBox with search options
         cmbSearchType.setItems(FXCollections.observableArrayList("Title", "Author", "Theme", "Description"));
         cmbSearchType.getSelectionModel().selectFirst();
 
-        // Fetch and display all books initially
+        // Show the cover and the books borrowed together with the selected one
+        bookTable.getSelectionModel().selectedItemProperty().addListener((obs, oldBook, newBook) -> {
+            relatedBooksLabel.setText("");
+            showThumbnail(null);
+            if (newBook != null) {
+                fetchThumbnail(newBook.getBookId());
+                fetchRelatedBooks(newBook.getBookId());
+            }
+        });
+
+        // Filter the saved catalog as the user types
+        catalogSearch = new CatalogSearch(this::showSearchResults);
+        searchField.textProperty().addListener((obs, oldText, newText) -> searchCatalog());
+        cmbSearchType.valueProperty().addListener((obs, oldType, newType) -> searchCatalog());
+
+        // The books are fetched by refresh() when the screen is shown
+        bookLoader = new PagedTableLoader<>(bookTable, LibraryApi::getBooksPage, PAGE_SIZE,
+                last -> new PageRequest(last.getBookId(), PAGE_SIZE));
+        bookLoader.setOnPage(this::handlePageResponse);
+        bookLoader.setOnError(error -> handlePageError());
+    }
+
+    /**
+     * Shows the catalog and brings it up to date each time the screen is shown.
+     */
+    @Override
+    public void refresh() {
         fetchAllBooks();
     }
 
+    /**
+     * Stops the catalog search when the screen is no longer kept.
+     */
+    @Override
+    public void close() {
+        catalogSearch.shutdown();
+        cancelServerSearch();
+    }
+
     /**
      * Fetches all books from the server and displays them in the table.
      */
     private void fetchAllBooks() {
         try {
-            // Send a request to the server to fetch all books
-            Message message = new Message(null, Commands.GetAllBooks);
-            ClientController.client.sendMessageToServer(message);
+            // Show the saved catalog right away, the server sends only the books changed since
+            ClientCache cache = ClientCache.getInstance();
+            cache.getSavedCatalog().thenAcceptAsync(savedBooks -> {
+                if (savedBooks != null) {
+                    handleCatalog(savedBooks);
+                }
+            }, Platform::runLater);
+            // Applied and saved off the JavaFX thread
+            cache.syncCatalog()
+                    .whenCompleteAsync((books, error) -> {
+                        if (error != null) {
+                            System.err.println("Fetching catalog changes failed: " + error.getMessage());
+                            handleCatalogError();
+                        } else if (books != null) {
+                            handleCatalog(books);
+                        } // Otherwise the saved catalog is current
+                    }, Platform::runLater);
         } catch (Exception e) {
             showError("Failed to fetch books. Please try again.");
             e.printStackTrace();
         }
     }
 
+    /**
+     * Shows the saved thumbnail of a book and asks the server for it, passing
+     * the hash of the saved one so the image is only sent when it changed.
+     *
+     * @param bookId the ID of the selected book
+     */
+    private void fetchThumbnail(int bookId) {
+        if (pendingThumbnail != null) {
+            pendingThumbnail.cancel(false);
+        }
+        CompletableFuture<BookCover> cached = ClientCache.getInstance().getCover(bookId, BookCover.LARGE_THUMBNAIL);
+        CompletableFuture<BookCover> thumbnail = cached.thenCompose(saved -> LibraryApi.getBookCover(bookId,
+                saved != null ? saved.getHash() : null, BookCover.LARGE_THUMBNAIL));
+        pendingThumbnail = thumbnail;
+        cached.thenAcceptAsync(saved -> {
+            if (!thumbnail.isCancelled()) {
+                showThumbnail(saved);
+            }
+        }, Platform::runLater);
+        thumbnail.whenCompleteAsync((cover, error) -> {
+            if (error == null) {
+                handleBookCoverResponse(cover);
+            } else if (!thumbnail.isCancelled()) {
+                System.err.println("Fetching thumbnail failed: " + error.getMessage());
+            }
+        }, Platform::runLater);
+    }
+
+    /**
+     * Requests the books most often borrowed together with a book.
+     *
+     * @param bookId the ID of the selected book
+     */
+    private void fetchRelatedBooks(int bookId) {
+        if (pendingRelatedBooks != null) {
+            pendingRelatedBooks.cancel(false);
+        }
+        CompletableFuture<ArrayList<RelatedBook>> relatedBooks = LibraryApi.getRelatedBooks(bookId);
+        pendingRelatedBooks = relatedBooks;
+        relatedBooks.whenCompleteAsync((books, error) -> {
+            if (error == null) {
+                handleRelatedBooksResponse(bookId, books);
+            } else if (!relatedBooks.isCancelled()) {
+                System.err.println("Fetching related books failed: " + error.getMessage());
+            }
+        }, Platform::runLater);
+    }
+
     /**
      * Handles the search action. Searches for books based on the selected search type and input text.
      *
@@ -148,30 +262,39 @@ public class BookSearchMemberController {
             return;
         }
 
-        Message message;
-        switch (selectedType) {
-            case "Title":
-                message = new Message(searchText, Commands.GetBookByName);
-                break;
-            case "Author":
-                message = new Message(searchText, Commands.GetBookByAuthor);
-                break;
-            case "Theme":
-                message = new Message(searchText, Commands.GetBookByTheme);
-                break;
-            case "Description":
-                message = new Message(searchText, Commands.GetBookByDescription);
-                break;
-            default:
-                showError("Invalid search type selected.");
-                return;
+        if (catalogSearch.isReady()) {
+            // The saved catalog is searched locally, without a server request
+            searchCatalog();
+            return;
         }
 
-        // Send the message to the server
-        try {
-            ClientController.client.sendMessageToServer(message);
-        } catch (Exception e) {
-            showError("Error sending search request: " + e.getMessage());
+        // Ask the server, replacing a search that was not answered yet
+        cancelServerSearch();
+        CompletableFuture<ArrayList<BookLoanDetailsDTO>> search = LibraryApi.search(selectedType, searchText);
+        pendingSearch = search;
+        search.whenCompleteAsync((books, error) -> {
+            if (search != pendingSearch) {
+                return; // Cancelled or replaced by a newer search
+            }
+            pendingSearch = null;
+            if (error != null) {
+                System.err.println("Searching books failed: " + error.getMessage());
+                showError("Error searching books. Please try again.");
+            } else {
+                handleServerResponse(books);
+            }
+        }, Platform::runLater);
+    }
+
+    /**
+     * Cancels a server search that was not answered yet, so its result does not
+     * replace newer results.
+     */
+    private void cancelServerSearch() {
+        if (pendingSearch != null) {
+            CompletableFuture<ArrayList<BookLoanDetailsDTO>> search = pendingSearch;
+            pendingSearch = null;
+            search.cancel(false);
         }
     }
 
@@ -201,12 +324,16 @@ public class BookSearchMemberController {
         }
 
         try {
-            // Prepare data for order request
-            Object[] orderData = new Object[]{loggedMember.getUserId(), Integer.parseInt(bookId)};
-
             // Send order request to the server
-            Message orderMessage = new Message(orderData, Commands.OrderBook);
-            ClientController.client.sendMessageToServer(orderMessage);
+            LibraryApi.orderBook(loggedMember.getUserId(), Integer.parseInt(bookId))
+                    .whenCompleteAsync((result, error) -> {
+                        if (error != null) {
+                            System.err.println("Ordering a book failed: " + error.getMessage());
+                            showError("Failed to order book. Please try again.");
+                        } else {
+                            handleOrderBookResponse(result);
+                        }
+                    }, Platform::runLater);
 
             textOrderBook.clear();
         } catch (NumberFormatException e) {
@@ -244,7 +371,7 @@ public class BookSearchMemberController {
      *
      * @param message the response message from the server
      */
-    public void handleOrderBookResponse(String message) {
+    private void handleOrderBookResponse(String message) {
         switch (message.toLowerCase().trim()) {
             case "success":
                 showSuccessMessage("The book has been successfully reserved.");
@@ -273,6 +400,69 @@ public class BookSearchMemberController {
         }
     }
 
+    /**
+     * Clears the error shown before, once the first page of books arrived.
+     *
+     * @param page The page of books added to the table.
+     */
+    private void handlePageResponse(Page<BookLoanDetailsDTO> page) {
+        if (page.isFirstPage()) {
+            ErrorLabel.setText(""); // Clear error
+        }
+    }
+
+    /**
+     * Shows the books of the saved catalog, or the books matching the search
+     * text if one was typed, and indexes them for searching as the user types.
+     *
+     * @param books the books of the catalog with their loans
+     */
+    public void handleCatalog(ArrayList<BookLoanDetailsDTO> books) {
+        catalogSearch.setCatalog(books);
+        if (searchField.getText().isBlank()) {
+            handleServerResponse(books);
+        } else {
+            searchCatalog();
+        }
+    }
+
+    /**
+     * Searches the saved catalog for the typed text, once typing pauses.
+     */
+    private void searchCatalog() {
+        cancelServerSearch();
+        catalogSearch.search(cmbSearchType.getValue(), searchField.getText());
+    }
+
+    /**
+     * Shows the books found in the saved catalog.
+     *
+     * @param books the rows of the books found
+     */
+    private void showSearchResults(List<BookLoanDetailsDTO> books) {
+        bookLoader.stop();
+        bookTable.setItems(FXCollections.observableArrayList(books));
+        if (books.isEmpty()) {
+            showError("No books found.");
+        } else {
+            ErrorLabel.setText(""); // Clear error
+        }
+    }
+
+    /**
+     * Handles a failed catalog request by loading the books page by page instead.
+     */
+    public void handleCatalogError() {
+        bookLoader.reload();
+    }
+
+    /**
+     * Reports a failed page request; scrolling retries it.
+     */
+    private void handlePageError() {
+        showError("Failed to fetch books. Please try again.");
+    }
+
     /**
      * Handles the response from the server for book search results.
      *
@@ -282,12 +472,60 @@ public class BookSearchMemberController {
         if (books == null || books.isEmpty()) {
             showError("No books found.");
         } else {
+            bookLoader.stop();
             ObservableList<BookLoanDetailsDTO> bookLoanDetailsDTO = FXCollections.observableArrayList(books);
             bookTable.setItems(bookLoanDetailsDTO);
             ErrorLabel.setText(""); // Clear error
         }
     }
 
+    /**
+     * Shows the books borrowed together with a book, if it is still the selected one.
+     *
+     * @param bookId the ID of the book the related books belong to
+     * @param books  the related books, most often borrowed together first
+     */
+    private void handleRelatedBooksResponse(int bookId, ArrayList<RelatedBook> books) {
+        BookLoanDetailsDTO selected = bookTable.getSelectionModel().getSelectedItem();
+        if (selected == null || selected.getBookId() != bookId) {
+            return; // The selection changed while waiting for the server
+        }
+        if (books == null || books.isEmpty()) {
+            relatedBooksLabel.setText("");
+            return;
+        }
+        StringBuilder text = new StringBuilder("Members who borrowed this also borrowed: ");
+        for (int i = 0; i < books.size(); i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(books.get(i).getTitle()).append(" (").append(books.get(i).getBookId()).append(")");
+        }
+        relatedBooksLabel.setText(text.toString());
+    }
+
+    /**
+     * Saves a thumbnail received from the server and shows it if its book is
+     * still the selected one.
+     *
+     * @param cover the thumbnail of a book
+     */
+    private void handleBookCoverResponse(BookCover cover) {
+        ClientCache.getInstance().updateCover(cover);
+        BookLoanDetailsDTO selected = bookTable.getSelectionModel().getSelectedItem();
+        if (selected != null && selected.getBookId() == cover.getBookId() && !cover.isNotModified()) {
+            showThumbnail(cover);
+        }
+    }
+
+    private void showThumbnail(BookCover cover) {
+        if (cover == null || cover.getImageData() == null) {
+            coverThumbnail.setImage(null);
+        } else {
+            coverThumbnail.setImage(new Image(new ByteArrayInputStream(cover.getImageData())));
+        }
+    }
+
     /**
      * Handles the action to navigate back to the previous screen.
      *
@@ -297,6 +535,7 @@ public class BookSearchMemberController {
     @FXML
     public void getBtnBack(ActionEvent event) throws Exception {
         if (!backButton.isDisable()) {
+            cancelServerSearch();
             ((Node) event.getSource()).getScene().getWindow().hide();
             MemberMenuController newScreen = new MemberMenuController();
             newScreen.start(new Stage(), loggedMember);
@@ -1,18 +1,13 @@
 package member;
 
-import client.BLibClient;
-import client.ClientController;
+import client.LibraryApi;
+import client.SceneManager;
 import entities.ActivityLog;
-import entities.Message;
 import entities.SubscriberDTO;
-import enums.Commands;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
@@ -60,17 +55,11 @@ public class MemberActivityLogsController {
      * @throws IOException If the FXML file fails to load.
      */
     public void start(Stage stage, SubscriberDTO subscriber) throws IOException {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/member/MemberActivityLogs.fxml"));
-        Parent root = loader.load();
+        MemberActivityLogsController controller = SceneManager.getInstance().show(stage,
+                "/member/MemberActivityLogs.fxml", "Member Activity Logs");
 
-        // Get controller before calling fetchActivityLogs()
-        MemberActivityLogsController controller = loader.getController();
+        // Fetches the logs of the subscriber
         controller.setLoggedMember(subscriber);
-
-        Scene scene = new Scene(root);
-        stage.setScene(scene);
-        stage.setTitle("Member Activity Logs");
-        stage.show();
     }
     /**
      * Initializes the table columns when the scene is loaded.
@@ -83,8 +72,6 @@ public class MemberActivityLogsController {
         dateColumn.setCellValueFactory(new PropertyValueFactory<>("activityDate"));
         messageColumn.setCellValueFactory(new PropertyValueFactory<>("message"));
         librarianIdColumn.setCellValueFactory(new PropertyValueFactory<>("librarianId"));
-        
-        BLibClient.memberActivityLogsController = this;
     }
 
     /**
@@ -105,15 +92,10 @@ public class MemberActivityLogsController {
     private void handleLogout() {
         try {
             System.out.println("DEBUG: Logging out and returning to Member Menu...");
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/member/MemberMenu.fxml"));
-            Parent root = loader.load();
-
-            MemberMenuController memberMenuController = loader.getController();
-            memberMenuController.setLoggedMember(loggedMember);
-
             Stage currentStage = (Stage) logoutBtn.getScene().getWindow();
-            currentStage.setScene(new Scene(root));
-            currentStage.setTitle("Member Menu");
+            MemberMenuController memberMenuController = SceneManager.getInstance().show(currentStage,
+                    "/member/MemberMenu.fxml", "Member Menu");
+            memberMenuController.setLoggedMember(loggedMember);
         } catch (IOException e) {
             System.err.println("ERROR: Failed to load MemberMenu.fxml - " + e.getMessage());
             e.printStackTrace();
@@ -131,13 +113,13 @@ public class MemberActivityLogsController {
 
         System.out.println("DEBUG: Fetching activity logs for Subscriber ID: " + loggedMember.getUserId());
 
-        try {
-            Message activityRequest = new Message(loggedMember.getUserId(), Commands.GetActivityLogsByMember);
-            ClientController.client.sendMessageToServer(activityRequest);
-        } catch (Exception e) {
-            System.err.println("ERROR: Failed to send activity log request - " + e.getMessage());
-            e.printStackTrace();
-        }
+        LibraryApi.getActivityLogsByMember(loggedMember.getUserId()).whenComplete((logs, error) -> {
+            if (error != null) {
+                System.err.println("ERROR: Failed to fetch activity logs - " + error.getMessage());
+            } else {
+                handleActivityLogsResponse(logs);
+            }
+        });
     }
 
     /**
@@ -145,14 +127,14 @@ public class MemberActivityLogsController {
      *
      * @param logs A list of activity logs retrieved from the server.
      */
-    public void handleActivityLogsResponse(ArrayList<ActivityLog> logs) {
-        Platform.runLater(() -> {
-            if (logs == null || logs.isEmpty()) {
-                System.out.println("INFO: No activity logs found for this member.");
-                return;
-            }
-            System.out.println("DEBUG: Received " + logs.size() + " activity logs from server.");
-            setActivityLogs(logs);
-        });
+    private void handleActivityLogsResponse(ArrayList<ActivityLog> logs) {
+        if (logs == null || logs.isEmpty()) {
+            System.out.println("INFO: No activity logs found for this member.");
+            return;
+        }
+        System.out.println("DEBUG: Received " + logs.size() + " activity logs from server.");
+        // Prepared off the JavaFX thread, which only sets the rows on the table
+        ObservableList<ActivityLog> logData = FXCollections.observableArrayList(logs);
+        Platform.runLater(() -> activityLogsTable.setItems(logData));
     }
 }
@@ -2,18 +2,13 @@ package member;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import client.BLibClient;
-import client.ClientController;
-import enums.Commands;
+import client.LibraryApi;
+import client.SceneManager;
 import entities.SubscriberDTO;
 import entities.ActivityLog;
-import entities.Message;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.TextField;
@@ -80,21 +75,12 @@ public class MemberCardController {
      */
 
 	public void start(Stage currentStage, SubscriberDTO loggedMember) throws Exception {
-	    // Load the FXML file
-	    FXMLLoader loader = new FXMLLoader(getClass().getResource("/member/MemberCard.fxml"));
-	    Parent root = loader.load();
-
-	    // Retrieve the controller instance from the FXML loader
-	    MemberCardController controller = loader.getController();
+	    // Show the screen, loaded only on the first visit
+	    MemberCardController controller = SceneManager.getInstance().show(currentStage, "/member/MemberCard.fxml",
+	            "Member Card");
 
 	    // Set the logged member in the controller
 	    controller.setLoggedMember(loggedMember);
-
-	    // Set the scene and show the current stage
-	    Scene scene = new Scene(root);
-	    currentStage.setTitle("Member Card");
-	    currentStage.setScene(scene);
-	    currentStage.show();
 	}
     /**
      * Handles the save button click event to update the member's information.
@@ -111,18 +97,18 @@ public class MemberCardController {
 			loggedMember.setAddress(addressField.getText());
 			loggedMember.setPassword(passwordField.getText());
 
-			Message updateMessage = new Message(loggedMember, Commands.UpdateMember);
-
-			try {// send the message to the server
-				System.out.println("Creating UpdateMember message: " + updateMessage);
-
-				ClientController.client.sendMessageToServer(updateMessage); // ********************
+			// send the update to the server
+			LibraryApi.updateMember(loggedMember).whenCompleteAsync((result, error) -> {
+				if (error != null) {
+					System.err.println("Error updating member: " + error.getMessage());
+					showError("Update Failed", LibraryApi.errorMessage(error));
+				} else {
+					handleUpdateResponse(result);
+				}
+			}, Platform::runLater);
 
-				System.out.println("Update request sent to the server for: " + loggedMember.getFullName()
-						+ "  Member ID: " + loggedMember.getUserId());
-			} catch (Exception e) {
-				System.err.println("Error sending update request to server: " + e.getMessage());
-			}
+			System.out.println("Update request sent to the server for: " + loggedMember.getFullName()
+					+ "  Member ID: " + loggedMember.getUserId());
 		}
 	}
     /**
@@ -147,24 +133,17 @@ public class MemberCardController {
     /**
      * Handles the server's response to the member's update request.
      * 
-     * @param response The response message received from the server after attempting to update the member's details.
+     * @param result The server's message after attempting to update the member's details.
      */
 
-	public void handleUpdateResponse(Message response) {
-		Platform.runLater(() -> {
-			if (response.getObj() instanceof String) {
-				String result = (String) response.getObj();
-				System.out.println("UpdateMember Response: " + result);
+	private void handleUpdateResponse(String result) {
+		System.out.println("UpdateMember Response: " + result);
 
-				if (result.equals("Success")) {
-					showSuccess("Update Details Successfully!");
-				} else {
-					showError("Update Failed", result);
-				}
-			} else {
-				showError("Unexpected Response", "Invalid data received from server.");
-			}
-		});
+		if ("Success".equals(result)) {
+			showSuccess("Update Details Successfully!");
+		} else {
+			showError("Update Failed", result);
+		}
 	}
     /**
      * Displays a success message in a popup alert.
@@ -201,26 +180,12 @@ public class MemberCardController {
 
 	@FXML
 	private void handleExit() throws Exception {
-		// Load MemberMenu.fxml
-		FXMLLoader loader = new FXMLLoader(getClass().getResource("/member/MemberMenu.fxml"));
-		Parent root = loader.load();
+		// Show the Member Menu on the current stage
+		Stage currentStage = (Stage) cancelButton.getScene().getWindow();
+		MemberMenuController memberMenuController = SceneManager.getInstance().show(currentStage,
+				"/member/MemberMenu.fxml", "Member Menu");
 
 		// Pass the loggedMember back to MemberMenuController
-		MemberMenuController memberMenuController = loader.getController();
 		memberMenuController.setLoggedMember(loggedMember);
-
-		// Set the scene for the current stage
-		Stage currentStage = (Stage) cancelButton.getScene().getWindow();
-		currentStage.setScene(new Scene(root));
-		currentStage.setTitle("Member Menu");
-	}
-    /**
-     * Initializes the MemberCardController by setting the instance in the BLibClient.
-     */
-
-	@FXML
-	public void initialize() {
-		// Set this instance in BLibClient
-		BLibClient.setMemberCardController(this);
 	}
 }
@@ -1,6 +1,7 @@
 package member;
 
-import client.BLibClient;
+import client.ClientController;
+import client.SceneManager;
 import enums.SubscriberStatus;
 import entities.SubscriberDTO;
 import javafx.event.ActionEvent;
@@ -90,26 +91,11 @@ public class MemberMenuController {
      */
     public void start(Stage currentStage, SubscriberDTO user) throws Exception {
 
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/member/MemberMenu.fxml"));
-        Parent root = loader.load();
+        MemberMenuController controller = SceneManager.getInstance().show(currentStage, "/member/MemberMenu.fxml",
+                "Member Menu");
 
         // Pass logged-in member to the controller
-        MemberMenuController controller = loader.getController();
         controller.setLoggedMember(user);
-
-        // Set scene and show current stage
-        Scene scene = new Scene(root);
-        currentStage.setTitle("Member Menu");
-        currentStage.setScene(scene);
-        currentStage.show();
-    }
-
-    /**
-     * Initializes the controller and registers it with the client.
-     */
-    @FXML
-    public void initialize() {
-        BLibClient.memberMenuController = this;
     }
 
     /**
@@ -120,7 +106,9 @@ public class MemberMenuController {
      */
     @FXML
     private void handleLogout(ActionEvent event) throws Exception {
+        ClientController.client.logout(loggedMember.getUserId()); // End the session on the server
         loggedMember = null; // Clear logged-in object
+        SceneManager.getInstance().clear(); // The next user gets new screens
 
         // Load Main Menu
         FXMLLoader loader = new FXMLLoader(getClass().getResource("/logIn/MainMenu.fxml"));
@@ -197,18 +185,12 @@ public class MemberMenuController {
      */
     @FXML
     private void handleViewBorrowedBooks(ActionEvent event) throws Exception {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/member/MembersBorrowHistory.fxml"));
-        Parent root = loader.load();
+        ViewBorrowedBooksController controller = SceneManager.getInstance().show(new Stage(),
+                "/member/MembersBorrowHistory.fxml", "View Borrowed Books");
 
         // Pass the logged-in member to the View Borrowed Books controller
-        ViewBorrowedBooksController controller = loader.getController();
-        BLibClient.ViewBorrowedBooksController = controller;
         controller.setLoggedMember(loggedMember);
 
-        Stage stage = new Stage();
-        stage.setScene(new Scene(root));
-        stage.setTitle("View Borrowed Books");
-        stage.show();
         Stage currentStage = (Stage) logoutBtn.getScene().getWindow();
         currentStage.close();
     }
@@ -2,14 +2,12 @@ package member;
 
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleStringProperty;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
@@ -17,10 +15,8 @@ import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.CheckBoxTableCell;
 import javafx.stage.Stage;
-import entities.Message;
-import client.BLibClient;
-import client.ClientController;
-import enums.Commands;
+import client.LibraryApi;
+import client.SceneManager;
 import entities.Notification;
 import entities.SubscriberDTO;
 
@@ -80,15 +76,10 @@ public class NotificationMemberController {
      */
 
 	public void start(Stage stage, SubscriberDTO subscriber) throws IOException {
-		FXMLLoader loader = new FXMLLoader(getClass().getResource("/member/NotificationsMember.fxml"));
-		Parent root = loader.load();
-		Scene scene = new Scene(root);
-		stage.setScene(scene);
-		stage.setTitle("Notifications");
-		stage.show();
-
-		// Access the controller and set the logged member
-		NotificationMemberController controller = loader.getController();
+		NotificationMemberController controller = SceneManager.getInstance().show(stage,
+				"/member/NotificationsMember.fxml", "Notifications");
+
+		// Set the logged member, which loads the notifications
 		controller.setLoggedMember(subscriber);
 	}
     /**
@@ -97,7 +88,6 @@ public class NotificationMemberController {
 
 	@FXML
 	public void initialize() {
-		BLibClient.notificationMemberController = this;
 		// Initialize checkbox column
 	    checkBoxColumn.setCellValueFactory(cellData -> {
 	        Notification notification = cellData.getValue();
@@ -121,20 +111,20 @@ public class NotificationMemberController {
      */
 
 	private void loadNotifications() {
-		try {
-			if (loggedMember == null) {
-				System.err.println("No logged member set. Cannot load notifications.");
-				return;
-			}
-
-			System.out.println("Fetching notifications for subscriber ID: " + loggedMember.getUserId());
-			// Send request to server with the subscriber's ID
-			Message request = new Message(loggedMember.getUserId(), Commands.GetNotifications);
-			ClientController.client.sendMessageToServer(request);
-		} catch (Exception e) {
-			System.err.println("Failed to load notifications: " + e.getMessage());
-			e.printStackTrace();
+		if (loggedMember == null) {
+			System.err.println("No logged member set. Cannot load notifications.");
+			return;
 		}
+
+		System.out.println("Fetching notifications for subscriber ID: " + loggedMember.getUserId());
+		// Send request to server with the subscriber's ID
+		LibraryApi.getNotifications(loggedMember.getUserId()).whenComplete((received, error) -> {
+			if (error != null) {
+				System.err.println("Failed to load notifications: " + error.getMessage());
+			} else {
+				handleNotificationsResponse(received);
+			}
+		});
 	}
     /**
      * Handles the response from the server with the notifications for the logged-in member.
@@ -142,10 +132,13 @@ public class NotificationMemberController {
      * @param notificationsFromServer The list of notifications received from the server.
      */
 
-	public void handleNotificationsResponse(ArrayList<Notification> notificationsFromServer) {
-		notifications.clear();
-		notifications.addAll(notificationsFromServer);
-		notificationsTable.setItems(notifications);
+	private void handleNotificationsResponse(ArrayList<Notification> notificationsFromServer) {
+		// Prepared off the JavaFX thread, which only sets the rows on the table
+		ObservableList<Notification> rows = FXCollections.observableArrayList(notificationsFromServer);
+		Platform.runLater(() -> {
+			notifications = rows;
+			notificationsTable.setItems(rows);
+		});
 	}
 	
     /**
@@ -180,8 +173,8 @@ public class NotificationMemberController {
 	        System.out.println("Deleting notifications: " + notificationsToDelete);
 
 	        // Send request to server
-	        Message request = new Message(notificationsToDelete, Commands.DeleteNotifications);
-	        ClientController.client.sendMessageToServer(request);
+	        LibraryApi.deleteNotifications(notificationsToDelete).whenComplete(
+	                (deleted, error) -> handleDeleteNotificationsResponse(error == null && Boolean.TRUE.equals(deleted)));
 	    } else {
 	        System.out.println("Deletion canceled by user.");
 	    }
@@ -195,7 +188,7 @@ public class NotificationMemberController {
      */
 
 	// Handle delete response from the server
-	public void handleDeleteNotificationsResponse(boolean success) {
+	private void handleDeleteNotificationsResponse(boolean success) {
 	    if (success) {
 	        System.out.println("Notifications successfully deleted.");
 	        loadNotifications(); // Refresh the table after deletion
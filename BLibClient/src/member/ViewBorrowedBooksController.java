@@ -4,18 +4,14 @@ import java.util.ArrayList;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import javafx.beans.property.SimpleStringProperty;
-import client.ClientController;
-import enums.Commands;
+import client.LibraryApi;
+import client.SceneManager;
 import entities.HistoryForSubscriber;
-import entities.Message;
 import entities.SubscriberDTO;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.TableColumn;
@@ -75,14 +71,14 @@ public class ViewBorrowedBooksController {
 	    }
 
 	    System.out.println("Attempting to load history for member ID: " + loggedMember.getUserId());
-		try {
-			Message getMessage = new Message(loggedMember, Commands.GetBorrowHistory);
-			ClientController.client.sendMessageToServer(getMessage);
-			System.out.println("history request sent to server" + loggedMember.getUserId());
-		} catch (Exception e) {
-			System.err.println("Error sending history request: " + e.getMessage());
-			e.printStackTrace();
-		}
+		LibraryApi.getBorrowHistory(loggedMember).whenComplete((history, error) -> {
+			if (error != null) {
+				System.err.println("Error fetching history: " + error.getMessage());
+			} else {
+				setBorrowHistoryList(history);
+			}
+		});
+		System.out.println("history request sent to server" + loggedMember.getUserId());
 
 	}
 	/**
@@ -140,20 +136,13 @@ public class ViewBorrowedBooksController {
 
 	@FXML
 	private void handleExit() throws Exception {
-		// Load MemberMenu.fxml
-		FXMLLoader loader = new FXMLLoader(getClass().getResource("/member/MemberMenu.fxml"));
-		Parent root = loader.load();
+		// Show the MemberMenu in a new stage
+		MemberMenuController memberMenuController = SceneManager.getInstance().show(new Stage(),
+				"/member/MemberMenu.fxml", "Member Menu");
 
 		// Pass the loggedMember back to MemberMenuController
-		MemberMenuController memberMenuController = loader.getController();
 		memberMenuController.setLoggedMember(loggedMember);
 
-		// Show the MemberMenu in a new stage
-		Stage stage = new Stage();
-		stage.setScene(new Scene(root));
-		stage.setTitle("Member Menu");
-		stage.show();
-
 		// Close the current ViewBorrowedBooks window
 		Stage currentStage = (Stage) exitButton.getScene().getWindow();
 		currentStage.close();
@@ -184,14 +173,14 @@ public class ViewBorrowedBooksController {
 	            return;
 	        }
 
-	        // Create Object[] with null librarianId (since a member is making the request)
-	        Object[] extensionData = { memberId, bookId, 0 };
-
-	        // Create the message object
-	        Message extensionMsg = new Message(extensionData, Commands.ExtendBookLoan);
-
-	        // Send the message to the server
-	        ClientController.client.sendMessageToServer(extensionMsg);
+	        // Send the request with no librarian ID, since a member is making it
+	        LibraryApi.extendLoan(memberId, bookId, 0).whenCompleteAsync((result, error) -> {
+	            if (error != null) {
+	                showError("Loan Extension Failed", LibraryApi.errorMessage(error));
+	            } else {
+	                handleExtensionResponse(result);
+	            }
+	        }, Platform::runLater);
 
 	        System.out.println("Extension request sent: Member ID = " + memberId + ", Book ID = " + bookId);
 
@@ -205,11 +194,10 @@ public class ViewBorrowedBooksController {
      * Handles response from the server regarding a loan extension.
      * Displays a success message if the extension was approved or an error message otherwise.
      *
-     * @param response The response message containing loan extension details.
+     * @param result The server's message with the result of the extension.
      */
-	public void handleExtensionResponse(Message response) {
-	    if (response.getObj() instanceof String) {
-	        String result = (String) response.getObj();
+	private void handleExtensionResponse(String result) {
+	    if (result != null) {
 	        System.out.println("Loan extension response received: " + result);
 
 	        if (result.startsWith("Successfully")) {
@@ -231,18 +219,19 @@ public class ViewBorrowedBooksController {
 	 * sets the data into the table and refreshes it to present loans.
 	 * @param history The history of the borrower activites. 
 	 */
-	public void setBorrowHistoryList(ArrayList<HistoryForSubscriber> history) {
+	private void setBorrowHistoryList(ArrayList<HistoryForSubscriber> history) {
 		System.out.println(
 				"Received activity logs response. Number of logs: " + (history != null ? history.size() : "null"));
+		if (history == null) {
+			System.err.println("Received null activity logs");
+			return;
+		}
+		// Prepared off the JavaFX thread, which only sets the rows on the table
+		ObservableList<HistoryForSubscriber> rows = FXCollections.observableArrayList(history);
 		Platform.runLater(() -> {
-			if (history != null) {
-				bookLoanDetails.clear();
-				bookLoanDetails.addAll(history);
-				borrowHistoryTable.refresh(); 
-				System.out.println("history added to table");
-			} else {
-				System.err.println("Received null activity logs");
-			}
+			bookLoanDetails = rows;
+			borrowHistoryTable.setItems(rows);
+			System.out.println("history added to table");
 		});
 
 	}
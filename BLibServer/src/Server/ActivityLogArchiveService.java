@@ -0,0 +1,125 @@
+package Server;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import jdbc.dbHandler;
+
+/**
+ * Service class responsible for archiving old activity logs.
+ * The ActivityLog table only keeps the current month and the previous
+ * {@link #HOT_MONTHS} - 1 months; older entries are moved to ActivityLogArchive.
+ * The job runs daily, so the monthly rollover happens on the first run of a new month.
+ * Implements the Singleton pattern to ensure only one instance manages the archive.
+ */
+public class ActivityLogArchiveService {
+    /** Number of calendar months kept in the hot ActivityLog table, including the current one. */
+    public static final int HOT_MONTHS = 3;
+
+    private static ActivityLogArchiveService instance;
+    private final ScheduledExecutorService scheduler;
+    private final dbHandler dbHandler;
+
+    /**
+     * Private constructor to enforce singleton pattern.
+     * Initializes the scheduler and sets up the daily archival run.
+     *
+     * @param dbHandler Database handler instance for moving the logs
+     */
+    private ActivityLogArchiveService(dbHandler dbHandler) {
+        this.dbHandler = dbHandler;
+        this.scheduler = Executors.newScheduledThreadPool(1);
+        scheduleArchival();
+        System.out.println("ActivityLogArchiveService initialized successfully");
+    }
+
+    /**
+     * Gets the singleton instance of ActivityLogArchiveService.
+     * Creates the instance if it doesn't exist.
+     *
+     * @param dbHandler Database handler instance
+     * @return The singleton instance of ActivityLogArchiveService
+     */
+    public static synchronized ActivityLogArchiveService getInstance(dbHandler dbHandler) {
+        if (instance == null) {
+            instance = new ActivityLogArchiveService(dbHandler);
+        }
+        return instance;
+    }
+
+    /**
+     * Schedules the daily archival run at 03:30, when the library is closed.
+     * Also runs once shortly after startup so a server that was down over the
+     * month boundary catches up.
+     */
+    private void scheduleArchival() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime nextRun = now.toLocalDate().atTime(LocalTime.of(3, 30));
+
+        if (now.toLocalTime().isAfter(LocalTime.of(3, 30))) {
+            nextRun = nextRun.plusDays(1);
+        }
+
+        long initialDelay = ChronoUnit.MINUTES.between(now, nextRun);
+
+        scheduler.schedule(this::archiveOldLogs, 1, TimeUnit.MINUTES);
+        scheduler.scheduleAtFixedRate(
+            this::archiveOldLogs,
+            initialDelay,
+            TimeUnit.DAYS.toMinutes(1),
+            TimeUnit.MINUTES
+        );
+
+        System.out.println("Scheduled next activity log archival for: " + nextRun);
+    }
+
+    /**
+     * Returns the first day that is still kept in the hot table.
+     *
+     * @return The start of the oldest hot month
+     */
+    public static LocalDate getHotCutoff() {
+        return LocalDate.now().withDayOfMonth(1).minusMonths(HOT_MONTHS - 1);
+    }
+
+    /**
+     * Moves every activity log dated before the hot cutoff to the archive.
+     */
+    private void archiveOldLogs() {
+        LocalDate cutoff = getHotCutoff();
+        try {
+            System.out.println("Starting activity log archival before " + cutoff + " at: " + LocalDateTime.now());
+            int archived = dbHandler.archiveActivityLogs(cutoff);
+            System.out.println("Activity log archival completed, " + archived + " entries moved");
+        } catch (SQLException e) {
+            System.err.println("Error archiving activity logs: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("Unexpected error archiving activity logs: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Shuts down the archive service.
+     * Waits up to 60 seconds for a running archival to complete before forcing shutdown.
+     */
+    public void shutdown() {
+        System.out.println("Shutting down ActivityLogArchiveService...");
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(60, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+            System.out.println("ActivityLogArchiveService shutdown completed");
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            System.err.println("ActivityLogArchiveService shutdown interrupted: " + e.getMessage());
+        }
+    }
+}
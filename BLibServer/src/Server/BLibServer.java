@@ -2,10 +2,14 @@ package Server;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import jdbc.ActivityLogAppender;
 import jdbc.dbHandler;
 import ocsf.server.AbstractServer;
 import ocsf.server.ConnectionToClient;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import controller.ServerPortController;
 import entities.HistoryForSubscriber;
@@ -14,11 +18,20 @@ import enums.Commands;
 import enums.UserType;
 import entities.ActivityLog;
 import entities.Book;
+import entities.BookCover;
 import entities.BookLoanDetailsDTO;
+import entities.CatalogChanges;
 import entities.ChartReport;
 import entities.Message;
 import entities.Notification;
+import entities.Page;
+import entities.PageRequest;
 import entities.PieChartReport;
+import entities.PopularBook;
+import entities.PopularBooksRequest;
+import entities.RelatedBook;
+import entities.ReportSeries;
+import entities.ReportSeriesRequest;
 import entities.Subscriber;
 import entities.SubscriberDTO;
 
@@ -30,6 +43,8 @@ import entities.SubscriberDTO;
  */
 
 public class BLibServer extends AbstractServer {
+	/** Key of the session token of a connection in its client info */
+	private static final String SESSION_TOKEN_INFO = "sessionToken";
 	/** List of all connected clients */
 	public static ArrayList<ConnectionToClient> clients; // list of all connected clients
 	/** Database connection handler */
@@ -40,6 +55,15 @@ public class BLibServer extends AbstractServer {
 	private NotificationService notificationService; // using thread for sending returns nessages daily
 	private StatusUpdateService statusUpdateService; // using thread for changing
 	private ReservationExpiryService reservationExpiryService; // using thread to manage book reservation expiry
+	private ActivityLogAppender activityLogAppender; // using thread to write activity logs in batches
+	private ActivityLogArchiveService activityLogArchiveService; // using thread to move old activity logs to the archive
+	private PopularBooksTracker popularBooksTracker; // counts borrows and reservations for the popular books ranking
+	private DistinctMemberTracker distinctMemberTracker; // counts distinct active members, saved with the reports
+	private RelatedBooksIndex relatedBooksIndex; // using thread to rebuild the books borrowed together every night
+	private CoverImageService coverImageService; // caches the book covers by content hash
+	private SessionManager sessionManager; // issues the sessions clients resume after reconnecting
+	/** Request handled on each client connection thread, so its replies carry its ID */
+	private final ThreadLocal<Message> currentRequest = new ThreadLocal<>();
 
 	/**
 	 * Constructs a new BLib server instance on the specified port.
@@ -54,13 +78,19 @@ public class BLibServer extends AbstractServer {
 
 	/**
 	 * Sets up the database connection and starts all required services. This method
-	 * initializes: - Report generation service - Notification handling service -
-	 * User status update service - Reservation expiry service
+	 * initializes: - Activity log appender - Report generation service -
+	 * Notification handling service - User status update service - Reservation
+	 * expiry service - Activity log archive service
 	 * 
 	 * @param dbHandler The database connection handler to use
 	 */
 	public void setDbHandlerController(dbHandler dbHandler) {
 		BLibServer.dbHandler = dbHandler;
+		if (activityLogAppender == null) {
+			this.activityLogAppender = ActivityLogAppender.getInstance(dbHandler);
+			dbHandler.setActivityLogAppender(activityLogAppender);
+			System.out.println("ActivityLogAppender initialized");
+		}
 		if (reportManager == null) {
 			this.reportManager = ReportManager.getInstance(dbHandler);
 			System.out.println("ReportManager initialized");
@@ -77,6 +107,29 @@ public class BLibServer extends AbstractServer {
 			this.reservationExpiryService = ReservationExpiryService.getInstance(dbHandler);
 			System.out.println("ReservationExpiryService initialized");
 		}
+		if (activityLogArchiveService == null) {
+			this.activityLogArchiveService = ActivityLogArchiveService.getInstance(dbHandler);
+			System.out.println("ActivityLogArchiveService initialized");
+		}
+		if (popularBooksTracker == null) {
+			this.popularBooksTracker = PopularBooksTracker.getInstance(dbHandler);
+			System.out.println("PopularBooksTracker initialized");
+		}
+		if (distinctMemberTracker == null) {
+			this.distinctMemberTracker = DistinctMemberTracker.getInstance(dbHandler,
+					reportManager.getReportsDirectory());
+			System.out.println("DistinctMemberTracker initialized");
+		}
+		if (relatedBooksIndex == null) {
+			this.relatedBooksIndex = RelatedBooksIndex.getInstance(dbHandler);
+			System.out.println("RelatedBooksIndex initialized");
+		}
+		if (coverImageService == null) {
+			this.coverImageService = CoverImageService.getInstance();
+		}
+		if (sessionManager == null) {
+			this.sessionManager = SessionManager.getInstance(dbHandler);
+		}
 	}
 
 	/**
@@ -128,6 +181,53 @@ public class BLibServer extends AbstractServer {
 		return reservationExpiryService;
 	}
 
+	/**
+	 * Gets the appender that writes activity logs in the background.
+	 * 
+	 * @return The activity log appender
+	 */
+
+	public ActivityLogAppender getActivityLogAppender() {
+		return activityLogAppender;
+	}
+
+	/**
+	 * Gets the service that archives old activity logs.
+	 * 
+	 * @return The activity log archive service
+	 */
+
+	public ActivityLogArchiveService getActivityLogArchiveService() {
+		return activityLogArchiveService;
+	}
+
+	/**
+	 * Gets the tracker of the most borrowed and most reserved books.
+	 * 
+	 * @return The popular books tracker
+	 */
+	public PopularBooksTracker getPopularBooksTracker() {
+		return popularBooksTracker;
+	}
+
+	/**
+	 * Gets the tracker of distinct active members.
+	 * 
+	 * @return The distinct member tracker
+	 */
+	public DistinctMemberTracker getDistinctMemberTracker() {
+		return distinctMemberTracker;
+	}
+
+	/**
+	 * Gets the index of books borrowed together.
+	 * 
+	 * @return The related books index
+	 */
+	public RelatedBooksIndex getRelatedBooksIndex() {
+		return relatedBooksIndex;
+	}
+
 	/**
 	 * Processes messages received from clients. This method checks if the message
 	 * is valid and handles any errors that occur during message processing.
@@ -149,6 +249,9 @@ public class BLibServer extends AbstractServer {
 
 		Message m = (Message) msg;
 		Commands command = m.getCmd(); // Using enum Commands
+		if (m.getRequestId() != 0) {
+			currentRequest.set(m);
+		}
 
 		try {
 			switch (command) {
@@ -191,28 +294,11 @@ public class BLibServer extends AbstractServer {
 						} else {
 							// Retrieve complete user details from the database
 							System.out.println("Fetching complete user details...");
-							User completeUser = dbHandler.getUserDetails(user.getUserId());
-
-							if (completeUser != null) {
-								System.out.println("User details retrieved: " + completeUser.getFullName()
-										+ ", UserType: " + completeUser.getUserType());
-
-								if (completeUser.getUserType().equals(UserType.Subscriber)) {
-									// Fetch additional subscriber details
-									System.out.println("Fetching subscriber details...");
-									Subscriber subscriber = dbHandler.getSubscriberDetails(user.getUserId());
-									SubscriberDTO subscriberDTO = new SubscriberDTO(completeUser.getUserId(),
-											completeUser.getFullName(), completeUser.getPassword(),
-											completeUser.getEmail(), completeUser.getPhone(), subscriber.getStatus(),
-											completeUser.getAddress());
-									System.out.println("SubscriberDTO created: " + subscriberDTO.getFullName()
-											+ ", Status: " + subscriberDTO.getStatus());
-									client.sendToClient(new Message(subscriberDTO, Commands.CheckUsername));
-								} else {
-									// Send librarian or other user type details directly
-									System.out.println("Sending librarian details to client.");
-									client.sendToClient(new Message(completeUser, Commands.CheckUsername));
-								}
+							Object loginUser = loadLoginUser(user.getUserId());
+
+							if (loginUser != null) {
+								client.sendToClient(new Message(loginUser, Commands.CheckUsername));
+								sendSessionToken(user.getUserId(), client);
 							} else {
 								// User details not found
 								System.out.println("Error: User details not found.");
@@ -238,6 +324,35 @@ public class BLibServer extends AbstractServer {
 				}
 				break;
 
+			case ResumeSession:
+				try {
+					String resumedToken = (String) m.getObj();
+					int sessionUserId = sessionManager.resumeSession(resumedToken);
+					Object sessionUser = sessionUserId < 0 ? null : loadLoginUser(sessionUserId);
+					if (sessionUser != null) {
+						client.setInfo(SESSION_TOKEN_INFO, resumedToken);
+						System.out.println("Session resumed for user " + sessionUserId);
+						client.sendToClient(new Message(sessionUser, Commands.ResumeSession));
+					} else {
+						client.sendToClient(new Message("session expired", Commands.ResumeSession));
+					}
+				} catch (SQLException e) {
+					System.err.println("Error in ResumeSession: " + e.getMessage());
+					client.sendToClient(new Message("Error resuming session: " + e.getMessage(),
+							Commands.ResumeSession));
+				}
+				break;
+
+			case Logout:
+				try {
+					// Only the session of this connection; the user ID sent along is not trusted
+					sessionManager.endSession((String) client.getInfo(SESSION_TOKEN_INFO));
+					client.setInfo(SESSION_TOKEN_INFO, null);
+				} catch (SQLException e) {
+					System.err.println("Error ending session: " + e.getMessage());
+				}
+				break;
+
 			case GetBookByName:
 				String title = (String) m.getObj();
 				ArrayList<BookLoanDetailsDTO> booksByName = dbHandler.getBooksByName(title);
@@ -256,6 +371,16 @@ public class BLibServer extends AbstractServer {
 				client.sendToClient(new Message(booksByDescription, Commands.GetBookByDescription));
 				break;
 
+			case SearchBooks:
+				try {
+					String[] search = (String[]) m.getObj();
+					ArrayList<BookLoanDetailsDTO> booksFound = dbHandler.searchBooks(search[0], search[1]);
+					client.sendToClient(new Message(booksFound, Commands.SearchBooks));
+				} catch (SQLException e) {
+					client.sendToClient(new Message("Error fetching books.", Commands.SearchBooks));
+				}
+				break;
+
 			case CreateMember:
 				try {
 					User newUser = (User) m.getObj();
@@ -413,6 +538,71 @@ public class BLibServer extends AbstractServer {
 							Commands.GetFilteredActivityLogs));
 				}
 				break;
+			case GetActivityLogsByDateRange:
+				System.out.println("Server received GetActivityLogsByDateRange request");
+				try {
+					LocalDate[] range = (LocalDate[]) m.getObj();
+					ArrayList<ActivityLog> logs = dbHandler.getActivityLogsInRange(range[0], range[1]);
+					client.sendToClient(new Message(logs, Commands.GetActivityLogsByDateRange));
+				} catch (SQLException e) {
+					System.err.println("Error in GetActivityLogsByDateRange: " + e.getMessage());
+					client.sendToClient(new Message("Error fetching activity logs: " + e.getMessage(),
+							Commands.GetActivityLogsByDateRange));
+				}
+				break;
+			case GetActivityLogsPage:
+				try {
+					Page<ActivityLog> page = dbHandler.getActivityLogsPage((PageRequest) m.getObj());
+					client.sendToClient(new Message(page, Commands.GetActivityLogsPage));
+				} catch (SQLException e) {
+					System.err.println("Error in GetActivityLogsPage: " + e.getMessage());
+					client.sendToClient(new Message("Error fetching activity logs: " + e.getMessage(),
+							Commands.GetActivityLogsPage));
+				}
+				break;
+			case GetAllMembersPage:
+				try {
+					Page<SubscriberDTO> page = dbHandler.getMembersPage((PageRequest) m.getObj());
+					client.sendToClient(new Message(page, Commands.GetAllMembersPage));
+				} catch (SQLException e) {
+					System.err.println("Error fetching members page: " + e.getMessage());
+					client.sendToClient(new Message("Error fetching members: " + e.getMessage(),
+							Commands.GetAllMembersPage));
+				}
+				break;
+			case GetAllBooksPage:
+				try {
+					Page<BookLoanDetailsDTO> page = dbHandler.getBooksPage((PageRequest) m.getObj());
+					client.sendToClient(new Message(page, Commands.GetAllBooksPage));
+				} catch (SQLException e) {
+					System.err.println("Error fetching books page: " + e.getMessage());
+					client.sendToClient(new Message("Error fetching books.", Commands.GetAllBooksPage));
+				}
+				break;
+			case StreamActivityLogs: {
+				ChunkedResponse<ActivityLog> response = new ChunkedResponse<>(client, Commands.StreamActivityLogs);
+				try {
+					int count = dbHandler.streamActivityLogs(ChunkedResponse.CHUNK_SIZE, response);
+					response.end();
+					System.out.println("Streamed " + count + " activity logs to client");
+				} catch (SQLException e) {
+					System.err.println("Error in StreamActivityLogs: " + e.getMessage());
+					response.fail("Error fetching activity logs: " + e.getMessage());
+				}
+				break;
+			}
+			case StreamAllMembers: {
+				ChunkedResponse<SubscriberDTO> response = new ChunkedResponse<>(client, Commands.StreamAllMembers);
+				try {
+					int count = dbHandler.streamAllMembers(ChunkedResponse.CHUNK_SIZE, response);
+					response.end();
+					System.out.println("Streamed " + count + " members to client");
+				} catch (SQLException e) {
+					System.err.println("Error in StreamAllMembers: " + e.getMessage());
+					response.fail("Error fetching members: " + e.getMessage());
+				}
+				break;
+			}
 			case GetAllMembers:
 				System.out.println("Server received GetAllMembers request");
 				try {
@@ -466,6 +656,17 @@ public class BLibServer extends AbstractServer {
 					}
 				}
 				break;
+			case GetCatalogChanges:
+				try {
+					Object[] catalogRequest = (Object[]) m.getObj();
+					CatalogChanges changes = dbHandler.getCatalogChanges((String) catalogRequest[0],
+							(Long) catalogRequest[1]);
+					client.sendToClient(new Message(changes, Commands.GetCatalogChanges));
+				} catch (SQLException e) {
+					System.err.println("Error fetching catalog changes: " + e.getMessage());
+					client.sendToClient(new Message("Error fetching books.", Commands.GetCatalogChanges));
+				}
+				break;
 			case GetAllBooks:
 				try {
 					ArrayList<BookLoanDetailsDTO> allBooks = dbHandler.getAllBooks();
@@ -486,7 +687,7 @@ public class BLibServer extends AbstractServer {
 					booksByAuthor = dbHandler.getBooksByAuthor(author);
 					client.sendToClient(new Message(booksByAuthor, Commands.GetBookByAuthor));
 				} catch (SQLException e) {
-					client.sendToClient(new Message("Error fetching books.", Commands.GetAllBooks));
+					client.sendToClient(new Message("Error fetching books.", Commands.GetBookByAuthor));
 
 					e.printStackTrace();
 				}
@@ -495,11 +696,11 @@ public class BLibServer extends AbstractServer {
 			case GetLoanDurationChart:
 				try {
 					String filename = "loan_duration_report.ser";
-					ArrayList<Number> chartData = dbHandler.getLoanDurationReport(30);
 
-					// Create and save report
-					ChartReport report = new ChartReport(chartData, "Loan Duration Report", "LOAN_DURATION", 0);
-					reportManager.saveReport(report, filename);
+					// Cached for a few minutes, saved only when the data changed
+					ArrayList<Number> chartData = reportManager.getReport("LOAN_DURATION", 30, filename,
+							() -> dbHandler.getLoanDurationReport(30),
+							data -> new ChartReport(data, "Loan Duration Report", "LOAN_DURATION", 0));
 
 					client.sendToClient(new Message(chartData, Commands.GetLoanDurationChart));
 				} catch (SQLException | IOException e) {
@@ -511,11 +712,11 @@ public class BLibServer extends AbstractServer {
 			case GetLateReturnChart:
 				try {
 					String filename = "late_return_report.ser";
-					ArrayList<Number> chartData = dbHandler.getLateReturnReport(30);
 
-					// Create and save report
-					ChartReport report = new ChartReport(chartData, "Late Return Report", "LATE_RETURN", 0);
-					reportManager.saveReport(report, filename);
+					// Cached for a few minutes, saved only when the data changed
+					ArrayList<Number> chartData = reportManager.getReport("LATE_RETURN", 30, filename,
+							() -> dbHandler.getLateReturnReport(30),
+							data -> new ChartReport(data, "Late Return Report", "LATE_RETURN", 0));
 
 					client.sendToClient(new Message(chartData, Commands.GetLateReturnChart));
 				} catch (SQLException | IOException e) {
@@ -529,11 +730,11 @@ public class BLibServer extends AbstractServer {
 				try {
 					int period = (Integer) m.getObj();
 					String filename = "activity_status_" + period + "_report.ser";
-					Map<String, ArrayList<Number>> statusData = dbHandler.getMemberStatusDistribution(period);
 
-					// Create and save report
-					PieChartReport report = new PieChartReport(statusData, "Member Status Report", "MEMBER_STATUS", 0);
-					reportManager.saveReport(report, filename);
+					// Cached for a few minutes, saved only when the data changed
+					Map<String, ArrayList<Number>> statusData = reportManager.getReport("MEMBER_STATUS", period,
+							filename, () -> dbHandler.getMemberStatusDistribution(period),
+							data -> new PieChartReport(data, "Member Status Report", "MEMBER_STATUS", 0));
 
 					client.sendToClient(new Message(statusData, Commands.GetMemberStatus));
 				} catch (SQLException | IOException e) {
@@ -542,6 +743,96 @@ public class BLibServer extends AbstractServer {
 							Commands.GetMemberStatus));
 				}
 				break;
+			case GetPopularBooks:
+				try {
+					PopularBooksRequest request = (PopularBooksRequest) m.getObj();
+					List<Map.Entry<Integer, Long>> ranking = popularBooksTracker.topBooks(request.getActivityType(),
+							request.getWindowDays(), request.getLimit());
+					List<Integer> bookIds = new ArrayList<>();
+					for (Map.Entry<Integer, Long> entry : ranking) {
+						bookIds.add(entry.getKey());
+					}
+					Map<Integer, String> titles = dbHandler.getBookTitles(bookIds);
+
+					ArrayList<PopularBook> popularBooks = new ArrayList<>();
+					for (Map.Entry<Integer, Long> entry : ranking) {
+						String bookTitle = titles.get(entry.getKey());
+						if (bookTitle != null) {
+							popularBooks.add(new PopularBook(entry.getKey(), bookTitle, entry.getValue()));
+						}
+					}
+					client.sendToClient(new Message(popularBooks, Commands.GetPopularBooks));
+				} catch (SQLException e) {
+					System.err.println("Error in GetPopularBooks: " + e.getMessage());
+					client.sendToClient(new Message("Error fetching popular books: " + e.getMessage(),
+							Commands.GetPopularBooks));
+				}
+				break;
+			case GetRelatedBooks:
+				try {
+					int relatedToBookId = (Integer) m.getObj();
+					List<Integer> relatedIds = relatedBooksIndex.relatedBooks(relatedToBookId, 5);
+					Map<Integer, String> relatedTitles = dbHandler.getBookTitles(relatedIds);
+
+					ArrayList<RelatedBook> relatedBooks = new ArrayList<>();
+					for (int relatedId : relatedIds) {
+						String relatedTitle = relatedTitles.get(relatedId);
+						if (relatedTitle != null) {
+							relatedBooks.add(new RelatedBook(relatedId, relatedTitle));
+						}
+					}
+					client.sendToClient(new Message(new Object[] { relatedToBookId, relatedBooks },
+							Commands.GetRelatedBooks));
+				} catch (SQLException e) {
+					System.err.println("Error in GetRelatedBooks: " + e.getMessage());
+					client.sendToClient(new Message("Error fetching related books: " + e.getMessage(),
+							Commands.GetRelatedBooks));
+				}
+				break;
+			case GetDistinctMembers:
+				// The window is echoed, so the client labels the counts with the period it asked for
+				if (!(m.getObj() instanceof Integer) || (Integer) m.getObj() < 1
+						|| (Integer) m.getObj() > DistinctMemberTracker.MAX_WINDOW_DAYS) {
+					client.sendToClient(new Message("Invalid period for distinct members: " + m.getObj(),
+							Commands.GetDistinctMembers));
+					break;
+				}
+				int windowDays = (Integer) m.getObj();
+				client.sendToClient(new Message(new Object[] { windowDays,
+						new LinkedHashMap<>(distinctMemberTracker.getDistinctMemberCounts(windowDays)) },
+						Commands.GetDistinctMembers));
+				break;
+			case GetReportSeries:
+				try {
+					ReportSeriesRequest request = (ReportSeriesRequest) m.getObj();
+					ReportSeries series = ReportManager.isSavedReportMetric(request.getMetric())
+							? reportManager.getSavedReportSeries(request.getMetric(), request.getFrom(), request.getTo(),
+									request.getMaxPoints())
+							: dbHandler.getReportSeries(request.getMetric(), request.getFrom(), request.getTo(),
+									request.getMaxPoints());
+					client.sendToClient(new Message(series, Commands.GetReportSeries));
+				} catch (SQLException e) {
+					System.err.println("Error in GetReportSeries: " + e.getMessage());
+					client.sendToClient(new Message("Error generating report series: " + e.getMessage(),
+							Commands.GetReportSeries));
+				}
+				break;
+			case GetBookCover:
+				try {
+					Object[] coverRequest = (Object[]) m.getObj();
+					int coverBookId = (Integer) coverRequest[0];
+					String knownHash = (String) coverRequest[1];
+					int coverSize = coverRequest.length > 2 ? (Integer) coverRequest[2] : BookCover.FULL_SIZE;
+					String coverTitle = dbHandler.getBookTitles(List.of(coverBookId)).get(coverBookId);
+					client.sendToClient(new Message(
+							coverImageService.getCover(coverBookId, coverTitle, knownHash, coverSize),
+							Commands.GetBookCover));
+				} catch (SQLException e) {
+					System.err.println("Error in GetBookCover: " + e.getMessage());
+					client.sendToClient(new Message("Error fetching book cover: " + e.getMessage(),
+							Commands.GetBookCover));
+				}
+				break;
 			case getSimpleBookById:
 				try {
 					int bookId = (int) m.getObj();
@@ -700,10 +991,80 @@ public class BLibServer extends AbstractServer {
 			}
 		} catch (IOException e) {
 			e.printStackTrace();
+		} finally {
+			currentRequest.remove();
 		}
 
 	}
 
+	/**
+	 * Loads the details of a user as sent to the client at login: a
+	 * {@link SubscriberDTO} for subscribers, the {@link User} for librarians.
+	 *
+	 * @param userId ID of the user
+	 * @return The user details, or null if the user does not exist
+	 * @throws SQLException If a database error occurs
+	 */
+	private Object loadLoginUser(int userId) throws SQLException {
+		User completeUser = dbHandler.getUserDetails(userId);
+		if (completeUser == null) {
+			return null;
+		}
+		System.out.println("User details retrieved: " + completeUser.getFullName() + ", UserType: "
+				+ completeUser.getUserType());
+		if (!completeUser.getUserType().equals(UserType.Subscriber)) {
+			return completeUser;
+		}
+		Subscriber subscriber = dbHandler.getSubscriberDetails(userId);
+		return new SubscriberDTO(completeUser.getUserId(), completeUser.getFullName(), completeUser.getPassword(),
+				completeUser.getEmail(), completeUser.getPhone(), subscriber.getStatus(), completeUser.getAddress());
+	}
+
+	/**
+	 * Starts a session for a user who logged in and sends its token to the
+	 * client. The login still succeeds if no session can be started; the client
+	 * then cannot resume after a reconnect.
+	 *
+	 * @param userId ID of the logged-in user
+	 * @param client The client the user logged in on
+	 * @throws IOException If the token cannot be sent
+	 */
+	private void sendSessionToken(int userId, ConnectionToClient client) throws IOException {
+		try {
+			String token = sessionManager.startSession(userId);
+			client.setInfo(SESSION_TOKEN_INFO, token);
+			client.sendToClient(new Message(token, Commands.SessionToken));
+		} catch (SQLException e) {
+			System.err.println("Error starting session: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Gives a reply the ID of the request it answers. Only messages with the
+	 * command of the request, sent to the requesting client while its request is
+	 * handled, are replies; other messages, such as the session token sent with
+	 * a login reply or notifications to other clients, are sent unchanged.
+	 *
+	 * @param msg    The message to be sent
+	 * @param client The client the message is sent to
+	 * @return The message, with the request ID if it is a reply
+	 */
+	@Override
+	protected Object prepareMessageToClient(Object msg, ConnectionToClient client) {
+		Message request = currentRequest.get();
+		if (request == null || client != Thread.currentThread() || !(msg instanceof Message)) {
+			return msg;
+		}
+		Message message = (Message) msg;
+		if (message.getRequestId() != 0 || message.getCmd() != request.getCmd()) {
+			return msg;
+		}
+		// A copy, in case the same message is also sent to other clients
+		Message reply = new Message(message.getObj(), message.getCmd());
+		reply.setRequestId(request.getRequestId());
+		return reply;
+	}
+
 	/**
 	 * This method overrides the one in the superclass. Called when the server
 	 * starts listening for connections.
@@ -0,0 +1,69 @@
+package Server;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import entities.Message;
+import entities.ResultChunk;
+import enums.Commands;
+import jdbc.dbHandler;
+import ocsf.server.ConnectionToClient;
+
+/**
+ * Sends a result to a client as a sequence of {@link ResultChunk} messages.
+ * Each chunk is sent as soon as it is read from the database, and
+ * {@link #end()} sends the end marker once the query has finished.
+ *
+ * @param <T> The type of the rows
+ */
+public class ChunkedResponse<T> implements dbHandler.ChunkConsumer<T> {
+    /** Number of rows sent in each chunk */
+    public static final int CHUNK_SIZE = 200;
+
+    private final ConnectionToClient client;
+    private final Commands command;
+    private int sequence;
+
+    /**
+     * Constructs a chunked response.
+     *
+     * @param client  The client to send the chunks to
+     * @param command The command the chunks answer
+     */
+    public ChunkedResponse(ConnectionToClient client, Commands command) {
+        this.client = client;
+        this.command = command;
+    }
+
+    /**
+     * Sends the next chunk of rows to the client.
+     *
+     * @param chunk The rows of this chunk
+     * @throws IOException If the chunk cannot be sent
+     */
+    @Override
+    public void accept(ArrayList<T> chunk) throws IOException {
+        client.sendToClient(new Message(new ResultChunk<>(chunk, sequence++, false), command));
+    }
+
+    /**
+     * Sends the end marker, telling the client that the result is complete.
+     *
+     * @throws IOException If the end marker cannot be sent
+     */
+    public void end() throws IOException {
+        client.sendToClient(new Message(new ResultChunk<T>(new ArrayList<>(), sequence++, true), command));
+    }
+
+    /**
+     * Ends the result with an error message instead of the end marker.
+     *
+     * @param error The error to report
+     */
+    public void fail(String error) {
+        try {
+            client.sendToClient(new Message(error, command));
+        } catch (IOException e) {
+            System.err.println("Failed to send " + command + " error to client: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package Server;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min sketch: approximate event counts per key in a fixed amount of memory.
+ * Each key is counted in one cell of every row; the estimate is the smallest of
+ * those cells, so it never undercounts and overcounts only by collisions with
+ * other keys. With width w and depth d, an estimate exceeds the true count by
+ * more than 2N/w (N = total of all counts) with probability at most 2^-d.
+ */
+public class CountMinSketch {
+    private final int width;
+    private final int depth;
+    private final long[][] counts;
+    private long total;
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param width Number of cells per row
+     * @param depth Number of rows (hash functions)
+     */
+    public CountMinSketch(int width, int depth) {
+        this.width = width;
+        this.depth = depth;
+        this.counts = new long[depth][width];
+    }
+
+    /**
+     * Adds occurrences of a key.
+     *
+     * @param key The key
+     * @param count Number of occurrences to add
+     */
+    public void add(long key, long count) {
+        for (int row = 0; row < depth; row++) {
+            counts[row][cell(key, row)] += count;
+        }
+        total += count;
+    }
+
+    /**
+     * Estimates the number of occurrences of a key.
+     *
+     * @param key The key
+     * @return An estimate that is never below the true count
+     */
+    public long estimate(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[row][cell(key, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Gets the total of all counts added.
+     *
+     * @return The total count
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Removes all counts.
+     */
+    public void clear() {
+        for (long[] row : counts) {
+            Arrays.fill(row, 0);
+        }
+        total = 0;
+    }
+
+    /**
+     * Hashes a key to a cell of a row, with a different hash per row.
+     */
+    private int cell(long key, int row) {
+        long hash = key * 0x9E3779B97F4A7C15L + (row + 1) * 0xC2B2AE3D27D4EB4FL;
+        hash ^= hash >>> 31;
+        hash *= 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 29;
+        return (int) Math.floorMod(hash, (long) width);
+    }
+}
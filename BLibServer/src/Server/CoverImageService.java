@@ -0,0 +1,263 @@
+package Server;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import entities.BookCover;
+
+/**
+ * Serves the cover images of the books from the /images resources, in full
+ * size or as thumbnails. Covers are read once and kept in a least-recently-used
+ * cache bounded by its total size, together with a hash of their content, so a
+ * client that already holds a cover gets a short "not modified" answer instead
+ * of the image again. Large covers are kept in direct buffers, outside the Java
+ * heap. Books without a cover are cached too, so a missing image is not looked
+ * up on every request.
+ *
+ * A thumbnail is generated the first time it is requested and saved in the
+ * thumbnails directory under the hash of the full cover, so it is generated
+ * once per cover content, also across restarts.
+ * Implements the Singleton pattern to ensure only one cache is kept.
+ */
+public class CoverImageService {
+    /** Total size of the cached covers, in bytes. */
+    private static final long MAX_CACHE_BYTES = 32L * 1024 * 1024;
+
+    /** Covers at least this large are kept outside the Java heap. */
+    private static final int OFF_HEAP_THRESHOLD = 64 * 1024;
+
+    private static final String THUMBNAILS_DIR = "./thumbnails";
+
+    /** Thumbnail sizes that are generated, smallest first. */
+    private static final int[] THUMBNAIL_SIZES = { BookCover.SMALL_THUMBNAIL, BookCover.LARGE_THUMBNAIL };
+
+    private static CoverImageService instance;
+
+    /** A cached cover; hash and data are null if the book has no cover. */
+    private static class CachedCover {
+        private final String hash;
+        private final ByteBuffer data;
+
+        private CachedCover(String hash, ByteBuffer data) {
+            this.hash = hash;
+            this.data = data;
+        }
+
+        private int size() {
+            return data == null ? 0 : data.capacity();
+        }
+
+        private byte[] bytes() {
+            byte[] bytes = new byte[data.capacity()];
+            data.duplicate().get(bytes);
+            return bytes;
+        }
+    }
+
+    /** Reads a cover that is not cached yet. */
+    private interface CoverLoader {
+        CachedCover load() throws IOException;
+    }
+
+    /** Covers by resource file name, least recently used first. */
+    private final LinkedHashMap<String, CachedCover> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    /**
+     * Private constructor to enforce singleton pattern.
+     */
+    private CoverImageService() {
+        System.out.println("CoverImageService initialized successfully");
+    }
+
+    /**
+     * Gets the singleton instance of CoverImageService.
+     * Creates the instance if it doesn't exist.
+     *
+     * @return The singleton instance of CoverImageService
+     */
+    public static synchronized CoverImageService getInstance() {
+        if (instance == null) {
+            instance = new CoverImageService();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the cover of a book.
+     *
+     * @param bookId ID of the book
+     * @param title Title of the book, the cover file is named after it; null if the book does not exist
+     * @param knownHash Hash of the cover the client already holds, or null
+     * @param size {@link BookCover#FULL_SIZE} or the requested thumbnail size; a size
+     *        between the generated ones gets the next larger thumbnail
+     * @return The cover; without image data if the book has no cover or the known hash is current
+     */
+    public BookCover getCover(int bookId, String title, String knownHash, int size) {
+        int coverSize = thumbnailSize(size);
+        if (title == null) {
+            return new BookCover(bookId, coverSize, null, null, false);
+        }
+        String fileName = title.replace(" ", "_") + ".jpg";
+        CachedCover cover = lookup(fileName, () -> readResource(fileName));
+        if (cover.hash != null && coverSize != BookCover.FULL_SIZE) {
+            CachedCover original = cover;
+            cover = lookup(original.hash + "_" + coverSize, () -> readThumbnail(original, coverSize));
+        }
+
+        if (cover.hash == null) {
+            return new BookCover(bookId, coverSize, null, null, false);
+        }
+        if (cover.hash.equals(knownHash)) {
+            return new BookCover(bookId, coverSize, cover.hash, null, true);
+        }
+        return new BookCover(bookId, coverSize, cover.hash, cover.bytes(), false);
+    }
+
+    /**
+     * Maps a requested size to the size that is served.
+     */
+    private static int thumbnailSize(int size) {
+        if (size > BookCover.FULL_SIZE) {
+            for (int thumbnailSize : THUMBNAIL_SIZES) {
+                if (size <= thumbnailSize) {
+                    return thumbnailSize;
+                }
+            }
+        }
+        return BookCover.FULL_SIZE;
+    }
+
+    /**
+     * Gets a cover from the cache, loading it on a miss.
+     */
+    private CachedCover lookup(String key, CoverLoader loader) {
+        synchronized (cache) {
+            CachedCover cover = cache.get(key);
+            if (cover != null) {
+                return cover;
+            }
+        }
+
+        CachedCover cover;
+        try {
+            cover = loader.load();
+        } catch (IOException e) {
+            // Not cached, so the cover is read again on the next request
+            System.err.println("Error loading cover " + key + ": " + e.getMessage());
+            return new CachedCover(null, null);
+        }
+        synchronized (cache) {
+            CachedCover previous = cache.put(key, cover);
+            if (previous != null) {
+                cachedBytes -= previous.size();
+            }
+            cachedBytes += cover.size();
+            evict();
+        }
+        return cover;
+    }
+
+    /**
+     * Removes the least recently used covers until the cache fits its size.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, CachedCover>> eldest = cache.entrySet().iterator();
+        while (cachedBytes > MAX_CACHE_BYTES && eldest.hasNext()) {
+            cachedBytes -= eldest.next().getValue().size();
+            eldest.remove();
+        }
+    }
+
+    private CachedCover readResource(String fileName) throws IOException {
+        try (InputStream imageStream = getClass().getResourceAsStream("/images/" + fileName)) {
+            if (imageStream == null) {
+                return new CachedCover(null, null);
+            }
+            return toCachedCover(imageStream.readAllBytes());
+        }
+    }
+
+    /**
+     * Reads a saved thumbnail of a cover, generating and saving it if there is none yet.
+     */
+    private CachedCover readThumbnail(CachedCover original, int size) throws IOException {
+        Path thumbnailFile = Paths.get(THUMBNAILS_DIR, original.hash + "_" + size + ".jpg");
+        if (Files.exists(thumbnailFile)) {
+            return toCachedCover(Files.readAllBytes(thumbnailFile));
+        }
+
+        byte[] thumbnail = scale(original.bytes(), size);
+        Files.createDirectories(thumbnailFile.getParent());
+        Path temp = Files.createTempFile(thumbnailFile.getParent(), "thumbnail", ".tmp");
+        try {
+            Files.write(temp, thumbnail);
+            Files.move(temp, thumbnailFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        System.out.println("Generated thumbnail " + thumbnailFile.getFileName());
+        return toCachedCover(thumbnail);
+    }
+
+    /**
+     * Scales an image down to fit a square of the given size, keeping its
+     * proportions, and encodes it as JPEG. Smaller images keep their size.
+     */
+    private static byte[] scale(byte[] imageData, int size) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageData));
+        if (image == null) {
+            throw new IOException("Unsupported image format");
+        }
+        double ratio = Math.min(1.0, (double) size / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(thumbnail, "jpg", out);
+        return out.toByteArray();
+    }
+
+    private static CachedCover toCachedCover(byte[] imageData) {
+        ByteBuffer data = imageData.length >= OFF_HEAP_THRESHOLD
+                ? ByteBuffer.allocateDirect(imageData.length).put(imageData).flip()
+                : ByteBuffer.wrap(imageData);
+        return new CachedCover(hash(imageData), data.asReadOnlyBuffer());
+    }
+
+    private static String hash(byte[] imageData) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(imageData));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package Server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import enums.ActivityType;
+import jdbc.dbHandler;
+
+/**
+ * Counts distinct active members over the last days without scanning loans or
+ * activity logs. Every day has a {@link HyperLogLog} sketch of the members who
+ * borrowed, of the members who reserved, and of the members who borrowed a book
+ * of each subject. The distinct count over a window merges the sketches of its
+ * days. The sketches are kept current by the borrow and reservation events of
+ * the database handler and saved next to the reports, so a restart only replays
+ * the days since the last save.
+ * Implements the Singleton pattern to ensure only one tracker receives the events.
+ */
+public class DistinctMemberTracker implements dbHandler.BookEventListener {
+    /** Longest window that can be counted, in days, today included. */
+    public static final int MAX_WINDOW_DAYS = 90;
+
+    /** Sketch precision: 2 KB per sketch, about 2.3% standard error. */
+    private static final int PRECISION = 11;
+
+    private static final String SKETCH_FILE_NAME = "member_sketches.bin";
+    private static final int FILE_MAGIC = 0x424C484C;
+    private static final int FILE_VERSION = 1;
+
+    private static DistinctMemberTracker instance;
+
+    /** Sketches of one day. */
+    private static class DaySketches {
+        private final HyperLogLog borrowers = new HyperLogLog(PRECISION);
+        private final HyperLogLog reservers = new HyperLogLog(PRECISION);
+        private final Map<String, HyperLogLog> readersBySubject = new HashMap<>();
+    }
+
+    private final ScheduledExecutorService scheduler;
+    private final Path sketchFile;
+    private final TreeMap<Long, DaySketches> days = new TreeMap<>();
+
+    /**
+     * Private constructor to enforce singleton pattern.
+     * Loads the saved sketches, replays the days since they were saved and
+     * schedules saving them every hour.
+     *
+     * @param dbHandler Database handler that reports the events
+     * @param reportsDir Directory the sketches are saved in
+     */
+    private DistinctMemberTracker(dbHandler dbHandler, Path reportsDir) {
+        this.sketchFile = reportsDir.resolve(SKETCH_FILE_NAME);
+        this.scheduler = Executors.newScheduledThreadPool(1);
+
+        long replayDays = MAX_WINDOW_DAYS;
+        Long savedDay = load();
+        if (savedDay != null) {
+            // Adding a member twice does not change a sketch, so the saved day is simply replayed again
+            replayDays = Math.min(MAX_WINDOW_DAYS, LocalDate.now().toEpochDay() - savedDay + 1);
+        }
+        try {
+            dbHandler.replayBookEvents((int) Math.max(1, replayDays), this);
+        } catch (SQLException e) {
+            System.err.println("Error replaying book events for member sketches: " + e.getMessage());
+        }
+        dbHandler.addBookEventListener(this);
+
+        scheduler.scheduleAtFixedRate(this::save, 1, 1, TimeUnit.HOURS);
+        System.out.println("DistinctMemberTracker initialized successfully");
+    }
+
+    /**
+     * Gets the singleton instance of DistinctMemberTracker.
+     * Creates the instance if it doesn't exist.
+     *
+     * @param dbHandler Database handler instance
+     * @param reportsDir Directory the sketches are saved in
+     * @return The singleton instance of DistinctMemberTracker
+     */
+    public static synchronized DistinctMemberTracker getInstance(dbHandler dbHandler, Path reportsDir) {
+        if (instance == null) {
+            instance = new DistinctMemberTracker(dbHandler, reportsDir);
+        }
+        return instance;
+    }
+
+    /**
+     * Adds the member of a borrow or reservation to the sketches of its day.
+     * Events older than the longest window are ignored.
+     */
+    @Override
+    public synchronized void bookEvent(int bookId, int subscriberId, String subject, ActivityType activityType,
+            LocalDate date, int count) {
+        long epochDay = date.toEpochDay();
+        if (epochDay <= LocalDate.now().toEpochDay() - MAX_WINDOW_DAYS) {
+            return;
+        }
+        DaySketches day = days.computeIfAbsent(epochDay, d -> new DaySketches());
+        if (activityType == ActivityType.LOAN) {
+            day.borrowers.add(subscriberId);
+            if (subject != null) {
+                day.readersBySubject.computeIfAbsent(subject, s -> new HyperLogLog(PRECISION)).add(subscriberId);
+            }
+        } else if (activityType == ActivityType.RESERVATION) {
+            day.reservers.add(subscriberId);
+        }
+    }
+
+    /**
+     * Estimates the number of distinct members who borrowed in the last days.
+     *
+     * @param windowDays Number of days, today included, at most {@link #MAX_WINDOW_DAYS}
+     * @return The estimated number of borrowers
+     */
+    public synchronized long countBorrowers(int windowDays) {
+        return merge(windowDays, day -> day.borrowers).estimate();
+    }
+
+    /**
+     * Estimates the number of distinct members who reserved in the last days.
+     *
+     * @param windowDays Number of days, today included, at most {@link #MAX_WINDOW_DAYS}
+     * @return The estimated number of reservers
+     */
+    public synchronized long countReservers(int windowDays) {
+        return merge(windowDays, day -> day.reservers).estimate();
+    }
+
+    /**
+     * Estimates the number of distinct members who borrowed a book of a subject in the last days.
+     *
+     * @param subject The book subject
+     * @param windowDays Number of days, today included, at most {@link #MAX_WINDOW_DAYS}
+     * @return The estimated number of readers of the subject
+     */
+    public synchronized long countReaders(String subject, int windowDays) {
+        return merge(windowDays, day -> day.readersBySubject.get(subject)).estimate();
+    }
+
+    /**
+     * Estimates all distinct member counts of the last days: borrowers,
+     * reservers, and readers of each subject.
+     *
+     * @param windowDays Number of days, today included, at most {@link #MAX_WINDOW_DAYS}
+     * @return The counts by label, borrowers and reservers first, then subjects in name order
+     */
+    public synchronized Map<String, Long> getDistinctMemberCounts(int windowDays) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("Borrowers", countBorrowers(windowDays));
+        counts.put("Reservers", countReservers(windowDays));
+
+        TreeSet<String> subjects = new TreeSet<>();
+        for (DaySketches day : window(windowDays).values()) {
+            subjects.addAll(day.readersBySubject.keySet());
+        }
+        for (String subject : subjects) {
+            counts.put("Readers of " + subject, countReaders(subject, windowDays));
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the relative standard error of the estimates.
+     *
+     * @return The standard error, for example 0.023 for 2.3%
+     */
+    public double getStandardError() {
+        return new HyperLogLog(PRECISION).getStandardError();
+    }
+
+    private Map<Long, DaySketches> window(int windowDays) {
+        long today = LocalDate.now().toEpochDay();
+        int length = Math.max(1, Math.min(windowDays, MAX_WINDOW_DAYS));
+        return days.subMap(today - length + 1, true, today, true);
+    }
+
+    private HyperLogLog merge(int windowDays, Function<DaySketches, HyperLogLog> sketchOfDay) {
+        HyperLogLog merged = new HyperLogLog(PRECISION);
+        for (DaySketches day : window(windowDays).values()) {
+            HyperLogLog sketch = sketchOfDay.apply(day);
+            if (sketch != null) {
+                merged.merge(sketch);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Loads the saved sketches of the days still inside the longest window.
+     *
+     * @return The day the sketches were saved, or null if there are none
+     */
+    private synchronized Long load() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sketchFile)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION || in.readByte() != PRECISION) {
+                System.err.println("Ignoring member sketches in an unknown format: " + sketchFile);
+                return null;
+            }
+            long savedDay = in.readLong();
+            long oldestDay = LocalDate.now().toEpochDay() - MAX_WINDOW_DAYS + 1;
+            int dayCount = in.readInt();
+            for (int i = 0; i < dayCount; i++) {
+                long epochDay = in.readLong();
+                DaySketches day = new DaySketches();
+                readRegisters(in, day.borrowers);
+                readRegisters(in, day.reservers);
+                int subjectCount = in.readInt();
+                for (int j = 0; j < subjectCount; j++) {
+                    String subject = in.readUTF();
+                    HyperLogLog readers = new HyperLogLog(PRECISION);
+                    readRegisters(in, readers);
+                    day.readersBySubject.put(subject, readers);
+                }
+                if (epochDay >= oldestDay) {
+                    days.put(epochDay, day);
+                }
+            }
+            System.out.println("Loaded member sketches of " + days.size() + " days");
+            return savedDay;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("Error loading member sketches: " + e.getMessage());
+            days.clear();
+            return null;
+        }
+    }
+
+    /**
+     * Saves the sketches of the days inside the longest window. The file is
+     * written next to its final place and moved over it.
+     */
+    private synchronized void save() {
+        long today = LocalDate.now().toEpochDay();
+        days.headMap(today - MAX_WINDOW_DAYS, true).clear();
+
+        Path temp = sketchFile.resolveSibling(SKETCH_FILE_NAME + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(FILE_VERSION);
+                out.writeByte(PRECISION);
+                out.writeLong(today);
+                out.writeInt(days.size());
+                for (Map.Entry<Long, DaySketches> entry : days.entrySet()) {
+                    DaySketches day = entry.getValue();
+                    out.writeLong(entry.getKey());
+                    out.write(day.borrowers.getRegisters());
+                    out.write(day.reservers.getRegisters());
+                    out.writeInt(day.readersBySubject.size());
+                    for (Map.Entry<String, HyperLogLog> subject : day.readersBySubject.entrySet()) {
+                        out.writeUTF(subject.getKey());
+                        out.write(subject.getValue().getRegisters());
+                    }
+                }
+            }
+            Files.move(temp, sketchFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error saving member sketches: " + e.getMessage());
+        }
+    }
+
+    private static void readRegisters(DataInputStream in, HyperLogLog sketch) throws IOException {
+        in.readFully(sketch.getRegisters());
+    }
+
+    /**
+     * Shuts down the tracker after saving the sketches.
+     */
+    public void shutdown() {
+        System.out.println("Shutting down DistinctMemberTracker...");
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(10, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            System.err.println("DistinctMemberTracker shutdown interrupted: " + e.getMessage());
+        }
+        save();
+        System.out.println("DistinctMemberTracker shutdown completed");
+    }
+}
@@ -0,0 +1,120 @@
+package Server;
+
+/**
+ * HyperLogLog sketch: estimates the number of distinct keys added, in a fixed
+ * amount of memory. Sketches of the same precision can be merged, so the
+ * distinct count over several days is the estimate of the merged day sketches.
+ * With precision p the sketch uses 2^p bytes and the standard error of an
+ * estimate is about 1.04 / sqrt(2^p).
+ */
+public class HyperLogLog {
+    private final int precision;
+    private final byte[] registers;
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param precision Number of hash bits used to pick a register, 4 to 16
+     */
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("Precision must be between 4 and 16");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Adds a key. Adding the same key again does not change the sketch.
+     *
+     * @param key The key
+     */
+    public void add(long key) {
+        long hash = mix(key);
+        int index = (int) (hash >>> (64 - precision));
+        // Rank of the first set bit in the remaining bits, the guard bit caps it
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Adds the keys of another sketch of the same precision to this one.
+     *
+     * @param other The sketch to merge in
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of different precision");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * Estimates the number of distinct keys added.
+     *
+     * @return The estimated count
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+
+        // Linear counting is more accurate while many registers are still empty
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Gets the relative standard error of the estimates.
+     *
+     * @return The standard error, for example 0.023 for 2.3%
+     */
+    public double getStandardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    /**
+     * Gets the precision of the sketch.
+     *
+     * @return The precision
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Gets the registers, for saving or restoring the sketch.
+     *
+     * @return The registers; not a copy
+     */
+    public byte[] getRegisters() {
+        return registers;
+    }
+
+    /**
+     * Spreads the bits of a key over the whole hash (SplitMix64 finalizer).
+     */
+    private static long mix(long key) {
+        long hash = key + 0x9E3779B97F4A7C15L;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+}
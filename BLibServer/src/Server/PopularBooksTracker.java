@@ -0,0 +1,173 @@
+package Server;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import enums.ActivityType;
+import jdbc.dbHandler;
+
+/**
+ * Tracks the most borrowed and most reserved books over the last days, in
+ * constant memory. Every day of the last {@link #MAX_WINDOW_DAYS} days has a
+ * {@link CountMinSketch} of the events per book and a bounded set of the books
+ * with the highest counts that day. A ranking for a window of days sums the
+ * sketch estimates of the candidates of those days and keeps the best with a
+ * small heap, so no query over the loans or reservations tables is needed.
+ * The days are filled from the database at startup and kept current by the
+ * borrow and reservation events of the database handler.
+ * Implements the Singleton pattern to ensure only one tracker receives the events.
+ */
+public class PopularBooksTracker implements dbHandler.BookEventListener {
+    /** Longest window that can be ranked, in days, today included. */
+    public static final int MAX_WINDOW_DAYS = 30;
+
+    private static final int SKETCH_WIDTH = 1024;
+    private static final int SKETCH_DEPTH = 4;
+
+    /** Number of books kept as ranking candidates per day. */
+    private static final int CANDIDATES_PER_DAY = 100;
+
+    private static PopularBooksTracker instance;
+
+    /** Counts of one day, reused in a ring for the day MAX_WINDOW_DAYS later. */
+    private static class DayCounts {
+        private long epochDay = Long.MIN_VALUE;
+        private final CountMinSketch sketch = new CountMinSketch(SKETCH_WIDTH, SKETCH_DEPTH);
+        private final Map<Integer, Long> candidates = new HashMap<>();
+    }
+
+    private final Map<ActivityType, DayCounts[]> countsByType = new EnumMap<>(ActivityType.class);
+
+    /**
+     * Private constructor to enforce singleton pattern.
+     * Loads the counts of the last days, then registers for book events.
+     *
+     * @param dbHandler Database handler that reports the events
+     */
+    private PopularBooksTracker(dbHandler dbHandler) {
+        for (ActivityType type : new ActivityType[] { ActivityType.LOAN, ActivityType.RESERVATION }) {
+            DayCounts[] days = new DayCounts[MAX_WINDOW_DAYS];
+            for (int i = 0; i < days.length; i++) {
+                days[i] = new DayCounts();
+            }
+            countsByType.put(type, days);
+        }
+        try {
+            dbHandler.replayBookEvents(MAX_WINDOW_DAYS, this);
+        } catch (SQLException e) {
+            System.err.println("Error loading recent book events: " + e.getMessage());
+        }
+        // Registered after the replay, so an event is not counted both live and replayed
+        dbHandler.addBookEventListener(this);
+        System.out.println("PopularBooksTracker initialized successfully");
+    }
+
+    /**
+     * Gets the singleton instance of PopularBooksTracker.
+     * Creates the instance if it doesn't exist.
+     *
+     * @param dbHandler Database handler instance
+     * @return The singleton instance of PopularBooksTracker
+     */
+    public static synchronized PopularBooksTracker getInstance(dbHandler dbHandler) {
+        if (instance == null) {
+            instance = new PopularBooksTracker(dbHandler);
+        }
+        return instance;
+    }
+
+    /**
+     * Counts borrow or reservation events of a book.
+     * Events older than the longest window are ignored.
+     */
+    @Override
+    public synchronized void bookEvent(int bookId, int subscriberId, String subject, ActivityType activityType,
+            LocalDate date, int count) {
+        DayCounts[] days = countsByType.get(activityType);
+        long epochDay = date.toEpochDay();
+        if (days == null || epochDay <= LocalDate.now().toEpochDay() - MAX_WINDOW_DAYS) {
+            return;
+        }
+
+        DayCounts day = days[(int) Math.floorMod(epochDay, (long) MAX_WINDOW_DAYS)];
+        if (day.epochDay != epochDay) {
+            if (day.epochDay > epochDay) {
+                return;
+            }
+            day.epochDay = epochDay;
+            day.sketch.clear();
+            day.candidates.clear();
+        }
+
+        day.sketch.add(bookId, count);
+        long estimate = day.sketch.estimate(bookId);
+        if (day.candidates.containsKey(bookId) || day.candidates.size() < CANDIDATES_PER_DAY) {
+            day.candidates.put(bookId, estimate);
+            return;
+        }
+
+        Map.Entry<Integer, Long> weakest = null;
+        for (Map.Entry<Integer, Long> candidate : day.candidates.entrySet()) {
+            if (weakest == null || candidate.getValue() < weakest.getValue()) {
+                weakest = candidate;
+            }
+        }
+        if (estimate > weakest.getValue()) {
+            day.candidates.remove(weakest.getKey());
+            day.candidates.put(bookId, estimate);
+        }
+    }
+
+    /**
+     * Ranks the books with the most events in the last days.
+     * Counts are estimates that may be slightly high, never low.
+     *
+     * @param activityType {@link ActivityType#LOAN} or {@link ActivityType#RESERVATION}
+     * @param windowDays Number of days to rank, today included, at most {@link #MAX_WINDOW_DAYS}
+     * @param limit Number of books to return
+     * @return Book IDs with their estimated counts, most popular first
+     */
+    public synchronized List<Map.Entry<Integer, Long>> topBooks(ActivityType activityType, int windowDays,
+            int limit) {
+        List<Map.Entry<Integer, Long>> ranking = new ArrayList<>();
+        DayCounts[] days = countsByType.get(activityType);
+        if (days == null || limit <= 0) {
+            return ranking;
+        }
+
+        long firstDay = LocalDate.now().toEpochDay() - Math.max(1, Math.min(windowDays, MAX_WINDOW_DAYS)) + 1;
+        List<DayCounts> window = new ArrayList<>();
+        Set<Integer> candidates = new HashSet<>();
+        for (DayCounts day : days) {
+            if (day.epochDay >= firstDay) {
+                window.add(day);
+                candidates.addAll(day.candidates.keySet());
+            }
+        }
+
+        PriorityQueue<Map.Entry<Integer, Long>> best = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (int bookId : candidates) {
+            long total = 0;
+            for (DayCounts day : window) {
+                total += day.sketch.estimate(bookId);
+            }
+            best.add(Map.entry(bookId, total));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        while (!best.isEmpty()) {
+            ranking.add(0, best.poll());
+        }
+        return ranking;
+    }
+}
@@ -0,0 +1,252 @@
+package Server;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import enums.ActivityType;
+import jdbc.dbHandler;
+
+/**
+ * Index of the books that are borrowed together: for every book, the other
+ * books most often borrowed by the same members, strongest first. The index
+ * is built from the loan history at startup and every night, and updated on
+ * every borrow in between, so looking up the related books of a book never
+ * joins the loans table with itself.
+ *
+ * The pair counts behind the ranking are approximate, so only the ranking is
+ * given out. A build pairs only the last {@link #RECENT_BOOKS_PER_MEMBER}
+ * books of each member, so members with a longer history are undercounted.
+ * Every book keeps at most {@link #TRACKED_NEIGHBORS} neighbors; between two
+ * builds a new neighbor of a full list replaces the one with the lowest count
+ * and takes over that count (the Space-Saving scheme), which keeps frequent
+ * pairs in the list while the memory per book stays fixed but overcounts the
+ * newcomer. A borrow made while the index is being rebuilt is picked up by the
+ * next build.
+ * Implements the Singleton pattern to ensure only one index receives the events.
+ */
+public class RelatedBooksIndex implements dbHandler.BookEventListener {
+    /** Number of neighbors kept per book. */
+    public static final int TRACKED_NEIGHBORS = 20;
+
+    /** Number of recent books per member that a new loan is paired with. */
+    private static final int RECENT_BOOKS_PER_MEMBER = 50;
+
+    private static final int STREAM_CHUNK_SIZE = 1000;
+
+    private static RelatedBooksIndex instance;
+    private final ScheduledExecutorService scheduler;
+    private final dbHandler dbHandler;
+
+    /** Neighbors of each book, with the approximate number of members who borrowed both. */
+    private Map<Integer, Map<Integer, Integer>> neighborsByBook = new HashMap<>();
+
+    /** Distinct books borrowed by each member, oldest first. */
+    private Map<Integer, LinkedHashSet<Integer>> recentBooksByMember = new HashMap<>();
+
+    /**
+     * Private constructor to enforce singleton pattern.
+     * Registers for borrow events and schedules building the index now and every night.
+     *
+     * @param dbHandler Database handler that reports the events and streams the loan history
+     */
+    private RelatedBooksIndex(dbHandler dbHandler) {
+        this.dbHandler = dbHandler;
+        this.scheduler = Executors.newScheduledThreadPool(1);
+        dbHandler.addBookEventListener(this);
+        scheduleBuilds();
+        System.out.println("RelatedBooksIndex initialized successfully");
+    }
+
+    /**
+     * Gets the singleton instance of RelatedBooksIndex.
+     * Creates the instance if it doesn't exist.
+     *
+     * @param dbHandler Database handler instance
+     * @return The singleton instance of RelatedBooksIndex
+     */
+    public static synchronized RelatedBooksIndex getInstance(dbHandler dbHandler) {
+        if (instance == null) {
+            instance = new RelatedBooksIndex(dbHandler);
+        }
+        return instance;
+    }
+
+    /**
+     * Schedules the first build right away and a rebuild every night at 04:00.
+     */
+    private void scheduleBuilds() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime nextRun = now.toLocalDate().atTime(LocalTime.of(4, 0));
+
+        if (now.toLocalTime().isAfter(LocalTime.of(4, 0))) {
+            nextRun = nextRun.plusDays(1);
+        }
+
+        long initialDelay = ChronoUnit.MINUTES.between(now, nextRun);
+
+        scheduler.execute(this::rebuild);
+        scheduler.scheduleAtFixedRate(
+            this::rebuild,
+            initialDelay,
+            TimeUnit.DAYS.toMinutes(1),
+            TimeUnit.MINUTES
+        );
+
+        System.out.println("Scheduled next related books rebuild for: " + nextRun);
+    }
+
+    /**
+     * Builds the index from the loan history and replaces the current one,
+     * dropping the overcounts of the Space-Saving updates.
+     */
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Integer, Map<Integer, Integer>> counts = new HashMap<>();
+        Map<Integer, LinkedHashSet<Integer>> recentBooks = new HashMap<>();
+
+        try {
+            dbHandler.streamBorrowedBooksBySubscriber(STREAM_CHUNK_SIZE, chunk -> {
+                for (int[] row : chunk) {
+                    LinkedHashSet<Integer> books = recentBooks.computeIfAbsent(row[0], id -> new LinkedHashSet<>());
+                    books.add(row[1]);
+                    trimRecentBooks(books);
+                }
+            });
+        } catch (SQLException | IOException e) {
+            System.err.println("Error building related books index: " + e.getMessage());
+            return;
+        }
+
+        for (LinkedHashSet<Integer> books : recentBooks.values()) {
+            Integer[] borrowed = books.toArray(new Integer[0]);
+            for (int i = 0; i < borrowed.length; i++) {
+                for (int j = i + 1; j < borrowed.length; j++) {
+                    counts.computeIfAbsent(borrowed[i], id -> new HashMap<>()).merge(borrowed[j], 1, Integer::sum);
+                    counts.computeIfAbsent(borrowed[j], id -> new HashMap<>()).merge(borrowed[i], 1, Integer::sum);
+                }
+            }
+        }
+
+        Map<Integer, Map<Integer, Integer>> neighbors = new HashMap<>();
+        for (Map.Entry<Integer, Map<Integer, Integer>> entry : counts.entrySet()) {
+            Map<Integer, Integer> kept = new HashMap<>();
+            for (Map.Entry<Integer, Integer> neighbor : strongest(entry.getValue(), TRACKED_NEIGHBORS)) {
+                kept.put(neighbor.getKey(), neighbor.getValue());
+            }
+            neighbors.put(entry.getKey(), kept);
+        }
+
+        synchronized (this) {
+            neighborsByBook = neighbors;
+            recentBooksByMember = recentBooks;
+        }
+        System.out.println("Related books index built for " + neighbors.size() + " books in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Pairs a new loan with the other recent books of the member.
+     * Reservations and repeated loans of the same book are ignored.
+     */
+    @Override
+    public synchronized void bookEvent(int bookId, int subscriberId, String subject, ActivityType activityType,
+            LocalDate date, int count) {
+        if (activityType != ActivityType.LOAN) {
+            return;
+        }
+        LinkedHashSet<Integer> books = recentBooksByMember.computeIfAbsent(subscriberId, id -> new LinkedHashSet<>());
+        if (books.contains(bookId)) {
+            return;
+        }
+        for (int other : books) {
+            addPair(bookId, other);
+            addPair(other, bookId);
+        }
+        books.add(bookId);
+        trimRecentBooks(books);
+    }
+
+    /**
+     * Gets the books most often borrowed by members who borrowed a book.
+     *
+     * @param bookId ID of the book
+     * @param limit Number of books to return, at most {@link #TRACKED_NEIGHBORS}
+     * @return IDs of the related books, most shared first
+     */
+    public synchronized List<Integer> relatedBooks(int bookId, int limit) {
+        List<Integer> related = new ArrayList<>();
+        Map<Integer, Integer> neighbors = neighborsByBook.get(bookId);
+        if (neighbors != null) {
+            for (Map.Entry<Integer, Integer> neighbor : strongest(neighbors, limit)) {
+                related.add(neighbor.getKey());
+            }
+        }
+        return related;
+    }
+
+    /**
+     * Counts one more member for a pair of books, replacing the weakest
+     * neighbor when the list of the book is full.
+     */
+    private void addPair(int bookId, int neighborId) {
+        Map<Integer, Integer> neighbors = neighborsByBook.computeIfAbsent(bookId, id -> new HashMap<>());
+        if (neighbors.containsKey(neighborId) || neighbors.size() < TRACKED_NEIGHBORS) {
+            neighbors.merge(neighborId, 1, Integer::sum);
+            return;
+        }
+        Map.Entry<Integer, Integer> weakest = null;
+        for (Map.Entry<Integer, Integer> neighbor : neighbors.entrySet()) {
+            if (weakest == null || neighbor.getValue() < weakest.getValue()) {
+                weakest = neighbor;
+            }
+        }
+        int inheritedCount = weakest.getValue();
+        neighbors.remove(weakest.getKey());
+        neighbors.put(neighborId, inheritedCount + 1);
+    }
+
+    private static void trimRecentBooks(LinkedHashSet<Integer> books) {
+        while (books.size() > RECENT_BOOKS_PER_MEMBER) {
+            books.remove(books.iterator().next());
+        }
+    }
+
+    private static List<Map.Entry<Integer, Integer>> strongest(Map<Integer, Integer> neighbors, int limit) {
+        List<Map.Entry<Integer, Integer>> sorted = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> neighbor : neighbors.entrySet()) {
+            sorted.add(Map.entry(neighbor.getKey(), neighbor.getValue()));
+        }
+        sorted.sort(Map.Entry.<Integer, Integer>comparingByValue().reversed());
+        return new ArrayList<>(sorted.subList(0, Math.min(Math.max(limit, 0), sorted.size())));
+    }
+
+    /**
+     * Shuts down the index.
+     * Waits up to 60 seconds for a running build to complete before forcing shutdown.
+     */
+    public void shutdown() {
+        System.out.println("Shutting down RelatedBooksIndex...");
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(60, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+            System.out.println("RelatedBooksIndex shutdown completed");
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            System.err.println("RelatedBooksIndex shutdown interrupted: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package Server;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import entities.ChartReport;
+import entities.PieChartReport;
+
+/**
+ * Compact binary file format for chart reports.
+ * A report is stored as a small header followed by one numeric column per
+ * series, so reading a report does not depend on the Java serialization of
+ * the report classes. Files are read through a memory-mapped buffer.
+ *
+ * Layout (big-endian), version 1:
+ * <pre>
+ * int    magic "BLRP"
+ * short  format version
+ * byte   kind: 1 chart report, 2 pie chart report
+ * int    librarian ID
+ * long   generation time, epoch milliseconds (UTC)
+ * string chart title
+ * string report type
+ * short  number of series
+ * per series: string name, byte column type, int length, int data offset
+ * column data: int32, int64 or float64 values
+ * </pre>
+ * Strings are a short byte length followed by UTF-8 bytes. A chart report has
+ * a single series named {@link #CHART_SERIES}; a pie chart report has one
+ * series per period. A single series can be read into a primitive array
+ * without reading the rest of the report, for trends over many reports.
+ */
+public final class ReportFile {
+    /**
+     * File extension of compact report files
+     */
+    public static final String EXTENSION = ".rpt";
+
+    /**
+     * Name of the only series of a chart report
+     */
+    public static final String CHART_SERIES = "data";
+
+    private static final int MAGIC = 0x424C5250;
+    private static final short VERSION = 1;
+
+    private static final byte KIND_CHART = 1;
+    private static final byte KIND_PIE_CHART = 2;
+
+    private static final byte COLUMN_INT = 1;
+    private static final byte COLUMN_LONG = 2;
+    private static final byte COLUMN_DOUBLE = 3;
+
+    private ReportFile() {
+    }
+
+    /**
+     * Checks if a report can be written in this format.
+     *
+     * @param report The report object
+     * @return true for chart and pie chart reports
+     */
+    public static boolean supports(Object report) {
+        return report instanceof ChartReport || report instanceof PieChartReport;
+    }
+
+    /**
+     * Writes a report to a file. The file is written next to the target and
+     * moved into place, so readers never see a partly written report.
+     *
+     * @param report A chart or pie chart report
+     * @param file The target file
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Object report, Path file) throws IOException {
+        byte kind;
+        int librarianId;
+        LocalDateTime generationTime;
+        String title;
+        String reportType;
+        Map<String, ArrayList<Number>> series = new LinkedHashMap<>();
+
+        if (report instanceof ChartReport) {
+            ChartReport chart = (ChartReport) report;
+            kind = KIND_CHART;
+            librarianId = chart.getLibrarianId();
+            generationTime = chart.getGenerationTime();
+            title = chart.getChartTitle();
+            reportType = chart.getReportType();
+            series.put(CHART_SERIES, chart.getChartData());
+        } else if (report instanceof PieChartReport) {
+            PieChartReport pie = (PieChartReport) report;
+            kind = KIND_PIE_CHART;
+            librarianId = pie.getLibrarianId();
+            generationTime = pie.getGenerationTime();
+            title = pie.getChartTitle();
+            reportType = pie.getReportType();
+            series.putAll(pie.getAllPeriodData());
+        } else {
+            throw new IllegalArgumentException("Unsupported report type: " + report.getClass().getName());
+        }
+
+        byte[] titleBytes = stringBytes(title);
+        byte[] typeBytes = stringBytes(reportType);
+        List<byte[]> names = new ArrayList<>();
+        List<Byte> columnTypes = new ArrayList<>();
+
+        int headerSize = 4 + 2 + 1 + 4 + 8 + 2 + titleBytes.length + 2 + typeBytes.length + 2;
+        int dataSize = 0;
+        for (Map.Entry<String, ArrayList<Number>> entry : series.entrySet()) {
+            byte[] name = stringBytes(entry.getKey());
+            byte columnType = columnType(entry.getValue());
+            names.add(name);
+            columnTypes.add(columnType);
+            headerSize += 2 + name.length + 1 + 4 + 4;
+            dataSize += values(entry.getValue()).size() * (columnType == COLUMN_INT ? 4 : 8);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(headerSize + dataSize);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.put(kind);
+        buffer.putInt(librarianId);
+        buffer.putLong(generationTime != null ? generationTime.toInstant(ZoneOffset.UTC).toEpochMilli() : 0L);
+        putString(buffer, titleBytes);
+        putString(buffer, typeBytes);
+        buffer.putShort((short) series.size());
+
+        int offset = headerSize;
+        int index = 0;
+        for (ArrayList<Number> values : series.values()) {
+            byte columnType = columnTypes.get(index);
+            int length = values(values).size();
+            putString(buffer, names.get(index));
+            buffer.put(columnType);
+            buffer.putInt(length);
+            buffer.putInt(offset);
+            offset += length * (columnType == COLUMN_INT ? 4 : 8);
+            index++;
+        }
+
+        index = 0;
+        for (ArrayList<Number> values : series.values()) {
+            byte columnType = columnTypes.get(index++);
+            for (Number value : values(values)) {
+                if (columnType == COLUMN_INT) {
+                    buffer.putInt(value.intValue());
+                } else if (columnType == COLUMN_LONG) {
+                    buffer.putLong(value.longValue());
+                } else {
+                    buffer.putDouble(value.doubleValue());
+                }
+            }
+        }
+        buffer.flip();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a whole report from a file.
+     *
+     * @param file The report file
+     * @return A {@link ChartReport} or {@link PieChartReport}
+     * @throws IOException if the file cannot be read or is not a valid report file
+     */
+    public static Object read(Path file) throws IOException {
+        ByteBuffer buffer = map(file);
+        try {
+            byte kind = readHeaderKind(buffer);
+            int librarianId = buffer.getInt();
+            LocalDateTime generationTime = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(buffer.getLong()), ZoneOffset.UTC);
+            String title = getString(buffer);
+            String reportType = getString(buffer);
+            int seriesCount = buffer.getShort();
+
+            Map<String, ArrayList<Number>> series = new LinkedHashMap<>();
+            for (int i = 0; i < seriesCount; i++) {
+                String name = getString(buffer);
+                byte columnType = buffer.get();
+                int length = buffer.getInt();
+                int offset = buffer.getInt();
+                series.put(name, readColumn(buffer, columnType, length, offset));
+            }
+
+            if (kind == KIND_CHART) {
+                return new ChartReport(series.get(CHART_SERIES), title, reportType, librarianId, generationTime);
+            }
+            return new PieChartReport(series, title, reportType, librarianId, generationTime);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated report file " + file.getFileName(), e);
+        }
+    }
+
+    /**
+     * Reads one series of a report into a primitive array. Only the header and
+     * the column of the series are read; no report object, list or boxed value
+     * is created, so reading many reports allocates little more than the arrays.
+     *
+     * @param file The report file
+     * @param seriesName Name of the series, {@link #CHART_SERIES} for a chart report
+     * @return The values of the series, or null if the report has no such series
+     * @throws IOException if the file cannot be read or is not a valid report file
+     */
+    public static double[] readSeries(Path file, String seriesName) throws IOException {
+        byte[] wanted = stringBytes(seriesName);
+        ByteBuffer buffer = map(file);
+        try {
+            readHeaderKind(buffer);
+            buffer.position(buffer.position() + 4 + 8); // librarian ID, generation time
+            skipString(buffer);
+            skipString(buffer);
+            int seriesCount = buffer.getShort();
+            for (int i = 0; i < seriesCount; i++) {
+                boolean found = nameEquals(buffer, wanted);
+                byte columnType = buffer.get();
+                int length = buffer.getInt();
+                int offset = buffer.getInt();
+                if (found) {
+                    double[] values = new double[length];
+                    for (int j = 0; j < length; j++) {
+                        if (columnType == COLUMN_INT) {
+                            values[j] = buffer.getInt(offset + j * 4);
+                        } else if (columnType == COLUMN_LONG) {
+                            values[j] = buffer.getLong(offset + j * 8);
+                        } else {
+                            values[j] = buffer.getDouble(offset + j * 8);
+                        }
+                    }
+                    return values;
+                }
+            }
+            return null;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Truncated report file " + file.getFileName(), e);
+        }
+    }
+
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static byte readHeaderKind(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 4 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a report file");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported report file version " + version);
+        }
+        byte kind = buffer.get();
+        if (kind != KIND_CHART && kind != KIND_PIE_CHART) {
+            throw new IOException("Unknown report kind " + kind);
+        }
+        return kind;
+    }
+
+    private static ArrayList<Number> readColumn(ByteBuffer buffer, byte columnType, int length, int offset) {
+        ArrayList<Number> values = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            if (columnType == COLUMN_INT) {
+                values.add(buffer.getInt(offset + i * 4));
+            } else if (columnType == COLUMN_LONG) {
+                values.add(buffer.getLong(offset + i * 8));
+            } else {
+                values.add(buffer.getDouble(offset + i * 8));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Picks the narrowest column type that holds all values exactly.
+     */
+    private static byte columnType(List<Number> values) {
+        byte type = COLUMN_INT;
+        for (Number value : values(values)) {
+            if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                continue;
+            }
+            if (value instanceof Long) {
+                type = COLUMN_LONG;
+            } else {
+                return COLUMN_DOUBLE;
+            }
+        }
+        return type;
+    }
+
+    private static <T> List<T> values(List<T> values) {
+        return values != null ? values : new ArrayList<>();
+    }
+
+    private static byte[] stringBytes(String value) {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("String too long for report file");
+        }
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static void skipString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        buffer.position(buffer.position() + length);
+    }
+
+    /**
+     * Reads a string and compares it to the given bytes without decoding it.
+     */
+    private static boolean nameEquals(ByteBuffer buffer, byte[] name) {
+        int length = buffer.getShort();
+        boolean equal = length == name.length;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer.get();
+            if (equal && b != name[i]) {
+                equal = false;
+            }
+        }
+        return equal;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -7,9 +7,13 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.Function;
+import java.sql.Connection;
 import java.sql.SQLException;
 
 import entities.*;
+import enums.ReportMetric;
+import jdbc.ConnectionPool;
 import jdbc.dbHandler;
 
 /**
@@ -21,6 +25,7 @@ import jdbc.dbHandler;
  * - Automated monthly report generation
  * - Prevents duplicate report generation on the same day
  * - Loads existing reports if regeneration is attempted
+ * - Caches report data for a short time and coalesces identical concurrent requests
  */
 public class ReportManager {
     /**
@@ -43,11 +48,91 @@ public class ReportManager {
      */
     private final dbHandler dbHandler;
 
+    /**
+     * Index of the saved report files by report name and date
+     */
+    private ReportStore reportStore;
+
     /**
      * Singleton instance of ReportManager
      */
     private static ReportManager instance;
 
+    /**
+     * Maximum number of reports generated at the same time, each on its own pooled connection.
+     * Set with the system property {@code blib.reports.parallelism}.
+     */
+    private static final int REPORT_PARALLELISM = Integer.getInteger("blib.reports.parallelism", 3);
+
+    /**
+     * Time allowed for the whole report batch, in seconds.
+     * Set with the system property {@code blib.reports.deadlineSeconds}.
+     */
+    private static final int REPORT_DEADLINE_SECONDS = Integer.getInteger("blib.reports.deadlineSeconds", 300);
+
+    /**
+     * Connections used by report tasks running in parallel
+     */
+    private final ConnectionPool reportConnections;
+
+    /**
+     * Duration in milliseconds of each report in the last batch
+     */
+    private volatile Map<String, Long> lastReportTimings = Collections.emptyMap();
+
+    /**
+     * How long computed report data is served from the cache
+     */
+    private static final long REPORT_CACHE_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * Recently computed report data, keyed by report type and period
+     */
+    private final ConcurrentHashMap<String, CachedReport> reportCache = new ConcurrentHashMap<>();
+
+    /**
+     * Computations currently running, keyed by report type and period.
+     * Identical requests that arrive meanwhile wait for the same result.
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> reportsInFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Data last written to disk, keyed by the dated report filename
+     */
+    private final ConcurrentHashMap<String, Object> persistedReportData = new ConcurrentHashMap<>();
+
+    /**
+     * Computes the data of a report.
+     *
+     * @param <T> Type of the report data
+     */
+    public interface ReportQuery<T> {
+        /**
+         * Runs the report query.
+         *
+         * @return The report data
+         * @throws SQLException if database query fails
+         */
+        T compute() throws SQLException;
+    }
+
+    /**
+     * Report data together with the time it stops being served from the cache.
+     */
+    private static final class CachedReport {
+        private final Object data;
+        private final long expiresAt;
+
+        private CachedReport(Object data, long expiresAt) {
+            this.data = data;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isFresh() {
+            return System.currentTimeMillis() < expiresAt;
+        }
+    }
+
     /**
      * Private constructor to enforce singleton pattern.
      * Initializes the scheduler, report directory, and schedules monthly report generation.
@@ -57,11 +142,21 @@ public class ReportManager {
     private ReportManager(dbHandler dbHandler) {
         this.dbHandler = dbHandler;
         this.scheduler = Executors.newScheduledThreadPool(1);
+        this.reportConnections = new ConnectionPool(dbHandler, REPORT_PARALLELISM);
         initializeReportsDirectory();
         scheduleMonthlyReportGeneration();
         System.out.println("ReportManager initialized successfully");
     }
 
+    /**
+     * Gets the directory the reports are saved in.
+     *
+     * @return The reports directory
+     */
+    public Path getReportsDirectory() {
+        return Paths.get(REPORTS_DIR);
+    }
+
     /**
      * Gets the singleton instance of ReportManager.
      * Creates the instance if it doesn't exist.
@@ -84,6 +179,7 @@ public class ReportManager {
             Path reportsPath = Paths.get(REPORTS_DIR);
             Files.createDirectories(reportsPath);
             System.out.println("Reports directory initialized at: " + reportsPath.toAbsolutePath());
+            reportStore = new ReportStore(reportsPath);
             
             // Test write permissions
             Path testFile = reportsPath.resolve("test.txt");
@@ -107,83 +203,342 @@ public class ReportManager {
      * @return Unique filename with date and random identifier
      */
     private String generateTimestampedFilename(String baseFilename) {
+    	return generateTimestampedFilename(baseFilename, ".ser");
+    }
+
+    /**
+     * Generates a timestamped filename for a report with the given file extension.
+     * 
+     * @param baseFilename Base filename for the report
+     * @param extension File extension, including the dot
+     * @return Filename with the report name, date and extension
+     */
+    private String generateTimestampedFilename(String baseFilename, String extension) {
  
-    	if (baseFilename.endsWith(".ser")) {
-    		baseFilename = baseFilename.substring(0,baseFilename.length()-4);
-    	}
+    	baseFilename = reportName(baseFilename);
     	LocalDate today = LocalDate.now();
     	String dateStamp = today.format(FILE_NAME_FORMATTER);
     	
-    	String filename = String.format("%s_%s.ser", baseFilename, dateStamp);
+    	String filename = String.format("%s_%s%s", baseFilename, dateStamp, extension);
     	System.out.println("Generated filename: "+ filename);
     	return filename;
     	
     }
 
+    /**
+     * Gets the report name a base filename is indexed under, without the ".ser" suffix.
+     *
+     * @param baseFilename Base filename for the report, with or without ".ser"
+     * @return The report name
+     */
+    private static String reportName(String baseFilename) {
+        if (baseFilename.endsWith(".ser")) {
+            return baseFilename.substring(0, baseFilename.length() - 4);
+        }
+        return baseFilename;
+    }
+
     /**
      * Saves a report to a file with a unique timestamped filename.
+     * Chart reports are written in the compact {@link ReportFile} format; other
+     * reports are serialized.
      * 
      * @param report The report object to save
      * @param baseFilename Base filename for the report
      * @return The full path of the saved file, or null if saving failed
      */
     public synchronized Path saveReport(Object report, String baseFilename) {
-        String filename = generateTimestampedFilename(baseFilename);
+        boolean compact = ReportFile.supports(report);
+        String filename = generateTimestampedFilename(baseFilename, compact ? ReportFile.EXTENSION : ".ser");
         Path reportPath = Paths.get(REPORTS_DIR, filename);
         
         System.out.println("Attempting to save report to: " + reportPath.toAbsolutePath());
         
-        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(reportPath.toFile()))) {
-            out.writeObject(report);
+        try {
+            if (compact) {
+                ReportFile.write(report, reportPath);
+            } else {
+                try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(reportPath.toFile()))) {
+                    out.writeObject(report);
+                }
+            }
             System.out.println("Successfully saved report: " + filename);
-            return reportPath;
         } catch (IOException e) {
             System.err.println("Failed to save report " + filename + ": " + e.getMessage());
             e.printStackTrace();
             return null;
         }
+        reportStore.record(reportName(baseFilename), LocalDate.now(), filename);
+        return reportPath;
     }
 
-
     /**
-     * Loads the most recently created report for the current day.
+     * Loads the report saved today under a base filename.
+     * The file is found through the report index, without listing the reports directory.
      * 
      * @param baseFilename Base filename to search for
      * @return The loaded report object, or null if no report is found
      */
     public synchronized Object loadReport(String baseFilename) {
-        LocalDate today = LocalDate.now();
-        String todayStamp = today.format(FILE_NAME_FORMATTER);
-        
+        return readReport(reportName(baseFilename), LocalDate.now());
+    }
+
+    /**
+     * Reads the report saved under a name on a day.
+     * A report whose file is gone or unreadable is dropped from the index.
+     *
+     * @param name Report name
+     * @param date Report date
+     * @return The report object, or null if there is none
+     */
+    private Object readReport(String name, LocalDate date) {
+        Path reportPath = reportStore.find(name, date);
+        if (reportPath == null) {
+            return null;
+        }
         try {
-            // Find all report files for today that match the base filename
-            try (DirectoryStream<Path> stream = Files.newDirectoryStream(
-                    Paths.get(REPORTS_DIR), 
-                    baseFilename + "_" + todayStamp + "*.ser")) {
-                
-                // Get the most recently created file
-                Path mostRecentFile = null;
-                long mostRecentTime = 0;
-                
-                for (Path entry : stream) {
-                    long lastModifiedTime = Files.getLastModifiedTime(entry).toMillis();
-                    if (lastModifiedTime > mostRecentTime) {
-                        mostRecentTime = lastModifiedTime;
-                        mostRecentFile = entry;
-                    }
+            Object report;
+            if (reportPath.getFileName().toString().endsWith(ReportFile.EXTENSION)) {
+                report = ReportFile.read(reportPath);
+            } else {
+                try (ObjectInputStream in = new ObjectInputStream(
+                        new BufferedInputStream(Files.newInputStream(reportPath)))) {
+                    report = in.readObject();
                 }
-                
-                if (mostRecentFile != null) {
-                    try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(mostRecentFile.toFile()))) {
-                        System.out.println("Loaded report: " + mostRecentFile.getFileName());
-                        return in.readObject();
-                    }
+            }
+            System.out.println("Loaded report: " + reportPath.getFileName());
+            return report;
+        } catch (NoSuchFileException e) {
+            System.err.println("Report file " + reportPath.getFileName() + " is missing, removing it from the index");
+            reportStore.forget(name, date);
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Failed to load report for " + name + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Checks if a metric is charted from the saved reports instead of the
+     * daily rollups.
+     *
+     * @param metric The metric
+     * @return true if {@link #getSavedReportSeries} serves the metric
+     */
+    public static boolean isSavedReportMetric(ReportMetric metric) {
+        return metric == ReportMetric.LATE_RETURN_SHARE;
+    }
+
+    /**
+     * Charts a metric from the reports saved on the days of a range. Only the
+     * needed series of each report is read, into a primitive array, so a range
+     * of many months loads dozens of reports with little allocation. The days
+     * are grouped into buckets of equal length as for the rollup metrics, and
+     * the values of the reports in a bucket are averaged.
+     *
+     * @param metric A metric for which {@link #isSavedReportMetric} is true
+     * @param from First day of the range
+     * @param to Last day of the range
+     * @param maxPoints Largest number of points to return
+     * @return The series, with null values for buckets without a saved report
+     */
+    public ReportSeries getSavedReportSeries(ReportMetric metric, LocalDate from, LocalDate to, int maxPoints) {
+        if (!isSavedReportMetric(metric)) {
+            throw new IllegalArgumentException("Not a saved report metric: " + metric);
+        }
+        long totalDays = ChronoUnit.DAYS.between(from, to) + 1;
+        if (totalDays <= 0) {
+            return new ReportSeries(metric, 1, new ArrayList<>(), new ArrayList<>());
+        }
+        int bucketDays = (int) ((totalDays + maxPoints - 1) / maxPoints);
+        int bucketCount = (int) ((totalDays + bucketDays - 1) / bucketDays);
+        double[] sums = new double[bucketCount];
+        int[] reports = new int[bucketCount];
+
+        String name = "late_return_report";
+        for (Map.Entry<LocalDate, Path> saved : reportStore.list(name, from, to).entrySet()) {
+            double[] counts = readSavedSeries(name, saved.getKey(), saved.getValue());
+            // On time, in grace, overdue
+            if (counts == null || counts.length < 3 || counts[0] + counts[1] + counts[2] == 0) {
+                continue;
+            }
+            int bucket = (int) (ChronoUnit.DAYS.between(from, saved.getKey()) / bucketDays);
+            sums[bucket] += 100 * counts[2] / (counts[0] + counts[1] + counts[2]);
+            reports[bucket]++;
+        }
+
+        ArrayList<LocalDate> bucketStarts = new ArrayList<>(bucketCount);
+        ArrayList<Number> values = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            bucketStarts.add(from.plusDays((long) i * bucketDays));
+            values.add(reports[i] == 0 ? null : (int) Math.round(sums[i] / reports[i]));
+        }
+        return new ReportSeries(metric, bucketDays, bucketStarts, values);
+    }
+
+    /**
+     * Reads the chart series of a saved chart report. Compact reports are read
+     * column-wise; serialized reports from before the compact format are read
+     * whole.
+     *
+     * @param name Report name
+     * @param date Report date
+     * @param reportPath The report file
+     * @return The series values, or null if the report cannot be read
+     */
+    private double[] readSavedSeries(String name, LocalDate date, Path reportPath) {
+        try {
+            if (reportPath.getFileName().toString().endsWith(ReportFile.EXTENSION)) {
+                return ReportFile.readSeries(reportPath, ReportFile.CHART_SERIES);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(
+                    new BufferedInputStream(Files.newInputStream(reportPath)))) {
+                Object report = in.readObject();
+                if (!(report instanceof ChartReport) || ((ChartReport) report).getChartData() == null) {
+                    return null;
                 }
+                return ((ChartReport) report).getChartData().stream().mapToDouble(Number::doubleValue).toArray();
             }
+        } catch (NoSuchFileException e) {
+            System.err.println("Report file " + reportPath.getFileName() + " is missing, removing it from the index");
+            reportStore.forget(name, date);
         } catch (IOException | ClassNotFoundException e) {
-            System.err.println("Failed to load report for " + baseFilename + ": " + e.getMessage());
+            System.err.println("Failed to read report " + reportPath.getFileName() + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Gets the data of a report, computing it only when needed.
+     * Data computed in the last few minutes is served from the cache. When the
+     * cache is stale, the first request runs the query and identical requests
+     * arriving meanwhile wait for its result instead of running it again.
+     * Only the data is shared: every call saves the report under its own base
+     * filename, wrapped by its own {@code toReport}, whether the data was
+     * computed, cached or computed for another call. The report is saved to
+     * disk only when its data differs from what was already saved today under
+     * that filename.
+     *
+     * @param <T> Type of the report data
+     * @param reportType Report type, part of the cache key
+     * @param period Report period in days, part of the cache key
+     * @param baseFilename Base filename the report is saved under
+     * @param query Computes the report data
+     * @param toReport Wraps the data in the report object to save
+     * @return The report data
+     * @throws SQLException if database query fails
+     */
+    public <T> T getReport(String reportType, int period, String baseFilename, ReportQuery<T> query,
+            Function<T, Object> toReport) throws SQLException {
+        T data = getReportData(reportType + ":" + period, query);
+        saveReportIfChanged(baseFilename, data, toReport);
+        return data;
+    }
+
+    /**
+     * Gets the data of a report from the cache, from a running computation or
+     * by computing it.
+     *
+     * @param <T> Type of the report data
+     * @param key Report type and period
+     * @param query Computes the report data
+     * @return The report data
+     * @throws SQLException if database query fails
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T getReportData(String key, ReportQuery<T> query) throws SQLException {
+        CachedReport cached = reportCache.get(key);
+        if (cached != null && cached.isFresh()) {
+            System.out.println("Serving cached report " + key);
+            return (T) cached.data;
+        }
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = reportsInFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            System.out.println("Waiting for running computation of report " + key);
+            return (T) awaitReport(running);
+        }
+
+        try {
+            // Another computation may have finished between the cache check and claiming the flight
+            cached = reportCache.get(key);
+            if (cached != null && cached.isFresh()) {
+                flight.complete(cached.data);
+                return (T) cached.data;
+            }
+
+            T data = query.compute();
+            reportCache.put(key, new CachedReport(data, System.currentTimeMillis() + REPORT_CACHE_TTL_MILLIS));
+            flight.complete(data);
+            return data;
+        } catch (SQLException | RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            reportsInFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Waits for a computation started by another request.
+     *
+     * @param flight The running computation
+     * @return The report data
+     * @throws SQLException if the computation failed or the wait was interrupted
+     */
+    private Object awaitReport(CompletableFuture<Object> flight) throws SQLException {
+        try {
+            return flight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for report", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new SQLException("Report computation failed", e.getCause());
+        }
+    }
+
+    /**
+     * Saves a report unless today's saved report already holds the same data.
+     *
+     * @param <T> Type of the report data
+     * @param baseFilename Base filename for the report
+     * @param data The report data
+     * @param toReport Wraps the data in the report object to save
+     */
+    private <T> void saveReportIfChanged(String baseFilename, T data, Function<T, Object> toReport) {
+        baseFilename = reportName(baseFilename);
+        String datedFilename = generateTimestampedFilename(baseFilename);
+        Object previous = persistedReportData.get(datedFilename);
+        if (previous == null) {
+            previous = reportData(loadReport(baseFilename));
+        }
+
+        if (data.equals(previous)) {
+            System.out.println("Report " + datedFilename + " unchanged, not saving");
+            persistedReportData.put(datedFilename, data);
+            return;
+        }
+        if (saveReport(toReport.apply(data), baseFilename) != null) {
+            persistedReportData.put(datedFilename, data);
+        }
+    }
+
+    /**
+     * Extracts the data of a saved report.
+     *
+     * @param report A saved report, or null
+     * @return The report data, or null if there is none
+     */
+    private static Object reportData(Object report) {
+        if (report instanceof ChartReport) {
+            return ((ChartReport) report).getChartData();
+        }
+        if (report instanceof PieChartReport) {
+            return ((PieChartReport) report).getAllPeriodData();
         }
-        
         return null;
     }
 
@@ -194,19 +549,7 @@ public class ReportManager {
      * @return true if a report exists for today, false otherwise
      */
     public boolean isReportCurrent(String baseFilename) {
-        LocalDate today = LocalDate.now();
-        String todayStamp = today.format(FILE_NAME_FORMATTER);
-        
-        try {
-            try (DirectoryStream<Path> stream = Files.newDirectoryStream(
-                    Paths.get(REPORTS_DIR), 
-                    baseFilename + "_" + todayStamp + "*.ser")) {
-                return stream.iterator().hasNext();
-            }
-        } catch (IOException e) {
-            System.err.println("Error checking for current report: " + e.getMessage());
-            return false;
-        }
+        return reportStore.find(reportName(baseFilename), LocalDate.now()) != null;
     }
 
     /**
@@ -239,115 +582,205 @@ public class ReportManager {
         System.out.println("Scheduled next report generation for: " + nextRun);
     }
 
+    /**
+     * A report of the monthly batch, generated with the given database handler.
+     */
+    private interface ReportTask {
+        void generate(dbHandler handler) throws SQLException;
+    }
+
     /**
      * Generates all required reports.
      * Includes loan duration, late return, and activity status reports.
+     * The reports are independent, so they run in parallel, at most
+     * {@link #REPORT_PARALLELISM} at a time, each on its own pooled connection.
+     * Reports still running when the deadline passes are cancelled.
      */
     public void generateAllReports() {
+        Map<String, ReportTask> tasks = new LinkedHashMap<>();
+        tasks.put("loan_duration", this::generateAndSaveLoanDurationReport);
+        tasks.put("late_return", this::generateAndSaveLateReturnReport);
+        int[] periods = {7, 14, 21, 30};
+        for (int period : periods) {
+            tasks.put("activity_status_" + period, handler -> generateAndSaveActivityStatusReport(handler, period));
+        }
+
+        Map<String, Long> timings = new ConcurrentHashMap<>();
+        List<String> names = new ArrayList<>(tasks.keySet());
+        List<Callable<Void>> callables = new ArrayList<>();
+        for (String name : names) {
+            callables.add(() -> {
+                runReportTask(name, tasks.get(name), timings);
+                return null;
+            });
+        }
+
+        long batchStart = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, REPORT_PARALLELISM));
         try {
-            System.out.println("Generating borrow time reports...");
-            generateAndSaveLoanDurationReport();
-            generateAndSaveLateReturnReport();
-
-            System.out.println("Generating activity status reports...");
-            int[] periods = {7, 14, 21, 30};
-            for (int period : periods) {
-                generateAndSaveActivityStatusReport(period);
+            System.out.println("Generating " + tasks.size() + " reports, " + REPORT_PARALLELISM + " at a time...");
+            List<Future<Void>> results = workers.invokeAll(callables, REPORT_DEADLINE_SECONDS, TimeUnit.SECONDS);
+
+            int failed = 0;
+            for (int i = 0; i < results.size(); i++) {
+                Future<Void> result = results.get(i);
+                try {
+                    result.get();
+                } catch (CancellationException e) {
+                    failed++;
+                    System.err.println("Report " + names.get(i) + " cancelled after the " + REPORT_DEADLINE_SECONDS
+                            + "s deadline");
+                } catch (ExecutionException e) {
+                    failed++;
+                    System.err.println("Failed to generate report " + names.get(i) + ": " + e.getCause().getMessage());
+                }
+            }
+
+            long batchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStart);
+            lastReportTimings = Collections.unmodifiableMap(new LinkedHashMap<>(timings));
+            System.out.println("Report timings (ms): " + lastReportTimings + ", batch total: " + batchMillis);
+
+            if (failed == 0) {
+                System.out.println("All reports generated successfully");
+            } else {
+                System.err.println(failed + " of " + tasks.size() + " reports were not generated");
             }
-            System.out.println("All reports generated successfully");
             // Call the method to create notification and activity log
             dbHandler.createAutomaticReportNotification();
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Report generation interrupted");
         } catch (Exception e) {
             System.err.println("Failed to generate reports: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            workers.shutdownNow();
+            reportConnections.closeIdle();
         }
     }
 
+    /**
+     * Runs one report of the batch on a pooled connection and records its duration.
+     * Falls back to the shared database handler if no connection can be opened.
+     *
+     * @param name Name of the report, used for logging and timings
+     * @param task The report to generate
+     * @param timings Receives the duration of the report in milliseconds
+     * @throws Exception if the report fails
+     */
+    private void runReportTask(String name, ReportTask task, Map<String, Long> timings) throws Exception {
+        long start = System.nanoTime();
+        Connection connection = null;
+        boolean reusable = false;
+        try {
+            try {
+                connection = reportConnections.borrow(REPORT_DEADLINE_SECONDS, TimeUnit.SECONDS);
+            } catch (SQLException e) {
+                System.err.println("No pooled connection for report " + name + ", using the shared one: " + e.getMessage());
+            }
+            task.generate(connection != null ? new dbHandler(connection) : dbHandler);
+            reusable = !Thread.currentThread().isInterrupted();
+        } finally {
+            if (connection != null) {
+                reportConnections.release(connection, reusable);
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            timings.put(name, millis);
+            System.out.println("Report " + name + " took " + millis + " ms");
+        }
+    }
+
+    /**
+     * Gets the duration of each report in the last monthly batch.
+     *
+     * @return Report names mapped to their duration in milliseconds
+     */
+    public Map<String, Long> getLastReportTimings() {
+        return lastReportTimings;
+    }
+
     /**
      * Generates and saves loan duration report for the last 30 days.
-     * Loads existing report if already generated today.
+     * Skipped if the report was already generated today.
      * 
+     * @param handler Database handler to run the query with
      * @throws SQLException if database query fails
      */
-    private void generateAndSaveLoanDurationReport() throws SQLException {
+    private void generateAndSaveLoanDurationReport(dbHandler handler) throws SQLException {
         String baseFilename = "loan_duration_report";
         
         // Check if report already exists
-        Object existingReport = loadReport(baseFilename);
-        if (existingReport != null) {
+        if (isReportCurrent(baseFilename)) {
             System.out.println("Loan duration report already exists for today");
             return;
         }
         
         System.out.println("Generating loan duration report...");
-        ArrayList<Number> data = dbHandler.getLoanDurationReport(30);
-        ChartReport report = new ChartReport(
-            data,
-            "Monthly Loan Duration Report",
-            "LOAN_DURATION",
-            0  // System-generated report
-        );
-        
-        saveReport(report, baseFilename);
-        
+        getReport("LOAN_DURATION", 30, baseFilename,
+            () -> handler.getLoanDurationReport(30),
+            data -> new ChartReport(
+                data,
+                "Monthly Loan Duration Report",
+                "LOAN_DURATION",
+                0  // System-generated report
+            ));
+
     }
 
     /**
      * Generates and saves late return report for the last 30 days.
-     * Loads existing report if already generated today.
+     * Skipped if the report was already generated today.
      * 
+     * @param handler Database handler to run the query with
      * @throws SQLException if database query fails
      */
-    private void generateAndSaveLateReturnReport() throws SQLException {
+    private void generateAndSaveLateReturnReport(dbHandler handler) throws SQLException {
         String baseFilename = "late_return_report";
         
         // Check if report already exists
-        Object existingReport = loadReport(baseFilename);
-        if (existingReport != null) {
+        if (isReportCurrent(baseFilename)) {
             System.out.println("Late return report already exists for today");
             return;
         }
         
         System.out.println("Generating late return report...");
-        ArrayList<Number> data = dbHandler.getLateReturnReport(30);
-        ChartReport report = new ChartReport(
-            data,
-            "Monthly Late Return Report",
-            "LATE_RETURN",
-            0  // System-generated report
-        );
-        
-        saveReport(report, baseFilename);
+        getReport("LATE_RETURN", 30, baseFilename,
+            () -> handler.getLateReturnReport(30),
+            data -> new ChartReport(
+                data,
+                "Monthly Late Return Report",
+                "LATE_RETURN",
+                0  // System-generated report
+            ));
     }
 
     /**
      * Generates and saves activity status report for a specific period.
-     * Loads existing report if already generated today.
+     * Skipped if the report was already generated today.
      * 
+     * @param handler Database handler to run the query with
      * @param period The time period in days (7, 14, 21, or 30)
      * @throws SQLException if database query fails
      */
-    private void generateAndSaveActivityStatusReport(int period) throws SQLException {
+    private void generateAndSaveActivityStatusReport(dbHandler handler, int period) throws SQLException {
         String baseFilename = "activity_status_report_" + period;
         
         // Check if report already exists
-        Object existingReport = loadReport(baseFilename);
-        if (existingReport != null) {
+        if (isReportCurrent(baseFilename)) {
             System.out.println("Activity status report already exists for today");
             return;
         }
         
         System.out.println("Generating activity status report for " + period + " days...");
-        Map<String, ArrayList<Number>> statusData = dbHandler.getMemberStatusDistribution(period);
-        PieChartReport report = new PieChartReport(
-            statusData,
-            "Activity Status Report (" + period + " days)",
-            "MEMBER_STATUS_" + period,
-            0  // System-generated report
-        );
-        
-        saveReport(report, baseFilename);
+        getReport("MEMBER_STATUS", period, baseFilename,
+            () -> handler.getMemberStatusDistribution(period),
+            statusData -> new PieChartReport(
+                statusData,
+                "Activity Status Report (" + period + " days)",
+                "MEMBER_STATUS_" + period,
+                0  // System-generated report
+            ));
     }
 
     /**
@@ -0,0 +1,240 @@
+package Server;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Index of the report files in the reports directory.
+ * Keeps, for every report name, the saved reports by date, so finding the
+ * report of a day or the latest report never lists the directory.
+ *
+ * The index is persisted in a small manifest file: one line per saved report,
+ * holding the report name, the date and the file name. Lines are appended as
+ * reports are saved and the manifest is compacted when loaded. If there is no
+ * manifest yet, it is built once from the existing report files.
+ */
+public class ReportStore {
+    /**
+     * Name of the manifest file inside the reports directory
+     */
+    private static final String MANIFEST_NAME = "manifest.txt";
+
+    /**
+     * Date format used in report file names and in the manifest
+     */
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    /**
+     * Report file names written before the manifest existed: name_yyyy-MM-dd.ser or .rpt
+     */
+    private static final Pattern REPORT_FILE_PATTERN = Pattern.compile("(.+)_(\\d{4}-\\d{2}-\\d{2})\\.(ser|rpt)");
+
+    private final Path reportsDir;
+    private final Path manifestPath;
+
+    /**
+     * Saved reports by name, then by date
+     */
+    private final Map<String, NavigableMap<LocalDate, String>> reportsByName = new ConcurrentHashMap<>();
+
+    /**
+     * Date of the latest report of each name
+     */
+    private final Map<String, LocalDate> latestByName = new ConcurrentHashMap<>();
+
+    /**
+     * Opens the store for a reports directory, loading or building its manifest.
+     *
+     * @param reportsDir The reports directory
+     * @throws IOException if the manifest cannot be read or written
+     */
+    public ReportStore(Path reportsDir) throws IOException {
+        this.reportsDir = reportsDir;
+        this.manifestPath = reportsDir.resolve(MANIFEST_NAME);
+
+        if (Files.exists(manifestPath)) {
+            int lines = loadManifest();
+            int entries = size();
+            if (lines > entries) {
+                writeManifest();
+                System.out.println("Report manifest compacted from " + lines + " to " + entries + " lines");
+            }
+        } else {
+            rebuildFromDirectory();
+            writeManifest();
+        }
+        System.out.println("Report store loaded with " + size() + " reports");
+    }
+
+    /**
+     * Records a report file that was just saved.
+     *
+     * @param name The report name
+     * @param date The report date
+     * @param fileName The file name inside the reports directory
+     */
+    public synchronized void record(String name, LocalDate date, String fileName) {
+        index(name, date, fileName);
+        try (BufferedWriter writer = Files.newBufferedWriter(manifestPath, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(manifestLine(name, date, fileName));
+            writer.newLine();
+        } catch (IOException e) {
+            System.err.println("Failed to update report manifest: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finds the report of a name for a given day.
+     *
+     * @param name The report name
+     * @param date The report date
+     * @return The report file, or null if none was saved that day
+     */
+    public Path find(String name, LocalDate date) {
+        NavigableMap<LocalDate, String> reports = reportsByName.get(name);
+        if (reports == null) {
+            return null;
+        }
+        synchronized (reports) {
+            String fileName = reports.get(date);
+            return fileName != null ? reportsDir.resolve(fileName) : null;
+        }
+    }
+
+    /**
+     * Gets the date of the latest report of a name.
+     *
+     * @param name The report name
+     * @return The date of the latest report, or null if none was saved
+     */
+    public LocalDate latestDate(String name) {
+        return latestByName.get(name);
+    }
+
+    /**
+     * Lists the reports of a name saved between two days, inclusive.
+     *
+     * @param name The report name
+     * @param from First day of the range
+     * @param to Last day of the range
+     * @return The report files by date, oldest first
+     */
+    public NavigableMap<LocalDate, Path> list(String name, LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, Path> result = new TreeMap<>();
+        NavigableMap<LocalDate, String> reports = reportsByName.get(name);
+        if (reports != null) {
+            synchronized (reports) {
+                for (Map.Entry<LocalDate, String> entry : reports.subMap(from, true, to, true).entrySet()) {
+                    result.put(entry.getKey(), reportsDir.resolve(entry.getValue()));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes a report whose file turned out to be missing or unreadable.
+     * The next manifest compaction drops it from the manifest too.
+     *
+     * @param name The report name
+     * @param date The report date
+     */
+    public synchronized void forget(String name, LocalDate date) {
+        NavigableMap<LocalDate, String> reports = reportsByName.get(name);
+        if (reports == null) {
+            return;
+        }
+        synchronized (reports) {
+            reports.remove(date);
+            if (reports.isEmpty()) {
+                latestByName.remove(name);
+            } else {
+                latestByName.put(name, reports.lastKey());
+            }
+        }
+    }
+
+    private void index(String name, LocalDate date, String fileName) {
+        NavigableMap<LocalDate, String> reports = reportsByName.computeIfAbsent(name, k -> new TreeMap<>());
+        synchronized (reports) {
+            reports.put(date, fileName);
+            latestByName.merge(name, date, (current, added) -> added.isAfter(current) ? added : current);
+        }
+    }
+
+    private int size() {
+        int size = 0;
+        for (NavigableMap<LocalDate, String> reports : reportsByName.values()) {
+            synchronized (reports) {
+                size += reports.size();
+            }
+        }
+        return size;
+    }
+
+    private int loadManifest() throws IOException {
+        List<String> lines = Files.readAllLines(manifestPath, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            String[] fields = line.split("\t");
+            if (fields.length != 3) {
+                continue;
+            }
+            try {
+                index(fields[0], LocalDate.parse(fields[1], DATE_FORMATTER), fields[2]);
+            } catch (DateTimeParseException e) {
+                System.err.println("Skipping bad report manifest line: " + line);
+            }
+        }
+        return lines.size();
+    }
+
+    private void rebuildFromDirectory() throws IOException {
+        System.out.println("No report manifest found, indexing " + reportsDir.toAbsolutePath());
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(reportsDir, "*.{ser,rpt}")) {
+            for (Path file : stream) {
+                Matcher matcher = REPORT_FILE_PATTERN.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    index(matcher.group(1), LocalDate.parse(matcher.group(2), DATE_FORMATTER),
+                            file.getFileName().toString());
+                }
+            }
+        }
+    }
+
+    private synchronized void writeManifest() throws IOException {
+        Path temp = reportsDir.resolve(MANIFEST_NAME + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, NavigableMap<LocalDate, String>> byName : reportsByName.entrySet()) {
+                NavigableMap<LocalDate, String> reports = byName.getValue();
+                synchronized (reports) {
+                    for (Map.Entry<LocalDate, String> entry : reports.entrySet()) {
+                        writer.write(manifestLine(byName.getKey(), entry.getKey(), entry.getValue()));
+                        writer.newLine();
+                    }
+                }
+            }
+        }
+        Files.move(temp, manifestPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String manifestLine(String name, LocalDate date, String fileName) {
+        return name + "\t" + date.format(DATE_FORMATTER) + "\t" + fileName;
+    }
+}
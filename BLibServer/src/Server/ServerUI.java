@@ -102,6 +102,19 @@ public class ServerUI extends Application {
                 if (sv.getReservationExpiryService() != null) {
                     sv.getReservationExpiryService().shutdown();
                 }
+                if (sv.getActivityLogArchiveService() != null) {
+                    sv.getActivityLogArchiveService().shutdown();
+                }
+                if (sv.getDistinctMemberTracker() != null) {
+                    sv.getDistinctMemberTracker().shutdown();
+                }
+                if (sv.getRelatedBooksIndex() != null) {
+                    sv.getRelatedBooksIndex().shutdown();
+                }
+                // Last, so entries logged by the services above are still written
+                if (sv.getActivityLogAppender() != null) {
+                    sv.getActivityLogAppender().shutdown();
+                }
             }
 
             // Stop and close server
@@ -0,0 +1,110 @@
+package Server;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.util.HexFormat;
+
+import jdbc.dbHandler;
+
+/**
+ * Issues the login sessions that let a client resume after its connection was
+ * lost, without the user logging in again. A session token is given to the
+ * client at login; after reconnecting, the client sends the token back and gets
+ * the logged-in user again. Sessions are stored in the database, so they also
+ * survive a server restart, and expire when they were not used for a while.
+ * Only a hash of each token is stored.
+ * Implements the Singleton pattern to ensure only one manager issues sessions.
+ */
+public class SessionManager {
+    /** Hours after its last use that a session expires. */
+    private static final int SESSION_IDLE_HOURS = 12;
+
+    /** Random bytes in a session token. */
+    private static final int TOKEN_BYTES = 32;
+
+    private static SessionManager instance;
+
+    private final dbHandler dbHandler;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Private constructor to enforce singleton pattern.
+     *
+     * @param dbHandler Database handler that stores the sessions
+     */
+    private SessionManager(dbHandler dbHandler) {
+        this.dbHandler = dbHandler;
+        System.out.println("SessionManager initialized successfully");
+    }
+
+    /**
+     * Gets the singleton instance of SessionManager.
+     * Creates the instance if it doesn't exist.
+     *
+     * @param dbHandler Database handler that stores the sessions
+     * @return The singleton instance of SessionManager
+     */
+    public static synchronized SessionManager getInstance(dbHandler dbHandler) {
+        if (instance == null) {
+            instance = new SessionManager(dbHandler);
+        }
+        return instance;
+    }
+
+    /**
+     * Starts a session for a user who logged in. Expired sessions are removed
+     * at the same time.
+     *
+     * @param userId ID of the logged-in user
+     * @return The session token to give to the client
+     * @throws SQLException If the session cannot be stored
+     */
+    public String startSession(int userId) throws SQLException {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = HexFormat.of().formatHex(bytes);
+        dbHandler.insertSession(hash(token), userId);
+        dbHandler.deleteExpiredSessions(SESSION_IDLE_HOURS);
+        return token;
+    }
+
+    /**
+     * Resumes a session after the client reconnected.
+     *
+     * @param token The session token the client got at login
+     * @return The ID of the session's user, or -1 if the session is unknown or expired
+     * @throws SQLException If the session cannot be read
+     */
+    public int resumeSession(String token) throws SQLException {
+        if (token == null) {
+            return -1;
+        }
+        return dbHandler.touchSession(hash(token), SESSION_IDLE_HOURS);
+    }
+
+    /**
+     * Ends a session when its user logged out.
+     *
+     * @param token The session token of the connection the user logged out on,
+     *              or null if it has no session
+     * @throws SQLException If the session cannot be deleted
+     */
+    public void endSession(String token) throws SQLException {
+        if (token == null) {
+            return;
+        }
+        dbHandler.deleteSession(hash(token));
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package Server;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
@@ -12,7 +13,7 @@ import jdbc.dbHandler;
 /**
  * Service class responsible for automatically updating subscriber statuses.
  * checks daily to identify and update subscribers who has frozen status for a month
- * so there penalty period is over.
+ * so there penalty period is over, and records the daily status snapshot for the reports.
  * Implements the Singleton pattern to ensure only one instance manages status updates.
  */
 public class StatusUpdateService {
@@ -92,6 +93,24 @@ public class StatusUpdateService {
             System.err.println("Error processing status updates: " + e.getMessage());
             e.printStackTrace();
         }
+        recordStatusSnapshots();
+    }
+
+    /**
+     * Records the daily subscriber status snapshots used by the member status report.
+     * Yesterday is recorded again to include its late transitions, then today
+     * is recorded with the counts after this run's reactivations.
+     */
+    private void recordStatusSnapshots() {
+        try {
+            LocalDate today = LocalDate.now();
+            dbHandler.recordSubscriberStatusSnapshot(today.minusDays(1));
+            dbHandler.recordSubscriberStatusSnapshot(today);
+            System.out.println("Subscriber status snapshot recorded for " + today);
+        } catch (SQLException e) {
+            System.err.println("Error recording status snapshot: " + e.getMessage());
+            e.printStackTrace();
+        }
     }
 
     /**
@@ -129,7 +129,7 @@ public class ServerPortController {
                 if (ServerUI.runServer(this.getPort())) {
                     // Attempt to connect to the database
                     mysqlConnection sqlconn = new mysqlConnection(getDbPath(), getDbUsername(), getDbPassword());
-                    dbHandler dbconn = new dbHandler(sqlconn.ConnectToDB());
+                    dbHandler dbconn = new dbHandler(sqlconn);
 
                     if (dbconn == null || dbconn.getConnection() == null) {
                         throw new SQLException("Unable to establish database connection.");
@@ -12,12 +12,6 @@ public class Book implements Serializable {
 	/** An identifier for the book */
 	private int bookId;
 
-	/**
-	 * Binary data representing the book's cover image. This field stores the image
-	 * in a byte array format, allowing for serialization and easy retrieval.
-	 */
-	private byte[] imageData;
-
 	/** Title of the book */
 	private String title;
 
@@ -207,18 +201,4 @@ public class Book implements Serializable {
 	public void setShelfLocation(String shelfLocation) {
 		this.shelfLocation = shelfLocation;
 	}
-	/**
-	 * Retrieves the book's image data as a byte array.
-	 * @return byte array containing the book's image data
-	 */
-	public byte[] getImageData() {
-		return imageData;
-	}
-	/**
-	 * Sets the book's image data.
-	 * @param imageData byte array containing the new image data
-	 */
-	public void setImageData(byte[] imageData) {
-		this.imageData = imageData;
-	}
 }
@@ -0,0 +1,100 @@
+package entities;
+
+import java.io.Serializable;
+
+/**
+ * Represents the cover image of a book, in full size or as a thumbnail,
+ * identified by a hash of its content. When the client already holds the
+ * cover with the same hash, the image data is not sent again and the cover is
+ * marked as not modified. Implements Serializable for network transmission.
+ */
+public class BookCover implements Serializable {
+	/** Serial version UID for serialization */
+	private static final long serialVersionUID = 1L;
+
+	/** Size of the cover as stored, not scaled */
+	public static final int FULL_SIZE = 0;
+
+	/** Thumbnail size for tables and lists, in pixels on the longer side */
+	public static final int SMALL_THUMBNAIL = 64;
+
+	/** Thumbnail size for previews, in pixels on the longer side */
+	public static final int LARGE_THUMBNAIL = 160;
+
+	/** ID of the book */
+	private int bookId;
+
+	/** Size of the image, {@link #FULL_SIZE} or a thumbnail size */
+	private int size;
+
+	/** Hash of the image content, null if the book has no cover */
+	private String hash;
+
+	/** The image bytes, null if the book has no cover or it was not modified */
+	private byte[] imageData;
+
+	/** Whether the client already holds this cover */
+	private boolean notModified;
+
+	/**
+	 * Constructs a book cover.
+	 *
+	 * @param bookId      ID of the book
+	 * @param size        Size of the image, {@link #FULL_SIZE} or a thumbnail size
+	 * @param hash        Hash of the image content, null if the book has no cover
+	 * @param imageData   The image bytes, null if not sent
+	 * @param notModified Whether the client already holds this cover
+	 */
+	public BookCover(int bookId, int size, String hash, byte[] imageData, boolean notModified) {
+		this.bookId = bookId;
+		this.size = size;
+		this.hash = hash;
+		this.imageData = imageData;
+		this.notModified = notModified;
+	}
+
+	/**
+	 * Gets the book ID.
+	 *
+	 * @return The ID of the book
+	 */
+	public int getBookId() {
+		return bookId;
+	}
+
+	/**
+	 * Gets the size of the image.
+	 *
+	 * @return {@link #FULL_SIZE} or the thumbnail size in pixels
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Gets the hash of the image content.
+	 *
+	 * @return The content hash, or null if the book has no cover
+	 */
+	public String getHash() {
+		return hash;
+	}
+
+	/**
+	 * Gets the image bytes.
+	 *
+	 * @return The image bytes, or null if the book has no cover or it was not modified
+	 */
+	public byte[] getImageData() {
+		return imageData;
+	}
+
+	/**
+	 * Checks whether the client already holds this cover.
+	 *
+	 * @return true if the cover with the requested hash is still current
+	 */
+	public boolean isNotModified() {
+		return notModified;
+	}
+}
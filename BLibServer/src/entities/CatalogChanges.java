@@ -0,0 +1,105 @@
+package entities;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * Represents the changes to the book catalog since a catalog version: the
+ * rows of every book inserted or updated since then, with its loans, and the
+ * IDs of the books deleted since then. Every change to a book or to its loans
+ * gives the book a new, higher version, so applying the changes to a catalog
+ * of the older version gives the catalog of the new version. Versions are only
+ * comparable within one catalog epoch, which changes when the database is
+ * created again. Implements Serializable for network transmission.
+ */
+public class CatalogChanges implements Serializable {
+	/** Serial version UID for serialization */
+	private static final long serialVersionUID = 1L;
+
+	/** Catalog epoch of the version */
+	private String epoch;
+
+	/** Catalog version the changes lead to */
+	private long version;
+
+	/** Whether the changes hold the whole catalog and replace the client's copy */
+	private boolean fullCatalog;
+
+	/** All rows of the inserted or updated books, ordered by book ID */
+	private ArrayList<BookLoanDetailsDTO> changedBooks;
+
+	/** IDs of the deleted books */
+	private ArrayList<Integer> deletedBookIds;
+
+	/**
+	 * Constructs the catalog changes.
+	 *
+	 * @param epoch          Catalog epoch of the version
+	 * @param version        Catalog version the changes lead to
+	 * @param fullCatalog    Whether the changes hold the whole catalog
+	 * @param changedBooks   All rows of the inserted or updated books
+	 * @param deletedBookIds IDs of the deleted books
+	 */
+	public CatalogChanges(String epoch, long version, boolean fullCatalog, ArrayList<BookLoanDetailsDTO> changedBooks,
+			ArrayList<Integer> deletedBookIds) {
+		this.epoch = epoch;
+		this.version = version;
+		this.fullCatalog = fullCatalog;
+		this.changedBooks = changedBooks;
+		this.deletedBookIds = deletedBookIds;
+	}
+
+	/**
+	 * Gets the catalog epoch of the version.
+	 *
+	 * @return The catalog epoch
+	 */
+	public String getEpoch() {
+		return epoch;
+	}
+
+	/**
+	 * Gets the catalog version the changes lead to.
+	 *
+	 * @return The new catalog version
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Checks whether the changes hold the whole catalog.
+	 *
+	 * @return true if the changes replace the client's copy of the catalog
+	 */
+	public boolean isFullCatalog() {
+		return fullCatalog;
+	}
+
+	/**
+	 * Gets the rows of the inserted or updated books.
+	 *
+	 * @return All rows of the changed books, ordered by book ID
+	 */
+	public ArrayList<BookLoanDetailsDTO> getChangedBooks() {
+		return changedBooks;
+	}
+
+	/**
+	 * Gets the IDs of the deleted books.
+	 *
+	 * @return The deleted book IDs
+	 */
+	public ArrayList<Integer> getDeletedBookIds() {
+		return deletedBookIds;
+	}
+
+	/**
+	 * Checks whether there are no changes.
+	 *
+	 * @return true if the catalog did not change
+	 */
+	public boolean isEmpty() {
+		return !fullCatalog && changedBooks.isEmpty() && deletedBookIds.isEmpty();
+	}
+}
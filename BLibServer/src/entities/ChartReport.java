@@ -45,6 +45,22 @@ public class ChartReport implements Serializable {
 		this.librarianId = librarianId;
 	}
 
+	/**
+	 * Constructs a ChartReport that was generated earlier, for example when it
+	 * is read back from a report file.
+	 *
+	 * @param chartData      List of data points for the chart
+	 * @param chartTitle     Title of the chart
+	 * @param reportType     Type of report (LOAN_DURATION or LATE_RETURN)
+	 * @param librarianId    ID of the librarian who generated the report
+	 * @param generationTime Time when the report was generated
+	 */
+	public ChartReport(ArrayList<Number> chartData, String chartTitle, String reportType, int librarianId,
+			LocalDateTime generationTime) {
+		this(chartData, chartTitle, reportType, librarianId);
+		this.generationTime = generationTime;
+	}
+
 	/**
 	 * Gets the chart data points.
 	 * 
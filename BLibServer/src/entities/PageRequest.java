@@ -0,0 +1,97 @@
+package entities;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+
+/**
+ * Represents a request for one page of a table, using a keyset cursor. The
+ * cursor holds the sort key of the last row the client already has, so the
+ * server continues right after it instead of skipping rows with an offset.
+ * Implements Serializable for network transmission.
+ */
+public class PageRequest implements Serializable {
+	/** Serial version UID for serialization */
+	private static final long serialVersionUID = 1L;
+
+	/** Largest page size the server will return */
+	public static final int MAX_PAGE_SIZE = 500;
+
+	/** Date of the last row already loaded, for tables sorted by date */
+	private Timestamp afterDate;
+
+	/** ID of the last row already loaded, 0 for the first page */
+	private int afterId;
+
+	/** Number of rows requested */
+	private int pageSize;
+
+	/**
+	 * Constructs a request for the first page.
+	 *
+	 * @param pageSize Number of rows requested
+	 */
+	public PageRequest(int pageSize) {
+		this(null, 0, pageSize);
+	}
+
+	/**
+	 * Constructs a request for the page after the given row of an ID-sorted table.
+	 *
+	 * @param afterId  ID of the last row already loaded
+	 * @param pageSize Number of rows requested
+	 */
+	public PageRequest(int afterId, int pageSize) {
+		this(null, afterId, pageSize);
+	}
+
+	/**
+	 * Constructs a request for the page after the given row of a date-sorted
+	 * table. The ID breaks ties between rows with the same date.
+	 *
+	 * @param afterDate Date of the last row already loaded
+	 * @param afterId   ID of the last row already loaded
+	 * @param pageSize  Number of rows requested
+	 */
+	public PageRequest(Timestamp afterDate, int afterId, int pageSize) {
+		this.afterDate = afterDate;
+		this.afterId = afterId;
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * Gets the date of the last row already loaded.
+	 *
+	 * @return The cursor date, or null for ID-sorted tables and the first page
+	 */
+	public Timestamp getAfterDate() {
+		return afterDate;
+	}
+
+	/**
+	 * Gets the ID of the last row already loaded.
+	 *
+	 * @return The cursor ID, 0 for the first page
+	 */
+	public int getAfterId() {
+		return afterId;
+	}
+
+	/**
+	 * Gets the number of rows requested, limited to between 1 and
+	 * {@link #MAX_PAGE_SIZE}.
+	 *
+	 * @return The page size
+	 */
+	public int getPageSize() {
+		return Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+	}
+
+	/**
+	 * Checks whether this request is for the first page.
+	 *
+	 * @return true if no cursor is set
+	 */
+	public boolean isFirstPage() {
+		return afterDate == null && afterId == 0;
+	}
+}
@@ -48,6 +48,22 @@ public class PieChartReport implements Serializable {
 		this.librarianId = librarianId;
 	}
 
+	/**
+	 * Constructs a PieChartReport that was generated earlier, for example when
+	 * it is read back from a report file.
+	 *
+	 * @param periodChartData Map of period-based chart data
+	 * @param chartTitle      Title of the chart
+	 * @param reportType      Type of report being generated
+	 * @param librarianId     ID of the librarian who generated the report
+	 * @param generationTime  Time when the report was generated
+	 */
+	public PieChartReport(Map<String, ArrayList<Number>> periodChartData, String chartTitle, String reportType,
+			int librarianId, LocalDateTime generationTime) {
+		this(periodChartData, chartTitle, reportType, librarianId);
+		this.generationTime = generationTime;
+	}
+
 	/**
 	 * Gets the chart data for a specific period.
 	 * 
@@ -0,0 +1,78 @@
+package entities;
+
+import java.io.Serializable;
+
+import enums.ActivityType;
+
+/**
+ * Represents a request for the most borrowed or most reserved books over a
+ * recent window of days. Implements Serializable for network transmission.
+ */
+public class PopularBooksRequest implements Serializable {
+	/** Serial version UID for serialization */
+	private static final long serialVersionUID = 1L;
+
+	/** Window covering today */
+	public static final int DAY = 1;
+
+	/** Window covering the last 7 days */
+	public static final int WEEK = 7;
+
+	/** Window covering the last 30 days */
+	public static final int MONTH = 30;
+
+	/** Largest number of books the server will return */
+	public static final int MAX_LIMIT = 50;
+
+	/** LOAN for the most borrowed books, RESERVATION for the most reserved */
+	private ActivityType activityType;
+
+	/** Number of days to rank, today included */
+	private int windowDays;
+
+	/** Number of books requested */
+	private int limit;
+
+	/**
+	 * Constructs a popular books request.
+	 *
+	 * @param activityType LOAN for the most borrowed books, RESERVATION for the
+	 *                     most reserved
+	 * @param windowDays   Number of days to rank: {@link #DAY}, {@link #WEEK}
+	 *                     or {@link #MONTH}
+	 * @param limit        Number of books requested
+	 */
+	public PopularBooksRequest(ActivityType activityType, int windowDays, int limit) {
+		this.activityType = activityType;
+		this.windowDays = windowDays;
+		this.limit = limit;
+	}
+
+	/**
+	 * Gets the type of events ranked.
+	 *
+	 * @return LOAN or RESERVATION
+	 */
+	public ActivityType getActivityType() {
+		return activityType;
+	}
+
+	/**
+	 * Gets the number of days to rank.
+	 *
+	 * @return The window in days
+	 */
+	public int getWindowDays() {
+		return windowDays;
+	}
+
+	/**
+	 * Gets the number of books requested, limited to between 1 and
+	 * {@link #MAX_LIMIT}.
+	 *
+	 * @return The number of books
+	 */
+	public int getLimit() {
+		return Math.max(1, Math.min(limit, MAX_LIMIT));
+	}
+}
@@ -0,0 +1,48 @@
+package entities;
+
+import java.io.Serializable;
+
+/**
+ * Represents a book that was often borrowed by members who also borrowed
+ * another book. Related books are sent in ranking order, most shared first.
+ * Implements Serializable for network transmission.
+ */
+public class RelatedBook implements Serializable {
+	/** Serial version UID for serialization */
+	private static final long serialVersionUID = 1L;
+
+	/** ID of the related book */
+	private int bookId;
+
+	/** Title of the related book */
+	private String title;
+
+	/**
+	 * Constructs a related book.
+	 *
+	 * @param bookId ID of the related book
+	 * @param title  Title of the related book
+	 */
+	public RelatedBook(int bookId, String title) {
+		this.bookId = bookId;
+		this.title = title;
+	}
+
+	/**
+	 * Gets the book ID.
+	 *
+	 * @return The ID of the related book
+	 */
+	public int getBookId() {
+		return bookId;
+	}
+
+	/**
+	 * Gets the book title.
+	 *
+	 * @return The title of the related book
+	 */
+	public String getTitle() {
+		return title;
+	}
+}
@@ -52,6 +52,9 @@ public enum Commands {
     /** Searches for books by description content */
     GetBookByDescription,
     
+    /** Searches for books whose title, author, subject or description contains a text */
+    SearchBooks,
+    
     /** Creates a new member account */
     CreateMember,
     
@@ -104,5 +107,47 @@ public enum Commands {
     DeleteNotifications,
     
     /** Retrieves activity logs for a specific member */
-    GetActivityLogsByMember;
+    GetActivityLogsByMember,
+    
+    /** Retrieves activity logs between two dates, including archived ones */
+    GetActivityLogsByDateRange,
+    
+    /** Retrieves one page of recent activity logs after a keyset cursor */
+    GetActivityLogsPage,
+    
+    /** Retrieves one page of members after a keyset cursor */
+    GetAllMembersPage,
+    
+    /** Retrieves one page of books after a keyset cursor */
+    GetAllBooksPage,
+    
+    /** Streams all recent activity logs in chunks */
+    StreamActivityLogs,
+    
+    /** Streams all members in chunks */
+    StreamAllMembers,
+    
+    /** Retrieves the values of a report metric over a date range */
+    GetReportSeries,
+    
+    /** Retrieves the most borrowed or most reserved books of a recent window */
+    GetPopularBooks,
+    
+    /** Retrieves the estimated numbers of distinct active members of a recent window */
+    GetDistinctMembers,
+    
+    /** Retrieves the books most often borrowed by members who borrowed a given book */
+    GetRelatedBooks,
+    
+    /** Retrieves the cover image of a book, unless the client already holds the current one */
+    GetBookCover,
+    
+    /** Retrieves the changes to the book catalog since the catalog version the client holds */
+    GetCatalogChanges,
+    
+    /** Carries the session token issued at login, sent by the server after a successful login */
+    SessionToken,
+    
+    /** Resumes a login session with its token after the client reconnected */
+    ResumeSession;
 }
\ No newline at end of file
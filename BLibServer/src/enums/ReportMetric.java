@@ -0,0 +1,54 @@
+package enums;
+
+/**
+ * Represents the report metrics that can be charted over time.
+ * Each metric is a daily value that the server can sum or average over
+ * longer periods, read from the daily rollups or from the saved reports.
+ */
+public enum ReportMetric {
+	/** Loans returned after the grace period, by loan date */
+	LATE_RETURNS("Late Returns"),
+
+	/** Loans returned on time, by loan date */
+	ON_TIME_RETURNS("On Time Returns"),
+
+	/** Loans returned within the grace period, by loan date */
+	GRACE_RETURNS("Grace Period Returns"),
+
+	/** Loans that were returned, by loan date */
+	CLOSED_LOANS("Returned Loans"),
+
+	/** Members whose account was frozen */
+	NEWLY_FROZEN("Newly Frozen Members"),
+
+	/** Members whose account was reactivated */
+	REACTIVATED("Reactivated Members"),
+
+	/** Members with an active account */
+	ACTIVE_MEMBERS("Active Members"),
+
+	/** Members with a frozen account */
+	FROZEN_MEMBERS("Frozen Members"),
+
+	/**
+	 * Percentage of the returns in the monthly late return report that were
+	 * overdue, one value per saved report
+	 */
+	LATE_RETURN_SHARE("Late Return Share (%)");
+
+	/** Name shown on charts */
+	private final String label;
+
+	ReportMetric(String label) {
+		this.label = label;
+	}
+
+	/**
+	 * Gets the name shown on charts.
+	 *
+	 * @return The metric label
+	 */
+	public String getLabel() {
+		return label;
+	}
+}
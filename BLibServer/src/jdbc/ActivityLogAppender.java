@@ -0,0 +1,691 @@
+package jdbc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import enums.ActivityType;
+
+/**
+ * Write-behind appender for the ActivityLog table. Business operations hand
+ * their log entries to the appender instead of inserting them inside their own
+ * transaction; a background thread then writes the entries in multi-row
+ * batches on a dedicated connection, either every {@link #FLUSH_INTERVAL_MS}
+ * milliseconds or as soon as {@link #BATCH_SIZE} entries are waiting.
+ *
+ * <p>
+ * Durability guarantee: an operation calls {@link #prepare(List)} before it
+ * commits, which writes its entries to a local journal file and forces them to
+ * disk. Operations preparing at the same time share one fsync (group commit).
+ * Only after that does the operation commit, and then it calls
+ * {@link PreparedEntries#commit()}, which marks the entries committed in the
+ * journal and queues them; if the operation rolls back it calls
+ * {@link PreparedEntries#abort()}, which marks them aborted. So an entry is on
+ * disk before its operation commits, and entries of rolled-back operations are
+ * never written. On the next start the journal is replayed and every committed
+ * entry after the last flushed checkpoint is written again. Entries whose
+ * operation has neither marker, because the server stopped while it
+ * committed, are written too, so no entry of a committed operation is lost;
+ * if that commit did not complete, its entries are logged anyway. Entries are
+ * numbered and queued in commit order, so each batch ends at a contiguous
+ * checkpoint. A crash between a batch insert and its checkpoint can write
+ * that one batch twice.
+ * </p>
+ *
+ * <p>
+ * When the queue is full, the journal cannot be written or the appender runs
+ * in {@link Mode#SYNCHRONOUS} mode, {@code prepare} returns {@code null} and
+ * the caller inserts the entries itself inside its transaction, exactly as
+ * before the appender existed.
+ * </p>
+ */
+public class ActivityLogAppender {
+
+	/**
+	 * How the appender handles new entries.
+	 */
+	public enum Mode {
+		/** Entries are journaled, queued and inserted in batches by the flusher */
+		WRITE_BEHIND,
+
+		/** Entries are rejected so the caller inserts them in its own transaction */
+		SYNCHRONOUS
+	}
+
+	/**
+	 * A single ActivityLog row waiting to be written. Librarian and book IDs are
+	 * nullable because system activities (reminders, status updates) have
+	 * neither.
+	 */
+	public static final class Entry {
+		private final int subscriberId;
+		private final Integer librarianId;
+		private final Integer bookId;
+		private final ActivityType activityType;
+		private final Timestamp activityDate;
+		private final String message;
+		private long transaction;
+		private long sequence;
+
+		/**
+		 * Creates a new entry.
+		 *
+		 * @param subscriberId ID of the subscriber the activity belongs to
+		 * @param librarianId  ID of the librarian involved, or null
+		 * @param bookId       ID of the book involved, or null
+		 * @param activityType Type of the activity
+		 * @param activityDate Time the activity happened
+		 * @param message      Log message
+		 */
+		public Entry(int subscriberId, Integer librarianId, Integer bookId, ActivityType activityType,
+				Timestamp activityDate, String message) {
+			this.subscriberId = subscriberId;
+			this.librarianId = librarianId;
+			this.bookId = bookId;
+			this.activityType = activityType;
+			this.activityDate = activityDate;
+			this.message = message;
+		}
+	}
+
+	/** Maximum number of entries held in memory before callers fall back to synchronous inserts */
+	private static final int QUEUE_CAPACITY = 10_000;
+
+	/** Maximum number of rows written by a single INSERT statement */
+	private static final int BATCH_SIZE = 200;
+
+	/** Interval of the time-based flush trigger */
+	private static final long FLUSH_INTERVAL_MS = 200;
+
+	/** Time to wait when checking that the writer connection is still usable, in seconds */
+	private static final int WRITER_VALIDATION_TIMEOUT_SECONDS = 2;
+
+	/** Journal file holding appended entries until they are written to the database */
+	private static final Path JOURNAL_PATH = Paths.get("./journal", "activity_log.journal");
+
+	/** Journal record marking an entry of an operation that was not committed yet */
+	private static final byte RECORD_ENTRY = 'E';
+
+	/** Journal record marking that an operation committed, with the number of its first entry */
+	private static final byte RECORD_COMMIT = 'K';
+
+	/** Journal record marking that an operation rolled back, so its entries are dropped */
+	private static final byte RECORD_ABORT = 'A';
+
+	/** Journal record marking that all entries up to a sequence number are in the database */
+	private static final byte RECORD_CHECKPOINT = 'C';
+
+	private static ActivityLogAppender instance;
+
+	private final dbHandler dbHandler;
+	private final ScheduledExecutorService scheduler;
+	private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pending = new AtomicInteger();
+	private final AtomicBoolean flushRequested = new AtomicBoolean();
+	private final Object journalLock = new Object();
+	/** Held while the journal is forced, so concurrent appenders wait for one fsync */
+	private final Object forceLock = new Object();
+	private final ArrayList<Entry> retryBatch = new ArrayList<>();
+	private volatile Mode mode;
+	private volatile Connection writerConnection;
+	private FileChannel journal;
+	private long nextSequence = 1;
+	private long nextTransaction = 1;
+	/** Bytes written to the journal since it was opened; not reset when it is truncated */
+	private long journalBytes;
+	/** Value of {@link #journalBytes} covered by the last force, guarded by {@link #forceLock} */
+	private long forcedBytes;
+
+	/**
+	 * Private constructor to enforce singleton pattern. Opens the writer
+	 * connection and the journal, replays unflushed entries from a previous run
+	 * and starts the flush scheduler. Falls back to synchronous mode when either
+	 * the connection or the journal is unavailable.
+	 *
+	 * @param dbHandler Database handler used to open the writer connection
+	 */
+	private ActivityLogAppender(dbHandler dbHandler) {
+		this.dbHandler = dbHandler;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "activity-log-flusher");
+			t.setDaemon(true);
+			return t;
+		});
+		this.mode = Mode.WRITE_BEHIND;
+
+		writerConnection = dbHandler.openConnection();
+		if (writerConnection == null) {
+			System.err.println("ActivityLogAppender: no writer connection, using synchronous mode");
+			mode = Mode.SYNCHRONOUS;
+		} else {
+			try {
+				openJournal();
+			} catch (IOException e) {
+				System.err.println("ActivityLogAppender: journal unavailable, using synchronous mode: " + e.getMessage());
+				mode = Mode.SYNCHRONOUS;
+			}
+		}
+
+		scheduler.scheduleWithFixedDelay(this::flushSafely, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS,
+				TimeUnit.MILLISECONDS);
+		System.out.println("ActivityLogAppender initialized in " + mode + " mode");
+	}
+
+	/**
+	 * Gets the singleton instance of ActivityLogAppender. Creates the instance if
+	 * it doesn't exist.
+	 *
+	 * @param dbHandler Database handler instance
+	 * @return The singleton instance of ActivityLogAppender
+	 */
+	public static synchronized ActivityLogAppender getInstance(dbHandler dbHandler) {
+		if (instance == null) {
+			instance = new ActivityLogAppender(dbHandler);
+		}
+		return instance;
+	}
+
+	/**
+	 * Gets the current mode of the appender.
+	 *
+	 * @return The current mode
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Switches between write-behind and synchronous mode. Entries already queued
+	 * are still flushed when switching to synchronous mode.
+	 *
+	 * @param mode The new mode
+	 */
+	public void setMode(Mode mode) {
+		if (mode == Mode.WRITE_BEHIND && (writerConnection == null || journal == null)) {
+			System.err.println("ActivityLogAppender: write-behind mode unavailable, staying synchronous");
+			return;
+		}
+		this.mode = mode;
+		System.out.println("ActivityLogAppender switched to " + mode + " mode");
+	}
+
+	/**
+	 * The entries of one business operation, written to the journal before the
+	 * operation commits. Exactly one of {@link #commit()} and {@link #abort()}
+	 * is called once the outcome of the operation is known.
+	 */
+	public final class PreparedEntries {
+		private final long transaction;
+		private final List<Entry> entries;
+
+		private PreparedEntries(long transaction, List<Entry> entries) {
+			this.transaction = transaction;
+			this.entries = entries;
+		}
+
+		/**
+		 * Queues the entries after the operation committed. The commit marker is
+		 * not forced: if it is lost in a crash, the entries are replayed as
+		 * entries of an operation that was committing.
+		 */
+		public void commit() {
+			synchronized (journalLock) {
+				long firstSequence = nextSequence;
+				for (Entry entry : entries) {
+					entry.sequence = nextSequence++;
+				}
+				try {
+					writeRecords(marker(RECORD_COMMIT, transaction, firstSequence));
+				} catch (IOException e) {
+					// Left without a marker, so a replay still writes the entries
+					System.err.println("ActivityLogAppender: commit marker not written: " + e.getMessage());
+				}
+				// Queued under the lock, so the queue stays in sequence order and a
+				// checkpoint never skips an entry queued later with a lower number
+				queue.addAll(entries);
+			}
+			if (queue.size() >= BATCH_SIZE && flushRequested.compareAndSet(false, true)) {
+				scheduler.execute(ActivityLogAppender.this::flushSafely);
+			}
+		}
+
+		/**
+		 * Drops the entries after the operation rolled back or failed to commit.
+		 * The abort marker is forced, so the entries are not replayed after a
+		 * crash.
+		 */
+		public void abort() {
+			try {
+				long written;
+				synchronized (journalLock) {
+					written = writeRecords(marker(RECORD_ABORT, transaction, 0));
+				}
+				forceJournal(written);
+			} catch (IOException e) {
+				System.err.println("ActivityLogAppender: abort marker not written: " + e.getMessage());
+			} finally {
+				pending.addAndGet(-entries.size());
+			}
+		}
+	}
+
+	/**
+	 * Durably records the entries of one business operation before it commits.
+	 * The entries are written to the journal and forced to disk; operations
+	 * preparing at the same time share one fsync.
+	 *
+	 * @param entries Entries produced by the operation
+	 * @return The prepared entries, to commit or abort with the operation, or
+	 *         null if the caller must insert them inside its transaction
+	 */
+	public PreparedEntries prepare(List<Entry> entries) {
+		if (mode != Mode.WRITE_BEHIND) {
+			return null;
+		}
+		if (pending.addAndGet(entries.size()) > QUEUE_CAPACITY) {
+			pending.addAndGet(-entries.size());
+			System.err.println("ActivityLogAppender: queue full, falling back to synchronous insert");
+			return null;
+		}
+
+		PreparedEntries prepared = null;
+		try {
+			long written;
+			synchronized (journalLock) {
+				prepared = new PreparedEntries(nextTransaction++, new ArrayList<>(entries));
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				DataOutputStream out = new DataOutputStream(bytes);
+				for (Entry entry : prepared.entries) {
+					entry.transaction = prepared.transaction;
+					writeEntry(out, entry);
+				}
+				out.flush();
+				written = writeRecords(bytes.toByteArray());
+			}
+			forceJournal(written);
+			return prepared;
+		} catch (IOException e) {
+			System.err.println("ActivityLogAppender: journal write failed, falling back to synchronous insert: "
+					+ e.getMessage());
+			if (prepared != null) {
+				// The caller inserts the entries itself, so they must not be replayed
+				prepared.abort();
+			} else {
+				pending.addAndGet(-entries.size());
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Appends records to the journal. Called while holding {@link #journalLock}.
+	 *
+	 * @param records The serialized records
+	 * @return The value of {@link #journalBytes} after the records, to force up to
+	 * @throws IOException If the journal cannot be written
+	 */
+	private long writeRecords(byte[] records) throws IOException {
+		if (journal == null) {
+			throw new IOException("journal closed");
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(records);
+		while (buffer.hasRemaining()) {
+			journal.write(buffer);
+		}
+		journalBytes += records.length;
+		return journalBytes;
+	}
+
+	/**
+	 * Forces the journal to disk up to the given point. An appender that finds
+	 * another one forcing waits for it, and usually finds its own records
+	 * forced by then, so concurrent appenders share one fsync.
+	 *
+	 * @param upTo Value of {@link #journalBytes} that must be on disk
+	 * @throws IOException If the journal cannot be forced
+	 */
+	private void forceJournal(long upTo) throws IOException {
+		synchronized (forceLock) {
+			if (forcedBytes >= upTo) {
+				return;
+			}
+			FileChannel channel;
+			long written;
+			synchronized (journalLock) {
+				channel = journal;
+				written = journalBytes;
+			}
+			if (channel == null) {
+				throw new IOException("journal closed");
+			}
+			channel.force(false);
+			forcedBytes = written;
+		}
+	}
+
+	private static byte[] marker(byte type, long transaction, long sequence) {
+		ByteBuffer buffer = ByteBuffer.allocate(type == RECORD_COMMIT ? 17 : 9);
+		buffer.put(type).putLong(transaction);
+		if (type == RECORD_COMMIT) {
+			buffer.putLong(sequence);
+		}
+		return buffer.array();
+	}
+
+	/**
+	 * Inserts entries on the given connection as one multi-row INSERT. Used both
+	 * by the flusher and by callers running in synchronous mode.
+	 *
+	 * @param connection Connection to write on
+	 * @param entries    Entries to insert
+	 * @throws SQLException If the insert fails
+	 */
+	static void insertEntries(Connection connection, List<Entry> entries) throws SQLException {
+		if (entries.isEmpty()) {
+			return;
+		}
+		StringBuilder query = new StringBuilder(
+				"INSERT INTO ActivityLog (SubscriberID, LibrarianID, BookID, ActivityType, ActivityDate, Message) VALUES ");
+		for (int i = 0; i < entries.size(); i++) {
+			query.append(i == 0 ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+		}
+
+		try (PreparedStatement stmt = connection.prepareStatement(query.toString())) {
+			int index = 1;
+			for (Entry entry : entries) {
+				stmt.setInt(index++, entry.subscriberId);
+				if (entry.librarianId != null) {
+					stmt.setInt(index++, entry.librarianId);
+				} else {
+					stmt.setNull(index++, Types.INTEGER);
+				}
+				if (entry.bookId != null) {
+					stmt.setInt(index++, entry.bookId);
+				} else {
+					stmt.setNull(index++, Types.INTEGER);
+				}
+				stmt.setString(index++, entry.activityType.toString());
+				stmt.setTimestamp(index++, entry.activityDate);
+				stmt.setString(index++, entry.message);
+			}
+			stmt.executeUpdate();
+		}
+	}
+
+	/**
+	 * Runs one flush cycle and logs any failure; entries that could not be
+	 * written stay in the retry batch and in the journal.
+	 */
+	private void flushSafely() {
+		flushRequested.set(false);
+		try {
+			while (flushBatch()) {
+				// keep draining while full batches are waiting
+			}
+		} catch (Exception e) {
+			System.err.println("ActivityLogAppender: flush failed, will retry: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Writes at most one batch to the database and records a checkpoint in the
+	 * journal.
+	 *
+	 * @return true if a full batch was written and more entries may be waiting
+	 * @throws SQLException If the batch insert fails
+	 * @throws IOException  If the checkpoint cannot be written
+	 */
+	private synchronized boolean flushBatch() throws SQLException, IOException {
+		if (retryBatch.isEmpty()) {
+			Entry entry;
+			while (retryBatch.size() < BATCH_SIZE && (entry = queue.poll()) != null) {
+				retryBatch.add(entry);
+			}
+		}
+		if (retryBatch.isEmpty()) {
+			return false;
+		}
+
+		ensureWriterConnection();
+		writerConnection.setAutoCommit(false);
+		try {
+			insertEntries(writerConnection, retryBatch);
+			writerConnection.commit();
+		} catch (SQLException e) {
+			writerConnection.rollback();
+			throw e;
+		} finally {
+			writerConnection.setAutoCommit(true);
+		}
+
+		long flushedUpTo = retryBatch.get(retryBatch.size() - 1).sequence;
+		int flushed = retryBatch.size();
+		retryBatch.clear();
+		pending.addAndGet(-flushed);
+		checkpoint(flushedUpTo);
+		return flushed == BATCH_SIZE;
+	}
+
+	/**
+	 * Reopens the writer connection if it was lost, so a dropped connection
+	 * only delays the flushes until the database is reachable again.
+	 *
+	 * @throws SQLException If no connection can be opened
+	 */
+	private void ensureWriterConnection() throws SQLException {
+		if (writerConnection != null && writerConnection.isValid(WRITER_VALIDATION_TIMEOUT_SECONDS)) {
+			return;
+		}
+		if (writerConnection != null) {
+			try {
+				writerConnection.close();
+			} catch (SQLException e) {
+				// Already broken
+			}
+		}
+		writerConnection = dbHandler.openConnection();
+		if (writerConnection == null) {
+			throw new SQLException("Activity log writer connection unavailable");
+		}
+		System.out.println("ActivityLogAppender: writer connection reopened");
+	}
+
+	/**
+	 * Records that every entry up to the given sequence number is in the
+	 * database. When nothing is pending any more, which also means no operation
+	 * is between prepare and commit, the journal is truncated so it never grows
+	 * beyond the entries in flight.
+	 *
+	 * @param sequence Highest flushed sequence number
+	 * @throws IOException If the journal cannot be written
+	 */
+	private void checkpoint(long sequence) throws IOException {
+		synchronized (journalLock) {
+			if (journal == null) {
+				return;
+			}
+			if (pending.get() == 0) {
+				journal.truncate(0);
+				journal.position(0);
+			} else {
+				writeRecords(ByteBuffer.allocate(9).put(RECORD_CHECKPOINT).putLong(sequence).array());
+			}
+			journal.force(false);
+		}
+	}
+
+	/**
+	 * Opens the journal and re-queues entries a previous run committed but never
+	 * flushed. Entries of operations that were committing when the run stopped
+	 * are marked committed and queued too; entries of aborted operations are
+	 * dropped.
+	 *
+	 * @throws IOException If the journal cannot be opened or read
+	 */
+	private void openJournal() throws IOException {
+		Files.createDirectories(JOURNAL_PATH.getParent());
+		journal = FileChannel.open(JOURNAL_PATH, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+
+		Map<Long, List<Entry>> prepared = new LinkedHashMap<>();
+		ArrayList<Entry> replayed = new ArrayList<>();
+		long checkpoint = 0;
+		long validLength = 0;
+		journal.position(0);
+		InputStream in = Channels.newInputStream(journal);
+		DataInputStream data = new DataInputStream(in);
+		try {
+			while (true) {
+				byte type = data.readByte();
+				if (type == RECORD_CHECKPOINT) {
+					checkpoint = Math.max(checkpoint, data.readLong());
+				} else if (type == RECORD_ENTRY) {
+					Entry entry = readEntry(data);
+					prepared.computeIfAbsent(entry.transaction, transaction -> new ArrayList<>()).add(entry);
+					nextTransaction = Math.max(nextTransaction, entry.transaction + 1);
+				} else if (type == RECORD_COMMIT) {
+					long transaction = data.readLong();
+					long sequence = data.readLong();
+					List<Entry> committed = prepared.remove(transaction);
+					if (committed != null) {
+						for (Entry entry : committed) {
+							entry.sequence = sequence++;
+						}
+						replayed.addAll(committed);
+					}
+					nextSequence = Math.max(nextSequence, sequence);
+				} else if (type == RECORD_ABORT) {
+					prepared.remove(data.readLong());
+				} else {
+					break;
+				}
+				validLength = journal.position();
+			}
+		} catch (EOFException e) {
+			// a torn record at the end of the journal was never acknowledged
+		}
+
+		final long flushedUpTo = checkpoint;
+		replayed.removeIf(entry -> entry.sequence <= flushedUpTo);
+		nextSequence = Math.max(nextSequence, checkpoint + 1);
+		journal.truncate(validLength);
+		journal.position(validLength);
+
+		// Operations that were committing are treated as committed, and marked so
+		// a later replay numbers their entries the same way
+		for (Map.Entry<Long, List<Entry>> inDoubt : prepared.entrySet()) {
+			long firstSequence = nextSequence;
+			for (Entry entry : inDoubt.getValue()) {
+				entry.sequence = nextSequence++;
+			}
+			writeRecords(marker(RECORD_COMMIT, inDoubt.getKey(), firstSequence));
+			replayed.addAll(inDoubt.getValue());
+		}
+		journal.force(false);
+
+		if (!replayed.isEmpty()) {
+			System.out.println("ActivityLogAppender: replaying " + replayed.size() + " unflushed entries");
+			replayed.sort(Comparator.comparingLong(entry -> entry.sequence));
+			pending.addAndGet(replayed.size());
+			queue.addAll(replayed);
+		}
+	}
+
+	/**
+	 * Serializes an entry as a journal record.
+	 */
+	private static void writeEntry(DataOutputStream out, Entry entry) throws IOException {
+		out.writeByte(RECORD_ENTRY);
+		out.writeLong(entry.transaction);
+		out.writeInt(entry.subscriberId);
+		out.writeInt(entry.librarianId != null ? entry.librarianId : -1);
+		out.writeInt(entry.bookId != null ? entry.bookId : -1);
+		out.writeUTF(entry.activityType.name());
+		out.writeLong(entry.activityDate.getTime());
+		out.writeUTF(entry.message != null ? entry.message : "");
+	}
+
+	/**
+	 * Reads an entry record written by {@link #writeEntry}.
+	 */
+	private static Entry readEntry(DataInputStream in) throws IOException {
+		long transaction = in.readLong();
+		int subscriberId = in.readInt();
+		int librarianId = in.readInt();
+		int bookId = in.readInt();
+		ActivityType type = ActivityType.valueOf(in.readUTF());
+		Timestamp date = new Timestamp(in.readLong());
+		String message = in.readUTF();
+		Entry entry = new Entry(subscriberId, librarianId >= 0 ? librarianId : null, bookId >= 0 ? bookId : null,
+				type, date, message);
+		entry.transaction = transaction;
+		return entry;
+	}
+
+	/**
+	 * Shuts down the appender. Stops the scheduler, writes everything still
+	 * queued and closes the journal and the writer connection. Entries that
+	 * cannot be written stay in the journal for the next start.
+	 */
+	public void shutdown() {
+		System.out.println("Shutting down ActivityLogAppender...");
+		scheduler.shutdown();
+		try {
+			if (!scheduler.awaitTermination(60, TimeUnit.SECONDS)) {
+				scheduler.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			scheduler.shutdownNow();
+			System.err.println("ActivityLogAppender shutdown interrupted: " + e.getMessage());
+		}
+
+		if (writerConnection != null) {
+			flushSafely();
+			try {
+				writerConnection.close();
+			} catch (SQLException e) {
+				System.err.println("Error closing activity log connection: " + e.getMessage());
+			}
+		}
+		synchronized (journalLock) {
+			if (journal != null) {
+				try {
+					journal.close();
+				} catch (IOException e) {
+					System.err.println("Error closing activity log journal: " + e.getMessage());
+				}
+				journal = null;
+			}
+		}
+		synchronized (ActivityLogAppender.class) {
+			instance = null;
+		}
+		System.out.println("ActivityLogAppender shutdown completed");
+	}
+}
@@ -0,0 +1,121 @@
+package jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A small pool of database connections for background work that runs in
+ * parallel, such as report generation. Connections are opened on demand with
+ * the settings of a {@link dbHandler}, up to a fixed maximum, and reused by
+ * later borrowers. Borrowers block while all connections are in use.
+ */
+public class ConnectionPool {
+
+	/** Seconds allowed for the validity check of an idle connection */
+	private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+	private final dbHandler dbHandler;
+	private final Semaphore permits;
+	private final LinkedBlockingDeque<Connection> idle = new LinkedBlockingDeque<>();
+
+	/**
+	 * Creates an empty pool.
+	 *
+	 * @param dbHandler      Database handler whose settings are used to open
+	 *                       connections
+	 * @param maxConnections Maximum number of connections in use at once
+	 */
+	public ConnectionPool(dbHandler dbHandler, int maxConnections) {
+		this.dbHandler = dbHandler;
+		this.permits = new Semaphore(Math.max(1, maxConnections), true);
+	}
+
+	/**
+	 * Borrows a connection, waiting while all connections are in use. An idle
+	 * connection is reused if it is still valid; otherwise a new one is opened.
+	 *
+	 * @param timeout How long to wait for a free connection
+	 * @param unit    Unit of the timeout
+	 * @return A connection that must be given back with {@link #release}
+	 * @throws SQLException         If no connection could be opened or none
+	 *                              became free in time
+	 * @throws InterruptedException If interrupted while waiting
+	 */
+	public Connection borrow(long timeout, TimeUnit unit) throws SQLException, InterruptedException {
+		if (!permits.tryAcquire(timeout, unit)) {
+			throw new SQLException("Timed out waiting for a pooled connection");
+		}
+		try {
+			Connection connection;
+			while ((connection = idle.pollFirst()) != null) {
+				if (isUsable(connection)) {
+					return connection;
+				}
+				closeQuietly(connection);
+			}
+			connection = dbHandler.openConnection();
+			if (connection == null) {
+				throw new SQLException("Could not open a pooled connection");
+			}
+			return connection;
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Gives a borrowed connection back to the pool.
+	 *
+	 * @param connection The borrowed connection
+	 * @param reusable   false if the connection may be in a bad state, for
+	 *                   example after an interrupted query; it is then closed
+	 */
+	public void release(Connection connection, boolean reusable) {
+		try {
+			if (reusable && isUsable(connection)) {
+				if (!connection.getAutoCommit()) {
+					connection.rollback();
+					connection.setAutoCommit(true);
+				}
+				idle.offerFirst(connection);
+			} else {
+				closeQuietly(connection);
+			}
+		} catch (SQLException e) {
+			closeQuietly(connection);
+		} finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * Closes all idle connections, for example after a batch, so the pool does
+	 * not hold connections open between rare runs.
+	 */
+	public void closeIdle() {
+		Connection connection;
+		while ((connection = idle.pollFirst()) != null) {
+			closeQuietly(connection);
+		}
+	}
+
+	private static boolean isUsable(Connection connection) {
+		try {
+			return !connection.isClosed() && connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	private static void closeQuietly(Connection connection) {
+		try {
+			connection.close();
+		} catch (SQLException e) {
+			System.err.println("Error closing pooled connection: " + e.getMessage());
+		}
+	}
+}
@@ -4,10 +4,9 @@ import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -16,21 +15,28 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 import enums.NotificationType;
 import enums.ReservationStatus;
 import entities.ActivityLog;
 import entities.Book;
 import entities.BookLoanDetailsDTO;
+import entities.CatalogChanges;
 import entities.HistoryForSubscriber;
 import entities.Loan;
 import entities.Notification;
+import entities.Page;
+import entities.PageRequest;
+import entities.ReportSeries;
 import entities.Reservation;
 import entities.Subscriber;
 import entities.SubscriberDTO;
 import entities.User;
 import enums.ActivityType;
+import enums.ReportMetric;
 import enums.SubscriberStatus;
 import enums.UserType;
 
@@ -48,6 +54,11 @@ import enums.UserType;
  */
 public class dbHandler {
 	private Connection conn;
+	private mysqlConnection connectionSource;
+	private ActivityLogAppender activityLogAppender;
+	private final List<BookEventListener> bookEventListeners = new CopyOnWriteArrayList<>();
+	private final ThreadLocal<ArrayList<ActivityLogAppender.Entry>> pendingActivity = ThreadLocal
+			.withInitial(ArrayList::new);
 
 	/**
 	 * Constructs a new database handler with the specified connection. Initializes
@@ -61,6 +72,260 @@ public class dbHandler {
 		this.conn = connection;
 	}
 
+	/**
+	 * Constructs a new database handler that connects through the given
+	 * connection settings. Keeping the settings allows background services to
+	 * open their own connections with {@link #openConnection()}.
+	 *
+	 * @param connectionSource The connection settings to connect with
+	 */
+	public dbHandler(mysqlConnection connectionSource) {
+		this(connectionSource.ConnectToDB());
+		this.connectionSource = connectionSource;
+	}
+
+	/**
+	 * Opens an additional connection with the same settings as the main one.
+	 *
+	 * @return A new Connection, or null if no settings are known or the
+	 *         connection fails
+	 */
+	public Connection openConnection() {
+		return connectionSource != null ? connectionSource.ConnectToDB() : null;
+	}
+
+	/**
+	 * Opens a connection of its own for work that must not run on the main
+	 * connection, such as a streaming query or a long batch. Fails instead of
+	 * falling back to the main connection, which every other request uses.
+	 *
+	 * @param purpose What the connection is for, used in the error message
+	 * @return A new Connection, to be closed by the caller
+	 * @throws SQLException If no connection can be opened
+	 */
+	private Connection openOwnConnection(String purpose) throws SQLException {
+		Connection connection = openConnection();
+		if (connection == null) {
+			throw new SQLException("No database connection available for " + purpose);
+		}
+		return connection;
+	}
+
+	/**
+	 * Receives borrow and reservation events of books.
+	 */
+	public interface BookEventListener {
+		/**
+		 * Receives events of one type by a subscriber for a book.
+		 *
+		 * @param bookId       ID of the book
+		 * @param subscriberId ID of the subscriber
+		 * @param subject      Subject of the book, or null if unknown
+		 * @param activityType {@link ActivityType#LOAN} or
+		 *                     {@link ActivityType#RESERVATION}
+		 * @param date         Day of the events
+		 * @param count        Number of events
+		 */
+		void bookEvent(int bookId, int subscriberId, String subject, ActivityType activityType, LocalDate date,
+				int count);
+	}
+
+	/**
+	 * Maps the current row of a result set to an object.
+	 *
+	 * @param <T> The type of the mapped object
+	 */
+	public interface RowMapper<T> {
+		/**
+		 * Maps the current row.
+		 *
+		 * @param rs The result set, positioned on the row to map
+		 * @return The mapped object
+		 * @throws SQLException If a column cannot be read
+		 */
+		T map(ResultSet rs) throws SQLException;
+	}
+
+	/**
+	 * Receives the rows of a streamed query one chunk at a time.
+	 *
+	 * @param <T> The type of the rows
+	 */
+	public interface ChunkConsumer<T> {
+		/**
+		 * Receives the next chunk of rows. The list is not reused after the call.
+		 *
+		 * @param chunk The rows of this chunk
+		 * @throws IOException If the chunk cannot be passed on
+		 */
+		void accept(ArrayList<T> chunk) throws IOException;
+	}
+
+	/**
+	 * Runs a query and passes its rows to the consumer in chunks while they are
+	 * read, so only one chunk is held in memory at a time. The query runs on its
+	 * own connection with Connector/J row streaming, since a streaming result
+	 * blocks every other statement on its connection until it is closed.
+	 *
+	 * @param query     The query to run
+	 * @param chunkSize Number of rows per chunk
+	 * @param mapper    Maps each row to an object
+	 * @param consumer  Receives the chunks
+	 * @return The total number of rows streamed
+	 * @throws SQLException If a database error occurs
+	 * @throws IOException  If the consumer fails to pass on a chunk
+	 */
+	private <T> int streamQuery(String query, int chunkSize, RowMapper<T> mapper, ChunkConsumer<T> consumer)
+			throws SQLException, IOException {
+		Connection streamConn = openOwnConnection("streaming a query");
+
+		int total = 0;
+		try (Statement stmt = streamConn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+			stmt.setFetchSize(Integer.MIN_VALUE); // tells Connector/J to stream rows instead of buffering them all
+			try (ResultSet rs = stmt.executeQuery(query)) {
+				ArrayList<T> chunk = new ArrayList<>(chunkSize);
+				while (rs.next()) {
+					chunk.add(mapper.map(rs));
+					if (chunk.size() == chunkSize) {
+						consumer.accept(chunk);
+						total += chunk.size();
+						chunk = new ArrayList<>(chunkSize);
+					}
+				}
+				if (!chunk.isEmpty()) {
+					consumer.accept(chunk);
+					total += chunk.size();
+				}
+			}
+		} finally {
+			streamConn.close();
+		}
+		return total;
+	}
+
+	/**
+	 * Sets the appender used for ActivityLog entries. Without an appender,
+	 * entries are inserted synchronously inside the business transaction.
+	 *
+	 * @param activityLogAppender The appender to use, or null
+	 */
+	public void setActivityLogAppender(ActivityLogAppender activityLogAppender) {
+		this.activityLogAppender = activityLogAppender;
+	}
+
+	/**
+	 * Adds a listener told about every committed borrow and reservation.
+	 *
+	 * @param bookEventListener The listener
+	 */
+	public void addBookEventListener(BookEventListener bookEventListener) {
+		bookEventListeners.add(bookEventListener);
+	}
+
+	/**
+	 * Tells the book event listeners about a committed borrow or reservation.
+	 *
+	 * @param bookId       ID of the book
+	 * @param subscriberId ID of the subscriber
+	 * @param subject      Subject of the book, or null if unknown
+	 * @param activityType Type of the event
+	 */
+	private void notifyBookEvent(int bookId, int subscriberId, String subject, ActivityType activityType) {
+		for (BookEventListener listener : bookEventListeners) {
+			listener.bookEvent(bookId, subscriberId, subject, activityType, LocalDate.now(), 1);
+		}
+	}
+
+	/**
+	 * Passes the loans and reservations of the last given number of days to a
+	 * listener, counted per book, subscriber and day. Used to rebuild in-memory
+	 * statistics after a restart.
+	 *
+	 * @param days     Number of past days to include, today included
+	 * @param listener Receives the counts
+	 * @throws SQLException If a database error occurs
+	 */
+	public void replayBookEvents(int days, BookEventListener listener) throws SQLException {
+		String[][] sources = { { "Loans", "LoanDate" }, { "Reservations", "ReservationDate" } };
+		ActivityType[] types = { ActivityType.LOAN, ActivityType.RESERVATION };
+		for (int i = 0; i < sources.length; i++) {
+			String query = "SELECT e.BookID, e.SubscriberID, b.Subject, e." + sources[i][1]
+					+ " AS EventDate, COUNT(*) AS Events FROM " + sources[i][0]
+					+ " e JOIN Books b ON b.BookID = e.BookID WHERE e." + sources[i][1]
+					+ " > DATE_SUB(CURRENT_DATE, INTERVAL ? DAY) GROUP BY e.BookID, e.SubscriberID, b.Subject, e."
+					+ sources[i][1];
+			try (PreparedStatement stmt = conn.prepareStatement(query)) {
+				stmt.setInt(1, days);
+				try (ResultSet rs = stmt.executeQuery()) {
+					while (rs.next()) {
+						listener.bookEvent(rs.getInt("BookID"), rs.getInt("SubscriberID"), rs.getString("Subject"),
+								types[i], rs.getDate("EventDate").toLocalDate(), rs.getInt("Events"));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Starts a transaction on the main connection and discards activity entries
+	 * left over from a transaction that was rolled back.
+	 *
+	 * @throws SQLException If a database access error occurs
+	 */
+	private void beginTransaction() throws SQLException {
+		pendingActivity.get().clear();
+		conn.setAutoCommit(false);
+	}
+
+	/**
+	 * Records an activity for the current transaction. The entry is handed to
+	 * the appender by {@link #commitWithActivity()}.
+	 *
+	 * @param subscriberId ID of the subscriber the activity belongs to
+	 * @param librarianId  ID of the librarian involved, or null
+	 * @param bookId       ID of the book involved, or null
+	 * @param activityType Type of the activity
+	 * @param message      Log message
+	 */
+	private void logActivity(int subscriberId, Integer librarianId, Integer bookId, ActivityType activityType,
+			String message) {
+		pendingActivity.get().add(new ActivityLogAppender.Entry(subscriberId, librarianId, bookId, activityType,
+				new Timestamp(System.currentTimeMillis()), message));
+	}
+
+	/**
+	 * Commits the current transaction with its activity entries. The entries
+	 * are written to the appender's journal before the commit and queued once
+	 * it succeeded, so an entry is never lost for a committed change and never
+	 * logged for one that was rolled back. If the appender rejects them, they
+	 * are inserted on the main connection inside the transaction itself.
+	 *
+	 * @throws SQLException If the entries cannot be inserted or the commit fails
+	 */
+	private void commitWithActivity() throws SQLException {
+		ArrayList<ActivityLogAppender.Entry> entries = pendingActivity.get();
+		try {
+			ActivityLogAppender.PreparedEntries prepared = null;
+			if (!entries.isEmpty() && activityLogAppender != null) {
+				prepared = activityLogAppender.prepare(entries);
+			}
+			if (prepared == null) {
+				ActivityLogAppender.insertEntries(conn, entries);
+				conn.commit();
+				return;
+			}
+			try {
+				conn.commit();
+			} catch (SQLException e) {
+				prepared.abort();
+				throw e;
+			}
+			prepared.commit();
+		} finally {
+			entries.clear();
+		}
+	}
+
 	/**
 	 * Retrieves the current database connection.
 	 *
@@ -273,6 +538,68 @@ public class dbHandler {
 		return books;
 	}
 
+	/**
+	 * Searches the books whose title, author, subject or description contains a
+	 * text anywhere, including loan information if applicable. This is the
+	 * search of the search screens, and it finds the same books as the client's
+	 * local catalog search: the wildcards of LIKE are escaped, so the text is
+	 * matched as typed, and the column collation ignores case and accents.
+	 *
+	 * @param field The searched field: "Title", "Author", "Theme" or "Description".
+	 * @param text  The text to search for.
+	 * @return A list of BookLoanDetailsDTO objects of the matching books.
+	 * @throws SQLException If a database access error occurs or the field is
+	 *                      unknown.
+	 */
+	public ArrayList<BookLoanDetailsDTO> searchBooks(String field, String text) throws SQLException {
+		String column;
+		switch (field) {
+		case "Title":
+			column = "b.Title";
+			break;
+		case "Author":
+			column = "b.Author";
+			break;
+		case "Theme":
+			column = "b.Subject";
+			break;
+		case "Description":
+			column = "b.Description";
+			break;
+		default:
+			throw new SQLException("Unknown search field: " + field);
+		}
+		String query = """
+				SELECT b.BookID, b.Title, b.Author, b.Subject, b.Description,
+				       b.TotalCopies, b.CopiesAvailable, b.ShelfLocation,
+				       l.SubscriberID, l.ReturnDate
+				FROM Books b
+				LEFT JOIN Loans l ON b.BookID = l.BookID
+				WHERE %s LIKE ?
+				ORDER BY b.BookID
+				""".formatted(column);
+
+		ArrayList<BookLoanDetailsDTO> books = new ArrayList<>();
+
+		try (PreparedStatement stmt = conn.prepareStatement(query)) {
+			stmt.setString(1, "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					books.add(new BookLoanDetailsDTO(rs.getInt("BookID"), rs.getString("Title"), rs.getString("Author"),
+							rs.getString("Subject"), rs.getString("Description"), rs.getInt("TotalCopies"),
+							rs.getInt("CopiesAvailable"), rs.getString("ShelfLocation"), rs.getInt("SubscriberID"),
+							rs.getString("ReturnDate")));
+				}
+			}
+		} catch (SQLException e) {
+			System.err.println("Error searching books by " + field + ": " + e.getMessage());
+			throw e;
+		}
+
+		return books;
+	}
+
 	/**
 	 * Checks if a username exists in the database.
 	 *
@@ -533,7 +860,7 @@ public class dbHandler {
 
 	public String processBookBorrow(int bookId, int subscriberId, int LibrarianId) throws SQLException {
 		System.out.println("Starting processBookBorrow for book " + bookId + " and subscriber " + subscriberId);
-		conn.setAutoCommit(false);
+		beginTransaction();
 
 		try {
 			// First, check subscriber status
@@ -611,21 +938,11 @@ public class dbHandler {
 			ActivityLog activity = new ActivityLog(0, subscriberId, LibrarianId, book.getBookId(), ActivityType.LOAN,
 					new java.sql.Timestamp(System.currentTimeMillis()), borrowMessage);
 
-			String logQuery = """
-					INSERT INTO ActivityLog
-					(SubscriberID, BookID, ActivityType, ActivityDate, Message, LibrarianID)
-					VALUES (?, ?, ?, ?, ?, ?)
-					""";
-			PreparedStatement logStmt = conn.prepareStatement(logQuery);
-			logStmt.setInt(1, activity.getSubscriberId());
-			logStmt.setInt(2, activity.getBookId());
-			logStmt.setString(3, activity.getActivityType().toString());
-			logStmt.setTimestamp(4, activity.getActivityDate());
-			logStmt.setString(5, activity.getMessage());
-			logStmt.setInt(6, activity.getLibrarianId());
-			logStmt.executeUpdate();
+			logActivity(activity.getSubscriberId(), activity.getLibrarianId(), activity.getBookId(),
+					activity.getActivityType(), activity.getMessage());
 
-			conn.commit();
+			commitWithActivity();
+			notifyBookEvent(book.getBookId(), subscriberId, book.getSubject(), ActivityType.LOAN);
 			return borrowMessage;
 
 		} catch (SQLException e) {
@@ -649,7 +966,7 @@ public class dbHandler {
 	 */
 	public String processBookReturn(int bookId, int subscriberId, int LibrarianId, boolean isLost) throws SQLException {
 		System.out.println("Starting processBookReturn for book " + bookId + " and subscriber " + subscriberId);
-		conn.setAutoCommit(false);
+		beginTransaction();
 		try {
 			// Get active loan and book details
 			String checkLoanQuery = """
@@ -720,6 +1037,9 @@ public class dbHandler {
 			loanStmt.setInt(2, loan.getLoanId());
 			loanStmt.executeUpdate();
 
+			// Count the closed loan in the daily rollup used by the borrow time reports
+			recordClosedLoan(loan.getLoanId());
+
 			// Create appropriate message based on return type
 			String returnMessage;
 			if (isLost) {
@@ -732,14 +1052,26 @@ public class dbHandler {
 
 				// Only freeze member for late returns (>7 days)
 				if (diffInDays > 7) {
+					// FrozenUntil is what the daily status job scans, so set it together with the status
 					String freezeQuery = """
 							UPDATE Subscribers
-							SET Status = 'FROZEN'
+							SET Status = 'FROZEN',
+							    FrozenUntil = DATE_ADD(CURRENT_DATE, INTERVAL 30 DAY)
 							WHERE SubscriberID = ?
 							""";
 					PreparedStatement freezeStmt = conn.prepareStatement(freezeQuery);
 					freezeStmt.setInt(1, subscriberId);
 					freezeStmt.executeUpdate();
+
+					String freezeHistoryQuery = """
+							INSERT INTO SubscriberStatusHistory
+							(SubscriberID, Status, ChangeDate, Reason)
+							VALUES (?, 'FROZEN', CURRENT_DATE, ?)
+							""";
+					PreparedStatement freezeHistoryStmt = conn.prepareStatement(freezeHistoryQuery);
+					freezeHistoryStmt.setInt(1, subscriberId);
+					freezeHistoryStmt.setString(2, "Late return by " + diffInDays + " days");
+					freezeHistoryStmt.executeUpdate();
 					returnMessage += " - Note: Member has been frozen due to late return";
 				}
 			}
@@ -749,19 +1081,8 @@ public class dbHandler {
 					isLost ? ActivityType.OTHER : ActivityType.RETURN,
 					new java.sql.Timestamp(System.currentTimeMillis()), returnMessage);
 
-			String logQuery = """
-					INSERT INTO ActivityLog
-					(SubscriberID, BookID, ActivityType, ActivityDate, Message, LibrarianID)
-					VALUES (?, ?, ?, ?, ?, ?)
-					""";
-			PreparedStatement logStmt = conn.prepareStatement(logQuery);
-			logStmt.setInt(1, activity.getSubscriberId());
-			logStmt.setInt(2, activity.getBookId());
-			logStmt.setString(3, activity.getActivityType().toString());
-			logStmt.setTimestamp(4, activity.getActivityDate());
-			logStmt.setString(5, activity.getMessage());
-			logStmt.setInt(6, activity.getLibrarianId());
-			logStmt.executeUpdate();
+			logActivity(activity.getSubscriberId(), activity.getLibrarianId(), activity.getBookId(),
+					activity.getActivityType(), activity.getMessage());
 
 			// Check for pending reservations on regular returns
 			if (!isLost) {
@@ -819,25 +1140,15 @@ public class dbHandler {
 							new java.sql.Timestamp(System.currentTimeMillis()),
 							"Notification sent: " + notificationMessage);
 
-					String notificationLogQuery = """
-							INSERT INTO ActivityLog
-							(SubscriberID, BookID, ActivityType, ActivityDate, Message, LibrarianID)
-							VALUES (?, ?, ?, ?, ?, ?)
-							""";
-					PreparedStatement notificationLogStmt = conn.prepareStatement(notificationLogQuery);
-					notificationLogStmt.setInt(1, notificationActivity.getSubscriberId());
-					notificationLogStmt.setInt(2, notificationActivity.getBookId());
-					notificationLogStmt.setString(3, notificationActivity.getActivityType().toString());
-					notificationLogStmt.setTimestamp(4, notificationActivity.getActivityDate());
-					notificationLogStmt.setString(5, notificationActivity.getMessage());
-					notificationLogStmt.setInt(6, notificationActivity.getLibrarianId());
-					notificationLogStmt.executeUpdate();
+					logActivity(notificationActivity.getSubscriberId(), notificationActivity.getLibrarianId(),
+							notificationActivity.getBookId(), notificationActivity.getActivityType(),
+							notificationActivity.getMessage());
 
 					returnMessage += "\nNotification sent to waiting subscriber.";
 				}
 			}
 
-			conn.commit();
+			commitWithActivity();
 			return returnMessage;
 
 		} catch (SQLException e) {
@@ -896,8 +1207,10 @@ public class dbHandler {
 	}
 
 	/**
-	 * Retrieves all activity logs from the database, including details about the
-	 * librarian and book involved.
+	 * Retrieves the recent activity logs from the hot ActivityLog table,
+	 * including details about the librarian and book involved. Entries moved to
+	 * ActivityLogArchive are not included, use
+	 * {@link #getActivityLogsInRange(LocalDate, LocalDate)} to reach them.
 	 *
 	 * @return A list of activity logs.
 	 * @throws SQLException If a database error occurs.
@@ -947,7 +1260,233 @@ public class dbHandler {
 	}
 
 	/**
-	 * Retrieves filtered activity logs based on the user type.
+	 * Retrieves one page of recent activity logs, newest first. The page starts
+	 * right after the cursor row, so the cost of a page does not depend on how
+	 * many pages were loaded before it.
+	 *
+	 * @param request The page size and the date and ID of the last row already
+	 *                loaded
+	 * @return The page of activity logs
+	 * @throws SQLException If a database error occurs.
+	 */
+	public Page<ActivityLog> getActivityLogsPage(PageRequest request) throws SQLException {
+		String query = """
+				    SELECT ActivityID, SubscriberID, LibrarianID, BookID, ActivityType, ActivityDate, Message
+				    FROM ActivityLog
+				    %s
+				    ORDER BY ActivityDate DESC, ActivityID DESC
+				    LIMIT ?
+				""";
+		query = String.format(query, request.isFirstPage() ? ""
+				: "WHERE ActivityDate < ? OR (ActivityDate = ? AND ActivityID < ?)");
+
+		int pageSize = request.getPageSize();
+		ArrayList<ActivityLog> logs = new ArrayList<>();
+		try (PreparedStatement stmt = conn.prepareStatement(query)) {
+			int index = 1;
+			if (!request.isFirstPage()) {
+				stmt.setTimestamp(index++, request.getAfterDate());
+				stmt.setTimestamp(index++, request.getAfterDate());
+				stmt.setInt(index++, request.getAfterId());
+			}
+			stmt.setInt(index, pageSize + 1); // one extra row tells whether another page follows
+			ResultSet rs = stmt.executeQuery();
+			while (rs.next()) {
+				ActivityLog log = new ActivityLog(rs.getInt("ActivityID"), rs.getInt("SubscriberID"),
+						rs.getInt("LibrarianID"), rs.getInt("BookID"),
+						ActivityType.valueOf(rs.getString("ActivityType")), rs.getTimestamp("ActivityDate"),
+						rs.getString("Message"));
+				logs.add(log);
+			}
+		} catch (SQLException e) {
+			System.err.println("SQL Error in getActivityLogsPage: " + e.getMessage());
+			throw e;
+		}
+
+		boolean hasMore = logs.size() > pageSize;
+		if (hasMore) {
+			logs.remove(pageSize);
+		}
+		return new Page<>(logs, request.isFirstPage(), hasMore);
+	}
+
+	/**
+	 * Streams all recent activity logs from the hot ActivityLog table, newest
+	 * first, in chunks.
+	 *
+	 * @param chunkSize Number of logs per chunk
+	 * @param consumer  Receives the chunks
+	 * @return The number of logs streamed
+	 * @throws SQLException If a database error occurs.
+	 * @throws IOException  If a chunk cannot be passed on
+	 */
+	public int streamActivityLogs(int chunkSize, ChunkConsumer<ActivityLog> consumer)
+			throws SQLException, IOException {
+		String query = """
+				    SELECT ActivityID, SubscriberID, LibrarianID, BookID, ActivityType, ActivityDate, Message
+				    FROM ActivityLog
+				    ORDER BY ActivityDate DESC, ActivityID DESC
+				""";
+
+		return streamQuery(query, chunkSize,
+				rs -> new ActivityLog(rs.getInt("ActivityID"), rs.getInt("SubscriberID"), rs.getInt("LibrarianID"),
+						rs.getInt("BookID"), ActivityType.valueOf(rs.getString("ActivityType")),
+						rs.getTimestamp("ActivityDate"), rs.getString("Message")),
+				consumer);
+	}
+
+	/**
+	 * Streams the books each subscriber has borrowed, in chunks. Rows are
+	 * ordered by subscriber and then by the last time the subscriber borrowed
+	 * the book, so the books of one subscriber arrive together, oldest first.
+	 *
+	 * @param chunkSize Number of rows per chunk
+	 * @param consumer  Receives the chunks of {subscriber ID, book ID} pairs
+	 * @return The number of rows streamed
+	 * @throws SQLException If a database error occurs.
+	 * @throws IOException  If a chunk cannot be passed on
+	 */
+	public int streamBorrowedBooksBySubscriber(int chunkSize, ChunkConsumer<int[]> consumer)
+			throws SQLException, IOException {
+		String query = """
+				    SELECT SubscriberID, BookID, MAX(LoanDate) AS LastLoan
+				    FROM Loans
+				    GROUP BY SubscriberID, BookID
+				    ORDER BY SubscriberID, LastLoan
+				""";
+
+		return streamQuery(query, chunkSize, rs -> new int[] { rs.getInt("SubscriberID"), rs.getInt("BookID") },
+				consumer);
+	}
+
+	/**
+	 * Retrieves the activity logs between two dates, inclusive. The archive
+	 * table is only queried when the range starts before the oldest entry still
+	 * kept in the hot ActivityLog table.
+	 *
+	 * @param from First day of the range
+	 * @param to   Last day of the range
+	 * @return A list of activity logs, newest first.
+	 * @throws SQLException If a database error occurs.
+	 */
+	public ArrayList<ActivityLog> getActivityLogsInRange(LocalDate from, LocalDate to) throws SQLException {
+		Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+		Timestamp end = Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+
+		boolean includeArchive;
+		try (Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT MIN(ActivityDate) FROM ActivityLog")) {
+			Timestamp oldestHot = rs.next() ? rs.getTimestamp(1) : null;
+			includeArchive = oldestHot == null || start.before(oldestHot);
+		}
+
+		String columns = "ActivityID, SubscriberID, LibrarianID, BookID, ActivityType, ActivityDate, Message";
+		String query = "SELECT " + columns + " FROM ActivityLog WHERE ActivityDate >= ? AND ActivityDate < ?";
+		if (includeArchive) {
+			query += " UNION ALL SELECT " + columns
+					+ " FROM ActivityLogArchive WHERE ActivityDate >= ? AND ActivityDate < ?";
+		}
+		query += " ORDER BY ActivityDate DESC";
+
+		ArrayList<ActivityLog> logs = new ArrayList<>();
+		try (PreparedStatement stmt = conn.prepareStatement(query)) {
+			stmt.setTimestamp(1, start);
+			stmt.setTimestamp(2, end);
+			if (includeArchive) {
+				stmt.setTimestamp(3, start);
+				stmt.setTimestamp(4, end);
+			}
+			ResultSet rs = stmt.executeQuery();
+			while (rs.next()) {
+				ActivityLog log = new ActivityLog(rs.getInt("ActivityID"), rs.getInt("SubscriberID"),
+						rs.getInt("LibrarianID"), rs.getInt("BookID"),
+						ActivityType.valueOf(rs.getString("ActivityType")), rs.getTimestamp("ActivityDate"),
+						rs.getString("Message"));
+				logs.add(log);
+			}
+		} catch (SQLException e) {
+			System.err.println("SQL Error in getActivityLogsInRange: " + e.getMessage());
+			throw e;
+		}
+		System.out.println("Retrieved " + logs.size() + " activity logs between " + from + " and " + to
+				+ (includeArchive ? " (including archive)" : ""));
+		return logs;
+	}
+
+	/**
+	 * Moves activity logs older than the cutoff from the hot ActivityLog table
+	 * into ActivityLogArchive. Rows are moved in batches, each batch copied and
+	 * deleted in its own transaction, on a separate connection so the main
+	 * connection stays available while the job runs.
+	 *
+	 * @param cutoff Entries dated before the start of this day are archived
+	 * @return The number of archived entries
+	 * @throws SQLException If a database error occurs
+	 */
+	public int archiveActivityLogs(LocalDate cutoff) throws SQLException {
+		final int batchSize = 1000;
+		String selectBatchQuery = """
+				    SELECT ActivityID FROM ActivityLog
+				    WHERE ActivityDate < ?
+				    ORDER BY ActivityDate
+				    LIMIT ?
+				""";
+		String copyQuery = """
+				    INSERT INTO ActivityLogArchive
+				    (ActivityID, SubscriberID, ActivityType, ActivityDate, BookID, Message, LibrarianID)
+				    SELECT ActivityID, SubscriberID, ActivityType, ActivityDate, BookID, Message, LibrarianID
+				    FROM ActivityLog WHERE ActivityID IN (%s)
+				""";
+		String deleteQuery = "DELETE FROM ActivityLog WHERE ActivityID IN (%s)";
+
+		Connection archiveConn = openOwnConnection("archiving activity logs");
+
+		int archived = 0;
+		try (PreparedStatement selectStmt = archiveConn.prepareStatement(selectBatchQuery)) {
+			archiveConn.setAutoCommit(false);
+			selectStmt.setTimestamp(1, Timestamp.valueOf(cutoff.atStartOfDay()));
+			selectStmt.setInt(2, batchSize);
+
+			while (true) {
+				ArrayList<Integer> ids = new ArrayList<>();
+				try (ResultSet rs = selectStmt.executeQuery()) {
+					while (rs.next()) {
+						ids.add(rs.getInt("ActivityID"));
+					}
+				}
+				if (ids.isEmpty()) {
+					break;
+				}
+
+				String idList = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+				try (Statement stmt = archiveConn.createStatement()) {
+					stmt.executeUpdate(String.format(copyQuery, idList));
+					stmt.executeUpdate(String.format(deleteQuery, idList));
+					archiveConn.commit();
+				} catch (SQLException e) {
+					archiveConn.rollback();
+					throw e;
+				}
+				archived += ids.size();
+
+				if (ids.size() < batchSize) {
+					break;
+				}
+			}
+		} catch (SQLException e) {
+			System.err.println("SQL Error in archiveActivityLogs: " + e.getMessage());
+			throw e;
+		} finally {
+			archiveConn.close();
+		}
+
+		System.out.println("Archived " + archived + " activity logs older than " + cutoff);
+		return archived;
+	}
+
+	/**
+	 * Retrieves filtered activity logs based on the user type, including
+	 * archived entries.
 	 *
 	 * @param filterUser The user whose activity logs should be retrieved.
 	 * @return A list of filtered activity logs.
@@ -956,8 +1495,13 @@ public class dbHandler {
 
 	public ArrayList<ActivityLog> getFilteredActivityLogs(User filterUser) throws SQLException {
 		String query = """
-				    SELECT * FROM ActivityLog
-				    WHERE %s = ?
+				    SELECT ActivityID, SubscriberID, LibrarianID, BookID, ActivityType, ActivityDate, Message
+				    FROM ActivityLog
+				    WHERE %1$s = ?
+				    UNION ALL
+				    SELECT ActivityID, SubscriberID, LibrarianID, BookID, ActivityType, ActivityDate, Message
+				    FROM ActivityLogArchive
+				    WHERE %1$s = ?
 				    ORDER BY ActivityDate DESC
 				""";
 
@@ -966,6 +1510,7 @@ public class dbHandler {
 		ArrayList<ActivityLog> logs = new ArrayList<>();
 		try (PreparedStatement stmt = conn.prepareStatement(query)) {
 			stmt.setInt(1, filterUser.getUserId());
+			stmt.setInt(2, filterUser.getUserId());
 			ResultSet rs = stmt.executeQuery();
 			while (rs.next()) {
 				ActivityLog log = new ActivityLog(rs.getInt("ActivityID"), rs.getInt("SubscriberID"),
@@ -1006,6 +1551,71 @@ public class dbHandler {
 		}
 	}
 
+	/**
+	 * Retrieves one page of registered subscribers, ordered by ID.
+	 *
+	 * @param request The page size and the ID of the last subscriber already
+	 *                loaded
+	 * @return The page of subscribers.
+	 * @throws SQLException If a database error occurs.
+	 */
+	public Page<SubscriberDTO> getMembersPage(PageRequest request) throws SQLException {
+		String query = """
+				    SELECT u.*, s.Status as SubscriberStatus
+				    FROM Users u
+				    JOIN Subscribers s ON u.UserID = s.SubscriberID
+				    WHERE u.UserType = 'Subscriber' AND u.UserID > ?
+				    ORDER BY u.UserID
+				    LIMIT ?
+				""";
+
+		int pageSize = request.getPageSize();
+		ArrayList<SubscriberDTO> members = new ArrayList<>();
+		try (PreparedStatement stmt = conn.prepareStatement(query)) {
+			stmt.setInt(1, request.getAfterId());
+			stmt.setInt(2, pageSize + 1); // one extra row tells whether another page follows
+			ResultSet rs = stmt.executeQuery();
+			while (rs.next()) {
+				SubscriberDTO member = new SubscriberDTO(rs.getInt("UserID"), rs.getString("FullName"),
+						rs.getString("PasswordHash"), rs.getString("Email"), rs.getString("Phone"),
+						SubscriberStatus.valueOf(rs.getString("SubscriberStatus")), rs.getString("Address"));
+				members.add(member);
+			}
+		}
+
+		boolean hasMore = members.size() > pageSize;
+		if (hasMore) {
+			members.remove(pageSize);
+		}
+		return new Page<>(members, request.isFirstPage(), hasMore);
+	}
+
+	/**
+	 * Streams all registered subscribers, ordered by ID, in chunks.
+	 *
+	 * @param chunkSize Number of subscribers per chunk
+	 * @param consumer  Receives the chunks
+	 * @return The number of subscribers streamed
+	 * @throws SQLException If a database error occurs.
+	 * @throws IOException  If a chunk cannot be passed on
+	 */
+	public int streamAllMembers(int chunkSize, ChunkConsumer<SubscriberDTO> consumer)
+			throws SQLException, IOException {
+		String query = """
+				    SELECT u.*, s.Status as SubscriberStatus
+				    FROM Users u
+				    JOIN Subscribers s ON u.UserID = s.SubscriberID
+				    WHERE u.UserType = 'Subscriber'
+				    ORDER BY u.UserID
+				""";
+
+		return streamQuery(query, chunkSize,
+				rs -> new SubscriberDTO(rs.getInt("UserID"), rs.getString("FullName"), rs.getString("PasswordHash"),
+						rs.getString("Email"), rs.getString("Phone"),
+						SubscriberStatus.valueOf(rs.getString("SubscriberStatus")), rs.getString("Address")),
+				consumer);
+	}
+
 	/**
 	 * Extends the loan period of a book for a subscriber, ensuring no reservations
 	 * or restrictions apply.
@@ -1019,7 +1629,7 @@ public class dbHandler {
 
 	public String extendBookLoan(int memberId, int bookId, int librarianId) throws SQLException {
 		System.out.println("Starting extend loan process for book " + bookId + " and subscriber " + memberId);
-		conn.setAutoCommit(false);
+		beginTransaction();
 		try {
 			// First check if subscriber is frozen
 			String checkStatusQuery = "SELECT Status FROM Subscribers WHERE SubscriberID = ?";
@@ -1103,22 +1713,10 @@ public class dbHandler {
 							new java.sql.Timestamp(System.currentTimeMillis()),
 							"Extended loan for book: " + book.getTitle() + " by 7 days");
 
-					String logQuery = """
-							INSERT INTO ActivityLog
-							(SubscriberID, BookID, ActivityType, ActivityDate, Message, LibrarianID)
-							VALUES (?, ?, ?, ?, ?, ?)
-							""";
-					try (PreparedStatement logStmt = conn.prepareStatement(logQuery)) {
-						logStmt.setInt(1, activity.getSubscriberId());
-						logStmt.setInt(2, activity.getBookId());
-						logStmt.setString(3, activity.getActivityType().toString());
-						logStmt.setTimestamp(4, activity.getActivityDate());
-						logStmt.setString(5, activity.getMessage());
-						logStmt.setInt(6, activity.getLibrarianId());
-						logStmt.executeUpdate();
-					}
+					logActivity(activity.getSubscriberId(), activity.getLibrarianId(), activity.getBookId(),
+							activity.getActivityType(), activity.getMessage());
 
-					conn.commit();
+					commitWithActivity();
 					return "Successfully extended loan for book: " + book.getTitle();
 				} else {
 					conn.rollback();
@@ -1178,6 +1776,244 @@ public class dbHandler {
 		return books;
 	}
 
+	/**
+	 * Retrieves the changes to the catalog since a catalog version: all rows of
+	 * the books changed since then and the IDs of the books deleted since then.
+	 * The triggers log every change without a version. This read first gives
+	 * the next version to the logged changes that have committed since the
+	 * last read, so a change that commits later gets a later version and is
+	 * never skipped, however long its transaction ran. Reads lock the epoch row
+	 * to number the changes one after another; writers never touch it. The
+	 * read runs in one READ COMMITTED transaction on a connection of its own,
+	 * so it neither numbers nor waits for changes that are not committed yet.
+	 *
+	 * @param epoch        The catalog epoch of the caller's version, or null
+	 * @param sinceVersion The catalog version the caller holds, or 0 for the whole catalog
+	 * @return The changes; the whole catalog if the caller holds no version, a
+	 *         version of another epoch or a version this database never reached
+	 * @throws SQLException If a database error occurs or no connection is available.
+	 */
+	public CatalogChanges getCatalogChanges(String epoch, long sinceVersion) throws SQLException {
+		String booksQuery = """
+				SELECT b.BookID, b.Title, b.Author, b.Subject, b.Description,
+				       b.TotalCopies, b.CopiesAvailable, b.ShelfLocation,
+				       l.SubscriberID, l.ReturnDate
+				FROM Books b
+				LEFT JOIN Loans l ON b.BookID = l.BookID
+				ORDER BY b.BookID
+				""";
+		String changedQuery = """
+				SELECT b.BookID, b.Title, b.Author, b.Subject, b.Description,
+				       b.TotalCopies, b.CopiesAvailable, b.ShelfLocation,
+				       l.SubscriberID, l.ReturnDate
+				FROM (SELECT DISTINCT BookID FROM BookChanges WHERE Version > ?) c
+				JOIN Books b ON b.BookID = c.BookID
+				LEFT JOIN Loans l ON b.BookID = l.BookID
+				ORDER BY b.BookID
+				""";
+		String deletedQuery = "SELECT DISTINCT c.BookID FROM BookChanges c LEFT JOIN Books b ON b.BookID = c.BookID "
+				+ "WHERE c.Version > ? AND b.BookID IS NULL";
+
+		try (Connection catalogConn = openOwnConnection("catalog changes")) {
+			catalogConn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+			catalogConn.setAutoCommit(false);
+			try {
+				String currentEpoch;
+				long version;
+				try (PreparedStatement stmt = catalogConn.prepareStatement(
+						"SELECT Epoch, Version FROM CatalogEpoch WHERE Id = 1 FOR UPDATE");
+						ResultSet rs = stmt.executeQuery()) {
+					if (!rs.next()) {
+						throw new SQLException("Catalog epoch is missing");
+					}
+					currentEpoch = rs.getString("Epoch");
+					version = rs.getLong("Version");
+				}
+				// Number the changes committed since the last read
+				try (PreparedStatement stmt = catalogConn.prepareStatement(
+						"UPDATE BookChanges SET Version = ? WHERE Version IS NULL")) {
+					stmt.setLong(1, version + 1);
+					if (stmt.executeUpdate() > 0) {
+						version++;
+						try (PreparedStatement update = catalogConn.prepareStatement(
+								"UPDATE CatalogEpoch SET Version = ? WHERE Id = 1")) {
+							update.setLong(1, version);
+							update.executeUpdate();
+						}
+					}
+				}
+				// A version of another epoch or ahead of this database comes from another one,
+				// so the client starts over
+				boolean fullCatalog = sinceVersion <= 0 || !currentEpoch.equals(epoch) || sinceVersion > version;
+
+				ArrayList<BookLoanDetailsDTO> changedBooks = new ArrayList<>();
+				ArrayList<Integer> deletedBookIds = new ArrayList<>();
+				try (PreparedStatement stmt = catalogConn.prepareStatement(fullCatalog ? booksQuery : changedQuery)) {
+					if (!fullCatalog) {
+						stmt.setLong(1, sinceVersion);
+					}
+					try (ResultSet rs = stmt.executeQuery()) {
+						while (rs.next()) {
+							int subscriberId = rs.getObject("SubscriberID") != null ? rs.getInt("SubscriberID") : 0;
+							changedBooks.add(new BookLoanDetailsDTO(rs.getInt("BookID"), rs.getString("Title"),
+									rs.getString("Author"), rs.getString("Subject"), rs.getString("Description"),
+									rs.getInt("TotalCopies"), rs.getInt("CopiesAvailable"),
+									rs.getString("ShelfLocation"), subscriberId, rs.getString("ReturnDate")));
+						}
+					}
+				}
+				if (!fullCatalog) {
+					try (PreparedStatement stmt = catalogConn.prepareStatement(deletedQuery)) {
+						stmt.setLong(1, sinceVersion);
+						try (ResultSet rs = stmt.executeQuery()) {
+							while (rs.next()) {
+								deletedBookIds.add(rs.getInt("BookID"));
+							}
+						}
+					}
+				}
+				catalogConn.commit();
+				return new CatalogChanges(currentEpoch, version, fullCatalog, changedBooks, deletedBookIds);
+			} catch (SQLException e) {
+				catalogConn.rollback();
+				throw e;
+			}
+		} catch (SQLException e) {
+			System.err.println("Error fetching catalog changes: " + e.getMessage());
+			throw e;
+		}
+	}
+
+	/**
+	 * Stores a new login session.
+	 *
+	 * @param tokenHash Hash of the session token given to the client
+	 * @param userId    ID of the logged-in user
+	 * @throws SQLException If a database error occurs
+	 */
+	public void insertSession(String tokenHash, int userId) throws SQLException {
+		String query = "INSERT INTO Sessions (TokenHash, UserID) VALUES (?, ?)";
+		try (PreparedStatement stmt = conn.prepareStatement(query)) {
+			stmt.setString(1, tokenHash);
+			stmt.setInt(2, userId);
+			stmt.executeUpdate();
+		}
+	}
+
+	/**
+	 * Finds the user of a login session that was used recently, and marks the
+	 * session as used now.
+	 *
+	 * @param tokenHash Hash of the session token sent by the client
+	 * @param idleHours Hours after its last use that a session expires
+	 * @return The ID of the session's user, or -1 if there is no such session or it expired
+	 * @throws SQLException If a database error occurs
+	 */
+	public int touchSession(String tokenHash, int idleHours) throws SQLException {
+		String query = "UPDATE Sessions SET LastUsed = CURRENT_TIMESTAMP "
+				+ "WHERE TokenHash = ? AND LastUsed > CURRENT_TIMESTAMP - INTERVAL ? HOUR";
+		try (PreparedStatement stmt = conn.prepareStatement(query)) {
+			stmt.setString(1, tokenHash);
+			stmt.setInt(2, idleHours);
+			if (stmt.executeUpdate() == 0) {
+				return -1;
+			}
+		}
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT UserID FROM Sessions WHERE TokenHash = ?")) {
+			stmt.setString(1, tokenHash);
+			try (ResultSet rs = stmt.executeQuery()) {
+				return rs.next() ? rs.getInt("UserID") : -1;
+			}
+		}
+	}
+
+	/**
+	 * Deletes a login session.
+	 *
+	 * @param tokenHash Hash of the token of the session whose user logged out
+	 * @throws SQLException If a database error occurs
+	 */
+	public void deleteSession(String tokenHash) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM Sessions WHERE TokenHash = ?")) {
+			stmt.setString(1, tokenHash);
+			stmt.executeUpdate();
+		}
+	}
+
+	/**
+	 * Deletes the login sessions that were not used for a while.
+	 *
+	 * @param idleHours Hours after its last use that a session expires
+	 * @return The number of sessions deleted
+	 * @throws SQLException If a database error occurs
+	 */
+	public int deleteExpiredSessions(int idleHours) throws SQLException {
+		String query = "DELETE FROM Sessions WHERE LastUsed <= CURRENT_TIMESTAMP - INTERVAL ? HOUR";
+		try (PreparedStatement stmt = conn.prepareStatement(query)) {
+			stmt.setInt(1, idleHours);
+			return stmt.executeUpdate();
+		}
+	}
+
+	/**
+	 * Retrieves one page of books, ordered by ID, together with their loans. The
+	 * page size counts books, so a page can hold more rows than that when a book
+	 * has several loans.
+	 *
+	 * @param request The page size and the ID of the last book already loaded
+	 * @return The page of book rows.
+	 * @throws SQLException If a database error occurs.
+	 */
+	public Page<BookLoanDetailsDTO> getBooksPage(PageRequest request) throws SQLException {
+		String query = """
+				SELECT b.BookID, b.Title, b.Author, b.Subject, b.Description,
+				       b.TotalCopies, b.CopiesAvailable, b.ShelfLocation,
+				       l.SubscriberID, l.ReturnDate
+				FROM (SELECT * FROM Books WHERE BookID > ? ORDER BY BookID LIMIT ?) b
+				LEFT JOIN Loans l ON b.BookID = l.BookID
+				ORDER BY b.BookID
+				""";
+
+		int pageSize = request.getPageSize();
+		ArrayList<BookLoanDetailsDTO> books = new ArrayList<>();
+		int lastBookId = 0;
+		int bookCount = 0;
+
+		try (PreparedStatement stmt = conn.prepareStatement(query)) {
+			stmt.setInt(1, request.getAfterId());
+			stmt.setInt(2, pageSize + 1); // one extra book tells whether another page follows
+
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					int bookId = rs.getInt("BookID");
+					if (bookId != lastBookId) {
+						lastBookId = bookId;
+						if (++bookCount > pageSize) {
+							break;
+						}
+					}
+					String title = rs.getString("Title");
+					String author = rs.getString("Author");
+					String subject = rs.getString("Subject");
+					String description = rs.getString("Description");
+					int totalCopies = rs.getInt("TotalCopies");
+					int copiesAvailable = rs.getInt("CopiesAvailable");
+					String shelfLocation = rs.getString("ShelfLocation");
+					int subscriberId = rs.getObject("SubscriberID") != null ? rs.getInt("SubscriberID") : 0;
+					String returnDate = rs.getString("ReturnDate");
+
+					books.add(new BookLoanDetailsDTO(bookId, title, author, subject, description, totalCopies,
+							copiesAvailable, shelfLocation, subscriberId, returnDate));
+				}
+			}
+		} catch (SQLException e) {
+			System.err.println("Error fetching books page: " + e.getMessage());
+			throw e;
+		}
+
+		return new Page<>(books, request.isFirstPage(), bookCount > pageSize);
+	}
+
 	/**
 	 * Retrieves books written by a specific author.
 	 *
@@ -1249,84 +2085,235 @@ public class dbHandler {
 	// functions for borrow time report //
 	/*****************************************************************************************************************************/
 	/**
-	 * Generates a report on loan durations for books returned within the specified
-	 * time frame.
+	 * Adds a loan that has just been closed to the LoanStatsDaily rollup, in the
+	 * row of its loan date. Must run in the same transaction as the update that
+	 * sets the loan's ActualReturnDate.
 	 *
-	 * @param days The number of past days to include in the report.
-	 * @return A list of counts representing different loan duration categories.
+	 * @param loanId The ID of the closed loan.
 	 * @throws SQLException If a database error occurs.
 	 */
-
-	public ArrayList<Number> getLoanDurationReport(int days) throws SQLException {
+	private void recordClosedLoan(int loanId) throws SQLException {
 		String query = """
-				    SELECT
-				        CASE
-				            WHEN DATEDIFF(ActualReturnDate, LoanDate) <= 7 THEN '0-7 days'
-				            WHEN DATEDIFF(ActualReturnDate, LoanDate) <= 14 THEN '8-14 days'
-				            WHEN DATEDIFF(ActualReturnDate, LoanDate) <= 21 THEN '15-21 days'
-				            ELSE '22+ days'
-				        END AS LoanDuration,
-				        COUNT(*) as Count
-				    FROM Loans
-				    WHERE LoanDate >= DATE_SUB(CURRENT_DATE, INTERVAL ? DAY)
-				    AND ActualReturnDate IS NOT NULL
-				    GROUP BY LoanDuration
-				    ORDER BY
-				        CASE LoanDuration
-				            WHEN '0-7 days' THEN 1
-				            WHEN '8-14 days' THEN 2
-				            WHEN '15-21 days' THEN 3
-				            ELSE 4
-				        END
+				    INSERT INTO LoanStatsDaily
+				    (StatDate, Duration0To7, Duration8To14, Duration15To21, Duration22Plus,
+				     ReturnedOnTime, ReturnedInGrace, ReturnedOverdue)
+				    SELECT LoanDate,
+				        Duration <= 7, Duration > 7 AND Duration <= 14, Duration > 14 AND Duration <= 21, Duration > 21,
+				        Lateness <= 0, Lateness > 0 AND Lateness <= 7, Lateness > 7
+				    FROM (
+				        SELECT LoanDate,
+				            DATEDIFF(ActualReturnDate, LoanDate) AS Duration,
+				            DATEDIFF(ActualReturnDate, ReturnDate) AS Lateness
+				        FROM Loans
+				        WHERE LoanID = ?
+				    ) closed
+				    ON DUPLICATE KEY UPDATE
+				        Duration0To7 = Duration0To7 + VALUES(Duration0To7),
+				        Duration8To14 = Duration8To14 + VALUES(Duration8To14),
+				        Duration15To21 = Duration15To21 + VALUES(Duration15To21),
+				        Duration22Plus = Duration22Plus + VALUES(Duration22Plus),
+				        ReturnedOnTime = ReturnedOnTime + VALUES(ReturnedOnTime),
+				        ReturnedInGrace = ReturnedInGrace + VALUES(ReturnedInGrace),
+				        ReturnedOverdue = ReturnedOverdue + VALUES(ReturnedOverdue)
 				""";
 
-		ArrayList<Number> durationCounts = new ArrayList<>();
+		try (PreparedStatement stmt = conn.prepareStatement(query)) {
+			stmt.setInt(1, loanId);
+			stmt.executeUpdate();
+		}
+	}
+
+	/**
+	 * Sums the LoanStatsDaily rollup over loans made in the last given number of
+	 * days. Reads at most one small row per day instead of scanning the loans.
+	 *
+	 * @param days    The number of past days to include.
+	 * @param columns The rollup columns to sum, in chart order.
+	 * @return The sums in column order, or an empty list if no loan was closed.
+	 * @throws SQLException If a database error occurs.
+	 */
+	private ArrayList<Number> sumLoanStats(int days, String... columns) throws SQLException {
+		String query = "SELECT "
+				+ Arrays.stream(columns).map(column -> "COALESCE(SUM(" + column + "), 0) AS " + column)
+						.collect(Collectors.joining(", "))
+				+ " FROM LoanStatsDaily WHERE StatDate >= DATE_SUB(CURRENT_DATE, INTERVAL ? DAY)";
+
+		ArrayList<Number> counts = new ArrayList<>();
+		int total = 0;
 		try (PreparedStatement stmt = conn.prepareStatement(query)) {
 			stmt.setInt(1, days);
 			try (ResultSet rs = stmt.executeQuery()) {
-				while (rs.next()) {
-					durationCounts.add(rs.getInt("Count"));
+				if (rs.next()) {
+					for (String column : columns) {
+						int count = rs.getInt(column);
+						counts.add(count);
+						total += count;
+					}
 				}
 			}
 		}
+		if (total == 0) {
+			counts.clear(); // the charts show "no data" for an empty list
+		}
+		return counts;
+	}
+
+	/**
+	 * Generates a report on loan durations for loans made within the specified
+	 * time frame, from the daily loan statistics rollup.
+	 *
+	 * @param days The number of past days to include in the report.
+	 * @return The counts for 0-7, 8-14, 15-21 and 22+ days.
+	 * @throws SQLException If a database error occurs.
+	 */
+
+	public ArrayList<Number> getLoanDurationReport(int days) throws SQLException {
+		ArrayList<Number> durationCounts = sumLoanStats(days, "Duration0To7", "Duration8To14", "Duration15To21",
+				"Duration22Plus");
 		System.out.println("Loan Duration Data: " + durationCounts);
 		return durationCounts;
 	}
 
 	/**
-	 * Generates a report on late returns for books within the specified time frame.
+	 * Generates a report on late returns for loans made within the specified time
+	 * frame, from the daily loan statistics rollup.
 	 *
 	 * @param days The number of past days to include in the report.
-	 * @return A list of counts representing different late return categories.
+	 * @return The counts for on time, grace period and overdue returns.
 	 * @throws SQLException If a database error occurs.
 	 */
 
 	public ArrayList<Number> getLateReturnReport(int days) throws SQLException {
-		String query = """
-				    SELECT
-				        CASE
-				            WHEN DATEDIFF(ActualReturnDate, ReturnDate) <= 0 THEN 'On Time'
-				            WHEN DATEDIFF(ActualReturnDate, ReturnDate) <= 7 THEN 'Grace Period'
-				            ELSE 'Overdue'
-				        END AS ReturnStatus,
-				        COUNT(*) as Count
-				    FROM Loans
-				    WHERE LoanDate >= DATE_SUB(CURRENT_DATE, INTERVAL ? DAY)
-				    AND ActualReturnDate IS NOT NULL
-				    GROUP BY ReturnStatus
-				""";
+		ArrayList<Number> returnStatusCounts = sumLoanStats(days, "ReturnedOnTime", "ReturnedInGrace",
+				"ReturnedOverdue");
+		System.out.println("Late Return Data: " + returnStatusCounts);
+		return returnStatusCounts;
+	}
+
+	/**
+	 * Retrieves the values of a report metric over a date range from the daily
+	 * rollups. The days are grouped into buckets of equal length so that no more
+	 * than the given number of points is returned; counts are summed per bucket
+	 * and member totals are averaged. Status transitions are counted as distinct
+	 * members over the whole bucket from SubscriberStatusHistory. The rollups are
+	 * only read here; the scheduled jobs write them.
+	 *
+	 * @param metric    The metric to chart.
+	 * @param from      First day of the range.
+	 * @param to        Last day of the range.
+	 * @param maxPoints Largest number of points to return.
+	 * @return The series, with null values for buckets of averaged metrics that
+	 *         have no data.
+	 * @throws SQLException If a database error occurs.
+	 */
+	public ReportSeries getReportSeries(ReportMetric metric, LocalDate from, LocalDate to, int maxPoints)
+			throws SQLException {
+		String table = "LoanStatsDaily";
+		String dateColumn = "StatDate";
+		String value;
+		String filter = "";
+		boolean average = false;
+		switch (metric) {
+		case LATE_RETURNS:
+			value = "SUM(ReturnedOverdue)";
+			break;
+		case ON_TIME_RETURNS:
+			value = "SUM(ReturnedOnTime)";
+			break;
+		case GRACE_RETURNS:
+			value = "SUM(ReturnedInGrace)";
+			break;
+		case CLOSED_LOANS:
+			value = "SUM(Duration0To7 + Duration8To14 + Duration15To21 + Duration22Plus)";
+			break;
+		case NEWLY_FROZEN:
+			// Counted over the whole bucket, so a member frozen on several days counts once
+			table = "SubscriberStatusHistory";
+			dateColumn = "ChangeDate";
+			filter = " AND Status = 'FROZEN'";
+			value = "COUNT(DISTINCT SubscriberID)";
+			break;
+		case REACTIVATED:
+			table = "SubscriberStatusHistory";
+			dateColumn = "ChangeDate";
+			filter = " AND Status = 'ACTIVE'";
+			value = "COUNT(DISTINCT SubscriberID)";
+			break;
+		case ACTIVE_MEMBERS:
+			table = "SubscriberStatusDaily";
+			dateColumn = "SnapshotDate";
+			value = "ROUND(AVG(ActiveCount))";
+			average = true;
+			break;
+		case FROZEN_MEMBERS:
+			table = "SubscriberStatusDaily";
+			dateColumn = "SnapshotDate";
+			value = "ROUND(AVG(FrozenCount))";
+			average = true;
+			break;
+		default:
+			throw new SQLException("Unsupported report metric: " + metric);
+		}
 
-		ArrayList<Number> returnStatusCounts = new ArrayList<>();
+		long totalDays = ChronoUnit.DAYS.between(from, to) + 1;
+		if (totalDays <= 0) {
+			return new ReportSeries(metric, 1, new ArrayList<>(), new ArrayList<>());
+		}
+		int bucketDays = (int) ((totalDays + maxPoints - 1) / maxPoints);
+		int bucketCount = (int) ((totalDays + bucketDays - 1) / bucketDays);
+
+		ArrayList<LocalDate> bucketStarts = new ArrayList<>();
+		ArrayList<Number> values = new ArrayList<>();
+		for (int i = 0; i < bucketCount; i++) {
+			bucketStarts.add(from.plusDays((long) i * bucketDays));
+			values.add(average ? null : 0);
+		}
+
+		String query = "SELECT FLOOR(DATEDIFF(" + dateColumn + ", ?) / ?) AS Bucket, " + value + " AS Value "
+				+ "FROM " + table + " WHERE " + dateColumn + " BETWEEN ? AND ?" + filter + " GROUP BY Bucket ORDER BY Bucket";
 		try (PreparedStatement stmt = conn.prepareStatement(query)) {
-			stmt.setInt(1, days);
+			stmt.setDate(1, java.sql.Date.valueOf(from));
+			stmt.setInt(2, bucketDays);
+			stmt.setDate(3, java.sql.Date.valueOf(from));
+			stmt.setDate(4, java.sql.Date.valueOf(to));
 			try (ResultSet rs = stmt.executeQuery()) {
 				while (rs.next()) {
-					returnStatusCounts.add(rs.getInt("Count"));
+					int bucket = rs.getInt("Bucket");
+					int count = rs.getInt("Value");
+					if (bucket >= 0 && bucket < bucketCount && !rs.wasNull()) {
+						values.set(bucket, count);
+					}
 				}
 			}
 		}
-		System.out.println("Late Return Data: " + returnStatusCounts);
-		return returnStatusCounts;
+		return new ReportSeries(metric, bucketDays, bucketStarts, values);
+	}
+
+	/**
+	 * Retrieves the titles of the given books.
+	 *
+	 * @param bookIds The IDs of the books.
+	 * @return The titles by book ID; unknown IDs are left out.
+	 * @throws SQLException If a database error occurs.
+	 */
+	public Map<Integer, String> getBookTitles(List<Integer> bookIds) throws SQLException {
+		Map<Integer, String> titles = new LinkedHashMap<>();
+		if (bookIds.isEmpty()) {
+			return titles;
+		}
+		String query = "SELECT BookID, Title FROM Books WHERE BookID IN ("
+				+ bookIds.stream().map(id -> "?").collect(Collectors.joining(", ")) + ")";
+		try (PreparedStatement stmt = conn.prepareStatement(query)) {
+			for (int i = 0; i < bookIds.size(); i++) {
+				stmt.setInt(i + 1, bookIds.get(i));
+			}
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					titles.put(rs.getInt("BookID"), rs.getString("Title"));
+				}
+			}
+		}
+		return titles;
 	}
 
 	/**
@@ -1348,51 +2335,11 @@ public class dbHandler {
 			ResultSet rs = stmt.executeQuery();
 
 			if (rs.next()) {
-				String title = rs.getString("Title");
-				System.out.println("\nServer: Processing book request for ID: " + bookId);
-				System.out.println("Server: Book title: " + title);
-
-				Book book = new Book(rs.getInt("BookID"), title, rs.getString("Author"), rs.getString("Subject"),
-						rs.getString("Description"), rs.getInt("TotalCopies"), rs.getInt("CopiesAvailable"),
+				// The cover is served separately by the cover image service
+				Book book = new Book(rs.getInt("BookID"), rs.getString("Title"), rs.getString("Author"),
+						rs.getString("Subject"), rs.getString("Description"), rs.getInt("TotalCopies"), rs.getInt("CopiesAvailable"),
 						rs.getString("ShelfLocation"));
 
-				// Load image data with detailed debugging
-				try {
-					String fileName = title.replace(" ", "_") + ".jpg";
-					String resourcePath = "/images/" + fileName;
-					System.out.println("Server: Looking for image file: " + fileName);
-					System.out.println("Server: Using resource path: " + resourcePath);
-
-					// Try to list all available image resources
-					URL resourceFolderUrl = getClass().getResource("/images");
-					if (resourceFolderUrl != null) {
-						System.out.println("Server: Found images folder at: " + resourceFolderUrl);
-						// List all resources in the images folder
-						try (InputStream is = getClass().getResourceAsStream("/images")) {
-							if (is != null) {
-								System.out.println("Server: Available images:");
-								// List contents if possible
-							}
-						}
-					} else {
-						System.out.println("Server: Cannot find images folder in resources");
-					}
-
-					InputStream imageStream = getClass().getResourceAsStream(resourcePath);
-					if (imageStream != null) {
-						byte[] imageData = imageStream.readAllBytes();
-						book.setImageData(imageData);
-						System.out.println(
-								"Server: Successfully loaded image data, size: " + imageData.length + " bytes");
-						imageStream.close();
-					} else {
-						System.out.println("Server: Could not find image resource at: " + resourcePath);
-					}
-				} catch (IOException e) {
-					System.out.println("Server: Error loading image: " + e.getMessage());
-					e.printStackTrace();
-				}
-
 				return book;
 			}
 		} catch (SQLException e) {
@@ -1409,6 +2356,58 @@ public class dbHandler {
 	/*****************************************************************************************************************************/
 	// start methods for activity status report //
 	/*****************************************************************************************************************************/
+	/**
+	 * Records the subscriber status snapshot of a day in SubscriberStatusDaily.
+	 * The day's freeze and reactivation transitions are recounted from
+	 * SubscriberStatusHistory, so a day can be recorded again to complete it.
+	 * Active and frozen counts are point-in-time values, so they are only taken
+	 * when recording the current day; earlier days keep the counts they have.
+	 *
+	 * @param date The day to record.
+	 * @throws SQLException If a database error occurs.
+	 */
+	public void recordSubscriberStatusSnapshot(LocalDate date) throws SQLException {
+		String transitionsQuery = """
+				    INSERT INTO SubscriberStatusDaily (SnapshotDate, NewlyFrozen, Reactivated)
+				    SELECT ?,
+				        COUNT(DISTINCT CASE WHEN Status = 'FROZEN' THEN SubscriberID END),
+				        COUNT(DISTINCT CASE WHEN Status = 'ACTIVE' THEN SubscriberID END)
+				    FROM SubscriberStatusHistory
+				    WHERE ChangeDate = ?
+				    ON DUPLICATE KEY UPDATE
+				        NewlyFrozen = VALUES(NewlyFrozen),
+				        Reactivated = VALUES(Reactivated)
+				""";
+
+		String countsQuery = """
+				    UPDATE SubscriberStatusDaily d
+				    JOIN (
+				        SELECT
+				            COALESCE(SUM(Status = 'ACTIVE'), 0) AS ActiveCount,
+				            COALESCE(SUM(Status = 'FROZEN'), 0) AS FrozenCount,
+				            COUNT(*) AS TotalSubscribers
+				        FROM Subscribers
+				    ) s
+				    SET d.ActiveCount = s.ActiveCount,
+				        d.FrozenCount = s.FrozenCount,
+				        d.TotalSubscribers = s.TotalSubscribers
+				    WHERE d.SnapshotDate = ?
+				""";
+
+		java.sql.Date snapshotDate = java.sql.Date.valueOf(date);
+		try (PreparedStatement stmt = conn.prepareStatement(transitionsQuery)) {
+			stmt.setDate(1, snapshotDate);
+			stmt.setDate(2, snapshotDate);
+			stmt.executeUpdate();
+		}
+		if (date.equals(LocalDate.now())) {
+			try (PreparedStatement stmt = conn.prepareStatement(countsQuery)) {
+				stmt.setDate(1, snapshotDate);
+				stmt.executeUpdate();
+			}
+		}
+	}
+
 	/**
 	 * Retrieves the distribution of active and frozen members over specified time
 	 * periods.
@@ -1421,35 +2420,66 @@ public class dbHandler {
 	 */
 
 	public Map<String, ArrayList<Number>> getMemberStatusDistribution(int days) throws SQLException {
+		return getMemberStatusDistribution(days, LocalDate.now());
+	}
+
+	/**
+	 * Retrieves the distribution of active and frozen members over time periods
+	 * ending on the given day. Frozen members are counted once per period from
+	 * SubscriberStatusHistory, and the subscriber total is taken from the daily
+	 * status snapshot recorded by the scheduled job.
+	 *
+	 * @param days    The number of days before the end date to include.
+	 * @param endDate The last day of the analysis.
+	 * @return A map where the keys represent time periods (e.g., "0-7", "8-14"
+	 *         days before the end date), and the values are lists containing
+	 *         counts of active and frozen members.
+	 * @throws SQLException If a database error occurs.
+	 */
+	public Map<String, ArrayList<Number>> getMemberStatusDistribution(int days, LocalDate endDate)
+			throws SQLException {
 		String query = """
-				    WITH WeeklyStatuses AS (
-				        SELECT
-				            s.SubscriberID,
-				            s.Status,
-				            CASE
-				                WHEN DATEDIFF(CURRENT_DATE, ssh.ChangeDate) <= 7 THEN '0-7'
-				                WHEN DATEDIFF(CURRENT_DATE, ssh.ChangeDate) <= 14 THEN '8-14'
-				                WHEN DATEDIFF(CURRENT_DATE, ssh.ChangeDate) <= 21 THEN '15-21'
-				                WHEN DATEDIFF(CURRENT_DATE, ssh.ChangeDate) <= 30 THEN '22-30'
-				            END as WeekRange
-				        FROM Subscribers s
-				        JOIN SubscriberStatusHistory ssh ON s.SubscriberID = ssh.SubscriberID
-				        WHERE ssh.ChangeDate >= DATE_SUB(CURRENT_DATE, INTERVAL ? DAY)
-				        AND ssh.Status = 'FROZEN'
-				    )
 				    SELECT
-				        WeekRange,
-				        COUNT(DISTINCT SubscriberID) as FrozenCount,
-				        (SELECT COUNT(*) FROM Subscribers) - COUNT(DISTINCT SubscriberID) as ActiveCount
-				    FROM WeeklyStatuses
-				    WHERE WeekRange IS NOT NULL
+				        CASE
+				            WHEN DATEDIFF(?, ChangeDate) <= 7 THEN '0-7'
+				            WHEN DATEDIFF(?, ChangeDate) <= 14 THEN '8-14'
+				            WHEN DATEDIFF(?, ChangeDate) <= 21 THEN '15-21'
+				            WHEN DATEDIFF(?, ChangeDate) <= 30 THEN '22-30'
+				        END as WeekRange,
+				        COUNT(DISTINCT SubscriberID) as FrozenCount
+				    FROM SubscriberStatusHistory
+				    WHERE Status = 'FROZEN'
+				    AND ChangeDate >= DATE_SUB(?, INTERVAL ? DAY)
+				    AND ChangeDate <= ?
 				    GROUP BY WeekRange
-				    ORDER BY WeekRange;
 				""";
 
+		// Subscriber total at the end of the window, from the latest snapshot that has counts
+		String totalQuery = """
+				    SELECT TotalSubscribers
+				    FROM SubscriberStatusDaily
+				    WHERE SnapshotDate <= ? AND TotalSubscribers IS NOT NULL
+				    ORDER BY SnapshotDate DESC
+				    LIMIT 1
+				""";
+
+		java.sql.Date end = java.sql.Date.valueOf(endDate);
+		int totalSubscribers;
+		try (PreparedStatement stmt = conn.prepareStatement(totalQuery)) {
+			stmt.setDate(1, end);
+			try (ResultSet rs = stmt.executeQuery()) {
+				totalSubscribers = rs.next() ? rs.getInt("TotalSubscribers") : countSubscribers();
+			}
+		}
+
 		Map<String, ArrayList<Number>> periodData = new LinkedHashMap<>();
 		try (PreparedStatement stmt = conn.prepareStatement(query)) {
-			stmt.setInt(1, days);
+			for (int i = 1; i <= 4; i++) {
+				stmt.setDate(i, end);
+			}
+			stmt.setDate(5, end);
+			stmt.setInt(6, days);
+			stmt.setDate(7, end);
 
 			try (ResultSet rs = stmt.executeQuery()) {
 				// Initialize data for all periods
@@ -1458,14 +2488,16 @@ public class dbHandler {
 				periodData.put("15-21", new ArrayList<>(Arrays.asList(0, 0)));
 				periodData.put("22-30", new ArrayList<>(Arrays.asList(0, 0)));
 
-				// Fill in actual data
+				// Fill in actual data, leaving periods without freezes at zero as before
 				while (rs.next()) {
 					String weekRange = rs.getString("WeekRange");
-					int activeCount = rs.getInt("ActiveCount");
 					int frozenCount = rs.getInt("FrozenCount");
+					if (weekRange == null || frozenCount == 0) {
+						continue;
+					}
 
 					ArrayList<Number> counts = periodData.get(weekRange);
-					counts.set(0, activeCount);
+					counts.set(0, totalSubscribers - frozenCount);
 					counts.set(1, frozenCount);
 				}
 			}
@@ -1474,6 +2506,19 @@ public class dbHandler {
 		return periodData;
 	}
 
+	/**
+	 * Counts all subscribers.
+	 *
+	 * @return The number of subscribers.
+	 * @throws SQLException If a database error occurs.
+	 */
+	private int countSubscribers() throws SQLException {
+		try (Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM Subscribers")) {
+			return rs.next() ? rs.getInt(1) : 0;
+		}
+	}
+
 	/*****************************************************************************************************************************/
 	// end methods for activity status report //
 	/*****************************************************************************************************************************/
@@ -1570,7 +2615,7 @@ public class dbHandler {
 
 	public boolean reserveBook(int userId, int bookId) throws SQLException {
 		System.out.println("Attempting to reserve book with ID " + bookId + " for user " + userId);
-		conn.setAutoCommit(false);
+		beginTransaction();
 
 		try {
 			// Step 3: Create a new reservation
@@ -1594,27 +2639,11 @@ public class dbHandler {
 
 			// Step 4: Add an entry to ActivityLog
 			String activityMessage = "User " + userId + " reserved the book with ID: " + bookId;
-			String activityLogQuery = """
-					    INSERT INTO ActivityLog (SubscriberID, BookID, ActivityType, ActivityDate, Message)
-					    VALUES (?, ?, 'RESERVATION', CURRENT_TIMESTAMP, ?)
-					""";
-			try (PreparedStatement logStmt = conn.prepareStatement(activityLogQuery)) {
-				logStmt.setInt(1, userId);
-				logStmt.setInt(2, bookId);
-				logStmt.setString(3, activityMessage);
-
-				int rowsLogged = logStmt.executeUpdate();
-				if (rowsLogged > 0) {
-					System.out.println("Activity log updated successfully for reservation.");
-				} else {
-					conn.rollback();
-					System.out.println("Failed to update activity log.");
-					return false;
-				}
-			}
+			logActivity(userId, null, bookId, ActivityType.RESERVATION, activityMessage);
 
 			// Commit transaction
-			conn.commit();
+			commitWithActivity();
+			notifyBookEvent(bookId, userId, null, ActivityType.RESERVATION);
 			return true;
 
 		} catch (SQLException e) {
@@ -1781,16 +2810,10 @@ public class dbHandler {
 				    VALUES (?, ?, CURRENT_TIMESTAMP, 'REMINDER')
 				""";
 
-		String createLogQuery = """
-				    INSERT INTO ActivityLog (SubscriberID, BookID, ActivityType, ActivityDate, Message)
-				    VALUES (?, ?, 'NOTIFICATION', CURRENT_TIMESTAMP, ?)
-				""";
-
-		conn.setAutoCommit(false);
+		beginTransaction();
 		try {
 			try (PreparedStatement findStmt = conn.prepareStatement(findAndNotifyQuery);
-					PreparedStatement notifyStmt = conn.prepareStatement(createNotificationQuery);
-					PreparedStatement logStmt = conn.prepareStatement(createLogQuery)) {
+					PreparedStatement notifyStmt = conn.prepareStatement(createNotificationQuery)) {
 
 				ResultSet rs = findStmt.executeQuery();
 				int remindersCreated = 0;
@@ -1807,15 +2830,12 @@ public class dbHandler {
 					notifyStmt.executeUpdate();
 
 					// Create activity log
-					logStmt.setInt(1, subscriberId);
-					logStmt.setInt(2, bookId);
-					logStmt.setString(3, message);
-					logStmt.executeUpdate();
+					logActivity(subscriberId, null, bookId, ActivityType.NOTIFICATION, message);
 
 					remindersCreated++;
 				}
 
-				conn.commit();
+				commitWithActivity();
 				System.out.println("Created " + remindersCreated + " return reminders");
 			}
 		} catch (SQLException e) {
@@ -1835,29 +2855,24 @@ public class dbHandler {
 	/*****************************************************************************************************************************/
 	/**
 	 * Processes automatic status updates for frozen subscribers. Identifies
-	 * subscribers who have been frozen for 30 days or more and updates their status
-	 * to active.
+	 * subscribers whose freeze period has ended (FrozenUntil is today or earlier)
+	 * and updates their status to active. The lookup is a range scan over the
+	 * FrozenUntil index, so its cost depends on the number of expired freezes
+	 * rather than on the size of the status history.
 	 *
 	 * @throws SQLException if a database access error occurs
 	 */
 	public void processSubscriberStatusUpdates() throws SQLException {
 		String findFrozenSubscribersQuery = """
-				    SELECT s.SubscriberID
-				    FROM Subscribers s
-				    JOIN SubscriberStatusHistory ssh ON s.SubscriberID = ssh.SubscriberID
-				    WHERE s.Status = 'FROZEN'
-				    AND ssh.Status = 'FROZEN'
-				    AND DATEDIFF(CURRENT_DATE, ssh.ChangeDate) >= 30
-				    AND ssh.ChangeDate = (
-				        SELECT MAX(ChangeDate)
-				        FROM SubscriberStatusHistory
-				        WHERE SubscriberID = s.SubscriberID
-				    )
+				    SELECT SubscriberID
+				    FROM Subscribers
+				    WHERE FrozenUntil <= CURRENT_DATE
+				    AND Status = 'FROZEN'
 				""";
 
 		String updateSubscriberQuery = """
 				    UPDATE Subscribers
-				    SET Status = 'ACTIVE'
+				    SET Status = 'ACTIVE', FrozenUntil = NULL
 				    WHERE SubscriberID = ?
 				""";
 
@@ -1874,13 +2889,7 @@ public class dbHandler {
 				    CURRENT_TIMESTAMP, 'OTHER')
 				""";
 
-		String insertActivityLogQuery = """
-				    INSERT INTO ActivityLog
-				    (SubscriberID, ActivityType, ActivityDate, Message)
-				    VALUES (?, 'OTHER', CURRENT_TIMESTAMP, 'Subscriber status automatically changed to ACTIVE')
-				""";
-
-		conn.setAutoCommit(false);
+		beginTransaction();
 		try {
 			// First, find all eligible subscribers
 			ArrayList<Integer> eligibleSubscribers = new ArrayList<>();
@@ -1896,8 +2905,7 @@ public class dbHandler {
 			// Prepare all the required PreparedStatements
 			try (PreparedStatement updateSubscriberStmt = conn.prepareStatement(updateSubscriberQuery);
 					PreparedStatement insertHistoryStmt = conn.prepareStatement(insertHistoryQuery);
-					PreparedStatement insertNotificationStmt = conn.prepareStatement(insertNotificationQuery);
-					PreparedStatement insertActivityLogStmt = conn.prepareStatement(insertActivityLogQuery)) {
+					PreparedStatement insertNotificationStmt = conn.prepareStatement(insertNotificationQuery)) {
 
 				// Process each eligible subscriber
 				for (Integer subscriberId : eligibleSubscribers) {
@@ -1915,8 +2923,8 @@ public class dbHandler {
 						insertNotificationStmt.executeUpdate();
 
 						// Log the activity
-						insertActivityLogStmt.setInt(1, subscriberId);
-						insertActivityLogStmt.executeUpdate();
+						logActivity(subscriberId, null, null, ActivityType.OTHER,
+								"Subscriber status automatically changed to ACTIVE");
 
 						System.out.println("Successfully updated status for subscriber: " + subscriberId);
 					} catch (SQLException e) {
@@ -1926,7 +2934,7 @@ public class dbHandler {
 				}
 			}
 
-			conn.commit();
+			commitWithActivity();
 			System.out.println("Successfully completed status updates for all eligible subscribers");
 		} catch (SQLException e) {
 			System.err.println("Error in processSubscriberStatusUpdates: " + e.getMessage());
@@ -1957,27 +2965,20 @@ public class dbHandler {
 				    VALUES ( 0,?, CURRENT_TIMESTAMP, 'OTHER')
 				""";
 
-		String createLogQuery = """
-				    INSERT INTO ActivityLog (SubscriberID,ActivityType, ActivityDate, Message)
-				    VALUES (0,'OTHER', CURRENT_TIMESTAMP, ?)
-				""";
-
 		String message = "The system generated Automatic reports, generated on "
 				+ LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
 
-		conn.setAutoCommit(false);
-		try (PreparedStatement notifyStmt = conn.prepareStatement(createNotificationQuery);
-				PreparedStatement logStmt = conn.prepareStatement(createLogQuery)) {
+		beginTransaction();
+		try (PreparedStatement notifyStmt = conn.prepareStatement(createNotificationQuery)) {
 
 			// Create notification
 			notifyStmt.setString(1, message);
 			notifyStmt.executeUpdate();
 
 			// Create activity log
-			logStmt.setString(1, message);
-			logStmt.executeUpdate();
+			logActivity(0, null, null, ActivityType.OTHER, message);
 
-			conn.commit();
+			commitWithActivity();
 			System.out.println("Automatic reports notification created");
 		} catch (SQLException e) {
 			conn.rollback();
@@ -2008,12 +3009,11 @@ public class dbHandler {
 		PreparedStatement pstmtUpdateReservation = null;
 		PreparedStatement pstmtUpdateBook = null;
 		PreparedStatement pstmtCreateNotification = null;
-		PreparedStatement pstmtCreateLog = null;
 		PreparedStatement pstmtNextReservation = null;
 
 		try {
 			conn = getConnection();
-			conn.setAutoCommit(false); // Start transaction
+			beginTransaction(); // Start transaction
 
 			// 1. Find expired fulfilled reservations
 			String findExpiredSQL = "SELECT r.ReservationID, r.SubscriberID, r.BookID, b.Title "
@@ -2058,16 +3058,8 @@ public class dbHandler {
 				pstmtCreateNotification.executeUpdate();
 
 				// 5. Log the cancellation
-				String createLogSQL = "INSERT INTO ActivityLog (SubscriberID, ActivityType, BookID, Message) "
-						+ "VALUES (?, 'RESERVATION', ?, ?)";
-
 				String logMessage = String.format("Reservation cancelled due to expiration for book: %s", bookTitle);
-
-				pstmtCreateLog = conn.prepareStatement(createLogSQL);
-				pstmtCreateLog.setInt(1, subscriberId);
-				pstmtCreateLog.setInt(2, bookId);
-				pstmtCreateLog.setString(3, logMessage);
-				pstmtCreateLog.executeUpdate();
+				logActivity(subscriberId, null, bookId, ActivityType.RESERVATION, logMessage);
 
 				// 6. Check for next pending reservation
 				String findNextReservationSQL = "SELECT r.ReservationID, r.SubscriberID " + "FROM Reservations r "
@@ -2103,15 +3095,11 @@ public class dbHandler {
 					String nextLogMessage = String.format("Book '%s' now available for next reservation holder",
 							bookTitle);
 
-					pstmtCreateLog = conn.prepareStatement(createLogSQL);
-					pstmtCreateLog.setInt(1, nextSubscriberId);
-					pstmtCreateLog.setInt(2, bookId);
-					pstmtCreateLog.setString(3, nextLogMessage);
-					pstmtCreateLog.executeUpdate();
+					logActivity(nextSubscriberId, null, bookId, ActivityType.RESERVATION, nextLogMessage);
 				}
 			}
 
-			conn.commit(); // Commit transaction
+			commitWithActivity(); // Commit transaction
 			System.out.println("Successfully processed expired reservations");
 
 		} catch (SQLException e) {
@@ -2133,8 +3121,6 @@ public class dbHandler {
 				pstmtUpdateBook.close();
 			if (pstmtCreateNotification != null)
 				pstmtCreateNotification.close();
-			if (pstmtCreateLog != null)
-				pstmtCreateLog.close();
 			if (pstmtNextReservation != null)
 				pstmtNextReservation.close();
 
@@ -2146,8 +3132,8 @@ public class dbHandler {
 	}
 
 	/**
-	 * Retrieves all activity logs for a specific subscriber from the database.
-	 * Fetches detailed activity information including librarian interactions, book
+	 * Retrieves all activity logs for a specific subscriber, both recent and
+	 * archived. Fetches detailed activity information including librarian interactions, book
 	 * activities, and associated messages, ordered by activity date.
 	 *
 	 * @param userId The subscriber's unique identifier
@@ -2168,11 +3154,17 @@ public class dbHandler {
 				       al.ActivityDate, al.Message
 				FROM ActivityLog al
 				WHERE al.SubscriberID = ?
-				ORDER BY al.ActivityDate DESC
+				UNION ALL
+				SELECT ala.ActivityID, ala.SubscriberID, ala.LibrarianID, ala.BookID, ala.ActivityType,
+				       ala.ActivityDate, ala.Message
+				FROM ActivityLogArchive ala
+				WHERE ala.SubscriberID = ?
+				ORDER BY ActivityDate DESC
 				""";
 
 		try (PreparedStatement stmt = conn.prepareStatement(query)) {
 			stmt.setInt(1, userId); // Bind the user ID to the query
+			stmt.setInt(2, userId); // and again for the archived entries
 			ResultSet rs = stmt.executeQuery();
 
 			while (rs.next()) {
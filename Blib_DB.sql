@@ -398,3 +398,145 @@ INSERT INTO Reservations (SubscriberID, BookID, ReservationDate, Status) VALUES
 (3171, 8, '2025-01-30', 'PENDING'),
 (3172, 9, '2025-01-30', 'PENDING');
 SET SQL_SAFE_UPDATES = 1;
+
+-- Freeze expiry kept on the subscriber row so the daily unfreeze job is an indexed range scan
+ALTER TABLE Subscribers
+ADD FrozenUntil DATE NULL,
+ADD INDEX idx_subscribers_frozen_until (FrozenUntil);
+
+SET SQL_SAFE_UPDATES = 0;
+
+UPDATE Subscribers s
+SET s.FrozenUntil = DATE_ADD(
+    COALESCE(
+        (SELECT MAX(ssh.ChangeDate)
+         FROM SubscriberStatusHistory ssh
+         WHERE ssh.SubscriberID = s.SubscriberID AND ssh.Status = 'FROZEN'),
+        CURRENT_DATE),
+    INTERVAL 30 DAY)
+WHERE s.Status = 'FROZEN';
+
+SET SQL_SAFE_UPDATES = 1;
+
+-- ActivityLog keeps only recent months (hot); older rows are moved here by the archival job
+CREATE TABLE ActivityLogArchive (
+    ActivityID INT PRIMARY KEY,
+    SubscriberID INT NOT NULL,
+    ActivityType ENUM('LOAN', 'RESERVATION', 'NOTIFICATION', 'OTHER', 'RETURN', 'EXTENSION'),
+    ActivityDate TIMESTAMP NOT NULL,
+    BookID INT,
+    Message TEXT,
+    LibrarianID INT,
+    INDEX idx_activity_archive_date (ActivityDate),
+    INDEX idx_activity_archive_subscriber (SubscriberID, ActivityDate),
+    INDEX idx_activity_archive_librarian (LibrarianID, ActivityDate)
+);
+
+ALTER TABLE ActivityLog
+ADD INDEX idx_activity_date (ActivityDate);
+
+-- Daily rollup of closed loans, keyed by loan date, maintained by processBookReturn
+CREATE TABLE LoanStatsDaily (
+    StatDate DATE PRIMARY KEY,
+    Duration0To7 INT NOT NULL DEFAULT 0,
+    Duration8To14 INT NOT NULL DEFAULT 0,
+    Duration15To21 INT NOT NULL DEFAULT 0,
+    Duration22Plus INT NOT NULL DEFAULT 0,
+    ReturnedOnTime INT NOT NULL DEFAULT 0,
+    ReturnedInGrace INT NOT NULL DEFAULT 0,
+    ReturnedOverdue INT NOT NULL DEFAULT 0
+);
+
+INSERT INTO LoanStatsDaily
+(StatDate, Duration0To7, Duration8To14, Duration15To21, Duration22Plus,
+ ReturnedOnTime, ReturnedInGrace, ReturnedOverdue)
+SELECT LoanDate,
+    SUM(Duration <= 7),
+    SUM(Duration > 7 AND Duration <= 14),
+    SUM(Duration > 14 AND Duration <= 21),
+    SUM(Duration > 21),
+    SUM(Lateness <= 0),
+    SUM(Lateness > 0 AND Lateness <= 7),
+    SUM(Lateness > 7)
+FROM (
+    SELECT LoanDate,
+        DATEDIFF(ActualReturnDate, LoanDate) AS Duration,
+        DATEDIFF(ActualReturnDate, ReturnDate) AS Lateness
+    FROM Loans
+    WHERE ActualReturnDate IS NOT NULL
+) closed
+GROUP BY LoanDate;
+
+-- Daily subscriber status snapshot for the member status report.
+-- Counts are taken by the daily job; days backfilled from history only have the transitions.
+CREATE TABLE SubscriberStatusDaily (
+    SnapshotDate DATE PRIMARY KEY,
+    ActiveCount INT NULL,
+    FrozenCount INT NULL,
+    TotalSubscribers INT NULL,
+    NewlyFrozen INT NOT NULL DEFAULT 0,
+    Reactivated INT NOT NULL DEFAULT 0
+);
+
+ALTER TABLE SubscriberStatusHistory
+ADD INDEX idx_status_history_date (ChangeDate, Status);
+
+INSERT INTO SubscriberStatusDaily (SnapshotDate, NewlyFrozen, Reactivated)
+SELECT ChangeDate,
+    COUNT(DISTINCT CASE WHEN Status = 'FROZEN' THEN SubscriberID END),
+    COUNT(DISTINCT CASE WHEN Status = 'ACTIVE' THEN SubscriberID END)
+FROM SubscriberStatusHistory
+GROUP BY ChangeDate;
+
+-- Catalog epoch: a new ID for every database created from this script, so a client whose
+-- saved catalog came from another database, or from this one before a reset, starts over.
+-- Version is the catalog version last handed out; only catalog readers update it
+CREATE TABLE CatalogEpoch (
+    Id TINYINT PRIMARY KEY,
+    Epoch CHAR(36) NOT NULL,
+    Version BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO CatalogEpoch (Id, Epoch) VALUES (1, UUID());
+
+-- Catalog change log: every change to a book or to its loans adds a row, so clients can tell
+-- whether their saved catalog is still current. Writers only insert, so writers of different
+-- books never wait for each other. Version stays NULL until a catalog read numbers the rows
+-- that committed since the last read; rows committed later get a higher version, so the
+-- versions follow commit order. A changed book that no longer exists was deleted
+CREATE TABLE BookChanges (
+    ChangeID BIGINT AUTO_INCREMENT PRIMARY KEY,
+    BookID INT NOT NULL,
+    Version BIGINT NULL,
+    INDEX idx_book_changes_version (Version, BookID)
+);
+
+CREATE TRIGGER trg_books_insert_change AFTER INSERT ON Books
+FOR EACH ROW INSERT INTO BookChanges (BookID) VALUES (NEW.BookID);
+
+CREATE TRIGGER trg_books_update_change AFTER UPDATE ON Books
+FOR EACH ROW INSERT INTO BookChanges (BookID) VALUES (NEW.BookID);
+
+CREATE TRIGGER trg_books_delete_change AFTER DELETE ON Books
+FOR EACH ROW INSERT INTO BookChanges (BookID) VALUES (OLD.BookID);
+
+-- Loans are part of the catalog rows, so a loan change is a change of its book
+CREATE TRIGGER trg_loans_insert_change AFTER INSERT ON Loans
+FOR EACH ROW INSERT INTO BookChanges (BookID) VALUES (NEW.BookID);
+
+CREATE TRIGGER trg_loans_update_change AFTER UPDATE ON Loans
+FOR EACH ROW INSERT INTO BookChanges (BookID) VALUES (NEW.BookID);
+
+CREATE TRIGGER trg_loans_delete_change AFTER DELETE ON Loans
+FOR EACH ROW INSERT INTO BookChanges (BookID) VALUES (OLD.BookID);
+
+-- Login sessions, kept across server restarts so a client can resume its
+-- session after reconnecting; only a hash of the session token is stored
+CREATE TABLE Sessions (
+    TokenHash CHAR(64) PRIMARY KEY,
+    UserID INT NOT NULL,
+    LastUsed TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_sessions_user (UserID),
+    INDEX idx_sessions_last_used (LastUsed),
+    FOREIGN KEY (UserID) REFERENCES Users(UserID) ON DELETE CASCADE
+);